@@ -126,6 +126,8 @@ public class AmazonS3Target extends BaseTarget {
     }
     if (!isErrorStage && getContext().getService(DataFormatGeneratorService.class).isWholeFileFormat()) {
       fileHelper = new WholeFileHelper(getContext(), s3TargetConfigBean, transferManager, issues);
+    } else if (s3TargetConfigBean.rollAcrossBatches) {
+      fileHelper = new StreamingFileHelper(getContext(), s3TargetConfigBean, transferManager, isErrorStage);
     } else {
       fileHelper = new DefaultFileHelper(getContext(), s3TargetConfigBean, transferManager, isErrorStage);
     }
@@ -137,6 +139,10 @@ public class AmazonS3Target extends BaseTarget {
 
   @Override
   public void destroy() {
+    if (fileHelper != null) {
+      // Objects still open need the S3 client to be completed
+      fileHelper.close();
+    }
     s3TargetConfigBean.destroy();
     if (transferManager != null) {
       // don't shut down s3 client again since it's already closed by s3Config.destroy().
@@ -184,6 +190,12 @@ public class AmazonS3Target extends BaseTarget {
         }
       }
 
+      for (EventRecord event : fileHelper.commit()) {
+        if (!isErrorStage) {
+          getContext().toEvent(event);
+        }
+      }
+
     } catch (IOException e) {
       // IOException is hard exception on which we will stop pipeline
       LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
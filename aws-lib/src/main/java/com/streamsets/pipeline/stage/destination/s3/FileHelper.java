@@ -22,6 +22,8 @@ import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.SSEAlgorithm;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
+import com.amazonaws.util.StringUtils;
+import com.streamsets.pipeline.api.EventRecord;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
@@ -33,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -43,6 +46,9 @@ abstract class FileHelper {
   protected static final String OBJECT_KEY = "objectKey";
   protected static final String RECORD_COUNT = "recordCount";
 
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final String DOT = ".";
+
   private final TransferManager transferManager;
 
   protected final Target.Context context;
@@ -58,6 +64,35 @@ abstract class FileHelper {
 
   abstract List<UploadMetadata> handle(Iterator<Record> recordIterator, String bucket, String keyPrefix) throws IOException, StageException;
 
+  /**
+   * Called once all partitions of a batch have been handled and their uploads completed. Returns the events of any
+   * object completed by this call.
+   */
+  List<EventRecord> commit() throws StageException {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Called when the destination is destroyed.
+   */
+  void close() {
+  }
+
+  protected String getObjectKey(String keyPrefix, int count) {
+    StringBuilder fileName = new StringBuilder();
+    fileName.append(keyPrefix).append(count);
+
+    if (!StringUtils.isNullOrEmpty(s3TargetConfigBean.fileNameSuffix)) {
+      fileName.append(DOT);
+      fileName.append(s3TargetConfigBean.fileNameSuffix);
+    }
+
+    if (s3TargetConfigBean.compress) {
+      fileName.append(GZIP_EXTENSION);
+    }
+    return fileName.toString();
+  }
+
   protected ObjectMetadata getObjectMetadata() throws StageException {
     ObjectMetadata metadata = null;
     if (s3TargetConfigBean.sseConfig.useSSE) {
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.SSECustomerKey;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Amazon S3 object written through a multipart upload that stays open across batches.
+ *
+ * Records are serialized into an in-memory part that is uploaded in the background as soon as it reaches the part
+ * size. {@link #flush()} also uploads the part being filled, so that once {@link #awaitParts()} returns every record
+ * written so far is stored in an acknowledged part. That last part is uploaded again under the same part number,
+ * replacing the previous copy, when more records are added to it.
+ *
+ * Every flush therefore re-uploads the whole part being filled, up to the part size, so with small batches the bytes
+ * sent for a part grow with the square of the number of batches that fill it. Memory is not limited to the parts in
+ * flight either: each open object keeps the part being filled, plus one copy of every part that is being uploaded.
+ * The number of open objects is what bounds both costs.
+ */
+final class MultipartObject {
+  private static final Logger LOG = LoggerFactory.getLogger(MultipartObject.class);
+
+  // Amazon S3 limits for multipart uploads
+  static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+  static final int MAX_PARTS = 10000;
+
+  private static final int MAX_PART_ATTEMPTS = 3;
+  private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+  interface GeneratorFactory {
+    DataGenerator create(OutputStream outputStream) throws IOException;
+  }
+
+  private final AmazonS3 s3Client;
+  private final ExecutorService executor;
+  private final Semaphore uploadPermits;
+  private final String bucket;
+  private final String key;
+  private final SSECustomerKey customerKey;
+  private final long partSize;
+  private final String uploadId;
+  private final DataGenerator generator;
+  private final Map<Integer, Future<PartETag>> parts = new TreeMap<>();
+
+  private ByteArrayOutputStream part = new ByteArrayOutputStream();
+  private int partNumber = 1;
+  private long uploadedBytes;
+  private long recordCount;
+  private long lastWriteTime;
+  private boolean dirty;
+
+  MultipartObject(
+      AmazonS3 s3Client,
+      ExecutorService executor,
+      Semaphore uploadPermits,
+      String bucket,
+      String key,
+      ObjectMetadata metadata,
+      SSECustomerKey customerKey,
+      long partSize,
+      boolean compress,
+      GeneratorFactory generatorFactory
+  ) throws IOException {
+    this.s3Client = s3Client;
+    this.executor = executor;
+    this.uploadPermits = uploadPermits;
+    this.bucket = bucket;
+    this.key = key;
+    this.customerKey = customerKey;
+    this.partSize = partSize;
+    this.uploadId = s3Client.initiateMultipartUpload(
+        new InitiateMultipartUploadRequest(bucket, key, metadata == null ? new ObjectMetadata() : metadata)
+    ).getUploadId();
+    this.lastWriteTime = System.currentTimeMillis();
+    OutputStream out = new PartOutputStream();
+    // Sync flushing makes everything written so far decodable at the end of each uploaded part
+    this.generator = generatorFactory.create(compress ? new GZIPOutputStream(out, true) : out);
+    LOG.debug("Started multipart upload {} for object {}", uploadId, key);
+  }
+
+  String getBucket() {
+    return bucket;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  long getRecordCount() {
+    return recordCount;
+  }
+
+  long getSize() {
+    return uploadedBytes + part.size();
+  }
+
+  long getLastWriteTime() {
+    return lastWriteTime;
+  }
+
+  boolean isFull() {
+    return partNumber >= MAX_PARTS;
+  }
+
+  void write(Record record) throws IOException, StageException {
+    generator.write(record);
+    recordCount++;
+    lastWriteTime = System.currentTimeMillis();
+    dirty = true;
+  }
+
+  /**
+   * Starts uploading everything written since the last flush.
+   */
+  void flush() throws IOException {
+    if (dirty) {
+      generator.flush();
+      if (part.size() > 0) {
+        uploadPart(partNumber, part.toByteArray());
+      }
+      dirty = false;
+    }
+  }
+
+  /**
+   * Waits until all the parts uploaded so far are acknowledged.
+   */
+  void awaitParts() throws IOException {
+    for (Map.Entry<Integer, Future<PartETag>> entry : parts.entrySet()) {
+      await(entry.getValue(), entry.getKey());
+    }
+  }
+
+  /**
+   * Uploads the remaining data and completes the object. Returns false, after aborting the upload, if nothing was
+   * written to the object.
+   */
+  boolean complete() throws IOException {
+    generator.close();
+    if (part.size() > 0) {
+      uploadPart(partNumber, part.toByteArray());
+    }
+    if (parts.isEmpty()) {
+      abort();
+      return false;
+    }
+    List<PartETag> eTags = new ArrayList<>(parts.size());
+    for (Map.Entry<Integer, Future<PartETag>> entry : parts.entrySet()) {
+      eTags.add(await(entry.getValue(), entry.getKey()));
+    }
+    try {
+      s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, eTags));
+    } catch (AmazonClientException e) {
+      throw new IOException(e);
+    }
+    LOG.debug("Completed object {} with {} parts and {} records", key, eTags.size(), recordCount);
+    return true;
+  }
+
+  void abort() {
+    for (Future<PartETag> future : parts.values()) {
+      future.cancel(true);
+    }
+    try {
+      s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    } catch (AmazonClientException e) {
+      LOG.warn("Could not abort multipart upload {} for object {}: {}", uploadId, key, e.toString(), e);
+    }
+  }
+
+  private void uploadPart(int number, byte[] data) throws IOException {
+    Future<PartETag> previous = parts.get(number);
+    if (previous != null) {
+      // Don't let an older copy of the part land after the new one
+      await(previous, number);
+    }
+    try {
+      uploadPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.toString());
+    }
+    try {
+      parts.put(number, executor.submit(() -> {
+        try {
+          return doUploadPart(number, data);
+        } finally {
+          uploadPermits.release();
+        }
+      }));
+    } catch (RuntimeException e) {
+      uploadPermits.release();
+      throw e;
+    }
+  }
+
+  private PartETag doUploadPart(int number, byte[] data) throws InterruptedException {
+    for (int attempt = 1; ; attempt++) {
+      UploadPartRequest request = new UploadPartRequest()
+          .withBucketName(bucket)
+          .withKey(key)
+          .withUploadId(uploadId)
+          .withPartNumber(number)
+          .withInputStream(new ByteArrayInputStream(data))
+          .withPartSize(data.length);
+      if (customerKey != null) {
+        request.setSSECustomerKey(customerKey);
+      }
+      try {
+        return s3Client.uploadPart(request).getPartETag();
+      } catch (AmazonClientException e) {
+        if (attempt == MAX_PART_ATTEMPTS) {
+          throw e;
+        }
+        LOG.warn("Uploading part {} of object {} failed, retrying: {}", number, key, e.toString(), e);
+        Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+      }
+    }
+  }
+
+  private PartETag await(Future<PartETag> future, int number) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.toString());
+    } catch (ExecutionException e) {
+      throw new IOException(
+          "Uploading part " + number + " of object " + key + " failed: " + e.getCause(),
+          e.getCause()
+      );
+    }
+  }
+
+  /**
+   * Collects the serialized data, handing a part over to the upload executor whenever it is full.
+   */
+  private class PartOutputStream extends OutputStream {
+    @Override
+    public void write(int b) throws IOException {
+      part.write(b);
+      cutPartIfFull();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      part.write(b, off, len);
+      cutPartIfFull();
+    }
+
+    private void cutPartIfFull() throws IOException {
+      // The last allowed part simply keeps growing until the object is rolled
+      if (part.size() >= partSize && partNumber < MAX_PARTS) {
+        uploadPart(partNumber, part.toByteArray());
+        uploadedBytes += part.size();
+        part = new ByteArrayOutputStream();
+        partNumber++;
+      }
+    }
+  }
+}
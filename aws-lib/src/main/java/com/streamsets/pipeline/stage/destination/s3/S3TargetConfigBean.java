@@ -118,6 +118,83 @@ public class S3TargetConfigBean {
   )
   public boolean compress;
 
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.BOOLEAN,
+    defaultValue = "false",
+    label = "Keep Objects Open Across Batches",
+    description = "Streams records into multipart uploads that stay open across batches and are completed when " +
+        "one of the roll conditions is met. Batches are only acknowledged after their data is stored in uploaded parts, " +
+        "so the part being filled is uploaded again at the end of every batch. Uploads left open by a pipeline that " +
+        "stopped unexpectedly are completed when it starts again, in every partition under the common prefix; " +
+        "compressed objects recovered this way lack the gzip trailer.",
+    displayPosition = 240,
+    displayMode = ConfigDef.DisplayMode.ADVANCED,
+    group = "S3"
+  )
+  public boolean rollAcrossBatches;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "0",
+    label = "Max Records in Object",
+    description = "Number of records that triggers the creation of a new object. Use 0 to opt out.",
+    displayPosition = 250,
+    displayMode = ConfigDef.DisplayMode.ADVANCED,
+    group = "S3",
+    min = 0,
+    dependsOn = "rollAcrossBatches",
+    triggeredByValue = "true"
+  )
+  public long maxRecordsPerObject;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "128",
+    label = "Max Object Size (MB)",
+    description = "Exceeding this size triggers the creation of a new object. Use 0 to opt out.",
+    displayPosition = 260,
+    displayMode = ConfigDef.DisplayMode.ADVANCED,
+    group = "S3",
+    min = 0,
+    dependsOn = "rollAcrossBatches",
+    triggeredByValue = "true"
+  )
+  public long maxObjectSize = 128;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "60",
+    label = "Idle Timeout (secs)",
+    description = "Maximum time for an object to remain open without new records. Use 0 to opt out.",
+    displayPosition = 270,
+    displayMode = ConfigDef.DisplayMode.ADVANCED,
+    group = "S3",
+    min = 0,
+    dependsOn = "rollAcrossBatches",
+    triggeredByValue = "true"
+  )
+  public long idleTimeout = 60;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "100",
+    label = "Max Open Objects",
+    description = "Maximum number of objects kept open at the same time. Each open object holds a part of up to the " +
+        "part size in memory. When the limit is reached, the least recently written object is completed.",
+    displayPosition = 280,
+    displayMode = ConfigDef.DisplayMode.ADVANCED,
+    group = "S3",
+    min = 1,
+    dependsOn = "rollAcrossBatches",
+    triggeredByValue = "true"
+  )
+  public int maxOpenObjects = 100;
+
   public List<Stage.ConfigIssue> init(Stage.Context context, List<Stage.ConfigIssue> issues, boolean isErrorStage) {
     boolean isWholeFileFormat;
     if (isErrorStage) {
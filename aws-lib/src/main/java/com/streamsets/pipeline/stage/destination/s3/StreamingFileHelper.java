@@ -0,0 +1,356 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.amazonaws.services.s3.model.SSECustomerKey;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.google.common.hash.Hashing;
+import com.streamsets.pipeline.api.EventRecord;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.Target;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
+import com.streamsets.pipeline.api.service.dataformats.SdcRecordGeneratorService;
+import com.streamsets.pipeline.lib.aws.SseOption;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Writes records into objects that stay open across batches, like the Hadoop FS destination does with its files.
+ *
+ * Each partition has at most one open {@link MultipartObject}. At the end of every batch, {@link #commit()} completes
+ * the objects that reached one of the roll conditions and waits until the data written to the others is stored in
+ * acknowledged parts, so the batch is only acknowledged once its records are durable in Amazon S3.
+ *
+ * Object keys carry a tag derived from the SDC, pipeline, stage instance and runner, so that after an unclean stop
+ * only the uploads left open by this very stage are completed, never those of another pipeline writing to the same
+ * prefix. They are looked for once under the common prefix, when the stage starts or, if the bucket is an
+ * expression, the first time each bucket is written to.
+ */
+final class StreamingFileHelper extends FileHelper {
+  private static final Logger LOG = LoggerFactory.getLogger(StreamingFileHelper.class);
+
+  // Keys written by this helper: <commonPrefix>[<partition>/][<fileNamePrefix>-]<ownerTag>-<timestamp>-<count>
+  // [.<suffix>][.gz]
+  private static final String EL_PREFIX = "${";
+  private static final String OBJECT_NAME_REGEX = "-\\d+-\\d+(\\..*)?";
+  private static final int OWNER_TAG_LENGTH = 12;
+
+  private final AmazonS3 s3Client;
+  private final boolean isErrorStage;
+  private final long partSize;
+  private final long maxObjectSizeBytes;
+  private final long idleTimeoutMillis;
+  private final int maxOpenObjects;
+  private final long startTime;
+  private final String ownerTag;
+  private final SafeScheduledExecutorService executor;
+  private final Semaphore uploadPermits;
+  private final Map<String, MultipartObject> openObjects = new LinkedHashMap<>();
+  private final Set<String> recoveredBuckets = new HashSet<>();
+  private final List<EventRecord> pendingEvents = new ArrayList<>();
+  private int objectCount = 0;
+
+  StreamingFileHelper(
+      Target.Context context,
+      S3TargetConfigBean s3TargetConfigBean,
+      TransferManager transferManager,
+      boolean isErrorStage
+  ) {
+    super(context, s3TargetConfigBean, transferManager);
+    this.s3Client = s3TargetConfigBean.s3Config.getS3Client();
+    this.isErrorStage = isErrorStage;
+    this.partSize = Math.max(s3TargetConfigBean.tmConfig.minimumUploadPartSize, MultipartObject.MIN_PART_SIZE);
+    this.maxObjectSizeBytes = s3TargetConfigBean.maxObjectSize * 1024 * 1024;
+    this.idleTimeoutMillis = s3TargetConfigBean.idleTimeout * 1000;
+    this.maxOpenObjects = Math.max(1, s3TargetConfigBean.maxOpenObjects);
+    this.startTime = System.currentTimeMillis();
+    this.ownerTag = ownerTag(
+        context.getSdcId() + "/" + context.getPipelineId() + "/" + context.getStageInfo().getInstanceName() + "/"
+            + context.getRunnerId()
+    );
+    // Bounds the memory used by parts waiting to be uploaded
+    int uploadThreads = Math.max(1, s3TargetConfigBean.tmConfig.threadPoolSize);
+    this.executor = new SafeScheduledExecutorService(uploadThreads, "Amazon S3 Part Uploader");
+    this.uploadPermits = new Semaphore(uploadThreads);
+
+    String bucketTemplate = s3TargetConfigBean.s3Config.bucketTemplate;
+    if (bucketTemplate != null && !bucketTemplate.contains(EL_PREFIX)) {
+      recoverAbandonedUploads(bucketTemplate);
+    }
+  }
+
+  @Override
+  public List<UploadMetadata> handle(Iterator<Record> recordIterator, String bucket, String keyPrefix) throws IOException, StageException {
+    String partition = bucket + s3TargetConfigBean.s3Config.delimiter + keyPrefix;
+    MultipartObject object = openObjects.get(partition);
+
+    while (recordIterator.hasNext()) {
+      Record currentRecord = recordIterator.next();
+      if (object == null) {
+        if (openObjects.size() >= maxOpenObjects) {
+          completeLeastRecentlyWritten();
+        }
+        object = openObject(bucket, keyPrefix);
+        openObjects.put(partition, object);
+      }
+      try {
+        object.write(currentRecord);
+      } catch (StageException e) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                e.getErrorCode(),
+                e.getParams()
+            )
+        );
+      } catch (IOException e) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                Errors.S3_32,
+                currentRecord.getHeader().getSourceId(),
+                e.toString(),
+                e
+            )
+        );
+      }
+    }
+
+    // Data is uploaded by the open objects themselves and acknowledged in commit()
+    return Collections.emptyList();
+  }
+
+  @Override
+  List<EventRecord> commit() throws StageException {
+    List<EventRecord> events = new ArrayList<>(pendingEvents);
+    pendingEvents.clear();
+    long now = System.currentTimeMillis();
+    try {
+      Iterator<MultipartObject> iterator = openObjects.values().iterator();
+      while (iterator.hasNext()) {
+        MultipartObject object = iterator.next();
+        if (shouldRoll(object, now)) {
+          iterator.remove();
+          complete(object, events);
+        } else {
+          object.flush();
+        }
+      }
+      for (MultipartObject object : openObjects.values()) {
+        object.awaitParts();
+      }
+    } catch (IOException | AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+    return events;
+  }
+
+  @Override
+  void close() {
+    for (MultipartObject object : openObjects.values()) {
+      try {
+        object.complete();
+      } catch (IOException | AmazonClientException e) {
+        LOG.error("Could not complete object '{}' in bucket '{}': {}", object.getKey(), object.getBucket(), e.toString(), e);
+      }
+    }
+    openObjects.clear();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Completes the open object that went the longest without new records, to stay within the configured number of
+   * open objects. Its event is sent with the ones of the next commit.
+   */
+  private void completeLeastRecentlyWritten() throws StageException {
+    Map.Entry<String, MultipartObject> oldest = null;
+    for (Map.Entry<String, MultipartObject> entry : openObjects.entrySet()) {
+      if (oldest == null || entry.getValue().getLastWriteTime() < oldest.getValue().getLastWriteTime()) {
+        oldest = entry;
+      }
+    }
+    if (oldest != null) {
+      openObjects.remove(oldest.getKey());
+      try {
+        complete(oldest.getValue(), pendingEvents);
+      } catch (IOException | AmazonClientException e) {
+        LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+        throw new StageException(Errors.S3_21, e.toString(), e);
+      }
+    }
+  }
+
+  private void complete(MultipartObject object, List<EventRecord> events) throws IOException {
+    if (object.complete()) {
+      events.add(S3Events.S3_OBJECT_WRITTEN
+          .create(context)
+          .with(BUCKET, object.getBucket())
+          .with(OBJECT_KEY, object.getKey())
+          .with(RECORD_COUNT, object.getRecordCount())
+          .create());
+    }
+  }
+
+  private boolean shouldRoll(MultipartObject object, long now) {
+    return object.isFull()
+        || (s3TargetConfigBean.maxRecordsPerObject > 0 && object.getRecordCount() >= s3TargetConfigBean.maxRecordsPerObject)
+        || (maxObjectSizeBytes > 0 && object.getSize() >= maxObjectSizeBytes)
+        || (idleTimeoutMillis > 0 && now - object.getLastWriteTime() >= idleTimeoutMillis);
+  }
+
+  private MultipartObject openObject(String bucket, String keyPrefix) throws StageException {
+    try {
+      recoverAbandonedUploads(bucket);
+      objectCount++;
+      return new MultipartObject(
+          s3Client,
+          executor,
+          uploadPermits,
+          bucket,
+          getObjectKey(keyPrefix + ownerTag + "-" + startTime + "-", objectCount),
+          getObjectMetadata(),
+          getCustomerKey(),
+          partSize,
+          s3TargetConfigBean.compress,
+          out -> isErrorStage
+              ? context.getService(SdcRecordGeneratorService.class).getGenerator(out)
+              : context.getService(DataFormatGeneratorService.class).getGenerator(out)
+      );
+    } catch (IOException | AmazonClientException e) {
+      LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+      throw new StageException(Errors.S3_21, e.toString(), e);
+    }
+  }
+
+  private void recoverAbandonedUploads(String bucket) {
+    if (recoveredBuckets.add(bucket)) {
+      completeAbandonedUploads(
+          s3Client,
+          bucket,
+          s3TargetConfigBean.s3Config.commonPrefix,
+          s3TargetConfigBean.s3Config.delimiter,
+          ownerTag,
+          startTime
+      );
+    }
+  }
+
+  private SSECustomerKey getCustomerKey() throws StageException {
+    if (s3TargetConfigBean.sseConfig.useSSE && s3TargetConfigBean.sseConfig.encryption == SseOption.CUSTOMER) {
+      return new SSECustomerKey(s3TargetConfigBean.sseConfig.customerKey.get());
+    }
+    return null;
+  }
+
+  /**
+   * Returns the tag that identifies the objects written by the given owner.
+   */
+  static String ownerTag(String owner) {
+    return Hashing.sha256().hashString(owner, StandardCharsets.UTF_8).toString().substring(0, OWNER_TAG_LENGTH);
+  }
+
+  /**
+   * Completes the uploads the owner of the tag left open when the pipeline stopped without running destroy. Their
+   * parts were acknowledged before the batches that wrote them were, so the data must be made visible. Every upload
+   * under the common prefix is considered, whatever the partition it was written to.
+   *
+   * Compressed objects completed this way end with the last sync flushed block: every record is decodable, but the
+   * gzip trailer is missing because the checksum of the data can't be recovered.
+   */
+  static void completeAbandonedUploads(
+      AmazonS3 s3Client,
+      String bucket,
+      String commonPrefix,
+      String delimiter,
+      String ownerTag,
+      long startTime
+  ) {
+    // The tag starts the object name or follows the partition or the file name prefix
+    Pattern objectNamePattern = Pattern.compile(
+        "(.*(" + Pattern.quote(delimiter) + "|-))?" + Pattern.quote(ownerTag) + OBJECT_NAME_REGEX
+    );
+    try {
+      ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucket).withPrefix(commonPrefix);
+      MultipartUploadListing listing;
+      do {
+        listing = s3Client.listMultipartUploads(request);
+        for (MultipartUpload upload : listing.getMultipartUploads()) {
+          String objectName = upload.getKey().substring(commonPrefix.length());
+          if (upload.getInitiated().getTime() < startTime && objectNamePattern.matcher(objectName).matches()) {
+            completeAbandonedUpload(s3Client, bucket, upload);
+          }
+        }
+        request.setKeyMarker(listing.getNextKeyMarker());
+        request.setUploadIdMarker(listing.getNextUploadIdMarker());
+      } while (listing.isTruncated());
+    } catch (AmazonClientException e) {
+      LOG.warn(
+          "Could not look for incomplete objects under '{}' in bucket '{}': {}",
+          commonPrefix,
+          bucket,
+          e.toString(),
+          e
+      );
+    }
+  }
+
+  private static void completeAbandonedUpload(AmazonS3 s3Client, String bucket, MultipartUpload upload) {
+    List<PartETag> eTags = new ArrayList<>();
+    ListPartsRequest request = new ListPartsRequest(bucket, upload.getKey(), upload.getUploadId());
+    PartListing listing;
+    do {
+      listing = s3Client.listParts(request);
+      for (PartSummary part : listing.getParts()) {
+        eTags.add(new PartETag(part.getPartNumber(), part.getETag()));
+      }
+      request.setPartNumberMarker(listing.getNextPartNumberMarker());
+    } while (listing.isTruncated());
+
+    if (!eTags.isEmpty()) {
+      LOG.info("Completing object '{}' left incomplete in bucket '{}'", upload.getKey(), bucket);
+      s3Client.completeMultipartUpload(
+          new CompleteMultipartUploadRequest(bucket, upload.getKey(), upload.getUploadId(), eTags)
+      );
+    }
+  }
+}
@@ -36,8 +36,12 @@ import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -122,7 +126,7 @@ final class WholeFileHelper extends FileHelper {
         metadata = (metadata == null) ? new ObjectMetadata() : metadata;
 
         //Mandatory field path specifying size.
-        metadata.setContentLength(record.get(FileRefUtil.FILE_INFO_FIELD_PATH + "/" + SIZE).getValueAsLong());
+        long size = record.get(FileRefUtil.FILE_INFO_FIELD_PATH + "/" + SIZE).getValueAsLong();
 
         EventRecord eventRecord = createEventRecordForFileTransfer(record, bucket, fileName);
 
@@ -135,6 +139,14 @@ final class WholeFileHelper extends FileHelper {
             ChecksumAlgorithm.forApi(generatorService.wholeFileChecksumAlgorithm()),
             new FileRefStreamCloseEventHandler(eventRecord)
         );
+        if (size < 0) {
+          // The size of a file converted on the fly, e.g. by the Whole File Transformer, is only known once it is
+          // read, while the upload needs it upfront to pick between a single and a multipart upload.
+          Path stagedFile = stageToTempFile(record, is);
+          size = Files.size(stagedFile);
+          is = openStagedFile(stagedFile);
+        }
+        metadata.setContentLength(size);
         //We are bypassing the generator because S3 has a convenient notion of taking input stream as a parameter.
         Upload upload = doUpload(bucket, fileName, is, metadata);
         uploads.add(new UploadMetadata(
@@ -158,4 +170,31 @@ final class WholeFileHelper extends FileHelper {
     }
     return uploads;
   }
+
+  private static Path stageToTempFile(Record record, InputStream is) throws IOException, OnRecordErrorException {
+    Path stagedFile = Files.createTempFile("sdc-s3-", ".staged");
+    try (InputStream in = is) {
+      Files.copy(in, stagedFile, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Files.deleteIfExists(stagedFile);
+      throw new OnRecordErrorException(record, Errors.S3_52, e.toString());
+    }
+    return stagedFile;
+  }
+
+  /**
+   * Opens the staged copy of a file, which is deleted once the upload closes the stream.
+   */
+  private static InputStream openStagedFile(Path stagedFile) throws IOException {
+    return new FilterInputStream(Files.newInputStream(stagedFile)) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          Files.deleteIfExists(stagedFile);
+        }
+      }
+    };
+  }
 }
@@ -54,6 +54,22 @@ public class S3FileConfig {
   @ValueChooserModel(ObjectOrderingChooseValues.class)
   public ObjectOrdering objectOrdering = ObjectOrdering.LEXICOGRAPHICAL;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "New Keys Sort Last",
+      description = "New objects are always written with keys that sort after the existing ones, for example keys " +
+          "that start with the upload date. Lets the origin list only the keys after the last one it listed instead " +
+          "of every key under the common prefix.",
+      displayPosition = 112,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "objectOrdering",
+      triggeredByValue = "TIMESTAMP"
+  )
+  public boolean newKeysSortLast = false;
+
   @ConfigDef(
     required = true,
     type = ConfigDef.Type.NUMBER,
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Lists objects in chronological order [lexicographical order if 2 objects have the same timestamp] without scanning
+ * the whole common prefix on every spool cycle.
+ *
+ * A scan keeps the oldest eligible objects in a bounded index, and the following spool cycles are served from it. The
+ * common prefix is only scanned again once the index has been drained. A full scan lists every sub prefix that can
+ * match the prefix pattern in parallel. When new keys are known to sort after the existing ones, a scan following one
+ * that fit entirely in the index only lists the keys after the greatest matching key listed so far.
+ */
+class S3ListingIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(S3ListingIndex.class);
+
+  static final String LISTING_THREADS_KEY = "s3.origin.listing.threads";
+  static final int LISTING_THREADS_DEFAULT = 8;
+  static final String INDEX_SIZE_KEY = "s3.origin.listing.index.size";
+  static final int INDEX_SIZE_DEFAULT = 100000;
+
+  private static final Comparator<S3ObjectSummary> CHRONOLOGICAL = (o1, o2) -> {
+    int result = o1.getLastModified().compareTo(o2.getLastModified());
+    if (result != 0) {
+      return result;
+    }
+    //same modified time. Use name to sort
+    return o1.getKey().compareTo(o2.getKey());
+  };
+
+  private final AmazonS3 s3Client;
+  private final S3ConfigBean s3ConfigBean;
+  private final AntPathMatcher pathMatcher;
+  private final int maxIndexSize;
+  private final SafeScheduledExecutorService executor;
+  private final TreeSet<S3ObjectSummary> index = new TreeSet<>(CHRONOLOGICAL);
+
+  // Whether the index received every eligible object found by the last scan
+  private boolean indexComplete;
+  // Greatest key matching the prefix pattern listed by the scans so far
+  private String listedUpTo;
+
+  S3ListingIndex(
+      AmazonS3 s3Client,
+      S3ConfigBean s3ConfigBean,
+      AntPathMatcher pathMatcher,
+      int listingThreads,
+      int maxIndexSize
+  ) {
+    this.s3Client = s3Client;
+    this.s3ConfigBean = s3ConfigBean;
+    this.pathMatcher = pathMatcher;
+    this.maxIndexSize = maxIndexSize;
+    this.executor = new SafeScheduledExecutorService(listingThreads, "Amazon S3 Listing");
+  }
+
+  /**
+   * Returns up to fetchSize objects that match the prefix pattern and are later than the object in the offset.
+   *
+   * @param s3Offset current offset which provides the timestamp of the previous object
+   * @param fetchSize number of objects to fetch in one go
+   * @throws AmazonClientException
+   */
+  List<S3ObjectSummary> listObjects(S3Offset s3Offset, int fetchSize) {
+    // Drop what was already handed out or processed since the last call
+    while (!index.isEmpty() && !AmazonS3Util.isEligible(index.first(), s3Offset)) {
+      index.pollFirst();
+    }
+    if (index.isEmpty()) {
+      scan(s3Offset);
+    }
+    List<S3ObjectSummary> list = new ArrayList<>(Math.min(fetchSize, index.size()));
+    while (list.size() < fetchSize && !index.isEmpty()) {
+      list.add(index.pollFirst());
+    }
+    return list;
+  }
+
+  void destroy() {
+    executor.shutdownNow();
+    index.clear();
+  }
+
+  private void scan(S3Offset s3Offset) {
+    String commonPrefix = s3ConfigBean.s3Config.commonPrefix;
+    boolean incremental = s3ConfigBean.s3FileConfig.newKeysSortLast && indexComplete && listedUpTo != null;
+
+    ScanResult result;
+    if (incremental) {
+      LOG.debug("Listing objects after '{}'", listedUpTo);
+      result = listPrefix(commonPrefix, listedUpTo, s3Offset);
+    } else {
+      LOG.debug("Listing all objects under '{}'", commonPrefix);
+      result = listAll(commonPrefix, s3Offset);
+    }
+
+    index.addAll(result.objects);
+    indexComplete = !result.overflow;
+    if (result.lastKey != null && (listedUpTo == null || !incremental || result.lastKey.compareTo(listedUpTo) > 0)) {
+      listedUpTo = result.lastKey;
+    }
+    LOG.debug("Indexed {} objects, complete: {}", index.size(), indexComplete);
+  }
+
+  private ScanResult listAll(String commonPrefix, S3Offset s3Offset) {
+    ScanResult result = new ScanResult(s3Offset);
+    List<Callable<ScanResult>> subPrefixes = new ArrayList<>();
+
+    // Roll the keys up on the delimiter, so that each sub prefix can be listed on its own
+    ListObjectsRequest listObjectsRequest = new ListObjectsRequest()
+        .withBucketName(s3ConfigBean.s3Config.bucket)
+        .withPrefix(commonPrefix)
+        .withDelimiter(s3ConfigBean.s3Config.delimiter)
+        .withMaxKeys(AmazonS3Util.BATCH_SIZE);
+    ObjectListing objectListing;
+    do {
+      objectListing = s3Client.listObjects(listObjectsRequest);
+      for (S3ObjectSummary s : objectListing.getObjectSummaries()) {
+        result.offer(s);
+      }
+      for (String subPrefix : objectListing.getCommonPrefixes()) {
+        String remainingPrefix = subPrefix.substring(commonPrefix.length());
+        if (pathMatcher.matchStart(s3ConfigBean.s3FileConfig.prefixPattern, remainingPrefix)) {
+          subPrefixes.add(() -> listPrefix(subPrefix, null, s3Offset));
+        } else {
+          LOG.trace("Skipping '{}' as it can't match the prefix pattern", subPrefix);
+        }
+      }
+      listObjectsRequest.setMarker(objectListing.getNextMarker());
+    } while (objectListing.isTruncated());
+
+    try {
+      for (Future<ScanResult> future : executor.invokeAll(subPrefixes)) {
+        result.merge(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AmazonClientException("Interrupted while listing objects", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof AmazonClientException) {
+        throw (AmazonClientException) e.getCause();
+      }
+      throw new AmazonClientException("Failed to list objects: " + e.getCause(), e.getCause());
+    }
+    return result;
+  }
+
+  private ScanResult listPrefix(String prefix, String marker, S3Offset s3Offset) {
+    ScanResult result = new ScanResult(s3Offset);
+    ListObjectsRequest listObjectsRequest = new ListObjectsRequest()
+        .withBucketName(s3ConfigBean.s3Config.bucket)
+        .withPrefix(prefix)
+        .withMarker(marker)
+        .withMaxKeys(AmazonS3Util.BATCH_SIZE);
+    ObjectListing objectListing = s3Client.listObjects(listObjectsRequest);
+    while (true) {
+      for (S3ObjectSummary s : objectListing.getObjectSummaries()) {
+        result.offer(s);
+      }
+      if (!objectListing.isTruncated()) {
+        break;
+      }
+      objectListing = s3Client.listNextBatchOfObjects(objectListing);
+    }
+    return result;
+  }
+
+  private static String max(String key1, String key2) {
+    if (key1 == null) {
+      return key2;
+    }
+    return key2 == null || key1.compareTo(key2) >= 0 ? key1 : key2;
+  }
+
+  /**
+   * Oldest eligible objects found by (part of) a scan.
+   */
+  private class ScanResult {
+    private final S3Offset s3Offset;
+    private final TreeSet<S3ObjectSummary> objects = new TreeSet<>(CHRONOLOGICAL);
+    private boolean overflow;
+    private String lastKey;
+
+    ScanResult(S3Offset s3Offset) {
+      this.s3Offset = s3Offset;
+    }
+
+    void offer(S3ObjectSummary s) {
+      String remainingPrefix = s.getKey().substring(s3ConfigBean.s3Config.commonPrefix.length());
+      // remainingPrefix is empty for the "folder" object the console creates for the common prefix itself
+      if (!remainingPrefix.isEmpty() && pathMatcher.match(s3ConfigBean.s3FileConfig.prefixPattern, remainingPrefix)) {
+        // Only matching keys are known to sort after the existing ones, any other key (an archive folder for
+        // instance) could sort after the new keys and hide them from the incremental scans
+        lastKey = max(lastKey, s.getKey());
+        if (AmazonS3Util.isEligible(s, s3Offset)) {
+          add(s);
+        }
+      }
+    }
+
+    void merge(ScanResult other) {
+      lastKey = max(lastKey, other.lastKey);
+      overflow |= other.overflow;
+      for (S3ObjectSummary s : other.objects) {
+        add(s);
+      }
+    }
+
+    private void add(S3ObjectSummary s) {
+      objects.add(s);
+      if (objects.size() > maxIndexSize) {
+        objects.pollLast();
+        overflow = true;
+      }
+    }
+  }
+}
@@ -48,6 +48,7 @@ public class S3Spooler {
   private final S3ConfigBean s3ConfigBean;
   private final AmazonS3 s3Client;
   private AntPathMatcher pathMatcher;
+  private S3ListingIndex listingIndex;
   private AtomicBoolean filling;
   private volatile S3Offset lastElementAddedToQueue;
   private volatile boolean newDataAfterEventSent;
@@ -70,12 +71,25 @@ public class S3Spooler {
       objectQueue = new ArrayBlockingQueue<>(s3ConfigBean.s3FileConfig.poolSize);
       spoolQueueMeter = context.createMeter("spoolQueue");
       pathMatcher = new AntPathMatcher(s3ConfigBean.s3Config.delimiter);
+      if (s3ConfigBean.s3FileConfig.objectOrdering == ObjectOrdering.TIMESTAMP) {
+        listingIndex = new S3ListingIndex(
+            s3Client,
+            s3ConfigBean,
+            pathMatcher,
+            context.getConfiguration().get(S3ListingIndex.LISTING_THREADS_KEY, S3ListingIndex.LISTING_THREADS_DEFAULT),
+            context.getConfiguration().get(S3ListingIndex.INDEX_SIZE_KEY, S3ListingIndex.INDEX_SIZE_DEFAULT)
+        );
+      }
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
   }
 
   public void destroy() {
+    if (listingIndex != null) {
+      listingIndex.destroy();
+      listingIndex = null;
+    }
     if(objectQueue != null) {
       objectQueue.clear();
       objectQueue = null;
@@ -106,12 +120,7 @@ public class S3Spooler {
       ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
       switch (objectOrdering) {
         case TIMESTAMP:
-          s3ObjectSummaries = AmazonS3Util.listObjectsChronologically(s3Client,
-              s3ConfigBean,
-              pathMatcher,
-              s3offset,
-              objectQueue.remainingCapacity()
-          );
+          s3ObjectSummaries = listingIndex.listObjects(s3offset, objectQueue.remainingCapacity());
           break;
         case LEXICOGRAPHICAL:
           s3ObjectSummaries = AmazonS3Util.listObjectsLexicographically(s3Client,
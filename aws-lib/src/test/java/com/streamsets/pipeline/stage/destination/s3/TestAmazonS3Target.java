@@ -37,6 +37,7 @@ import com.streamsets.pipeline.stage.common.s3.AwsS3Connection;
 import com.streamsets.pipeline.stage.lib.aws.AWSConfig;
 import com.streamsets.pipeline.stage.lib.aws.ProxyConfig;
 import com.streamsets.pipeline.stage.lib.aws.TransferManagerConfig;
+import org.apache.commons.io.IOUtils;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Assume;
@@ -263,6 +264,15 @@ public class TestAmazonS3Target {
       boolean useCompression,
       String suffix
   ) {
+    return new AmazonS3Target(createS3TargetConfigBean(commonPrefix, partition, useCompression, suffix), false);
+  }
+
+  private S3TargetConfigBean createS3TargetConfigBean(
+      String commonPrefix,
+      String partition,
+      boolean useCompression,
+      String suffix
+  ) {
 
     S3ConnectionTargetConfig s3Config = new S3ConnectionTargetConfig();
     s3Config.connection = new AwsS3Connection();
@@ -290,7 +300,48 @@ public class TestAmazonS3Target {
     s3TargetConfigBean.tmConfig.threadPoolSize = 3;
     s3TargetConfigBean.fileNameSuffix = suffix;
 
-    return new AmazonS3Target(s3TargetConfigBean, false);
+    return s3TargetConfigBean;
+  }
+
+  @Test
+  public void testWriteAcrossBatches() throws Exception {
+    String prefix = "testWriteAcrossBatches";
+    S3TargetConfigBean s3TargetConfigBean = createS3TargetConfigBean(prefix, "", false, "txt");
+    s3TargetConfigBean.rollAcrossBatches = true;
+    s3TargetConfigBean.maxRecordsPerObject = 18;
+    s3TargetConfigBean.maxObjectSize = 0;
+    s3TargetConfigBean.idleTimeout = 0;
+    AmazonS3Target amazonS3Target = new AmazonS3Target(s3TargetConfigBean, false);
+    TargetRunner targetRunner = new TargetRunner.Builder(AmazonS3DTarget.class, amazonS3Target)
+      .addService(DataFormatGeneratorService.class, new SdkJsonDataFormatGeneratorService())
+      .build();
+    targetRunner.runInit();
+
+    // The object stays open after the first batch
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+    Assert.assertTrue(s3client.listObjects(BUCKET_NAME, prefix).getObjectSummaries().isEmpty());
+    Assert.assertTrue(targetRunner.getEventRecords().isEmpty());
+
+    // And is completed once it holds the records of both batches
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+    List<S3ObjectSummary> objectSummaries = s3client.listObjects(BUCKET_NAME, prefix).getObjectSummaries();
+    Assert.assertEquals(1, objectSummaries.size());
+    Assert.assertTrue(objectSummaries.get(0).getKey().endsWith(".txt"));
+
+    List<String> lines = IOUtils.readLines(
+        s3client.getObject(BUCKET_NAME, objectSummaries.get(0).getKey()).getObjectContent()
+    );
+    Assert.assertEquals(18, lines.size());
+    for (int i = 0; i < 18; i++) {
+      Assert.assertEquals("\"" + TestUtil.TEST_STRING + (i % 9) + "\"", lines.get(i));
+    }
+
+    List<EventRecord> events = targetRunner.getEventRecords();
+    Assert.assertEquals(1, events.size());
+    Assert.assertEquals(18, events.get(0).get("/recordCount").getValueAsLong());
+    Assert.assertEquals(objectSummaries.get(0).getKey(), events.get(0).get("/objectKey").getValueAsString());
+
+    targetRunner.runDestroy();
   }
 
   @Test
@@ -387,6 +387,37 @@ public class TestAmazonS3TargetForWholeFile extends AmazonS3TestSuite {
     }
   }
 
+  @Test
+  public void testWholeFileWithUnknownSize() throws Exception {
+    AmazonS3Target amazonS3Target = createS3targetWithWholeFile();
+    TargetRunner targetRunner = new TargetRunner.Builder(AmazonS3DTarget.class, amazonS3Target)
+        .addService(DataFormatGeneratorService.class, new SdkWholeFileDataFormatGeneratorService(
+            fileNamePath,
+            com.streamsets.pipeline.api.service.dataformats.WholeFileExistsAction.OVERWRITE,
+            true,
+            checksumAlgorithm
+        ))
+        .build();
+    targetRunner.runInit();
+    try {
+      List<Record> records = getRecords();
+      // Files converted on the fly, e.g. by the Whole File Transformer, don't know their size upfront
+      for (Record record : records) {
+        record.set(FileRefUtil.FILE_INFO_FIELD_PATH + "/size", Field.create(-1L));
+      }
+      targetRunner.runWrite(records);
+
+      Assert.assertTrue(targetRunner.getErrorRecords().isEmpty());
+      Assert.assertEquals(records.size(), verifyAndReturnNoOfObjects());
+      Assert.assertEquals(records.size(), targetRunner.getEventRecords().size());
+      for (Record eventRecord : targetRunner.getEventRecords()) {
+        Assert.assertTrue(eventRecord.has("/" + WholeFileProcessedEvent.CHECKSUM));
+      }
+    } finally {
+      targetRunner.runDestroy();
+    }
+  }
+
   @Test
   public void testWholeFileInvalidRecord() throws Exception {
     AmazonS3Target amazonS3Target = createS3targetWithWholeFile();
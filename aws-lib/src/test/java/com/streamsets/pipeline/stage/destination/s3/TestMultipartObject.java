@@ -0,0 +1,252 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+public class TestMultipartObject {
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "prefix/object";
+
+  // Latest copy of every uploaded part: part number -> data
+  private final Map<Integer, byte[]> parts = new ConcurrentSkipListMap<>();
+  private final AtomicInteger uploads = new AtomicInteger();
+  private final List<CompleteMultipartUploadRequest> completed = new ArrayList<>();
+  private AmazonS3 s3Client;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+    s3Client = Mockito.mock(AmazonS3.class);
+    InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+    initiated.setUploadId("upload");
+    Mockito.when(s3Client.initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class)))
+        .thenReturn(initiated);
+    Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class))).thenAnswer(invocation -> {
+      UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+      byte[] data = IOUtils.toByteArray(request.getInputStream());
+      Assert.assertEquals(request.getPartSize(), data.length);
+      parts.put(request.getPartNumber(), data);
+      uploads.incrementAndGet();
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag-" + request.getPartNumber());
+      return result;
+    });
+    Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+        .thenAnswer(invocation -> {
+          completed.add((CompleteMultipartUploadRequest) invocation.getArguments()[0]);
+          return new CompleteMultipartUploadResult();
+        });
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private MultipartObject createObject(long partSize, boolean compress) throws IOException {
+    return new MultipartObject(
+        s3Client,
+        executor,
+        new Semaphore(2),
+        BUCKET,
+        KEY,
+        null,
+        null,
+        partSize,
+        compress,
+        TestMultipartObject::createGenerator
+    );
+  }
+
+  // Writes the value of the /text field followed by a new line
+  private static DataGenerator createGenerator(OutputStream out) throws IOException {
+    DataGenerator generator = Mockito.mock(DataGenerator.class);
+    try {
+      Mockito.doAnswer(invocation -> {
+        Record record = (Record) invocation.getArguments()[0];
+        out.write((record.get("/text").getValueAsString() + "\n").getBytes(StandardCharsets.UTF_8));
+        return null;
+      }).when(generator).write(Mockito.any(Record.class));
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    Mockito.doAnswer(invocation -> {
+      out.flush();
+      return null;
+    }).when(generator).flush();
+    Mockito.doAnswer(invocation -> {
+      out.close();
+      return null;
+    }).when(generator).close();
+    return generator;
+  }
+
+  private static Record createRecord(String text) {
+    Record record = RecordCreator.create();
+    record.set(Field.create(Collections.singletonMap("text", Field.create(text))));
+    return record;
+  }
+
+  private byte[] uploadedData() {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    int expectedNumber = 1;
+    for (Map.Entry<Integer, byte[]> part : parts.entrySet()) {
+      Assert.assertEquals(expectedNumber++, (int) part.getKey());
+      data.write(part.getValue(), 0, part.getValue().length);
+    }
+    return data.toByteArray();
+  }
+
+  private static String expectedText(int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      text.append("record-").append(i).append("\n");
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testPartsAreCutAtPartSize() throws Exception {
+    MultipartObject object = createObject(20, false);
+    for (int i = 0; i < 10; i++) {
+      object.write(createRecord("record-" + i));
+    }
+    object.flush();
+    object.awaitParts();
+
+    Assert.assertEquals(expectedText(10), new String(uploadedData(), StandardCharsets.UTF_8));
+    Assert.assertEquals(expectedText(10).length(), object.getSize());
+    Assert.assertTrue(parts.size() > 1);
+    for (Map.Entry<Integer, byte[]> part : parts.entrySet()) {
+      if (part.getKey() < parts.size()) {
+        // Parts are cut as soon as they reach the part size
+        Assert.assertTrue(part.getValue().length >= 20);
+        Assert.assertTrue(part.getValue().length < 20 + "record-0\n".length());
+      }
+    }
+
+    Assert.assertTrue(object.complete());
+    Assert.assertEquals(1, completed.size());
+    List<PartETag> eTags = completed.get(0).getPartETags();
+    Assert.assertEquals(parts.size(), eTags.size());
+    for (int i = 0; i < eTags.size(); i++) {
+      Assert.assertEquals(i + 1, eTags.get(i).getPartNumber());
+    }
+    Assert.assertEquals(expectedText(10), new String(uploadedData(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testFlushUploadsLastPartAgain() throws Exception {
+    MultipartObject object = createObject(MultipartObject.MIN_PART_SIZE, false);
+    object.write(createRecord("record-0"));
+    object.flush();
+    object.awaitParts();
+    Assert.assertEquals(expectedText(1), new String(uploadedData(), StandardCharsets.UTF_8));
+
+    // Nothing new to upload
+    object.flush();
+    object.awaitParts();
+    Assert.assertEquals(1, uploads.get());
+
+    object.write(createRecord("record-1"));
+    object.flush();
+    object.awaitParts();
+    Assert.assertEquals(2, uploads.get());
+    Assert.assertEquals(1, parts.size());
+    Assert.assertEquals(expectedText(2), new String(uploadedData(), StandardCharsets.UTF_8));
+
+    Assert.assertTrue(object.complete());
+    Assert.assertEquals(1, completed.get(0).getPartETags().size());
+  }
+
+  @Test
+  public void testCompressedParts() throws Exception {
+    MultipartObject object = createObject(20, true);
+    for (int i = 0; i < 50; i++) {
+      object.write(createRecord("record-" + i));
+    }
+    object.flush();
+    object.awaitParts();
+
+    // What is uploaded at the end of a batch decodes to every record, it only lacks the gzip trailer
+    ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(uploadedData()))) {
+      int b;
+      while ((b = in.read()) != -1) {
+        decoded.write(b);
+      }
+      Assert.fail("The gzip trailer should be missing");
+    } catch (EOFException e) {
+      // Expected
+    }
+    Assert.assertEquals(expectedText(50), new String(decoded.toByteArray(), StandardCharsets.UTF_8));
+
+    Assert.assertTrue(object.complete());
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(uploadedData()))) {
+      Assert.assertEquals(expectedText(50), IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testEmptyObjectIsAborted() throws Exception {
+    MultipartObject object = createObject(MultipartObject.MIN_PART_SIZE, false);
+    object.flush();
+    object.awaitParts();
+
+    Assert.assertFalse(object.complete());
+    Assert.assertTrue(completed.isEmpty());
+    Mockito.verify(s3Client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+  }
+}
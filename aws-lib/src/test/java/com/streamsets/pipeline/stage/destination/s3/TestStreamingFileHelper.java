@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestStreamingFileHelper {
+  private static final String BUCKET = "bucket";
+  private static final String PREFIX = "logs/";
+  private static final String DELIMITER = "/";
+  private static final long START_TIME = 10000;
+
+  private final List<MultipartUpload> uploads = new ArrayList<>();
+  private final List<CompleteMultipartUploadRequest> completed = new ArrayList<>();
+  private AmazonS3 s3Client;
+
+  @Before
+  public void setUp() {
+    s3Client = Mockito.mock(AmazonS3.class);
+    Mockito.when(s3Client.listMultipartUploads(Mockito.any(ListMultipartUploadsRequest.class)))
+        .thenAnswer(invocation -> {
+          ListMultipartUploadsRequest request = (ListMultipartUploadsRequest) invocation.getArguments()[0];
+          MultipartUploadListing listing = new MultipartUploadListing();
+          listing.setMultipartUploads(uploads.stream()
+              .filter(upload -> upload.getKey().startsWith(request.getPrefix()))
+              .collect(Collectors.toList())
+          );
+          listing.setTruncated(false);
+          return listing;
+        });
+    Mockito.when(s3Client.listParts(Mockito.any(ListPartsRequest.class))).thenAnswer(invocation -> {
+      PartSummary part = new PartSummary();
+      part.setPartNumber(1);
+      part.setETag("etag");
+      PartListing listing = new PartListing();
+      listing.setParts(Collections.singletonList(part));
+      listing.setTruncated(false);
+      return listing;
+    });
+    Mockito.when(s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+        .thenAnswer(invocation -> {
+          completed.add((CompleteMultipartUploadRequest) invocation.getArguments()[0]);
+          return new CompleteMultipartUploadResult();
+        });
+  }
+
+  private void addUpload(String key, long initiated) {
+    MultipartUpload upload = new MultipartUpload();
+    upload.setKey(key);
+    upload.setUploadId("upload-" + uploads.size());
+    upload.setInitiated(new Date(initiated));
+    uploads.add(upload);
+  }
+
+  private List<String> completedKeys() {
+    return completed.stream().map(CompleteMultipartUploadRequest::getKey).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testOwnerTag() {
+    String tag = StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/0");
+    Assert.assertEquals(tag, StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/0"));
+    Assert.assertNotEquals(tag, StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/1"));
+    Assert.assertNotEquals(tag, StreamingFileHelper.ownerTag("other-sdc/pipeline/AmazonS3_01/0"));
+    Assert.assertTrue(tag.matches("[0-9a-f]{12}"));
+  }
+
+  @Test
+  public void testCompleteOwnAbandonedUploads() {
+    String tag = StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/0");
+    addUpload(PREFIX + tag + "-5000-1.txt.gz", 5000);
+    addUpload(PREFIX + tag + "-5000-2", 5000);
+
+    StreamingFileHelper.completeAbandonedUploads(s3Client, BUCKET, PREFIX, DELIMITER, tag, START_TIME);
+
+    Assert.assertEquals(
+        Arrays.asList(PREFIX + tag + "-5000-1.txt.gz", PREFIX + tag + "-5000-2"),
+        completedKeys()
+    );
+    Assert.assertEquals(1, completed.get(0).getPartETags().size());
+  }
+
+  @Test
+  public void testSkipUploadsOfOtherOwners() {
+    String tag = StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/0");
+    String otherTag = StreamingFileHelper.ownerTag("sdc/other-pipeline/AmazonS3_01/0");
+    // Another pipeline writing to the same prefix
+    addUpload(PREFIX + otherTag + "-5000-1", 5000);
+    // Written by an earlier version or by hand
+    addUpload(PREFIX + "5000-1", 5000);
+    addUpload(PREFIX + tag + "-5000-1" + DELIMITER + "copy", 5000);
+    // Outside of the common prefix
+    addUpload("archive/" + tag + "-5000-1", 5000);
+    // Started by this very run
+    addUpload(PREFIX + tag + "-" + START_TIME + "-1", START_TIME + 1);
+
+    StreamingFileHelper.completeAbandonedUploads(s3Client, BUCKET, PREFIX, DELIMITER, tag, START_TIME);
+
+    Assert.assertTrue(completedKeys().isEmpty());
+  }
+
+  @Test
+  public void testCompleteAbandonedUploadsOfAllPartitions() {
+    String tag = StreamingFileHelper.ownerTag("sdc/pipeline/AmazonS3_01/0");
+    addUpload(PREFIX + "2021/01/02/" + tag + "-5000-1", 5000);
+    addUpload(PREFIX + "2021/01/03/sdc-" + tag + "-5000-2.json", 5000);
+    addUpload(PREFIX + "sdc-" + tag + "-5000-3", 5000);
+
+    StreamingFileHelper.completeAbandonedUploads(s3Client, BUCKET, PREFIX, DELIMITER, tag, START_TIME);
+
+    Assert.assertEquals(
+        Arrays.asList(
+            PREFIX + "2021/01/02/" + tag + "-5000-1",
+            PREFIX + "2021/01/03/sdc-" + tag + "-5000-2.json",
+            PREFIX + "sdc-" + tag + "-5000-3"
+        ),
+        completedKeys()
+    );
+  }
+}
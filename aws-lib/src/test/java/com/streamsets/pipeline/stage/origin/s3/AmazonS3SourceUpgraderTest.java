@@ -15,7 +15,11 @@
  */
 package com.streamsets.pipeline.stage.origin.s3;
 
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.config.upgrade.UpgraderTestUtils;
 import com.streamsets.pipeline.stage.common.S3CommonUpgraderTest;
+import org.junit.Test;
+import org.mockito.Mockito;
 
 public class AmazonS3SourceUpgraderTest extends S3CommonUpgraderTest {
 
@@ -38,4 +42,14 @@ public class AmazonS3SourceUpgraderTest extends S3CommonUpgraderTest {
   protected String getPrefix() {
     return "s3ConfigBean.";
   }
+
+  @Test
+  public void testV13ToV14() throws StageException {
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, getPrefix() + "s3FileConfig.newKeysSortLast", false);
+  }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class TestS3ListingIndex {
+  private static final String BUCKET = "bucket";
+
+  // In memory stand-in for the bucket: key -> last modified time
+  private final SortedMap<String, Long> bucket = new TreeMap<>();
+  private final List<ListObjectsRequest> requests = new ArrayList<>();
+  private AmazonS3 s3Client;
+  private S3ListingIndex listingIndex;
+
+  @Before
+  public void setUp() {
+    s3Client = Mockito.mock(AmazonS3.class);
+    Mockito.when(s3Client.listObjects(Mockito.any(ListObjectsRequest.class))).thenAnswer(invocation -> {
+      ListObjectsRequest request = (ListObjectsRequest) invocation.getArguments()[0];
+      requests.add(request);
+      return list(request);
+    });
+  }
+
+  @After
+  public void tearDown() {
+    if (listingIndex != null) {
+      listingIndex.destroy();
+    }
+  }
+
+  private ObjectListing list(ListObjectsRequest request) {
+    ObjectListing listing = new ObjectListing();
+    listing.setBucketName(request.getBucketName());
+    listing.setPrefix(request.getPrefix());
+    listing.setDelimiter(request.getDelimiter());
+    TreeSet<String> commonPrefixes = new TreeSet<>();
+    Map<String, Long> keys = request.getMarker() == null ? bucket : bucket.tailMap(request.getMarker() + "\0");
+    for (Map.Entry<String, Long> entry : keys.entrySet()) {
+      String key = entry.getKey();
+      if (!key.startsWith(request.getPrefix())) {
+        continue;
+      }
+      String remaining = key.substring(request.getPrefix().length());
+      if (request.getDelimiter() != null && remaining.contains(request.getDelimiter())) {
+        commonPrefixes.add(request.getPrefix() + remaining.substring(0, remaining.indexOf(request.getDelimiter()) + 1));
+      } else {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setBucketName(BUCKET);
+        summary.setKey(key);
+        summary.setLastModified(new Date(entry.getValue()));
+        listing.getObjectSummaries().add(summary);
+      }
+    }
+    listing.setCommonPrefixes(new ArrayList<>(commonPrefixes));
+    listing.setTruncated(false);
+    return listing;
+  }
+
+  private S3ListingIndex createListingIndex(String prefixPattern, boolean newKeysSortLast, int maxIndexSize) {
+    S3ConfigBean config = new S3ConfigBean();
+    config.s3FileConfig = new S3FileConfig();
+    config.s3FileConfig.objectOrdering = ObjectOrdering.TIMESTAMP;
+    config.s3FileConfig.prefixPattern = prefixPattern;
+    config.s3FileConfig.newKeysSortLast = newKeysSortLast;
+    config.s3Config = new S3ConnectionSourceConfig();
+    config.s3Config.bucket = BUCKET;
+    config.s3Config.commonPrefix = "";
+    config.s3Config.delimiter = "/";
+    listingIndex = new S3ListingIndex(s3Client, config, new AntPathMatcher("/"), 2, maxIndexSize);
+    return listingIndex;
+  }
+
+  private static S3Offset offsetOf(S3ObjectSummary s) {
+    return new S3Offset(s.getKey(), S3Constants.MINUS_ONE, null, String.valueOf(s.getLastModified().getTime()));
+  }
+
+  private static List<String> keys(List<S3ObjectSummary> summaries) {
+    return summaries.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testChronologicalOrderAcrossPrefixes() {
+    bucket.put("a/1.txt", 3000L);
+    bucket.put("b/2.txt", 1000L);
+    bucket.put("b/3.txt", 1000L);
+    bucket.put("c/4.log", 500L);
+    bucket.put("5.txt", 2000L);
+    S3ListingIndex index = createListingIndex("**/*.txt", false, 100);
+
+    S3Offset offset = new S3Offset(S3Constants.EMPTY, S3Constants.ZERO, S3Constants.EMPTY, S3Constants.ZERO);
+    List<S3ObjectSummary> objects = index.listObjects(offset, 3);
+    Assert.assertEquals(Arrays.asList("b/2.txt", "b/3.txt", "5.txt"), keys(objects));
+    int listings = requests.size();
+
+    // The next objects come from the index, without listing the bucket again
+    objects = index.listObjects(offsetOf(objects.get(2)), 3);
+    Assert.assertEquals(Collections.singletonList("a/1.txt"), keys(objects));
+    Assert.assertEquals(listings, requests.size());
+
+    // Once drained the bucket is listed again
+    objects = index.listObjects(offsetOf(objects.get(0)), 3);
+    Assert.assertTrue(objects.isEmpty());
+    Assert.assertTrue(requests.size() > listings);
+  }
+
+  @Test
+  public void testSkipsPrefixesThatCannotMatch() {
+    bucket.put("a/1.txt", 1000L);
+    bucket.put("b/2.txt", 2000L);
+    S3ListingIndex index = createListingIndex("a/*.txt", false, 100);
+
+    S3Offset offset = new S3Offset(S3Constants.EMPTY, S3Constants.ZERO, S3Constants.EMPTY, S3Constants.ZERO);
+    Assert.assertEquals(Collections.singletonList("a/1.txt"), keys(index.listObjects(offset, 10)));
+    for (ListObjectsRequest request : requests) {
+      Assert.assertNotEquals("b/", request.getPrefix());
+    }
+  }
+
+  @Test
+  public void testBoundedIndex() {
+    bucket.put("a/1.txt", 1000L);
+    bucket.put("a/2.txt", 2000L);
+    bucket.put("b/3.txt", 3000L);
+    S3ListingIndex index = createListingIndex("**/*.txt", true, 2);
+
+    S3Offset offset = new S3Offset(S3Constants.EMPTY, S3Constants.ZERO, S3Constants.EMPTY, S3Constants.ZERO);
+    List<S3ObjectSummary> objects = index.listObjects(offset, 10);
+    Assert.assertEquals(Arrays.asList("a/1.txt", "a/2.txt"), keys(objects));
+
+    // The index overflowed, so the newest object is found by a full listing rather than an incremental one
+    requests.clear();
+    objects = index.listObjects(offsetOf(objects.get(1)), 10);
+    Assert.assertEquals(Collections.singletonList("b/3.txt"), keys(objects));
+    Assert.assertNull(requests.get(0).getMarker());
+  }
+
+  @Test
+  public void testIncrementalListing() {
+    bucket.put("2021-01-01/1.txt", 1000L);
+    bucket.put("2021-01-02/2.txt", 2000L);
+    S3ListingIndex index = createListingIndex("**/*.txt", true, 100);
+
+    S3Offset offset = new S3Offset(S3Constants.EMPTY, S3Constants.ZERO, S3Constants.EMPTY, S3Constants.ZERO);
+    List<S3ObjectSummary> objects = index.listObjects(offset, 10);
+    Assert.assertEquals(2, objects.size());
+
+    bucket.put("2021-01-03/3.txt", 3000L);
+    requests.clear();
+    objects = index.listObjects(offsetOf(objects.get(1)), 10);
+    Assert.assertEquals(Collections.singletonList("2021-01-03/3.txt"), keys(objects));
+    // A single listing starting after the greatest key seen so far
+    Assert.assertEquals(1, requests.size());
+    Assert.assertEquals("2021-01-02/2.txt", requests.get(0).getMarker());
+  }
+
+  @Test
+  public void testIncrementalListingIgnoresNonMatchingKeys() {
+    bucket.put("2021-01-01/1.txt", 1000L);
+    bucket.put("archive/0.txt.gz", 500L);
+    bucket.put("zz-readme.md", 500L);
+    S3ListingIndex index = createListingIndex("2021-*/*.txt", true, 100);
+
+    S3Offset offset = new S3Offset(S3Constants.EMPTY, S3Constants.ZERO, S3Constants.EMPTY, S3Constants.ZERO);
+    List<S3ObjectSummary> objects = index.listObjects(offset, 10);
+    Assert.assertEquals(Collections.singletonList("2021-01-01/1.txt"), keys(objects));
+
+    // The new key sorts before the keys that can't match, it must still be found by the incremental listing
+    bucket.put("2021-01-02/2.txt", 2000L);
+    requests.clear();
+    objects = index.listObjects(offsetOf(objects.get(0)), 10);
+    Assert.assertEquals(Collections.singletonList("2021-01-02/2.txt"), keys(objects));
+    Assert.assertEquals("2021-01-01/1.txt", requests.get(0).getMarker());
+  }
+}
@@ -24,7 +24,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DTarget;
 import com.streamsets.pipeline.lib.event.WholeFileProcessedEvent;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Azure Data Lake Storage (Legacy)",
     description = "Writes data to Azure Data Lake Storage (Legacy)",
     icon = "data-lake-store-gen1.png",
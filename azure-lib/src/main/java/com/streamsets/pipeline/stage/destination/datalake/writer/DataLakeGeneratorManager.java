@@ -184,6 +184,13 @@ public class DataLakeGeneratorManager {
     outputStreamHelper.commitFile(filePath);
   }
 
+  /**
+   * Columnar files can't be read until they are closed, so they are committed at the end of each batch.
+   */
+  boolean isCommitEachBatch() {
+    return dataFormat == DataFormat.PARQUET || dataFormat == DataFormat.ORC;
+  }
+
   void flush(String filePath) throws IOException {
     DataLakeDataGenerator generator = tmpFilePathToGenerators.get(filePath);
     if (generator != null) {
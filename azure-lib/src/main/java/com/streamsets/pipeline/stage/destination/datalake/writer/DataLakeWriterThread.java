@@ -62,6 +62,24 @@ public class DataLakeWriterThread implements Callable<List<OnRecordErrorExceptio
     return numErrorRecords;
   }
 
+  private int commit(List<Record> records, List<OnRecordErrorException> errorRecords, int numErrorRecords) {
+    try {
+      // close and rename the temp file, so that the records of the batch are readable once it is committed
+      handleError(() -> generatorManager.close(tmpFilePath));
+    } catch (IOException | StageException ex) {
+      if (!(ex instanceof ADLException)) {
+        LOG.debug(Errors.ADLS_13.getMessage(), tmpFilePath, ex.toString(), ex);
+      }
+
+      for (Record record : records) {
+        // actual throwing the error happening on the main thread
+        errorRecords.add(new OnRecordErrorException(record, Errors.ADLS_13, ex.toString()));
+        numErrorRecords++;
+      }
+    }
+    return numErrorRecords;
+  }
+
   @Override
   public List<OnRecordErrorException> call() {
     int numErrorRecords = 0;
@@ -101,7 +119,11 @@ public class DataLakeWriterThread implements Callable<List<OnRecordErrorExceptio
       }
     }
 
-    flush(currentRecordList, errorRecords, numErrorRecords);
+    if (generatorManager.isCommitEachBatch()) {
+      commit(currentRecordList, errorRecords, numErrorRecords);
+    } else {
+      flush(currentRecordList, errorRecords, numErrorRecords);
+    }
 
     LOG.debug(
         "Thread {} ends to write {} out of {} records to {}",
@@ -30,7 +30,7 @@ import com.streamsets.pipeline.lib.dirspooler.SpoolDirConfigBean;
 import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
 
 @StageDef(
-    version = 4,
+    version = 5,
     label = "Azure Data Lake Storage Gen2",
     description = "Reads data from Azure Data Lake Storage Gen2",
     icon = "data-lake-store-gen2.png",
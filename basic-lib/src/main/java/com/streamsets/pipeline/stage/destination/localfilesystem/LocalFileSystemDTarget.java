@@ -26,7 +26,7 @@ import com.streamsets.pipeline.lib.event.WholeFileProcessedEvent;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsTarget;
 
 @StageDef(
-    version = 4,
+    version = 5,
     label = "Local FS",
     description = "Writes to the local file system",
     icon = "localfilesystem.png",
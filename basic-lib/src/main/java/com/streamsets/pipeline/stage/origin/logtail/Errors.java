@@ -41,6 +41,7 @@ public enum Errors implements ErrorCode {
   TAIL_12("Cannot parse record '{}': {}"),
   TAIL_13("Could not serialize offset: {}"),
   TAIL_14("Could not get file start/end events: {}"),
+  TAIL_21("Error while tailing files: {}"),
 
   TAIL_30("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
   ;
@@ -0,0 +1,516 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.codahale.metrics.Counter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.EventRecord;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.ToEventContext;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.FileRollMode;
+import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.lib.io.FileEvent;
+import com.streamsets.pipeline.lib.io.FileLine;
+import com.streamsets.pipeline.lib.io.LiveFile;
+import com.streamsets.pipeline.lib.io.LiveFileChunk;
+import com.streamsets.pipeline.lib.io.MultiFileInfo;
+import com.streamsets.pipeline.lib.io.MultiFileReader;
+import com.streamsets.pipeline.lib.io.RollMode;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.streamsets.pipeline.stage.origin.logtail.FileTailSource.FILE_TAIL_CONF_PREFIX;
+
+/**
+ * Configuration validation, offset and record handling shared by the File Tail origins.
+ */
+final class FileTailUtil {
+  private static final Logger LOG = LoggerFactory.getLogger(FileTailUtil.class);
+  private static final String OFFSETS_LAG = "offsets.lag";
+  private static final String PENDING_FILES = "pending.files";
+  private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private FileTailUtil() {}
+
+  /**
+   * Validates the file and post processing configurations.
+   *
+   * @return the information of the files to tail, one per valid file configuration.
+   */
+  static List<MultiFileInfo> validateConfigs(
+      Stage.Context context,
+      FileTailConfigBean conf,
+      List<Stage.ConfigIssue> issues
+  ) {
+    if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
+      if (conf.archiveDir == null || conf.archiveDir.isEmpty()) {
+        issues.add(
+            context.createConfigIssue(
+                Groups.POST_PROCESSING.name(),
+                FILE_TAIL_CONF_PREFIX + "archiveDir",
+                Errors.TAIL_05
+            )
+        );
+      } else {
+        File dir = new File(conf.archiveDir);
+        if (!dir.exists()) {
+          issues.add(
+              context.createConfigIssue(
+                  Groups.POST_PROCESSING.name(),
+                  FILE_TAIL_CONF_PREFIX + "archiveDir",
+                  Errors.TAIL_06
+              )
+          );
+        }
+        if (!dir.isDirectory()) {
+          issues.add(
+              context.createConfigIssue(
+                  Groups.POST_PROCESSING.name(),
+                  FILE_TAIL_CONF_PREFIX + "archiveDir",
+                  Errors.TAIL_07
+              )
+          );
+        }
+      }
+    }
+    List<MultiFileInfo> dirInfos = new ArrayList<>();
+    if (conf.fileInfos.isEmpty()) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.FILES.name(),
+              FILE_TAIL_CONF_PREFIX + "fileInfos",
+              Errors.TAIL_01
+          )
+      );
+    } else {
+      Set<String> fileKeys = new LinkedHashSet<>();
+      for (FileInfo fileInfo : conf.fileInfos) {
+        if (validateFileInfo(context, fileInfo, issues)) {
+          MultiFileInfo directoryInfo = new MultiFileInfo(
+              fileInfo.tag,
+              fileInfo.fileFullPath,
+              fileInfo.fileRollMode,
+              fileInfo.patternForToken,
+              fileInfo.firstFile,
+              conf.multiLineMainPattern
+          );
+          dirInfos.add(directoryInfo);
+          if (fileKeys.contains(directoryInfo.getFileKey())) {
+            issues.add(context.createConfigIssue(
+                Groups.FILES.name(),
+                FILE_TAIL_CONF_PREFIX + "fileInfos",
+                Errors.TAIL_04,
+                fileInfo.fileFullPath
+            ));
+          }
+          fileKeys.add(directoryInfo.getFileKey());
+        }
+      }
+    }
+    return dirInfos;
+  }
+
+  private static boolean validateFileInfo(Stage.Context context, FileInfo fileInfo, List<Stage.ConfigIssue> issues) {
+    boolean ok = true;
+    String fileName = Paths.get(fileInfo.fileFullPath).getFileName().toString();
+    String token = fileInfo.fileRollMode.getTokenForPattern();
+
+    if (!validateFilePathNoNull(context, fileInfo, fileName, issues)) {
+      return false;
+    }
+    ok &= validateTokenConfiguration(context, fileInfo, issues, fileName, token);
+
+    return ok;
+  }
+
+  private static boolean validateFilePathNoNull(
+      Stage.Context context,
+      FileInfo fileInfo,
+      String fileName,
+      List<Stage.ConfigIssue> issues
+  ) {
+    if (fileName == null || fileName.isEmpty()) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.FILES.name(),
+              FILE_TAIL_CONF_PREFIX + "fileInfos",
+              Errors.TAIL_20,
+              fileInfo.fileFullPath
+          )
+      );
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean validateTokenConfiguration(
+      Stage.Context context,
+      FileInfo fileInfo,
+      List<Stage.ConfigIssue> issues,
+      String fileName,
+      String token
+  ) {
+    boolean ok = true;
+
+    String fileParentDir = Paths.get(fileInfo.fileFullPath).getParent().toString();
+    if (!token.isEmpty()) {
+      // If the token exists, it can't be in the directory name
+      if(fileParentDir.contains(token)) {
+        issues.add(
+          context.createConfigIssue(
+            Groups.FILES.name(),
+            FILE_TAIL_CONF_PREFIX + "fileInfos",
+            Errors.TAIL_16,
+            fileInfo.fileFullPath,
+            fileInfo.fileRollMode.getTokenForPattern()
+          )
+        );
+        ok = false;
+      }
+
+      // The token has to be in the filename instead
+      if (!fileName.contains(token)) {
+        issues.add(
+            context.createConfigIssue(
+                Groups.FILES.name(),
+                FILE_TAIL_CONF_PREFIX + "fileInfos",
+                Errors.TAIL_08,
+                fileInfo.fileFullPath,
+                fileInfo.fileRollMode.getTokenForPattern(),
+                fileName
+            )
+        );
+        ok = false;
+      }
+    }
+
+    if (ok && fileInfo.fileRollMode == FileRollMode.PATTERN) {
+      // must provide a pattern if using this roll mode
+      if (fileInfo.patternForToken == null || fileInfo.patternForToken.isEmpty()) {
+        ok &= false;
+        issues.add(
+            context.createConfigIssue(
+                Groups.FILES.name(),
+                FILE_TAIL_CONF_PREFIX + "fileInfos",
+                Errors.TAIL_08,
+                fileInfo.fileFullPath
+            )
+        );
+      } else {
+        // valid patternForTokens must be parseable regexes
+        ok &= validatePatternIsValidRegex(context, fileInfo, issues);
+      }
+
+      // if firstFile is provided, make sure it's possible to use it
+      if (ok && fileInfo.firstFile != null && !fileInfo.firstFile.isEmpty()) {
+        RollMode rollMode = fileInfo.fileRollMode.createRollMode(fileInfo.fileFullPath, fileInfo.patternForToken);
+        if (!rollMode.isFirstAcceptable(fileInfo.firstFile)) {
+          ok = false;
+          issues.add(
+              context.createConfigIssue(
+                  Groups.FILES.name(),
+                  FILE_TAIL_CONF_PREFIX + "fileInfos",
+                  Errors.TAIL_19,
+                  fileInfo.fileFullPath
+              )
+          );
+        }
+      }
+    }
+    return ok;
+  }
+
+  private static boolean validatePatternIsValidRegex(
+      Stage.Context context,
+      FileInfo fileInfo,
+      List<Stage.ConfigIssue> issues
+  ) {
+    try {
+      Pattern.compile(fileInfo.patternForToken);
+    } catch (PatternSyntaxException ex) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.FILES.name(),
+              FILE_TAIL_CONF_PREFIX + "fileInfos",
+              Errors.TAIL_09,
+              fileInfo.fileFullPath,
+              fileInfo.patternForToken,
+              ex.toString()
+          )
+      );
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Creates a reader for the given files, using the charset, line length and post processing configurations.
+   */
+  static MultiFileReader createReader(
+      List<MultiFileInfo> dirInfos,
+      FileTailConfigBean conf,
+      int scanIntervalSecs,
+      boolean inPreviewMode
+  ) throws IOException {
+    return createReader(dirInfos, conf, scanIntervalSecs, inPreviewMode, fileInfo -> true);
+  }
+
+  /**
+   * Creates a reader for the resolved files accepted by the given filter.
+   */
+  static MultiFileReader createReader(
+      List<MultiFileInfo> dirInfos,
+      FileTailConfigBean conf,
+      int scanIntervalSecs,
+      boolean inPreviewMode,
+      Predicate<MultiFileInfo> fileFilter
+  ) throws IOException {
+    int maxLineLength = Integer.MAX_VALUE;
+    if (conf.dataFormat == DataFormat.TEXT) {
+      maxLineLength = conf.dataFormatConfig.textMaxLineLen;
+    } else if (conf.dataFormat == DataFormat.JSON) {
+      maxLineLength = conf.dataFormatConfig.jsonMaxObjectLen;
+    } else if (conf.dataFormat == DataFormat.LOG) {
+      maxLineLength = conf.dataFormatConfig.logMaxObjectLen;
+    }
+    return new MultiFileReader(
+        dirInfos,
+        Charset.forName(conf.dataFormatConfig.charset),
+        maxLineLength,
+        conf.postProcessing,
+        conf.archiveDir,
+        true,
+        (inPreviewMode) ? 0 : scanIntervalSecs,
+        conf.allowLateDirectories,
+        inPreviewMode,
+        fileFilter
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  static Map<String, String> deserializeOffsetMap(String lastSourceOffset) throws StageException {
+    Map<String, String> map;
+    if (lastSourceOffset == null) {
+      map = new HashMap<>();
+    } else {
+      try {
+        map = OBJECT_MAPPER.readValue(lastSourceOffset, Map.class);
+      } catch (IOException ex) {
+        throw new StageException(Errors.TAIL_10, ex.toString(), ex);
+      }
+    }
+    return map;
+  }
+
+  static String serializeOffsetMap(Map<String, String> map) throws StageException {
+    try {
+      return OBJECT_MAPPER.writeValueAsString(map);
+    } catch (IOException ex) {
+      throw new StageException(Errors.TAIL_13, ex.toString(), ex);
+    }
+  }
+
+  /**
+   * Sets the offsets of the reader, purging the invalid file entries until they can be set.
+   */
+  static void setOffsets(MultiFileReader reader, Map<String, String> offsetMap) {
+    boolean offsetSet = false;
+    while (!offsetSet) {
+      try {
+        reader.setOffsets(offsetMap);
+        offsetSet = true;
+      } catch (IOException ex) {
+        LOG.warn("Error while creating reading previous offset: {}", ex.toString(), ex);
+        reader.purge();
+      }
+    }
+  }
+
+  /**
+   * Gets the offsets of the reader, purging the invalid file entries until they can be extracted.
+   */
+  static Map<String, String> getOffsets(MultiFileReader reader) {
+    while (true) {
+      try {
+        return reader.getOffsets();
+      } catch (IOException ex) {
+        LOG.warn("Error while creating creating new offset: {}", ex.toString(), ex);
+        reader.purge();
+      }
+    }
+  }
+
+  /**
+   * Parses the lines of the chunk and adds the resulting records to the given lane.
+   *
+   * @return the number of records added.
+   */
+  static int addRecords(
+      LiveFileChunk chunk,
+      DataParserFactory parserFactory,
+      ErrorRecordHandler errorRecordHandler,
+      BatchMaker batchMaker,
+      String outputLane
+  ) throws StageException {
+    int recordCounter = 0;
+    String tag = chunk.getTag();
+    tag = (tag != null && tag.isEmpty()) ? null : tag;
+    String liveFileStr = chunk.getFile().serialize();
+
+    List<FileLine> lines = chunk.getLines();
+    int truncatedLine = chunk.isTruncated() ? lines.size()-1 : -1;
+
+    for (int i = 0; i < lines.size(); i++) {
+      FileLine line = lines.get(i);
+      String sourceId = liveFileStr + "::" + line.getFileOffset();
+      try (DataParser parser = parserFactory.getParser(sourceId, line.getText())) {
+        if(i == truncatedLine) {
+          //set truncated
+          parser.setTruncated();
+        }
+        Record record = parser.parse();
+        if (record != null) {
+          if (tag != null) {
+            record.getHeader().setAttribute("tag", tag);
+          }
+          record.getHeader().setAttribute(HeaderAttributeConstants.FILE, chunk.getFile().getPath().toString());
+          record.getHeader().setAttribute(HeaderAttributeConstants.FILE_NAME, chunk.getFile().getPath().getFileName().toString());
+          record.getHeader().setAttribute(HeaderAttributeConstants.OFFSET, String.valueOf(line.getFileOffset()));
+          record.getHeader().setAttribute(
+            HeaderAttributeConstants.LAST_MODIFIED_TIME,
+            String.valueOf(Files.getLastModifiedTime(chunk.getFile().getPath()).toMillis())
+          );
+          batchMaker.addRecord(record, outputLane);
+          recordCounter++;
+        }
+      } catch (IOException | DataParserException ex) {
+        errorRecordHandler.onError(Errors.TAIL_12, sourceId, ex.toString(), ex);
+      }
+    }
+    return recordCounter;
+  }
+
+  /**
+   * Adds a metadata record and an event for each of the given file events.
+   *
+   * @return <code>false</code> if the record for some file event could not be created.
+   */
+  static boolean addMetadataRecords(
+      Stage.Context context,
+      ToEventContext toEvent,
+      List<FileEvent> events,
+      Date now,
+      BatchMaker batchMaker,
+      String metadataLane
+  ) {
+    boolean metadataGenerated = true;
+    for (FileEvent event : events) {
+      try {
+        LiveFile file = event.getFile().refresh();
+        Record metadataRecord = context.createRecord("");
+        Map<String, Field> map = new HashMap<>();
+        map.put("fileName", Field.create(file.getPath().toString()));
+        map.put("inode", Field.create(file.getINode()));
+        map.put("time", Field.createDate(now));
+        map.put("event", Field.create((event.getAction().name())));
+        metadataRecord.set(Field.create(map));
+        batchMaker.addRecord(metadataRecord, metadataLane);
+
+        // We're also sending the same information on event lane
+        String eventRecordSourceId =
+            Utils.format("event:{}:{}:{}", event.getAction().name(), 1, file.getPath().toString());
+        EventRecord eventRecord = context.createEventRecord(event.getAction().name(), 1, eventRecordSourceId);
+        eventRecord.set(Field.create(map));
+        toEvent.toEvent(eventRecord);
+      } catch (IOException ex) {
+        LOG.warn("Error while creating metadata records: {}", ex.toString(), ex);
+        metadataGenerated = false;
+      }
+    }
+    return metadataGenerated;
+  }
+
+  /**
+   * Updates the offset lag and pending files metrics of the files read by the given reader.
+   */
+  static void updateMetrics(
+      Stage.Context context,
+      MultiFileReader reader,
+      Map<String, String> offsetMap,
+      Map<String, Counter> offsetLagMetric,
+      Map<String, Counter> pendingFilesMetric
+  ) {
+    //Calculate Offset lag Metric.
+    try {
+      calibrateMetric(context, reader.getOffsetsLag(offsetMap), offsetLagMetric, OFFSETS_LAG);
+    } catch (IOException ex) {
+      LOG.warn("Error while Calculating Offset Lag {}", ex.toString(), ex);
+    }
+
+    //Calculate Pending Files Metric
+    try {
+      calibrateMetric(context, reader.getPendingFiles(), pendingFilesMetric, PENDING_FILES);
+    } catch (IOException ex) {
+      LOG.warn("Error while Calculating Pending Files Metric {}", ex.toString(), ex);
+    }
+  }
+
+  private static void calibrateMetric(
+      Stage.Context context,
+      Map<String, Long> resultMap,
+      Map<String, Counter> metricMap,
+      String metricPrefix
+  ) {
+    for (Map.Entry<String, Long> mapEntry : resultMap.entrySet()) {
+      String fileKey = mapEntry.getKey();
+      Long currValue = mapEntry.getValue();
+      Counter counter = metricMap.get(fileKey);
+      if (counter == null) {
+        counter = context.createCounter(metricPrefix + "." + fileKey);
+      }
+      //Counter only supports inc/dec by a number from an existing count value.
+      counter.inc(currValue - counter.getCount());
+      metricMap.put(fileKey, counter);
+    }
+  }
+}
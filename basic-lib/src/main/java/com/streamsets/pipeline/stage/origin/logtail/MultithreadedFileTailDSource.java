@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConfigGroups;
+import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
+
+@StageDef(
+    version = 1,
+    label = "File Tail Multithreaded",
+    description = "Tails files using multiple threads. It handles rolling files within the same directory",
+    icon = "fileTail.png",
+    execution = ExecutionMode.STANDALONE,
+    outputStreams = FileTailOutputStreams.class,
+    recordsByRef = true,
+    upgraderDef = "upgrader/MultithreadedFileTailDSource.yaml",
+    resetOffset = true,
+    producesEvents = true,
+    eventDefs = {StartEvent.class, EndEvent.class, ErrorEvent.class},
+    onlineHelpRefUrl ="index.html?contextID=task_unq_wdw_yq"
+)
+@ConfigGroups(Groups.class)
+@GenerateResourceBundle
+public class MultithreadedFileTailDSource extends DPushSource {
+
+  @ConfigDefBean
+  public FileTailConfigBean conf;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Number of Threads",
+      description = "Number of threads tailing files, the files are spread over the threads",
+      defaultValue = "1",
+      group = "FILES",
+      min = 1,
+      max = Integer.MAX_VALUE,
+      displayPosition = 65,
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  public int numberOfThreads;
+
+  @Override
+  protected PushSource createPushSource() {
+    return new MultithreadedFileTailSource(conf, numberOfThreads);
+  }
+
+}
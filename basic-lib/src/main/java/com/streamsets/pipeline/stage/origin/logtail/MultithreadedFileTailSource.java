@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.io.FileChangeNotifier;
+import com.streamsets.pipeline.lib.io.LiveFileChunk;
+import com.streamsets.pipeline.lib.io.MultiFileInfo;
+import com.streamsets.pipeline.lib.io.MultiFileReader;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.streamsets.pipeline.stage.origin.logtail.FileTailSource.FILE_TAIL_CONF_PREFIX;
+import static com.streamsets.pipeline.stage.origin.logtail.FileTailSource.FILE_TAIL_DATA_FORMAT_CONFIG_PREFIX;
+
+/**
+ * Multithreaded variant of the {@link FileTailSource}. The tailed files are spread over the runner threads, each one
+ * reading its files with its own {@link MultiFileReader} and waking up on file system change notifications instead
+ * of polling the files. Files are assigned round robin as they are found, so the files matching a single wildcard
+ * path are spread over the threads too.
+ * <p/>
+ * The offsets of all the files are committed as a single JSON map under {@link Source#POLL_SOURCE_OFFSET_KEY}, the
+ * same format used by the {@link FileTailSource}.
+ */
+public class MultithreadedFileTailSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(MultithreadedFileTailSource.class);
+  private static final String THREAD_PREFIX = "File Tail Runner";
+
+  private final FileTailConfigBean conf;
+  private final int numberOfThreads;
+  private final int scanIntervalSecs;
+
+  private final List<FileTailRunner> runners = new ArrayList<>();
+  // runner reading each file (by file key), a file keeps its runner even after being purged so that it is read by the
+  // same runner if it shows up again, as the file finders of the other runners will not report it anymore
+  private final Map<String, Integer> fileOwners = new ConcurrentHashMap<>();
+  private final AtomicInteger nextOwner = new AtomicInteger();
+  private FileChangeNotifier changeNotifier;
+  private DataParserFactory parserFactory;
+  private long maxWaitTimeMillis;
+  private int batchSize;
+  private String outputLane;
+  private String metadataLane;
+  private ExecutorService executorService;
+
+  public MultithreadedFileTailSource(FileTailConfigBean conf, int numberOfThreads) {
+    this(conf, numberOfThreads, 20);
+  }
+
+  MultithreadedFileTailSource(FileTailConfigBean conf, int numberOfThreads, int scanIntervalSecs) {
+    this.conf = conf;
+    this.numberOfThreads = numberOfThreads;
+    this.scanIntervalSecs = scanIntervalSecs;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = super.init();
+
+    List<MultiFileInfo> dirInfos = FileTailUtil.validateConfigs(getContext(), conf, issues);
+    if (!dirInfos.isEmpty()) {
+      // every reader resolves all the configured paths, but only reads the files assigned to it
+      try {
+        if (!getContext().isPreview()) {
+          changeNotifier = new FileChangeNotifier();
+        }
+        for (int i = 0; i < numberOfThreads; i++) {
+          int runnerId = i;
+          MultiFileReader reader = FileTailUtil.createReader(
+              dirInfos,
+              conf,
+              scanIntervalSecs,
+              getContext().isPreview(),
+              fileInfo -> isOwner(runnerId, fileInfo)
+          );
+          runners.add(new FileTailRunner(reader));
+          if (changeNotifier != null) {
+            reader.setChangeNotifier(changeNotifier);
+          }
+        }
+      } catch (IOException ex) {
+        issues.add(
+            getContext().createConfigIssue(
+                Groups.FILES.name(),
+                FILE_TAIL_CONF_PREFIX + "fileInfos",
+                Errors.TAIL_02,
+                ex.toString(),
+                ex
+            )
+        );
+      }
+    }
+
+    conf.dataFormatConfig.init(
+        getContext(),
+        conf.dataFormat,
+        Groups.FILES.name(),
+        FILE_TAIL_DATA_FORMAT_CONFIG_PREFIX,
+        !conf.multiLineMainPattern.isEmpty(),
+        issues
+    );
+    parserFactory = conf.dataFormatConfig.getParserFactory();
+
+    maxWaitTimeMillis = conf.maxWaitTimeSecs * 1000;
+    outputLane = getContext().getOutputLanes().get(0);
+    metadataLane = getContext().getOutputLanes().get(1);
+
+    return issues;
+  }
+
+  private boolean isOwner(int runnerId, MultiFileInfo fileInfo) {
+    int owner = fileOwners.computeIfAbsent(fileInfo.getFileKey(), key -> nextOwner.getAndIncrement() % numberOfThreads);
+    return owner == runnerId;
+  }
+
+  @Override
+  public void destroy() {
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+    for (FileTailRunner runner : runners) {
+      IOUtils.closeQuietly(runner.reader);
+    }
+    runners.clear();
+    fileOwners.clear();
+    IOUtils.closeQuietly(changeNotifier);
+    super.destroy();
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    batchSize = Math.min(conf.batchSize, maxBatchSize);
+    if (!getContext().isPreview() && conf.batchSize > maxBatchSize) {
+      getContext().reportError(Errors.TAIL_30, maxBatchSize);
+    }
+
+    // each runner keeps the offsets of its own files, the committed offset is the union of them
+    Map<String, String> offsetMap = FileTailUtil.deserializeOffsetMap(lastOffsets.get(Source.POLL_SOURCE_OFFSET_KEY));
+    for (FileTailRunner runner : runners) {
+      FileTailUtil.setOffsets(runner.reader, offsetMap);
+      runner.offsets = FileTailUtil.getOffsets(runner.reader);
+    }
+
+    try {
+      executorService = new SafeScheduledExecutorService(runners.size(), THREAD_PREFIX);
+      ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+      for (FileTailRunner runner : runners) {
+        completionService.submit(runner);
+      }
+
+      for (int i = 0; i < runners.size(); i++) {
+        try {
+          completionService.take().get();
+        } catch (ExecutionException e) {
+          LOG.error(
+              "ExecutionException when attempting to wait for all runners to complete, after context was stopped: {}",
+              e.getMessage(),
+              e
+          );
+          Throwable rootCause = Throwables.getRootCause(e);
+          if (rootCause instanceof StageException) {
+            throw (StageException) rootCause;
+          }
+          throw new StageException(Errors.TAIL_21, rootCause.toString(), rootCause);
+        } catch (InterruptedException e) {
+          LOG.error(
+              "InterruptedException when attempting to wait for all runners to complete, after context was " +
+                  "stopped: {}",
+              e.getMessage(),
+              e
+          );
+          Thread.currentThread().interrupt();
+        }
+      }
+    } finally {
+      if (executorService != null && !executorService.isTerminated()) {
+        executorService.shutdown();
+      }
+    }
+  }
+
+  private void commitOffsets() throws StageException {
+    // synchronized so that the runners never commit an older union over a newer one
+    synchronized (runners) {
+      Map<String, String> offsetMap = new HashMap<>();
+      for (FileTailRunner runner : runners) {
+        offsetMap.putAll(runner.offsets);
+      }
+      getContext().commitOffset(Source.POLL_SOURCE_OFFSET_KEY, FileTailUtil.serializeOffsetMap(offsetMap));
+    }
+  }
+
+  private class FileTailRunner implements Callable<Void> {
+    private final MultiFileReader reader;
+    private final Map<String, Counter> offsetLagMetric = new HashMap<>();
+    private final Map<String, Counter> pendingFilesMetric = new HashMap<>();
+    // offsets of the files of this runner, updated only by the runner thread
+    private volatile Map<String, String> offsets = new HashMap<>();
+
+    private FileTailRunner(MultiFileReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public Void call() throws StageException {
+      while (!getContext().isStopped()) {
+        produceBatch();
+      }
+      return null;
+    }
+
+    private void produceBatch() throws StageException {
+      long startTime = System.currentTimeMillis();
+      BatchContext batchContext = getContext().startBatch();
+      ErrorRecordHandler errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
+
+      Map<String, String> offsetMap = offsets;
+      FileTailUtil.setOffsets(reader, offsetMap);
+
+      int recordCounter = 0;
+      while (recordCounter < batchSize && !getContext().isStopped()) {
+        long remaining = maxWaitTimeMillis - (System.currentTimeMillis() - startTime);
+        if (remaining <= 0) {
+          break;
+        }
+        LiveFileChunk chunk = reader.next(remaining);
+        if (chunk != null) {
+          recordCounter += FileTailUtil.addRecords(
+              chunk,
+              parserFactory,
+              errorRecordHandler,
+              batchContext.getBatchMaker(),
+              outputLane
+          );
+        }
+      }
+
+      if (!FileTailUtil.addMetadataRecords(
+          getContext(),
+          batchContext,
+          reader.getEvents(),
+          new Date(startTime),
+          batchContext.getBatchMaker(),
+          metadataLane
+      )) {
+        reader.purge();
+      }
+
+      offsetMap = FileTailUtil.getOffsets(reader);
+      FileTailUtil.updateMetrics(getContext(), reader, offsetMap, offsetLagMetric, pendingFilesMetric);
+
+      if (getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
+        offsets = offsetMap;
+        commitOffsets();
+        getContext().processBatch(batchContext);
+      } else if (getContext().processBatch(batchContext)) {
+        offsets = offsetMap;
+        commitOffsets();
+      }
+    }
+  }
+}
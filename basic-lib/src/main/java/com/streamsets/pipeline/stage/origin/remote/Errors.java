@@ -31,6 +31,7 @@ public enum Errors implements ErrorCode {
   REMOTE_DOWNLOAD_08("Problem setting archive directory: {}"),
   REMOTE_DOWNLOAD_09("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
   REMOTE_DOWNLOAD_10("Cannot read file {}"),
+  REMOTE_DOWNLOAD_11("Cannot create local directory for downloaded files: {}"),
   ;
 
   private final String msg;
@@ -124,6 +124,11 @@ class FTPRemoteDownloadSourceDelegate extends FTPRemoteConnector implements Remo
     }
   }
 
+  @Override
+  public RemoteFile resolveFile(String remotePath, long lastModified) throws IOException {
+    return new FTPRemoteFile(remotePath, lastModified, resolveChild(remotePath));
+  }
+
   public void delete(String remotePath) throws IOException {
     FileObject fileObject = resolveChild(remotePath);
     fileObject.delete();
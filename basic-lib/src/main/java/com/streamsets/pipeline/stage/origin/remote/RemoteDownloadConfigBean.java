@@ -135,6 +135,20 @@ public class RemoteDownloadConfigBean {
   )
   public long processingDelay;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Download Sessions",
+      description = "Number of connections to the remote server. Additional connections download the next queued " +
+          "files into a local temporary directory while the current file is being read.",
+      displayPosition = 65,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "REMOTE",
+      min = 1
+  )
+  public int downloadSessions = 1;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -63,6 +63,7 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.FileSystemException;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -126,6 +127,7 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
 
   private FileFilter fileFilter;
   private RemoteDownloadSourceDelegate delegate;
+  private RemoteFilePrefetcher prefetcher;
 
   public RemoteDownloadSource(RemoteDownloadConfigBean conf, FileDelayer fileDelayer) {
     this.conf = conf;
@@ -188,9 +190,48 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
         delegate.initAndConnect(issues, getContext(), remoteURI, archiveDir);
       }
     }
+
+    // Whole files are handed over as file refs and read downstream, so there is nothing to download ahead for them.
+    if (issues.isEmpty() && conf.downloadSessions > 1 && conf.dataFormat != DataFormat.WHOLE_FILE &&
+        !getContext().isPreview()) {
+      initPrefetcher(issues);
+    }
     return issues;
   }
 
+  private void initPrefetcher(List<ConfigIssue> issues) {
+    List<RemoteDownloadSourceDelegate> sessions = new ArrayList<>(conf.downloadSessions - 1);
+    for (int i = 1; i < conf.downloadSessions && issues.isEmpty(); i++) {
+      RemoteDownloadSourceDelegate session = conf.remoteConfig.connection.protocol == Protocol.SFTP
+          ? new SFTPRemoteDownloadSourceDelegate(conf)
+          : new FTPRemoteDownloadSourceDelegate(conf);
+      sessions.add(session);
+      session.initAndConnect(issues, getContext(), remoteURI, null);
+    }
+    try {
+      prefetcher = new RemoteFilePrefetcher(sessions);
+      LOG.debug("Downloading up to {} files ahead of the current one", prefetcher.getSessionCount());
+    } catch (IOException ex) {
+      issues.add(getContext().createConfigIssue(
+          Groups.REMOTE.getLabel(),
+          CONF_PREFIX + "downloadSessions",
+          Errors.REMOTE_DOWNLOAD_11,
+          ex.toString(),
+          ex
+      ));
+    }
+    if (prefetcher == null || !issues.isEmpty()) {
+      for (RemoteDownloadSourceDelegate session : sessions) {
+        try {
+          session.close();
+        } catch (IOException ex) {
+          LOG.debug("Error closing remote download session", ex);
+        }
+      }
+      prefetcher = null;
+    }
+  }
+
   private void validateFilePattern(List<ConfigIssue> issues) {
     if (conf.filePattern == null || conf.filePattern.trim().isEmpty()) {
       issues.add(
@@ -295,7 +336,7 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
               parser = conf.dataFormatConfig.getParserFactory().getParser(currentOffset.offsetStr, metadata, fileRef);
             }
           } else {
-            currentStream = next.createInputStream();
+            currentStream = openStream(next);
             LOG.info("Started reading file: {}", next.getFilePath());
             parser = conf.dataFormatConfig.getParserFactory().getParser(
                 currentOffset.offsetStr, currentStream, currentOffset.getOffset());
@@ -529,6 +570,23 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
     }
   }
 
+  private InputStream openStream(RemoteFile file) throws IOException, StageException {
+    if (prefetcher == null) {
+      return file.createInputStream();
+    }
+    InputStream is = prefetcher.open(file);
+    // Keep the other sessions busy with the files that will be read after this one
+    int prefetched = 0;
+    for (RemoteFile queued : fileQueue) {
+      if (prefetched == prefetcher.getSessionCount() || !fileDelayer.isFileReady(queued)) {
+        break;
+      }
+      prefetcher.prefetch(queued);
+      prefetched++;
+    }
+    return is != null ? is : file.createInputStream();
+  }
+
   private Optional<RemoteFile> getNextFile() throws IOException {
     if (fileQueue.isEmpty() || fileDelayer.isDelayed()) {
       fileDelayer.setDelayed(false);
@@ -593,6 +651,9 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
     try {
       IOUtils.closeQuietly(currentStream);
       IOUtils.closeQuietly(parser);
+      if (prefetcher != null) {
+        prefetcher.close();
+      }
       if (delegate != null) {
         delegate.close();
       }
@@ -600,6 +661,7 @@ public class RemoteDownloadSource extends BaseSource implements FileQueueChecker
       LOG.warn("Error during destroy", ex);
     } finally {
       delegate = null;
+      prefetcher = null;
       //This forces the use of same RemoteDownloadSource object
       //not to have dangling reference to old stream (which is closed)
       //Also forces to initialize the next in produce call.
@@ -49,6 +49,13 @@ public interface RemoteDownloadSourceDelegate {
   void queueFiles(FileQueueChecker fqc, NavigableSet<RemoteFile> fileQueue, FileFilter fileFilter) throws
       IOException, StageException;
 
+  /**
+   * Returns a handle on the given remote file that reads through this delegate's own connection.
+   */
+  RemoteFile resolveFile(String remotePath, long lastModified) throws IOException;
+
+  void verifyAndReconnect() throws StageException;
+
   void close() throws IOException;
 
   void delete(String remotePath) throws IOException;
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.remote;
+
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.remote.RemoteFile;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Downloads queued remote files ahead of the one currently being read, each over its own remote session, into a
+ * local temporary directory. {@link RemoteDownloadSource} still reads the files one at a time and in queue order, so
+ * records and offsets are produced exactly as if the files were read directly from the remote server; only the
+ * transfer of the next files overlaps with the parsing of the current one.
+ */
+class RemoteFilePrefetcher implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(RemoteFilePrefetcher.class);
+
+  private final List<RemoteDownloadSourceDelegate> sessions;
+  private final BlockingQueue<RemoteDownloadSourceDelegate> idleSessions;
+  private final SafeScheduledExecutorService executor;
+  private final Path tempDir;
+  private final Map<String, Future<Path>> downloads = new HashMap<>();
+
+  RemoteFilePrefetcher(List<RemoteDownloadSourceDelegate> sessions) throws IOException {
+    this.sessions = sessions;
+    this.idleSessions = new LinkedBlockingQueue<>(sessions);
+    this.tempDir = Files.createTempDirectory("sdc-remote-download-");
+    this.executor = new SafeScheduledExecutorService(sessions.size(), "Remote Download Prefetcher");
+  }
+
+  int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Starts downloading the given file in the background, unless it is already being downloaded.
+   */
+  void prefetch(RemoteFile remoteFile) {
+    downloads.computeIfAbsent(key(remoteFile), k -> executor.submit(() -> download(remoteFile)));
+  }
+
+  /**
+   * Returns a stream over the local copy of the given file, or null if the file has not been prefetched or its
+   * download failed, in which case the caller should read it from the remote server directly. The local copy is
+   * deleted when the returned stream is closed.
+   */
+  InputStream open(RemoteFile remoteFile) throws StageException {
+    Future<Path> download = downloads.remove(key(remoteFile));
+    if (download == null) {
+      return null;
+    }
+    Path localFile;
+    try {
+      localFile = download.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      download.cancel(true);
+      return null;
+    } catch (ExecutionException e) {
+      LOG.warn("Could not prefetch file '{}', reading it directly: {}", remoteFile.getFilePath(), e.getCause(), e);
+      return null;
+    }
+    try {
+      return new FilterInputStream(Files.newInputStream(localFile)) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            Files.deleteIfExists(localFile);
+          }
+        }
+      };
+    } catch (IOException e) {
+      LOG.warn("Could not open prefetched copy of file '{}', reading it directly: {}", remoteFile.getFilePath(), e, e);
+      return null;
+    }
+  }
+
+  private Path download(RemoteFile remoteFile) throws Exception {
+    RemoteDownloadSourceDelegate session = idleSessions.take();
+    try {
+      Path localFile = Files.createTempFile(tempDir, "prefetch-", ".tmp");
+      try {
+        copy(session, remoteFile, localFile);
+      } catch (IOException e) {
+        LOG.debug("Prefetching file '{}' failed, reconnecting and retrying: {}", remoteFile.getFilePath(), e, e);
+        session.verifyAndReconnect();
+        copy(session, remoteFile, localFile);
+      }
+      LOG.debug("Prefetched file '{}'", remoteFile.getFilePath());
+      return localFile;
+    } finally {
+      idleSessions.add(session);
+    }
+  }
+
+  private static void copy(RemoteDownloadSourceDelegate session, RemoteFile remoteFile, Path localFile)
+      throws IOException {
+    RemoteFile file = session.resolveFile(remoteFile.getFilePath(), remoteFile.getLastModified());
+    try (InputStream is = file.createInputStream()) {
+      Files.copy(is, localFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String key(RemoteFile remoteFile) {
+    return remoteFile.getFilePath() + "::" + remoteFile.getLastModified();
+  }
+
+  @Override
+  public void close() {
+    for (Future<Path> download : downloads.values()) {
+      download.cancel(true);
+    }
+    downloads.clear();
+    executor.shutdownNow();
+    for (RemoteDownloadSourceDelegate session : sessions) {
+      try {
+        session.close();
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Error closing remote download session", e);
+      }
+    }
+    FileUtils.deleteQuietly(tempDir.toFile());
+  }
+}
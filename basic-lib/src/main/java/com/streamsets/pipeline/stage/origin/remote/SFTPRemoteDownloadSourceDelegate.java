@@ -138,6 +138,11 @@ class SFTPRemoteDownloadSourceDelegate extends SFTPRemoteConnector implements Re
     }
   }
 
+  @Override
+  public RemoteFile resolveFile(String remotePath, long lastModified) {
+    return new SFTPRemoteFile(remotePath, lastModified, sftpClient);
+  }
+
   @Override
   public void delete(String remotePath) throws IOException {
     sftpClient.delete(remotePath);
@@ -34,7 +34,7 @@ import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
 import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
 
 @StageDef(
-    version = 7,
+    version = 8,
     label = "REST Service",
     description = "Listens for requests on an HTTP endpoint and sends response back",
     icon="api.png",
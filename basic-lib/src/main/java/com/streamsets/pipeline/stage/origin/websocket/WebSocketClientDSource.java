@@ -27,7 +27,7 @@ import com.streamsets.pipeline.lib.microservice.ResponseConfigBean;
 import com.streamsets.pipeline.lib.websocket.WebSocketOriginGroups;
 
 @StageDef(
-    version = 7,
+    version = 8,
     label = "WebSocket Client",
     description = "Uses a WebSocket client to read from a resource URL",
     icon = "websockets.png",
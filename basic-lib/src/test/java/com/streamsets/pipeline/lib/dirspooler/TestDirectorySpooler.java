@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.dirspooler;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
 import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Configuration;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
@@ -26,6 +27,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -38,10 +40,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -826,4 +832,136 @@ public class TestDirectorySpooler {
 
     spooler.destroy();
   }
+
+  @Test
+  public void testCurrentFileOnlyMovesForwardWithMultipleThreads() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    int files = 20;
+    for (int i = 10; i < 10 + files; i++) {
+      new FileWriter(new File(spoolDir, "x" + i + ".log")).close();
+    }
+    File lastFile = new File(spoolDir, "x" + (10 + files - 1) + ".log").getAbsoluteFile();
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(files)
+        .build();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      spooler.init("x0.log");
+      List<Future<Void>> pollers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        pollers.add(executor.submit(() -> {
+          WrappedFile file;
+          do {
+            file = spooler.poolForFile(1000, TimeUnit.MILLISECONDS);
+          } while (file != null);
+          return null;
+        }));
+      }
+      for (Future<Void> poller : pollers) {
+        poller.get();
+      }
+      // whichever thread claimed the last file, the current file is never moved back to an older one
+      Assert.assertEquals(lastFile.getAbsolutePath(), spooler.currentFile.getAbsolutePath());
+    } finally {
+      executor.shutdownNow();
+      spooler.destroy();
+    }
+  }
+
+  @Test
+  public void testFileSystemEvents() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+
+    Configuration configuration = Mockito.mock(Configuration.class);
+    Mockito.when(configuration.get(DirectorySpooler.USE_FILE_SYSTEM_EVENTS, false)).thenReturn(true);
+    Mockito.when(configuration.get(DirectorySpooler.RECONCILIATION_PERIOD_SEC, DirectorySpooler.RECONCILIATION_PERIOD_SEC_DEFAULT))
+        .thenReturn(3600);
+    PushSource.Context eventsContext = Mockito.spy(context);
+    Mockito.when(eventsContext.getConfiguration()).thenReturn(configuration);
+
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+
+    // scans happen only every hour, new files can only be found through the file system events
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setContext(eventsContext)
+        .setUseLastModifiedTimestamp(true)
+        .setMaxSpoolFiles(10)
+        .setSpoolingPeriodSec(3600);
+
+    DirectorySpooler spooler = builder.build();
+    try {
+      spooler.init("");
+      Assert.assertEquals(logFile1.getAbsolutePath(), spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+
+      File logFile2 = new File(spoolDir, "x2.log").getAbsoluteFile();
+      new FileWriter(logFile2).close();
+
+      // the watch service may poll the file system, leave it enough time to report the new file
+      WrappedFile file = spooler.poolForFile(30000, TimeUnit.MILLISECONDS);
+      Assert.assertNotNull(file);
+      Assert.assertEquals(logFile2.getAbsolutePath(), file.getAbsolutePath());
+    } finally {
+      spooler.destroy();
+    }
+  }
+
+  @Test
+  public void testDirectoryIndexOnRestart() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    File indexDir = new File(spoolDir.getParentFile(), "index");
+
+    Configuration configuration = Mockito.mock(Configuration.class);
+    Mockito.when(configuration.get(DirectorySpooler.USE_FILE_SYSTEM_EVENTS, false)).thenReturn(true);
+    Mockito.when(configuration.get(DirectorySpooler.RECONCILIATION_PERIOD_SEC, DirectorySpooler.RECONCILIATION_PERIOD_SEC_DEFAULT))
+        .thenReturn(3600);
+    Mockito.when(configuration.get(DirectorySpooler.INDEX_DIR, "")).thenReturn(indexDir.getAbsolutePath());
+    PushSource.Context eventsContext = Mockito.spy(context);
+    Mockito.when(eventsContext.getConfiguration()).thenReturn(configuration);
+
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+    // the directory did not change since long before it was listed
+    assertTrue(spoolDir.setLastModified(System.currentTimeMillis() - 10000));
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setContext(eventsContext)
+        .setUseLastModifiedTimestamp(true)
+        .setMaxSpoolFiles(10)
+        .setSpoolingPeriodSec(3600)
+        .build();
+    try {
+      spooler.init("");
+      WrappedFile file = spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS);
+      Assert.assertEquals(logFile1.getAbsolutePath(), file.getAbsolutePath());
+      spooler.doPostProcessing(file);
+    } finally {
+      spooler.destroy();
+    }
+    Assert.assertEquals(1, indexDir.list().length);
+
+    // the restarted spooler does not list the unchanged directory again
+    WrappedFileSystem restartFs = Mockito.spy(new LocalFileSystem("x[0-9]*.log", GLOB));
+    spooler = initializeAndGetBuilder()
+        .setContext(eventsContext)
+        .setWrappedFileSystem(restartFs)
+        .setUseLastModifiedTimestamp(true)
+        .setMaxSpoolFiles(10)
+        .setSpoolingPeriodSec(3600)
+        .build();
+    try {
+      spooler.init(logFile1.getName());
+      Mockito.verify(restartFs, Mockito.never()).addFiles(
+          Mockito.any(WrappedFile.class),
+          Mockito.any(WrappedFile.class),
+          Mockito.anyList(),
+          Mockito.anyBoolean(),
+          Mockito.anyBoolean()
+      );
+      Assert.assertEquals(0, indexDir.list().length);
+    } finally {
+      spooler.destroy();
+    }
+  }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.logtail;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.FileRollMode;
+import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.SourceRunner;
+import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMultithreadedFileTailSource {
+  private final static int SCAN_INTERVAL = 0; //using zero forces synchronous file discovery
+
+  private FileInfo createFileInfo(File file) {
+    FileInfo fileInfo = new FileInfo();
+    fileInfo.fileFullPath = file.getAbsolutePath();
+    fileInfo.fileRollMode = FileRollMode.REVERSE_COUNTER;
+    fileInfo.firstFile = "";
+    fileInfo.patternForToken = "";
+    return fileInfo;
+  }
+
+  private FileTailConfigBean createConfig(List<FileInfo> fileInfos) {
+    FileTailConfigBean conf = new FileTailConfigBean();
+    conf.dataFormat = DataFormat.TEXT;
+    conf.multiLineMainPattern = "";
+    conf.batchSize = 25;
+    conf.maxWaitTimeSecs = 1;
+    conf.fileInfos = fileInfos;
+    conf.postProcessing = PostProcessingOptions.NONE;
+    conf.dataFormatConfig.textMaxLineLen = 1024;
+    return conf;
+  }
+
+  private File createLogFile(String lines) throws IOException {
+    File testDataDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDataDir.mkdirs());
+    File logFile = new File(testDataDir, "logFile.txt");
+    Files.write(logFile.toPath(), lines.getBytes(StandardCharsets.UTF_8));
+    return logFile;
+  }
+
+  @Test
+  public void testTailFilesWithMultipleThreads() throws Exception {
+    List<File> logFiles = new ArrayList<>();
+    List<FileInfo> fileInfos = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      File logFile = createLogFile("a" + i + "\nb" + i + "\n");
+      logFiles.add(logFile);
+      fileInfos.add(createFileInfo(logFile));
+    }
+
+    MultithreadedFileTailSource source = new MultithreadedFileTailSource(createConfig(fileInfos), 2, SCAN_INTERVAL);
+    PushSourceRunner runner = new PushSourceRunner.Builder(MultithreadedFileTailDSource.class, source)
+        .addOutputLane("lane").addOutputLane("metadata")
+        .build();
+    runner.runInit();
+    List<Record> records = Collections.synchronizedList(new ArrayList<>());
+    try {
+      runner.runProduce(new HashMap<>(), 10, new PushSourceRunner.Callback() {
+        @Override
+        public void processBatch(StageRunner.Output output) {
+          records.addAll(output.getRecords().get("lane"));
+          if (records.size() >= 6) {
+            runner.setStop();
+          }
+        }
+      });
+      runner.waitOnProduce();
+    } finally {
+      runner.runDestroy();
+    }
+
+    Set<String> lines = new HashSet<>();
+    for (Record record : records) {
+      lines.add(record.get("/text").getValueAsString());
+    }
+    Assert.assertEquals(6, records.size());
+    Assert.assertEquals(6, lines.size());
+
+    // the offset has the same format as the one of the single threaded origin, with an entry per file
+    String offset = runner.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY);
+    Map<String, String> offsetMap = FileTailUtil.deserializeOffsetMap(offset);
+    Assert.assertEquals(3, offsetMap.size());
+
+    Files.write(logFiles.get(1).toPath(), "c1\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    FileTailSource fileTailSource = new FileTailSource(createConfig(fileInfos), SCAN_INTERVAL);
+    SourceRunner sourceRunner = new SourceRunner.Builder(FileTailDSource.class, fileTailSource)
+        .addOutputLane("lane").addOutputLane("metadata")
+        .build();
+    sourceRunner.runInit();
+    try {
+      StageRunner.Output output = sourceRunner.runProduce(offset, 10);
+      List<Record> newRecords = output.getRecords().get("lane");
+      Assert.assertEquals(1, newRecords.size());
+      Assert.assertEquals("c1", newRecords.get(0).get("/text").getValueAsString());
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testWildcardFilesSpreadOverThreads() throws Exception {
+    File testDataDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDataDir.mkdirs());
+    for (int i = 0; i < 2; i++) {
+      File logFile = new File(testDataDir, "log" + i + ".txt");
+      Files.write(logFile.toPath(), ("a" + i + "\nb" + i + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+    // a single path matching both files
+    FileInfo fileInfo = createFileInfo(new File(testDataDir, "*.txt"));
+
+    MultithreadedFileTailSource source =
+        new MultithreadedFileTailSource(createConfig(Collections.singletonList(fileInfo)), 2, SCAN_INTERVAL);
+    PushSourceRunner runner = new PushSourceRunner.Builder(MultithreadedFileTailDSource.class, source)
+        .addOutputLane("lane").addOutputLane("metadata")
+        .build();
+    runner.runInit();
+    // file -> threads that read it
+    Map<String, Set<String>> fileThreads = new ConcurrentHashMap<>();
+    AtomicInteger recordCount = new AtomicInteger();
+    try {
+      runner.runProduce(new HashMap<>(), 10, new PushSourceRunner.Callback() {
+        @Override
+        public void processBatch(StageRunner.Output output) {
+          for (Record record : output.getRecords().get("lane")) {
+            String file = record.getHeader().getAttribute(HeaderAttributeConstants.FILE);
+            fileThreads.computeIfAbsent(file, key -> new HashSet<>()).add(Thread.currentThread().getName());
+          }
+          if (recordCount.addAndGet(output.getRecords().get("lane").size()) >= 4) {
+            runner.setStop();
+          }
+        }
+      });
+      runner.waitOnProduce();
+    } finally {
+      runner.runDestroy();
+    }
+
+    Assert.assertEquals(4, recordCount.get());
+    Assert.assertEquals(2, fileThreads.size());
+    Set<String> threads = new HashSet<>();
+    for (Set<String> readers : fileThreads.values()) {
+      Assert.assertEquals(1, readers.size());
+      threads.addAll(readers);
+    }
+    Assert.assertEquals(2, threads.size());
+  }
+}
@@ -30,6 +30,8 @@ public class TestRemoteDownloadConfigBean {
         .getAnnotation(ConfigDef.class);
     String[] expectedFormats = Arrays.stream(DataFormat.values())
         .filter(dataFormat -> dataFormat != DataFormat.WHOLE_FILE)
+        // Formats that can only be written can't be read by the origin
+        .filter(dataFormat -> dataFormat.getParserFormat() != null)
         .map(dataFormat -> dataFormat.name())
         .toArray(String[]::new);
     Assert.assertArrayEquals(
@@ -52,6 +52,7 @@ public class TestRemoteDownloadSourceBuilder {
 
   private Compression dataFormatCompression;
   private String filePatternInArchive;
+  private int downloadSessions;
 
   public enum Scheme {
     sftp, ftp, ftps
@@ -76,6 +77,7 @@ public class TestRemoteDownloadSourceBuilder {
     this.archiveDirUserDirIsRoot = true;
     this.dataFormatCompression = Compression.NONE;
     this.filePatternInArchive = "";
+    this.downloadSessions = 1;
     this.fileDelayer = new FileDelayer(new SystemClock(), 0);
   }
 
@@ -159,6 +161,11 @@ public class TestRemoteDownloadSourceBuilder {
     return this;
   }
 
+  public TestRemoteDownloadSourceBuilder withDownloadSessions(int downloadSessions) {
+    this.downloadSessions = downloadSessions;
+    return this;
+  }
+
   public RemoteDownloadSource build() {
     RemoteDownloadConfigBean configBean = new RemoteDownloadConfigBean();
     configBean.remoteConfig.connection = new RemoteConnection();
@@ -182,6 +189,7 @@ public class TestRemoteDownloadSourceBuilder {
     configBean.archiveDirUserDirIsRoot = archiveDirUserDirIsRoot;
     configBean.dataFormatConfig.compression = this.dataFormatCompression;
     configBean.dataFormatConfig.filePatternInArchive = this.filePatternInArchive;
+    configBean.downloadSessions = this.downloadSessions;
 
     return new RemoteDownloadSource(configBean, this.fileDelayer);
   }
@@ -178,4 +178,17 @@ public class TestRemoteDownloadSourceUpgrader {
     UpgraderTestUtils.assertExists(configs, connectionPrefix + "protocol", "SFTP");
   }
 
+  @Test
+  public void testV8ToV9() {
+    Mockito.doReturn(8).when(context).getFromVersion();
+    Mockito.doReturn(9).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "conf.downloadSessions", 1);
+    UpgraderTestUtils.assertExists(configs, "conf.dataFormatConfig.projectionFieldPaths", new ArrayList<>());
+    UpgraderTestUtils.assertExists(configs, "conf.dataFormatConfig.projectionPredicateFieldPath", "");
+    UpgraderTestUtils.assertExists(configs, "conf.dataFormatConfig.projectionPredicateValues", new ArrayList<>());
+  }
+
 }
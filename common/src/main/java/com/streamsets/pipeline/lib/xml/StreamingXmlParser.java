@@ -21,32 +21,38 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.xml.xpath.MatchStatus;
-import com.streamsets.pipeline.lib.xml.xpath.XPathMatchingEventReader;
+import com.streamsets.pipeline.lib.xml.xpath.XPathMatchingEventTracker;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import javax.xml.XMLConstants;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.Namespace;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Extracts records from an XML document.
+ *
+ * The document is read with the StAX cursor API ({@link XMLStreamReader}), no event object is created per tag,
+ * attribute or text chunk. The record delimiter XPath is matched on the cursor as elements are consumed, names are
+ * computed once per document and the {@link Field} trees are built while the elements are read.
+ *
+ * The parser always works one event ahead: the cursor is positioned on the next event that has not been consumed yet
+ * and {@link #getReaderPosition()} returns its location, so a parser created with that position as initial position
+ * resumes right after the last returned record.
+ */
 public class StreamingXmlParser {
   private static final Logger LOG = LoggerFactory.getLogger(StreamingXmlParser.class);
 
@@ -61,17 +67,62 @@ public class StreamingXmlParser {
   public static final String XMLATTR_ATTRIBUTE_PREFIX = "xmlAttr:";
 
   private final Reader reader;
-  private final XPathMatchingEventReader xmlEventReader;
+  private final XMLStreamReader xmlReader;
+  private final XPathMatchingEventTracker xPathTracker;
   private final boolean useFieldAttributesInsteadOfFields;
   private final boolean preserveRootElement;
   private String recordElement;
   private boolean closed;
 
+  // if the current event of the cursor has been peeked but not consumed yet
+  private boolean pending;
+  private MatchStatus lastElementMatchResult = MatchStatus.UNDETERMINED;
+
   private String lastParsedFieldXpathPrefix;
   final LinkedList<String> elementNameStack = new LinkedList<>();
 
   private int generatedNsPrefixCount = 1;
   private final Map<String, String> namespaceUriToPrefix = new HashMap<>();
+  // names already computed for this document by name prefix, namespace URI and local name
+  private final Map<String, Map<String, Map<String, String>>> nameCache = new HashMap<>();
+
+  /**
+   * Name, attributes and namespace declarations of a consumed start element, the cursor moves past them before the
+   * element is completely parsed.
+   */
+  private static final class StartElementInfo {
+    private final String namespaceUri;
+    private final String prefix;
+    private final String localName;
+    private final String[] attributes;
+    private final String[] namespaces;
+
+    private StartElementInfo(XMLStreamReader reader) {
+      namespaceUri = Strings.nullToEmpty(reader.getNamespaceURI());
+      prefix = Strings.nullToEmpty(reader.getPrefix());
+      localName = reader.getLocalName();
+      int attributeCount = reader.getAttributeCount();
+      // namespace URI, prefix, local name and value of every attribute
+      attributes = new String[attributeCount * 4];
+      for (int i = 0; i < attributeCount; i++) {
+        attributes[i * 4] = Strings.nullToEmpty(reader.getAttributeNamespace(i));
+        attributes[i * 4 + 1] = Strings.nullToEmpty(reader.getAttributePrefix(i));
+        attributes[i * 4 + 2] = reader.getAttributeLocalName(i);
+        attributes[i * 4 + 3] = reader.getAttributeValue(i);
+      }
+      int namespaceCount = reader.getNamespaceCount();
+      // prefix and URI of every namespace declaration
+      namespaces = new String[namespaceCount * 2];
+      for (int i = 0; i < namespaceCount; i++) {
+        namespaces[i * 2] = Strings.nullToEmpty(reader.getNamespacePrefix(i));
+        namespaces[i * 2 + 1] = Strings.nullToEmpty(reader.getNamespaceURI(i));
+      }
+    }
+
+    private boolean hasName(String namespaceUri, String localName) {
+      return this.namespaceUri.equals(namespaceUri) && this.localName.equals(localName);
+    }
+  }
 
   public StreamingXmlParser(
       final Reader reader,
@@ -114,25 +165,27 @@ public class StreamingXmlParser {
     factory.setProperty("javax.xml.stream.isCoalescing", true);
     factory.setProperty("javax.xml.stream.isSupportingExternalEntities", false);
     factory.setProperty("javax.xml.stream.supportDTD", false);
-    this.xmlEventReader = new XPathMatchingEventReader(factory.createXMLEventReader(reader), this.recordElement, namespaces);
-    while (hasNext(xmlEventReader) && !peek(xmlEventReader).isEndDocument() && !peek(xmlEventReader).isStartElement()) {
-      read(xmlEventReader);
+    this.xmlReader = factory.createXMLStreamReader(reader);
+    this.xPathTracker = new XPathMatchingEventTracker(this.recordElement, namespaces);
+    // the START_DOCUMENT event is the first one to be consumed
+    pending = true;
+    while (hasNext() && peek() != XMLStreamConstants.END_DOCUMENT && peek() != XMLStreamConstants.START_ELEMENT) {
+      consume();
     }
     if (recordElement == null || recordElement.isEmpty()) {
-      StartElement startE = (StartElement) peek(xmlEventReader);
-      this.recordElement = startE.getName().getLocalPart();
+      this.recordElement = xmlReader.getLocalName();
     } else {
       //consuming root
-      StartElement startE = (StartElement) read(xmlEventReader);
-      elementNameStack.addFirst(getNameAndTrackNs(startE.getName()));
+      consume();
+      elementNameStack.addFirst(getElementNameAndTrackNs());
     }
     if (initialPosition > 0) {
       //fastforward to initial position
-      while (hasNext(xmlEventReader) && peek(xmlEventReader).getLocation().getCharacterOffset() < initialPosition) {
+      while (hasNext() && xmlReader.getLocation().getCharacterOffset() < initialPosition) {
         processNextEvent();
         fastForwardLeaseReader();
       }
-      xmlEventReader.clearLastMatch();
+      clearLastMatch();
     }
   }
 
@@ -151,21 +204,40 @@ public class StreamingXmlParser {
   public void close() {
     closed = true;
     try {
-      xmlEventReader.close();
+      xmlReader.close();
     } catch (Exception ex) {
       // NOP
     }
     elementNameStack.clear();
     generatedNsPrefixCount = 1;
     namespaceUriToPrefix.clear();
+    nameCache.clear();
   }
 
-  private String getNameAndTrackNs(QName name) {
-    final String uri = name.getNamespaceURI();
+  private String getNameAndTrackNs(String namePrefix, String uri, String prefix, String localName) {
+    Map<String, Map<String, String>> namesByUri = nameCache.get(namePrefix);
+    if (namesByUri == null) {
+      namesByUri = new HashMap<>();
+      nameCache.put(namePrefix, namesByUri);
+    }
+    Map<String, String> names = namesByUri.get(uri);
+    if (names == null) {
+      names = new HashMap<>();
+      namesByUri.put(uri, names);
+    }
+    String name = names.get(localName);
+    if (name == null) {
+      name = namePrefix + getNameAndTrackNs(uri, prefix, localName);
+      names.put(localName, name);
+    }
+    return name;
+  }
+
+  private String getNameAndTrackNs(String uri, String elementPrefix, String localName) {
     if (!Strings.isNullOrEmpty(uri)) {
       String prefix;
       if (!namespaceUriToPrefix.containsKey(uri)) {
-        prefix = name.getPrefix();
+        prefix = elementPrefix;
         if (Strings.isNullOrEmpty(prefix)) {
           //generate a new namespace prefix for it
           prefix = GENERATED_NAMESPACE_PREFIX + generatedNsPrefixCount++;
@@ -174,40 +246,73 @@ public class StreamingXmlParser {
       } else {
         prefix = namespaceUriToPrefix.get(uri);
       }
-      return prefix + ":" + name.getLocalPart();
+      return prefix + ":" + localName;
     } else {
       // element is in no namespace
-      return name.getLocalPart();
+      return localName;
     }
   }
 
+  private String getName(StartElementInfo element) {
+    return getNameAndTrackNs("", element.namespaceUri, element.prefix, element.localName);
+  }
+
+  private String getAttributeName(String namePrefix, StartElementInfo element, int index) {
+    String[] attributes = element.attributes;
+    return getNameAndTrackNs(namePrefix, attributes[index * 4], attributes[index * 4 + 1], attributes[index * 4 + 2]);
+  }
+
+  /**
+   * Returns the name of a namespace declaration, which is named the same way StAX namespace events are: the declared
+   * prefix in the xmlns namespace, an empty one for the default namespace.
+   */
+  private String getNamespaceName(String namePrefix, StartElementInfo element, int index) {
+    return getNameAndTrackNs(
+        namePrefix,
+        XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+        XMLConstants.XMLNS_ATTRIBUTE,
+        element.namespaces[index * 2]
+    );
+  }
+
+  private String getElementNameAndTrackNs() {
+    return getNameAndTrackNs(
+        "",
+        Strings.nullToEmpty(xmlReader.getNamespaceURI()),
+        Strings.nullToEmpty(xmlReader.getPrefix()),
+        xmlReader.getLocalName()
+    );
+  }
+
   public Field read() throws IOException, XMLStreamException {
     if (closed) {
       throw new IOException("The parser has been closed");
     }
     Field field = null;
-    if (hasNext(xmlEventReader)) {
+    if (hasNext()) {
       int depth = 0;
 
       // we need to skip first level elements that are not the record delimiter and we have to ignore record delimiter
       // elements deeper than first level
-      while (hasNext(xmlEventReader) && !isStartOfRecord()) {
+      while (!isStartOfRecord() && hasNext()) {
         depth += processNextEvent();
       }
-      if (hasNext(xmlEventReader)) {
-        StartElement startE = (StartElement) xmlEventReader.getLastMatchingEvent();
-        field = parse(xmlEventReader, startE);
+      if (isStartOfRecord()) {
+        // the cursor is on the start element of the record
+        StartElementInfo startE = new StartElementInfo(xmlReader);
+        field = parse(startE);
 
         if (preserveRootElement) {
           field = Field.create(Collections.singletonMap(getElementName(startE), field));
         }
+        lastParsedFieldXpathPrefix = getXpathPrefix();
 
         // the while loop consumes the start element for a record, and the parse method above consumes the end
         // so remove it from the stack
         elementNameStack.removeFirst();
       }
       // if advancing, don't evaluate XPath matches
-      xmlEventReader.clearLastMatch();
+      clearLastMatch();
     }
     return field;
   }
@@ -216,7 +321,7 @@ public class StreamingXmlParser {
   }
 
   public long getReaderPosition() throws XMLStreamException {
-    return (hasNext(xmlEventReader)) ? peek(xmlEventReader).getLocation().getCharacterOffset() : -1;
+    return (hasNext()) ? xmlReader.getLocation().getCharacterOffset() : -1;
   }
 
   public String getXpathPrefix() {
@@ -224,62 +329,97 @@ public class StreamingXmlParser {
   }
 
   private boolean isStartOfRecord() {
-    return xmlEventReader.getLastElementMatchResult() == MatchStatus.ELEMENT_MATCH;
+    return lastElementMatchResult == MatchStatus.ELEMENT_MATCH;
   }
 
-  boolean isIgnorable(XMLEvent event) {
-    return event.getEventType() == XMLEvent.PROCESSING_INSTRUCTION || event.getEventType() == XMLEvent.COMMENT;
+  private void clearLastMatch() {
+    lastElementMatchResult = MatchStatus.UNDETERMINED;
   }
 
-  void skipIgnorable(XMLEventReader reader) throws XMLStreamException {
-    while (reader.hasNext() && isIgnorable(reader.peek())) {
-      reader.nextEvent();
+  private static boolean isIgnorable(int eventType) {
+    return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION || eventType == XMLStreamConstants.COMMENT;
+  }
+
+  private static boolean isCharacters(int eventType) {
+    return eventType == XMLStreamConstants.CHARACTERS
+        || eventType == XMLStreamConstants.CDATA
+        || eventType == XMLStreamConstants.SPACE;
+  }
+
+  /**
+   * Moves the cursor to the next event if the current one has been consumed.
+   */
+  private boolean advance() throws XMLStreamException {
+    if (!pending) {
+      if (!xmlReader.hasNext()) {
+        return false;
+      }
+      xmlReader.next();
+      pending = true;
     }
+    return true;
   }
 
-  boolean hasNext(XMLEventReader reader) throws XMLStreamException {
-    skipIgnorable(reader);
-    return reader.hasNext();
+  private void skipIgnorable() throws XMLStreamException {
+    while (advance() && isIgnorable(xmlReader.getEventType())) {
+      consume();
+    }
   }
 
-  XMLEvent peek(XMLEventReader reader) throws XMLStreamException {
-    skipIgnorable(reader);
-    return reader.peek();
+  private boolean hasNext() throws XMLStreamException {
+    skipIgnorable();
+    return pending;
   }
 
-  XMLEvent read(XMLEventReader reader) throws XMLStreamException  {
-    skipIgnorable(reader);
-    return reader.nextEvent();
+  /**
+   * Returns the type of the next event without consuming it, it must be called after {@link #hasNext()}.
+   */
+  private int peek() throws XMLStreamException {
+    skipIgnorable();
+    return xmlReader.getEventType();
   }
 
-  String getName(String namePrefix, Attribute element) {
-    return getName(element.getName(), namePrefix);
+  /**
+   * Consumes the next event, its data is available on the cursor until the next call to {@link #hasNext()} or
+   * {@link #peek()}.
+   */
+  private int readEvent() throws XMLStreamException {
+    skipIgnorable();
+    if (!pending) {
+      throw new XMLStreamException("Unexpected end of document", xmlReader.getLocation());
+    }
+    return consume();
   }
 
-  String getName(StartElement element) {
-    return getName(element.getName(), null);
+  private int consume() throws XMLStreamException {
+    pending = false;
+    MatchStatus result = xPathTracker.isMatch(xmlReader);
+    if (!result.equals(MatchStatus.UNDETERMINED)) {
+      // it is a definitive element match result, one way or the other
+      lastElementMatchResult = result;
+    }
+    return xmlReader.getEventType();
   }
 
-  private String getName(QName name, String namePrefix) {
-    StringBuilder sb = new StringBuilder();
-    if (!Strings.isNullOrEmpty(namePrefix)) {
-      sb.append(namePrefix);
+  private boolean isWhiteSpace() {
+    char[] chars = xmlReader.getTextCharacters();
+    int end = xmlReader.getTextStart() + xmlReader.getTextLength();
+    for (int i = xmlReader.getTextStart(); i < end; i++) {
+      char c = chars[i];
+      if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+        return false;
+      }
     }
-    sb.append(getNameAndTrackNs(name));
-    return sb.toString();
+    return true;
   }
 
-  Map<String, Field> toField(StartElement startE) {
+  private Map<String, Field> toField(StartElementInfo startE) {
     Map<String, Field> map = new LinkedHashMap<>();
-    Iterator attrs = startE.getAttributes();
-    while (attrs.hasNext()) {
-      Attribute attr = (Attribute) attrs.next();
-      map.put(getName(ATTR_PREFIX_KEY, attr), Field.create(attr.getValue()));
+    for (int i = 0; i < startE.attributes.length / 4; i++) {
+      map.put(getAttributeName(ATTR_PREFIX_KEY, startE, i), Field.create(startE.attributes[i * 4 + 3]));
     }
-    Iterator nss = startE.getNamespaces();
-    while (nss.hasNext()) {
-      Namespace ns = (Namespace) nss.next();
-      map.put(getName(NS_PREFIX_KEY, ns), Field.create(ns.getNamespaceURI()));
+    for (int i = 0; i < startE.namespaces.length / 2; i++) {
+      map.put(getNamespaceName(NS_PREFIX_KEY, startE, i), Field.create(startE.namespaces[i * 2 + 1]));
     }
     return map;
   }
@@ -301,97 +441,111 @@ public class StreamingXmlParser {
     list.add(field);
   }
 
+  /**
+   * Parses the element whose start has just been consumed, up to and including its end element.
+   */
   @SuppressWarnings("unchecked")
-  Field parse(XMLEventReader reader, StartElement startE) throws XMLStreamException, ObjectLengthException {
+  private Field parse(StartElementInfo startE) throws XMLStreamException, ObjectLengthException {
     Map<String, Field> map = this.useFieldAttributesInsteadOfFields ? new LinkedHashMap<>() : toField(startE);
-    Map<String, Field> startEMap = map;
     Map<String, Object> contents = new LinkedHashMap<>();
     boolean maybeText = true;
-    while (hasNext(reader) && !peek(reader).isEndElement()) {
-      XMLEvent next = read(reader);
-      if (next.isCharacters()) {
+    while (hasNext() && peek() != XMLStreamConstants.END_ELEMENT) {
+      int next = readEvent();
+      if (isCharacters(next)) {
         // If this set of characters is all whitespace, ignore.
-        if (next.asCharacters().isWhiteSpace()) {
+        if (isWhiteSpace()) {
           continue;
-        } else if (peek(reader).isEndElement() && maybeText) {
-          contents.put(VALUE_KEY, Field.create(((Characters)next).getData()));
-        } else if (peek(reader).isStartElement()) {
-          StartElement subStartE = (StartElement) read(reader);
-          Field subField = parse(reader, subStartE);
+        }
+        String text = xmlReader.getText();
+        if (peek() == XMLStreamConstants.END_ELEMENT && maybeText) {
+          contents.put(VALUE_KEY, Field.create(text));
+        } else if (peek() == XMLStreamConstants.START_ELEMENT) {
+          readEvent();
+          StartElementInfo subStartE = new StartElementInfo(xmlReader);
+          Field subField = parse(subStartE);
           addContent(contents, getName(subStartE), subField);
-          if (hasNext(reader) && peek(reader).isCharacters()) {
-            read(reader);
+          if (hasNext() && isCharacters(peek())) {
+            readEvent();
           }
         } else if (maybeText) {
           throw new XMLStreamException(Utils.format(
-              "Unexpected XMLEvent '{}', it should be START_ELEMENT or END_ELEMENT", next), next.getLocation());
+              "Unexpected XMLEvent '{}', it should be START_ELEMENT or END_ELEMENT", text), xmlReader.getLocation());
         }
-      } else if (next.isStartElement()) {
-        String name = getName((StartElement) next);
-        Field field = parse(reader, (StartElement) next);
+      } else if (next == XMLStreamConstants.START_ELEMENT) {
+        StartElementInfo subStartE = new StartElementInfo(xmlReader);
+        String name = getName(subStartE);
+        Field field = parse(subStartE);
         addContent(contents, name, field);
       } else {
         throw new XMLStreamException(Utils.format("Unexpected XMLEvent '{}', it should be START_ELEMENT or CHARACTERS",
-                                                  next), next.getLocation());
+                                                  getEventTypeName(next)), xmlReader.getLocation());
       }
       maybeText = false;
     }
-    if (hasNext(reader)) {
-      EndElement endE = (EndElement) read(reader);
-      if (!endE.getName().equals(startE.getName())) {
+    if (hasNext()) {
+      readEvent();
+      String endNamespaceUri = Strings.nullToEmpty(xmlReader.getNamespaceURI());
+      String endLocalName = xmlReader.getLocalName();
+      if (!startE.hasName(endNamespaceUri, endLocalName)) {
         throw new XMLStreamException(Utils.format("Unexpected EndElement '{}', it should be '{}'",
-                                                  endE.getName().getLocalPart(), startE.getName().getLocalPart()),
-                                     endE.getLocation());
+                                                  endLocalName, startE.localName),
+                                     xmlReader.getLocation());
       }
       for (Map.Entry<String, Object> entry : contents.entrySet()) {
         if (entry.getValue() instanceof Field) {
-          startEMap.put(entry.getKey(), (Field) entry.getValue());
+          map.put(entry.getKey(), (Field) entry.getValue());
         } else {
-          startEMap.put(entry.getKey(), Field.create((List<Field>)entry.getValue()));
+          map.put(entry.getKey(), Field.create((List<Field>)entry.getValue()));
         }
       }
     }
-    final Field field = Field.create(startEMap);
+    final Field field = Field.create(map);
 
     if (this.useFieldAttributesInsteadOfFields) {
-      Iterator attrs = startE.getAttributes();
-      while (attrs.hasNext()) {
-        Attribute attr = (Attribute) attrs.next();
-        field.setAttribute(getName(XMLATTR_ATTRIBUTE_PREFIX, attr), attr.getValue());
+      for (int i = 0; i < startE.attributes.length / 4; i++) {
+        field.setAttribute(getAttributeName(XMLATTR_ATTRIBUTE_PREFIX, startE, i), startE.attributes[i * 4 + 3]);
       }
-      Iterator nss = startE.getNamespaces();
-      while (nss.hasNext()) {
-        Namespace ns = (Namespace) nss.next();
-        field.setAttribute(getName(null, ns), ns.getNamespaceURI());
+      for (int i = 0; i < startE.namespaces.length / 2; i++) {
+        field.setAttribute(getNamespaceName("", startE, i), startE.namespaces[i * 2 + 1]);
       }
     }
-
-    lastParsedFieldXpathPrefix = getXpathPrefix();
     return field;
   }
 
+  private static String getEventTypeName(int eventType) {
+    switch (eventType) {
+      case XMLStreamConstants.END_DOCUMENT:
+        return "END_DOCUMENT";
+      case XMLStreamConstants.ENTITY_REFERENCE:
+        return "ENTITY_REFERENCE";
+      case XMLStreamConstants.DTD:
+        return "DTD";
+      default:
+        return String.valueOf(eventType);
+    }
+  }
+
   protected void throwIfOverMaxObjectLength() throws XMLStreamException, ObjectLengthException {
   }
 
   private int processNextEvent() throws XMLStreamException {
-    XMLEvent event = read(xmlEventReader);
+    int event = readEvent();
     int depthUpdate = 0;
-    if (event.isStartElement()) {
-      elementNameStack.addFirst(getNameAndTrackNs(event.asStartElement().getName()));
+    if (event == XMLStreamConstants.START_ELEMENT) {
+      elementNameStack.addFirst(getElementNameAndTrackNs());
       depthUpdate = 1;
-    } else if (event.getEventType() == XMLEvent.END_ELEMENT) {
+    } else if (event == XMLStreamConstants.END_ELEMENT) {
       elementNameStack.removeFirst();
       depthUpdate = -1;
     }
     return depthUpdate;
   }
 
-  private String getElementName(StartElement element) {
-    QName elementName = element.getName();
-    if (elementName.getPrefix().isEmpty()) {
-      return elementName.getLocalPart();
+  private String getElementName(StartElementInfo element) {
+    if (element.prefix.isEmpty()) {
+      return element.localName;
     } else {
-      return String.format("%s:%s", element.getName().getPrefix(), element.getName().getLocalPart());
+      return String.format("%s:%s", element.prefix, element.localName);
     }
   }
 
@@ -15,9 +15,12 @@
  */
 package com.streamsets.pipeline.lib.xml.xpath;
 
-import javax.xml.stream.events.StartElement;
+import javax.xml.stream.XMLStreamReader;
 
 public interface ElementMatcher {
 
-  boolean checkStartElement(StartElement startElement);
+  /**
+   * Returns whether the START_ELEMENT the cursor is positioned on matches this part of the XPath.
+   */
+  boolean checkStartElement(XMLStreamReader reader);
 }
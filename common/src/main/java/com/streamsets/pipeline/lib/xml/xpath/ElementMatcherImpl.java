@@ -18,11 +18,8 @@ package com.streamsets.pipeline.lib.xml.xpath;
 import com.google.common.base.Strings;
 import com.streamsets.pipeline.lib.xml.Constants;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
+import javax.xml.stream.XMLStreamReader;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 class ElementMatcherImpl implements ElementMatcher {
@@ -81,17 +78,14 @@ class ElementMatcherImpl implements ElementMatcher {
   }
 
   @Override
-  public boolean checkStartElement(StartElement startElement) {
-    if (wildcardElement || isQualifiedMatch(startElement.getName())) {
+  public boolean checkStartElement(XMLStreamReader reader) {
+    if (wildcardElement || isQualifiedMatch(reader.getNamespaceURI(), reader.getLocalName())) {
       numElementsSeen++;
       if (byIndex) {
         return numElementsSeen == index;
       } else if (byAttribute) {
-        final Iterator<?> attrIter = startElement.getAttributes();
-        while (attrIter.hasNext()) {
-          Attribute attrib = (Attribute) attrIter.next();
-          if (attrib.getName().getLocalPart().equals(attributeName) &&
-              (Constants.WILDCARD.equals(attributeValue)) || attrib.getValue().equals(attributeValue)) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+          if (isAttributeMatch(reader.getAttributeLocalName(i), reader.getAttributeValue(i))) {
             return true;
           }
         }
@@ -104,15 +98,20 @@ class ElementMatcherImpl implements ElementMatcher {
     }
   }
 
-  private boolean isQualifiedMatch(QName elementQName) {
+  private boolean isAttributeMatch(String localName, String value) {
+    return localName.equals(attributeName)
+        && (Constants.WILDCARD.equals(attributeValue) || value.equals(attributeValue));
+  }
+
+  private boolean isQualifiedMatch(String namespaceUri, String localPart) {
     boolean namespaceMatches;
     if (namespacePrefix == null) {
       // xpath has no prefix; the element should therefore also have no namespace if namespaces are not ignored
-      namespaceMatches = ignoreNamespaces || Strings.isNullOrEmpty(elementQName.getNamespaceURI());
+      namespaceMatches = ignoreNamespaces || Strings.isNullOrEmpty(namespaceUri);
     } else {
       namespaceMatches = namespaces.containsKey(namespacePrefix) &&
-          namespaces.get(namespacePrefix).equals(elementQName.getNamespaceURI());
+          namespaces.get(namespacePrefix).equals(namespaceUri);
     }
-    return elementQName.getLocalPart().equals(this.elementName) && namespaceMatches;
+    return localPart.equals(this.elementName) && namespaceMatches;
   }
 }
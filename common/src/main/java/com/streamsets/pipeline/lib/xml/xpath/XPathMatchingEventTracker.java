@@ -19,7 +19,8 @@ import com.google.common.base.Strings;
 import com.streamsets.pipeline.api.impl.XMLChar;
 import com.streamsets.pipeline.lib.xml.Constants;
 
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -55,39 +56,51 @@ public class XPathMatchingEventTracker {
     }
   }
 
-  public MatchStatus isMatch(XMLEvent event) {
-    if (event.isStartElement()) {
-      depth++;
+  /**
+   * Returns whether the element the cursor has just moved to matches the XPath.
+   */
+  public MatchStatus isMatch(XMLStreamReader reader) {
+    switch (reader.getEventType()) {
+      case XMLStreamConstants.START_ELEMENT:
+        return isStartElementMatch(reader);
+      case XMLStreamConstants.END_ELEMENT:
+        return endElement();
+      default:
+        return MatchStatus.UNDETERMINED;
+    }
+  }
 
-      if (depth > matchersByDepth.size()) {
-        return MatchStatus.ELEMENT_NOT_MATCH;
-      } else if (depth-1 > matchesThroughDepth) {
-        return MatchStatus.ELEMENT_NOT_MATCH;
-      } else {
-        final ElementMatcher matcher = matchersByDepth.get(depth-1);
-        if (matcher.checkStartElement(event.asStartElement())) {
-          matchesThroughDepth = depth;
-          if (matchesThroughDepth == matchersByDepth.size()) {
-            // we have matched all levels through the current
-            return MatchStatus.ELEMENT_MATCH;
-          } else {
-            // at least one more level needs to match
-            return MatchStatus.UNDETERMINED;
-          }
+  private MatchStatus isStartElementMatch(XMLStreamReader reader) {
+    depth++;
+
+    if (depth > matchersByDepth.size()) {
+      return MatchStatus.ELEMENT_NOT_MATCH;
+    } else if (depth-1 > matchesThroughDepth) {
+      return MatchStatus.ELEMENT_NOT_MATCH;
+    } else {
+      final ElementMatcher matcher = matchersByDepth.get(depth-1);
+      if (matcher.checkStartElement(reader)) {
+        matchesThroughDepth = depth;
+        if (matchesThroughDepth == matchersByDepth.size()) {
+          // we have matched all levels through the current
+          return MatchStatus.ELEMENT_MATCH;
         } else {
-          // did not match at this level
-          return MatchStatus.ELEMENT_NOT_MATCH;
+          // at least one more level needs to match
+          return MatchStatus.UNDETERMINED;
         }
+      } else {
+        // did not match at this level
+        return MatchStatus.ELEMENT_NOT_MATCH;
       }
-    } else if (event.isEndElement()) {
-      depth--;
-      if (matchesThroughDepth > depth) {
-        matchesThroughDepth = depth;
-      }
-      return MatchStatus.UNDETERMINED;
-    } else {
-      return MatchStatus.UNDETERMINED;
     }
   }
 
+  private MatchStatus endElement() {
+    depth--;
+    if (matchesThroughDepth > depth) {
+      matchesThroughDepth = depth;
+    }
+    return MatchStatus.UNDETERMINED;
+  }
+
 }
@@ -21,6 +21,8 @@ import org.junit.Test;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -370,4 +372,79 @@ public class TestStreamingXmlParser {
     field = parser.read();
     Assert.assertNotNull(field.getValueAsMap().get("record"));
   }
+
+  @Test
+  public void testParserSkipsCommentsAndProcessingInstructions() throws Exception {
+    String xml = "<?xml version=\"1.0\"?><!-- c --><root><?pi x?>" +
+        "<record a=\"1\"><!-- c --><![CDATA[v <1>]]></record>" +
+        "<record><a>1</a><?pi y?><!-- c --><a>2</a></record>" +
+        "</root>";
+    StreamingXmlParser parser = new StreamingXmlParserBuilder()
+        .withReader(new StringReader(xml))
+        .withRecordElement("record")
+        .withUseFieldAttributesInsteadOfFields(false)
+        .build();
+
+    Field f = parser.read();
+    Assert.assertNotNull(f);
+    Assert.assertEquals("1", f.getValueAsMap().get(StreamingXmlParser.ATTR_PREFIX_KEY + "a").getValue());
+    Assert.assertEquals("v <1>", f.getValueAsMap().get("value").getValue());
+    long position = parser.getReaderPosition();
+
+    f = parser.read();
+    Assert.assertNotNull(f);
+    Assert.assertEquals(2, f.getValueAsMap().get("a").getValueAsList().size());
+    Assert.assertEquals("2", f.getValueAsMap().get("a").getValueAsList().get(1).getValueAsMap().get("value").getValue());
+    Assert.assertEquals("/root/record", parser.getLastParsedFieldXpathPrefix());
+    Assert.assertNull(parser.read());
+    parser.close();
+
+    // resuming from the position after the first record returns the second one
+    parser = new StreamingXmlParserBuilder()
+        .withReader(new StringReader(xml))
+        .withRecordElement("record")
+        .withInitialPosition(position)
+        .withUseFieldAttributesInsteadOfFields(false)
+        .build();
+    f = parser.read();
+    Assert.assertNotNull(f);
+    Assert.assertEquals(2, f.getValueAsMap().get("a").getValueAsList().size());
+    Assert.assertNull(parser.read());
+    parser.close();
+  }
+
+  @Test
+  public void testParserAttributePredicateMismatch() throws Exception {
+    // the second record has the expected value in another attribute, the third one in none
+    String xml = "<root><rec type=\"b\">1</rec><rec other=\"b\">2</rec><rec type=\"a\">3</rec>" +
+        "<rec type=\"b\">4</rec></root>";
+    StreamingXmlParser parser = new StreamingXmlParserBuilder()
+        .withReader(new StringReader(xml))
+        .withRecordElement("/root/rec[@type='b']")
+        .withUseFieldAttributesInsteadOfFields(false)
+        .build();
+
+    Field f = parser.read();
+    Assert.assertNotNull(f);
+    Assert.assertEquals("1", f.getValueAsMap().get("value").getValue());
+    f = parser.read();
+    Assert.assertNotNull(f);
+    Assert.assertEquals("4", f.getValueAsMap().get("value").getValue());
+    Assert.assertNull(parser.read());
+    parser.close();
+
+    // a wildcard value only requires the attribute to be present
+    parser = new StreamingXmlParserBuilder()
+        .withReader(new StringReader(xml))
+        .withRecordElement("/root/rec[@type='*']")
+        .withUseFieldAttributesInsteadOfFields(false)
+        .build();
+
+    List<String> values = new LinkedList<>();
+    for (f = parser.read(); f != null; f = parser.read()) {
+      values.add((String) f.getValueAsMap().get("value").getValue());
+    }
+    Assert.assertEquals(Arrays.asList("1", "3", "4"), values);
+    parser.close();
+  }
 }
@@ -37,6 +37,8 @@ public enum DataFormat implements Label {
   NETFLOW("Netflow", DataParserFormat.NETFLOW, null),
   EXCEL("Excel", DataParserFormat.EXCEL, null),
   FLOWFILE("Nifi FlowFile", DataParserFormat.FLOWFILE, null),
+  PARQUET("Parquet", null, DataGeneratorFormat.PARQUET),
+  ORC("ORC", null, DataGeneratorFormat.ORC),
   ;
 
   private final String label;
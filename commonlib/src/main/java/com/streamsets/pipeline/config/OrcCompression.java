@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.config;
+
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.Label;
+
+@GenerateResourceBundle
+public enum OrcCompression implements Label {
+  NONE("None", "NONE"),
+  ZLIB("Zlib", "ZLIB"),
+  SNAPPY("Snappy", "SNAPPY"),
+  LZ4("LZ4", "LZ4"),
+  ;
+
+  private final String label;
+  private final String codecName;
+
+  OrcCompression(String label, String codecName) {
+    this.label = label;
+    this.codecName = codecName;
+  }
+
+  @Override
+  public String getLabel() {
+    return label;
+  }
+
+  public String getCodecName() {
+    return codecName;
+  }
+
+}
@@ -40,6 +40,7 @@ public class DataFactoryBuilder<B extends DataFactoryBuilder, DF extends DataFac
   private int overRunLimit = DataFormatConstants.MAX_OVERRUN_LIMIT;
   private String filePatternInArchive = DataFormatConstants.FILE_PATTERN_IN_ARCHIVE;
   private int stringBuilderPoolSize = DataFormatConstants.DEFAULT_STRING_BUILDER_POOL_SIZE;
+  private int decompressionReadAheadBuffers = DataFormatConstants.DEFAULT_DECOMPRESSION_READ_AHEAD_BUFFERS;
 
   public DataFactoryBuilder(ProtoConfigurableEntity.Context context, F format) {
     this.context = Utils.checkNotNull(context, "context");
@@ -122,6 +123,13 @@ public class DataFactoryBuilder<B extends DataFactoryBuilder, DF extends DataFac
     return (B) this;
   }
 
+  public B setDecompressionReadAheadBuffers(int decompressionReadAheadBuffers) {
+    Utils.checkArgument(decompressionReadAheadBuffers >= 0, Utils.formatL(
+      "decompressionReadAheadBuffers '{}' cannot be negative, use 0 to disable it", decompressionReadAheadBuffers));
+    this.decompressionReadAheadBuffers = decompressionReadAheadBuffers;
+    return (B) this;
+  }
+
   public B setOverRunLimit(int overRunLimit) {
     Utils.checkArgument(overRunLimit > 0 && overRunLimit <= DataFormatConstants.MAX_OVERRUN_LIMIT, Utils.formatL(
       "overRunLimit '{}' must be greater than 0 and less than or equal to " + DataFormatConstants.MAX_OVERRUN_LIMIT, overRunLimit));
@@ -133,7 +141,8 @@ public class DataFactoryBuilder<B extends DataFactoryBuilder, DF extends DataFac
     Utils.checkState(modes.size() == expectedModes.size(),
                      Utils.formatL("Format '{}', all required modes have not been set", format));
     DataFactory.Settings settings = new DataFactory.Settings(context, format, compression, filePatternInArchive,
-        charset, maxDataLen, modes, configs, overRunLimit, removeCtrlChars, stringBuilderPoolSize);
+        charset, maxDataLen, modes, configs, overRunLimit, removeCtrlChars, stringBuilderPoolSize,
+        decompressionReadAheadBuffers);
     return format.create(settings);
   }
 
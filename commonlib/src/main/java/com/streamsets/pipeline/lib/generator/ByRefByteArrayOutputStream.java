@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * ByteArrayOutputStream that gives access to its internal buffer, so the written bytes can be read without the
+ * copy done by {@link #toByteArray()}. The buffer keeps its capacity across {@link #reset()} calls.
+ */
+public class ByRefByteArrayOutputStream extends ByteArrayOutputStream {
+
+  public ByRefByteArrayOutputStream() {
+    super();
+  }
+
+  public ByRefByteArrayOutputStream(int size) {
+    super(size);
+  }
+
+  /**
+   * Returns the internal buffer, only the first {@link #size()} bytes are valid.
+   */
+  public byte[] getInternalBuffer() {
+    return buf;
+  }
+
+}
@@ -53,6 +53,17 @@ public abstract class DataGeneratorFactory extends DataFactory {
 
   public abstract DataGenerator getGenerator(OutputStream os) throws IOException;
 
+  /**
+   * Returns a generator that serializes one record at a time into a reused byte buffer, for destinations that write
+   * every record as a separate message.
+   *
+   * Factories whose format writes every record independently of the previous ones override this method to keep a
+   * single underlying generator.
+   */
+  public ReusableDataGenerator getReusableGenerator() {
+    return new ReusableDataGenerator(this, false, null);
+  }
+
   public Writer createWriter(OutputStream os) {
     return new OutputStreamWriter(os, getSettings().getCharset());
   }
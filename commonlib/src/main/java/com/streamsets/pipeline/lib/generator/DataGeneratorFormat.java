@@ -22,6 +22,8 @@ import com.streamsets.pipeline.lib.generator.avro.AvroDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.binary.BinaryDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.delimited.DelimitedDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.json.JsonDataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.orc.OrcDataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.parquet.ParquetDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.protobuf.ProtobufDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.sdcrecord.SdcRecordDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.text.TextDataGeneratorFactory;
@@ -46,6 +48,8 @@ public enum DataGeneratorFormat implements DataFormat<DataGeneratorFactory> {
   BINARY(BinaryDataGeneratorFactory.class, BinaryDataGeneratorFactory.MODES, BinaryDataGeneratorFactory.CONFIGS),
   PROTOBUF(ProtobufDataGeneratorFactory.class, ProtobufDataGeneratorFactory.MODES, ProtobufDataGeneratorFactory.CONFIGS),
   WHOLE_FILE(WholeFileDataGeneratorFactory.class, WholeFileDataGeneratorFactory.MODES, WholeFileDataGeneratorFactory.CONFIGS),
+  PARQUET(ParquetDataGeneratorFactory.class, ParquetDataGeneratorFactory.MODES, ParquetDataGeneratorFactory.CONFIGS),
+  ORC(OrcDataGeneratorFactory.class, OrcDataGeneratorFactory.MODES, OrcDataGeneratorFactory.CONFIGS),
   ;
 
   private final Class<? extends DataGeneratorFactory> klass;
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Record;
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Serializes records one at a time into a reused, growable byte buffer.
+ *
+ * The bytes of the last serialized record are available through {@link #getBuffer()}, {@link #getOffset()} and
+ * {@link #getLength()} until the next call to {@link #serialize(Record)}. When the data format allows it, a single
+ * underlying {@link DataGenerator} is kept for all the records, otherwise a generator is created per record but the
+ * buffer is still reused.
+ *
+ * Instances are not thread safe, use one per stage instance.
+ */
+public class ReusableDataGenerator implements Closeable {
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private final DataGeneratorFactory factory;
+  private final boolean keepGenerator;
+  private final byte[] recordSeparator;
+  private final ByRefByteArrayOutputStream buffer;
+
+  private DataGenerator generator;
+  private boolean firstRecord;
+  private int offset;
+
+  /**
+   * @param factory factory creating the underlying generators.
+   * @param keepGenerator if a single generator is used for all records, only valid for formats that write every
+   * record independently of the previous ones.
+   * @param recordSeparator bytes the kept generator writes before every record but the first, they are skipped from
+   * the serialized record. It can be NULL.
+   */
+  public ReusableDataGenerator(DataGeneratorFactory factory, boolean keepGenerator, byte[] recordSeparator) {
+    this.factory = factory;
+    this.keepGenerator = keepGenerator;
+    this.recordSeparator = (recordSeparator == null) ? new byte[0] : recordSeparator;
+    buffer = new ByRefByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+    firstRecord = true;
+  }
+
+  public void serialize(Record record) throws IOException, DataGeneratorException {
+    buffer.reset();
+    offset = 0;
+    if (!keepGenerator) {
+      DataGenerator recordGenerator = factory.getGenerator(buffer);
+      recordGenerator.write(record);
+      recordGenerator.close();
+      return;
+    }
+
+    if (generator == null) {
+      generator = factory.getGenerator(buffer);
+      firstRecord = true;
+    }
+    boolean written = false;
+    try {
+      generator.write(record);
+      generator.flush();
+      written = true;
+    } finally {
+      if (!written) {
+        // the generator may have been left in the middle of a record, start from scratch with the next one
+        discardGenerator();
+        buffer.reset();
+      }
+    }
+    if (!firstRecord && startsWithSeparator()) {
+      offset = recordSeparator.length;
+    }
+    firstRecord = false;
+  }
+
+  private boolean startsWithSeparator() {
+    int length = recordSeparator.length;
+    if (length == 0 || buffer.size() < length) {
+      return false;
+    }
+    byte[] bytes = buffer.getInternalBuffer();
+    for (int i = 0; i < length; i++) {
+      if (bytes[i] != recordSeparator[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the internal buffer holding the last serialized record, it is overwritten by the next record.
+   */
+  public byte[] getBuffer() {
+    return buffer.getInternalBuffer();
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return buffer.size() - offset;
+  }
+
+  /**
+   * Returns a copy of the last serialized record, for consumers that keep the bytes beyond the next record.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOfRange(buffer.getInternalBuffer(), offset, buffer.size());
+  }
+
+  private void discardGenerator() {
+    if (generator != null) {
+      IOUtils.closeQuietly(generator);
+      generator = null;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (generator != null) {
+      generator.close();
+      generator = null;
+    }
+    buffer.reset();
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.avro;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import org.apache.avro.Schema;
+import org.codehaus.jackson.node.IntNode;
+import org.codehaus.jackson.node.NullNode;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infers an Avro schema from the structure of a record. Every field is nullable, map fields become nested records
+ * and list fields take the type of their first non null item.
+ */
+public class AvroSchemaGeneratorFromRecord extends AvroSchemaGenerator<Record> {
+
+  public AvroSchemaGeneratorFromRecord(final String name) {
+    super(name);
+  }
+
+  @Override
+  public String inferSchema(Record record) throws DataGeneratorException {
+    Field root = record.get();
+    if (root == null || !root.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP)) {
+      throw new DataGeneratorException(Errors.AVRO_GENERATOR_07, "/", root == null ? null : root.getType());
+    }
+    return buildSchema(inferFields(root.getValueAsMap(), "", new LinkedList<>())).toString();
+  }
+
+  private Map<String, Schema> inferFields(
+      Map<String, Field> fields,
+      String path,
+      LinkedList<String> levels
+  ) throws DataGeneratorException {
+    Map<String, Schema> schemas = new LinkedHashMap<>();
+    for (Map.Entry<String, Field> entry : fields.entrySet()) {
+      levels.addLast(entry.getKey());
+      Schema columnSchema = nullable(inferType(entry.getValue(), path + "/" + entry.getKey(), levels));
+      // We always set default value to null
+      columnSchema.addProp("default", NullNode.getInstance());
+      schemas.put(entry.getKey(), columnSchema);
+      levels.removeLast();
+    }
+    return schemas;
+  }
+
+  private Schema inferType(Field field, String path, LinkedList<String> levels) throws DataGeneratorException {
+    switch (field.getType()) {
+      case BOOLEAN:
+        return Schema.create(Schema.Type.BOOLEAN);
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+        return Schema.create(Schema.Type.INT);
+      case LONG:
+        return Schema.create(Schema.Type.LONG);
+      case FLOAT:
+        return Schema.create(Schema.Type.FLOAT);
+      case DOUBLE:
+        return Schema.create(Schema.Type.DOUBLE);
+      case CHAR:
+      case STRING:
+      case ZONED_DATETIME:
+        return Schema.create(Schema.Type.STRING);
+      case BYTE_ARRAY:
+        return Schema.create(Schema.Type.BYTES);
+      case DATE:
+        return logical(Schema.Type.INT, AvroTypeUtil.LOGICAL_TYPE_DATE);
+      case TIME:
+        return logical(Schema.Type.INT, AvroTypeUtil.LOGICAL_TYPE_TIME_MILLIS);
+      case DATETIME:
+        return logical(Schema.Type.LONG, AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MILLIS);
+      case DECIMAL:
+        return decimal(field, path);
+      case LIST:
+        List<Field> items = field.getValueAsList();
+        if (items != null) {
+          for (Field item : items) {
+            if (item != null && item.getValue() != null) {
+              return Schema.createArray(nullable(inferType(item, path + "[]", levels)));
+            }
+          }
+        }
+        // Nothing to infer the item type from
+        throw new DataGeneratorException(Errors.AVRO_GENERATOR_07, path, field.getType());
+      case MAP:
+      case LIST_MAP:
+        if (field.getValue() == null) {
+          throw new DataGeneratorException(Errors.AVRO_GENERATOR_07, path, field.getType());
+        }
+        return buildSchema(inferFields(field.getValueAsMap(), path, levels), levels);
+      default:
+        throw new DataGeneratorException(Errors.AVRO_GENERATOR_07, path, field.getType());
+    }
+  }
+
+  private static Schema decimal(Field field, String path) throws DataGeneratorException {
+    int precision;
+    int scale;
+    String precisionAttribute = field.getAttribute(AvroTypeUtil.LOGICAL_TYPE_ATTR_PRECISION);
+    String scaleAttribute = field.getAttribute(AvroTypeUtil.LOGICAL_TYPE_ATTR_SCALE);
+    if (precisionAttribute != null && scaleAttribute != null) {
+      precision = Integer.parseInt(precisionAttribute);
+      scale = Integer.parseInt(scaleAttribute);
+    } else if (field.getValue() != null) {
+      BigDecimal value = field.getValueAsDecimal();
+      scale = Math.max(value.scale(), 0);
+      precision = Math.max(value.precision(), scale);
+    } else {
+      throw new DataGeneratorException(Errors.AVRO_GENERATOR_07, path, field.getType());
+    }
+    Schema schema = logical(Schema.Type.BYTES, AvroTypeUtil.LOGICAL_TYPE_DECIMAL);
+    schema.addProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_PRECISION, new IntNode(precision));
+    schema.addProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_SCALE, new IntNode(scale));
+    return schema;
+  }
+
+  private static Schema logical(Schema.Type type, String logicalType) {
+    Schema schema = Schema.create(type);
+    schema.addProp(AvroTypeUtil.LOGICAL_TYPE, logicalType);
+    return schema;
+  }
+
+  private static Schema nullable(Schema schema) {
+    return Schema.createUnion(ImmutableList.of(Schema.create(Schema.Type.NULL), schema));
+  }
+}
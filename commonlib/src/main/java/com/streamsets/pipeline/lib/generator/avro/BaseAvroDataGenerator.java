@@ -151,8 +151,15 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
     postInitialize();
   }
 
+  /**
+   * JSON encoded schema of the given record when the schema comes from the header.
+   */
+  protected String getSchemaFromRecord(Record record) throws DataGeneratorException {
+    return AvroTypeUtil.getAvroSchemaFromHeader(record, AVRO_SCHEMA_HEADER);
+  }
+
   private void initializeSchemaFromRecord(Record record) throws IOException, DataGeneratorException {
-    String jsonSchema = AvroTypeUtil.getAvroSchemaFromHeader(record, AVRO_SCHEMA_HEADER);
+    String jsonSchema = getSchemaFromRecord(record);
     schemaHashCode = jsonSchema.hashCode();
     schema = AvroTypeUtil.parseSchema(jsonSchema);
     defaultValueMap = AvroTypeUtil.getDefaultValuesFromSchema(schema, new HashSet<String>());
@@ -165,7 +172,7 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
       if (state == State.CREATED) {
         initializeSchemaFromRecord(record);
       } else {
-        String newAvroSchema = AvroTypeUtil.getAvroSchemaFromHeader(record, AVRO_SCHEMA_HEADER);
+        String newAvroSchema = getSchemaFromRecord(record);
         if (schemaHashCode != newAvroSchema.hashCode()) {
           LOG.error(
               "Record {} has a different schema. Expected: {}  Actual(Initialized): {}",
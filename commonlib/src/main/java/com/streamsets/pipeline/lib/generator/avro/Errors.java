@@ -27,6 +27,7 @@ public enum Errors implements ErrorCode {
   AVRO_GENERATOR_04("RecordRecord {} has a different schema than is used for the current file. Current schema is '{}' whereas the record schema is '{}'"),
   AVRO_GENERATOR_05("Field type mismatch: Schema field type '{}' Record field type '{}'"),
   AVRO_GENERATOR_06("Can't store value '{}' of type {} in schema '{}': {}"),
+  AVRO_GENERATOR_07("Can't infer Avro schema for field '{}' of type '{}'"),
   ;
 
   private final String msg;
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.columnar;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.avro.AvroSchemaGeneratorFromRecord;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Base for the generators of columnar formats (Parquet, ORC). Records are converted to Avro with the schema from the
+ * configuration or the record header; when the header is missing the schema is inferred from the first record.
+ *
+ * Columnar writers buffer a whole row group (stripe) in memory and can only finish the file once it is closed, so
+ * flushing the generator doesn't write anything. Destinations close and commit the files of these formats at the end
+ * of each batch, so an acknowledged batch is durable, and discard the files a crash leaves behind since they have no
+ * footer and their batch is written again.
+ */
+public abstract class BaseColumnarDataGenerator extends BaseAvroDataGenerator {
+  private static final String INFERRED_SCHEMA_NAME = "sdcRecord";
+
+  private final OutputStream outputStream;
+  private String inferredSchema;
+  private Path path;
+
+  protected BaseColumnarDataGenerator(
+      boolean schemaInHeader,
+      OutputStream outputStream,
+      Schema schema,
+      Map<String, Object> defaultValueMap
+  ) throws IOException {
+    super(schemaInHeader, schema, defaultValueMap, null, null, 0);
+    this.outputStream = outputStream;
+  }
+
+  /**
+   * Creates the columnar writer at the given path with the given configuration. Both resolve to the output stream of
+   * this generator.
+   */
+  protected abstract void initializeWriter(Path path, Configuration conf) throws IOException;
+
+  /**
+   * Writes the given record, already converted to Avro.
+   */
+  protected abstract void writeAvroRecord(Record record, GenericRecord avroRecord)
+      throws IOException, DataGeneratorException;
+
+  /**
+   * Finishes the file.
+   */
+  protected abstract void closeWriter() throws IOException;
+
+  @Override
+  protected void initializeWriter() throws IOException {
+    path = OutputStreamFileSystem.register(outputStream);
+    initializeWriter(path, OutputStreamFileSystem.createConfiguration());
+  }
+
+  @Override
+  protected String getSchemaFromRecord(Record record) throws DataGeneratorException {
+    String jsonSchema = record.getHeader().getAttribute(AVRO_SCHEMA_HEADER);
+    if (jsonSchema != null && !jsonSchema.isEmpty()) {
+      return jsonSchema;
+    }
+    if (inferredSchema == null) {
+      inferredSchema = new AvroSchemaGeneratorFromRecord(INFERRED_SCHEMA_NAME).inferSchema(record);
+    }
+    return inferredSchema;
+  }
+
+  @Override
+  protected void writeRecord(Record record) throws IOException, DataGeneratorException {
+    GenericRecord avroRecord;
+    try {
+      avroRecord = (GenericRecord) AvroTypeUtil.sdcRecordToAvro(record, schema, defaultValueMap);
+    } catch (StageException e) {
+      throw new DataGeneratorException(e.getErrorCode(), e.getParams()); // params includes cause
+    }
+    writeAvroRecord(record, avroRecord);
+  }
+
+  @Override
+  protected Flushable getFlushable() {
+    // A row group can't be written out early without ending it, which is what bounds the memory and the file layout
+    return () -> {};
+  }
+
+  @Override
+  protected Closeable getCloseable() {
+    return () -> {
+      try {
+        closeWriter();
+      } finally {
+        OutputStreamFileSystem.unregister(path);
+      }
+    };
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.columnar;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
+import com.streamsets.pipeline.lib.util.SchemaRegistryException;
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.BASIC_AUTH_USER_INFO;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.BASIC_AUTH_USER_INFO_DEFAULT;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.DEFAULT_VALUES_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.REGISTER_SCHEMA_DEFAULT;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.REGISTER_SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_DEFAULT;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_ID_DEFAULT;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_ID_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_REPO_URLS_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SUBJECT_DEFAULT;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SUBJECT_KEY;
+
+/**
+ * Base for the factories of columnar formats, which describe their records with an Avro schema loaded the same way
+ * as for the Avro data format.
+ */
+public abstract class BaseColumnarDataGeneratorFactory extends DataGeneratorFactory {
+
+  /**
+   * Schema configs (with their defaults) understood by all columnar factories.
+   */
+  protected static Map<String, Object> createSchemaConfigs() {
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SCHEMA_KEY, SCHEMA_DEFAULT);
+    configs.put(SCHEMA_SOURCE_KEY, DestinationAvroSchemaSource.INLINE);
+    configs.put(SCHEMA_ID_KEY, SCHEMA_ID_DEFAULT);
+    configs.put(SUBJECT_KEY, SUBJECT_DEFAULT);
+    configs.put(SCHEMA_REPO_URLS_KEY, new ArrayList<>());
+    configs.put(DEFAULT_VALUES_KEY, new HashMap<>());
+    configs.put(REGISTER_SCHEMA_KEY, REGISTER_SCHEMA_DEFAULT);
+    configs.put(BASIC_AUTH_USER_INFO, BASIC_AUTH_USER_INFO_DEFAULT);
+    return configs;
+  }
+
+  private final boolean schemaInHeader;
+  private final Schema schema;
+  private final Map<String, Object> defaultValues;
+
+  protected BaseColumnarDataGeneratorFactory(Settings settings) throws SchemaRegistryException {
+    super(settings);
+    AvroSchemaHelper schemaHelper = new AvroSchemaHelper(settings);
+    DestinationAvroSchemaSource schemaSource = settings.getConfig(SCHEMA_SOURCE_KEY);
+    switch (schemaSource) {
+      case HEADER:
+        schemaInHeader = true;
+        schema = null;
+        defaultValues = null;
+        break;
+      case REGISTRY:
+        schemaInHeader = false;
+        schema = schemaHelper.loadFromRegistry(settings.<String>getConfig(SUBJECT_KEY), settings.getConfig(SCHEMA_ID_KEY));
+        defaultValues = AvroSchemaHelper.getDefaultValues(schema);
+        break;
+      case INLINE:
+        schemaInHeader = false;
+        schema = schemaHelper.loadFromString(settings.getConfig(SCHEMA_KEY));
+        Utils.checkNotNull(schema, "Avro Schema");
+        defaultValues = settings.getConfig(DEFAULT_VALUES_KEY);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported Avro Schema source: " + schemaSource.getLabel());
+    }
+  }
+
+  protected boolean isSchemaInHeader() {
+    return schemaInHeader;
+  }
+
+  protected Schema getSchema() {
+    return schema;
+  }
+
+  protected Map<String, Object> getDefaultValues() {
+    return defaultValues;
+  }
+}
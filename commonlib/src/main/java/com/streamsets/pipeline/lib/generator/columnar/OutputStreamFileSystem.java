@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write only Hadoop file system that exposes the output streams handed to data generators as files, so that Parquet
+ * and ORC writers (which only know how to create files) write straight into the destination's stream.
+ *
+ * Each registered stream is a file of its own, resolved from the authority of its path.
+ */
+public class OutputStreamFileSystem extends FileSystem {
+  static final String SCHEME = "sdcstream";
+
+  private static final Map<String, OutputStream> STREAMS = new ConcurrentHashMap<>();
+
+  private URI uri;
+
+  /**
+   * Registers the stream and returns the path that resolves to it.
+   */
+  public static Path register(OutputStream outputStream) {
+    String id = UUID.randomUUID().toString();
+    STREAMS.put(id, outputStream);
+    return new Path(SCHEME + "://" + id + "/data");
+  }
+
+  public static void unregister(Path path) {
+    STREAMS.remove(path.toUri().getAuthority());
+  }
+
+  /**
+   * Configuration for the writers, it resolves the paths returned by {@link #register(OutputStream)}.
+   */
+  public static Configuration createConfiguration() {
+    Configuration conf = new Configuration(false);
+    conf.setClass("fs." + SCHEME + ".impl", OutputStreamFileSystem.class, FileSystem.class);
+    conf.setBoolean("fs." + SCHEME + ".impl.disable.cache", true);
+    return conf;
+  }
+
+  @Override
+  public void initialize(URI name, Configuration conf) throws IOException {
+    super.initialize(name, conf);
+    uri = URI.create(SCHEME + "://" + name.getAuthority());
+  }
+
+  @Override
+  public String getScheme() {
+    return SCHEME;
+  }
+
+  @Override
+  public URI getUri() {
+    return uri;
+  }
+
+  @Override
+  public FSDataOutputStream create(
+      Path path,
+      FsPermission permission,
+      boolean overwrite,
+      int bufferSize,
+      short replication,
+      long blockSize,
+      Progressable progress
+  ) throws IOException {
+    OutputStream outputStream = STREAMS.get(path.toUri().getAuthority());
+    if (outputStream == null) {
+      throw new IOException("No output stream registered for " + path);
+    }
+    return new FSDataOutputStream(outputStream, null);
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path path) throws IOException {
+    throw new FileNotFoundException(path.toString());
+  }
+
+  @Override
+  public FSDataInputStream open(Path path, int bufferSize) throws IOException {
+    throw new UnsupportedOperationException("Files can only be written");
+  }
+
+  @Override
+  public FSDataOutputStream append(Path path, int bufferSize, Progressable progress) throws IOException {
+    throw new UnsupportedOperationException("Files can only be written");
+  }
+
+  @Override
+  public boolean rename(Path src, Path dst) throws IOException {
+    throw new UnsupportedOperationException("Files can only be written");
+  }
+
+  @Override
+  public boolean delete(Path path, boolean recursive) throws IOException {
+    throw new UnsupportedOperationException("Files can only be written");
+  }
+
+  @Override
+  public FileStatus[] listStatus(Path path) throws IOException {
+    throw new FileNotFoundException(path.toString());
+  }
+
+  @Override
+  public void setWorkingDirectory(Path path) {
+    throw new UnsupportedOperationException("Files can only be written");
+  }
+
+  @Override
+  public Path getWorkingDirectory() {
+    return new Path(uri);
+  }
+
+  @Override
+  public boolean mkdirs(Path path, FsPermission permission) throws IOException {
+    return true;
+  }
+}
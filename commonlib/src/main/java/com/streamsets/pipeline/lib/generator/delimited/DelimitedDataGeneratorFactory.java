@@ -20,12 +20,14 @@ import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvMode;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.QuoteMode;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -104,4 +106,13 @@ public class DelimitedDataGeneratorFactory extends DataGeneratorFactory {
     return new DelimitedCharDataGenerator(createWriter(os), csvFormat, header, headerKey, valueKey, replaceNewLines ? replaceNewLinesString : null);
   }
 
+  @Override
+  public ReusableDataGenerator getReusableGenerator() {
+    // with header every record is serialized with its own header line, so a generator can't be kept
+    if (header != CsvHeader.WITH_HEADER && StandardCharsets.UTF_8.equals(getSettings().getCharset())) {
+      return new ReusableDataGenerator(this, true, null);
+    }
+    return super.getReusableGenerator();
+  }
+
 }
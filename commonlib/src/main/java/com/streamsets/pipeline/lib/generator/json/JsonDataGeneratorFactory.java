@@ -19,9 +19,11 @@ import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -45,4 +47,13 @@ public class JsonDataGeneratorFactory extends DataGeneratorFactory {
     return new JsonCharDataGenerator(getSettings().getContext(), createWriter(os), mode);
   }
 
+  @Override
+  public ReusableDataGenerator getReusableGenerator() {
+    if (mode == Mode.MULTIPLE_OBJECTS && StandardCharsets.UTF_8.equals(getSettings().getCharset())) {
+      // the JSON generator writes a line separator before every root object but the first one
+      return new ReusableDataGenerator(this, true, System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+    }
+    return super.getReusableGenerator();
+  }
+
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.orc;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.columnar.BaseColumnarDataGenerator;
+import com.streamsets.pipeline.lib.util.avroorc.AvroToOrcRecordConverter;
+import com.streamsets.pipeline.lib.util.avroorc.AvroToOrcSchemaConverter;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcConf;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+
+public class OrcDataGenerator extends BaseColumnarDataGenerator {
+  private final String compressionCodec;
+  private final long stripeSize;
+  private final int batchSize;
+  private final boolean dictionaryEncoding;
+  private TypeDescription orcSchema;
+  private VectorizedRowBatch batch;
+  private Writer writer;
+
+  public OrcDataGenerator(
+      boolean schemaInHeader,
+      OutputStream outputStream,
+      Schema schema,
+      Map<String, Object> defaultValueMap,
+      String compressionCodec,
+      long stripeSize,
+      int batchSize,
+      boolean dictionaryEncoding
+  ) throws IOException {
+    super(schemaInHeader, outputStream, schema, defaultValueMap);
+    this.compressionCodec = compressionCodec;
+    this.stripeSize = stripeSize;
+    this.batchSize = batchSize;
+    this.dictionaryEncoding = dictionaryEncoding;
+    if (!schemaInHeader) {
+      initialize();
+    }
+  }
+
+  @Override
+  protected void initializeWriter(Path path, Configuration conf) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty(OrcConf.COMPRESS.getAttribute(), compressionCodec);
+    properties.setProperty(OrcConf.STRIPE_SIZE.getAttribute(), String.valueOf(stripeSize));
+    properties.setProperty(
+        OrcConf.DICTIONARY_KEY_SIZE_THRESHOLD.getAttribute(),
+        dictionaryEncoding ? String.valueOf(OrcConf.DICTIONARY_KEY_SIZE_THRESHOLD.getDefaultValue()) : "0"
+    );
+
+    orcSchema = AvroToOrcSchemaConverter.getOrcSchema(schema);
+    batch = orcSchema.createRowBatch(batchSize);
+    writer = AvroToOrcRecordConverter.createOrcWriter(properties, conf, path, orcSchema);
+  }
+
+  @Override
+  protected void writeAvroRecord(Record record, GenericRecord avroRecord) throws IOException {
+    AvroToOrcRecordConverter.addAvroRecord(batch, avroRecord, orcSchema, batchSize, writer);
+  }
+
+  @Override
+  protected void closeWriter() throws IOException {
+    if (batch.size != 0) {
+      writer.addRowBatch(batch);
+      batch.reset();
+    }
+    writer.close();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.orc;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.columnar.BaseColumnarDataGeneratorFactory;
+import com.streamsets.pipeline.lib.util.SchemaRegistryException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+public class OrcDataGeneratorFactory extends BaseColumnarDataGeneratorFactory {
+  static final String KEY_PREFIX = "orc.";
+  public static final String COMPRESSION_CODEC_KEY = KEY_PREFIX + "compressionCodec";
+  static final String COMPRESSION_CODEC_DEFAULT = "ZLIB";
+  public static final String STRIPE_SIZE_KEY = KEY_PREFIX + "stripeSize";
+  static final long STRIPE_SIZE_DEFAULT = 64L * 1024 * 1024;
+  public static final String BATCH_SIZE_KEY = KEY_PREFIX + "batchSize";
+  static final int BATCH_SIZE_DEFAULT = 1024;
+  public static final String DICTIONARY_ENCODING_KEY = KEY_PREFIX + "dictionaryEncoding";
+  static final boolean DICTIONARY_ENCODING_DEFAULT = true;
+
+  public static final Map<String, Object> CONFIGS;
+
+  static {
+    Map<String, Object> configs = createSchemaConfigs();
+    configs.put(COMPRESSION_CODEC_KEY, COMPRESSION_CODEC_DEFAULT);
+    configs.put(STRIPE_SIZE_KEY, STRIPE_SIZE_DEFAULT);
+    configs.put(BATCH_SIZE_KEY, BATCH_SIZE_DEFAULT);
+    configs.put(DICTIONARY_ENCODING_KEY, DICTIONARY_ENCODING_DEFAULT);
+    CONFIGS = Collections.unmodifiableMap(configs);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static final Set<Class<? extends Enum>> MODES = (Set) ImmutableSet.of(); // NOSONAR
+
+  private final String compressionCodec;
+  private final long stripeSize;
+  private final int batchSize;
+  private final boolean dictionaryEncoding;
+
+  public OrcDataGeneratorFactory(Settings settings) throws SchemaRegistryException {
+    super(settings);
+    compressionCodec = settings.getConfig(COMPRESSION_CODEC_KEY);
+    stripeSize = settings.<Number>getConfig(STRIPE_SIZE_KEY).longValue();
+    batchSize = settings.getConfig(BATCH_SIZE_KEY);
+    dictionaryEncoding = settings.getConfig(DICTIONARY_ENCODING_KEY);
+  }
+
+  @Override
+  public DataGenerator getGenerator(OutputStream os) throws IOException {
+    return new OrcDataGenerator(
+        isSchemaInHeader(),
+        os,
+        getSchema(),
+        getDefaultValues(),
+        compressionCodec,
+        stripeSize,
+        batchSize,
+        dictionaryEncoding
+    );
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.parquet;
+
+import com.streamsets.pipeline.lib.util.AvroTypeUtil;
+import org.apache.avro.Schema;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.codehaus.jackson.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts Avro schemas to Parquet schemas. Lists and maps use the three level structure from the Parquet format
+ * specification and unions are only supported to make a type nullable.
+ */
+final class AvroParquetSchemaConverter {
+  static final String LIST_REPEATED_NAME = "list";
+  static final String LIST_ELEMENT_NAME = "element";
+  static final String MAP_REPEATED_NAME = "key_value";
+  static final String MAP_KEY_NAME = "key";
+  static final String MAP_VALUE_NAME = "value";
+
+  private AvroParquetSchemaConverter() {}
+
+  static MessageType convert(Schema schema) {
+    if (schema.getType() != Schema.Type.RECORD) {
+      throw new IllegalArgumentException("Parquet needs a record as top level Avro schema, got: " + schema.getType());
+    }
+    return new MessageType(schema.getFullName(), convertFields(schema));
+  }
+
+  /**
+   * Returns the schema without the null branch of a nullable union.
+   */
+  static Schema nonNull(Schema schema) {
+    if (schema.getType() != Schema.Type.UNION) {
+      return schema;
+    }
+    List<Schema> types = new ArrayList<>(schema.getTypes().size());
+    for (Schema type : schema.getTypes()) {
+      if (type.getType() != Schema.Type.NULL) {
+        types.add(type);
+      }
+    }
+    if (types.size() != 1) {
+      throw new IllegalArgumentException("Unions other than with null are not supported: " + schema);
+    }
+    return types.get(0);
+  }
+
+  static boolean isNullable(Schema schema) {
+    if (schema.getType() == Schema.Type.UNION) {
+      for (Schema type : schema.getTypes()) {
+        if (type.getType() == Schema.Type.NULL) {
+          return true;
+        }
+      }
+    }
+    return schema.getType() == Schema.Type.NULL;
+  }
+
+  private static List<Type> convertFields(Schema schema) {
+    List<Type> fields = new ArrayList<>(schema.getFields().size());
+    for (Schema.Field field : schema.getFields()) {
+      Schema fieldSchema = nonNull(field.schema());
+      // Avro doesn't always keep the props of the field schema on the schema itself
+      for (Map.Entry<String, JsonNode> entry : field.getJsonProps().entrySet()) {
+        if (fieldSchema.getJsonProp(entry.getKey()) == null) {
+          fieldSchema.addProp(entry.getKey(), entry.getValue());
+        }
+      }
+      fields.add(convert(field.name(), field.schema()));
+    }
+    return fields;
+  }
+
+  private static Type convert(String name, Schema schema) {
+    Type.Repetition repetition = isNullable(schema) ? Type.Repetition.OPTIONAL : Type.Repetition.REQUIRED;
+    schema = nonNull(schema);
+    String logicalType = schema.getProp(AvroTypeUtil.LOGICAL_TYPE);
+
+    switch (schema.getType()) {
+      case RECORD:
+        return new GroupType(repetition, name, convertFields(schema));
+      case ARRAY:
+        return new GroupType(repetition, name, OriginalType.LIST,
+            new GroupType(Type.Repetition.REPEATED, LIST_REPEATED_NAME, convert(LIST_ELEMENT_NAME, schema.getElementType()))
+        );
+      case MAP:
+        return new GroupType(repetition, name, OriginalType.MAP,
+            new GroupType(Type.Repetition.REPEATED, MAP_REPEATED_NAME,
+                Types.required(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(MAP_KEY_NAME),
+                convert(MAP_VALUE_NAME, schema.getValueType())
+            )
+        );
+      case BOOLEAN:
+        return Types.primitive(PrimitiveTypeName.BOOLEAN, repetition).named(name);
+      case INT:
+        if (AvroTypeUtil.LOGICAL_TYPE_DATE.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.INT32, repetition).as(OriginalType.DATE).named(name);
+        } else if (AvroTypeUtil.LOGICAL_TYPE_TIME_MILLIS.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.INT32, repetition).as(OriginalType.TIME_MILLIS).named(name);
+        }
+        return Types.primitive(PrimitiveTypeName.INT32, repetition).named(name);
+      case LONG:
+        if (AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MILLIS.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.INT64, repetition).as(OriginalType.TIMESTAMP_MILLIS).named(name);
+        } else if (AvroTypeUtil.LOGICAL_TYPE_TIMESTAMP_MICROS.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.INT64, repetition).as(OriginalType.TIMESTAMP_MICROS).named(name);
+        } else if (AvroTypeUtil.LOGICAL_TYPE_TIME_MICROS.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.INT64, repetition).as(OriginalType.TIME_MICROS).named(name);
+        }
+        return Types.primitive(PrimitiveTypeName.INT64, repetition).named(name);
+      case FLOAT:
+        return Types.primitive(PrimitiveTypeName.FLOAT, repetition).named(name);
+      case DOUBLE:
+        return Types.primitive(PrimitiveTypeName.DOUBLE, repetition).named(name);
+      case BYTES:
+        if (AvroTypeUtil.LOGICAL_TYPE_DECIMAL.equals(logicalType)) {
+          return Types.primitive(PrimitiveTypeName.BINARY, repetition)
+              .as(OriginalType.DECIMAL)
+              .precision(schema.getJsonProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_PRECISION).getIntValue())
+              .scale(schema.getJsonProp(AvroTypeUtil.LOGICAL_TYPE_ATTR_SCALE).getIntValue())
+              .named(name);
+        }
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition).named(name);
+      case FIXED:
+        return Types.primitive(PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY, repetition)
+            .length(schema.getFixedSize())
+            .named(name);
+      case STRING:
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition).as(OriginalType.UTF8).named(name);
+      case ENUM:
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition).as(OriginalType.ENUM).named(name);
+      default:
+        throw new IllegalArgumentException("Unsupported Avro type " + schema.getType() + " for field " + name);
+    }
+  }
+}
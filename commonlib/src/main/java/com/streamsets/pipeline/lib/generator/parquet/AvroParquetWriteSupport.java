@@ -0,0 +1,218 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.parquet;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.LIST_ELEMENT_NAME;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.LIST_REPEATED_NAME;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.MAP_KEY_NAME;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.MAP_REPEATED_NAME;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.MAP_VALUE_NAME;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.isNullable;
+import static com.streamsets.pipeline.lib.generator.parquet.AvroParquetSchemaConverter.nonNull;
+
+/**
+ * Writes Avro records (as produced by AvroTypeUtil) to Parquet, with the schema from
+ * {@link AvroParquetSchemaConverter}. The Avro schema is kept in the file metadata for Avro aware readers.
+ */
+class AvroParquetWriteSupport extends WriteSupport<GenericRecord> {
+  // Same key as parquet-avro, so that its readers pick up the schema
+  static final String AVRO_SCHEMA_METADATA_KEY = "parquet.avro.schema";
+
+  private final Schema avroSchema;
+  private final MessageType parquetSchema;
+  private RecordConsumer recordConsumer;
+
+  AvroParquetWriteSupport(Schema avroSchema) {
+    this.avroSchema = avroSchema;
+    this.parquetSchema = AvroParquetSchemaConverter.convert(avroSchema);
+  }
+
+  /**
+   * Returns the path of the first value that is missing although its schema isn't nullable, null if there is none.
+   * Parquet can't skip a record it started writing, so this has to be checked before writing it.
+   */
+  static String findMissingValue(Schema schema, Object value, String path) {
+    if (value == null) {
+      return isNullable(schema) ? null : path;
+    }
+    schema = nonNull(schema);
+    String missing = null;
+    switch (schema.getType()) {
+      case RECORD:
+        GenericRecord record = (GenericRecord) value;
+        for (Schema.Field field : schema.getFields()) {
+          missing = findMissingValue(field.schema(), record.get(field.pos()), path + "/" + field.name());
+          if (missing != null) {
+            break;
+          }
+        }
+        break;
+      case ARRAY:
+        int i = 0;
+        for (Object item : (Collection<?>) value) {
+          missing = findMissingValue(schema.getElementType(), item, path + "[" + i++ + "]");
+          if (missing != null) {
+            break;
+          }
+        }
+        break;
+      case MAP:
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          missing = findMissingValue(schema.getValueType(), entry.getValue(), path + "/" + entry.getKey());
+          if (missing != null) {
+            break;
+          }
+        }
+        break;
+      default:
+        break;
+    }
+    return missing;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(
+        parquetSchema,
+        Collections.singletonMap(AVRO_SCHEMA_METADATA_KEY, avroSchema.toString())
+    );
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    this.recordConsumer = recordConsumer;
+  }
+
+  @Override
+  public void write(GenericRecord record) {
+    recordConsumer.startMessage();
+    writeFields(avroSchema, record);
+    recordConsumer.endMessage();
+  }
+
+  private void writeFields(Schema schema, GenericRecord record) {
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      Object value = record.get(field.pos());
+      if (value != null) {
+        recordConsumer.startField(field.name(), i);
+        writeValue(nonNull(field.schema()), value);
+        recordConsumer.endField(field.name(), i);
+      }
+    }
+  }
+
+  private void writeValue(Schema schema, Object value) {
+    switch (schema.getType()) {
+      case RECORD:
+        recordConsumer.startGroup();
+        writeFields(schema, (GenericRecord) value);
+        recordConsumer.endGroup();
+        break;
+      case ARRAY:
+        writeList(nonNull(schema.getElementType()), (Collection<?>) value);
+        break;
+      case MAP:
+        writeMap(nonNull(schema.getValueType()), (Map<?, ?>) value);
+        break;
+      case BOOLEAN:
+        recordConsumer.addBoolean((Boolean) value);
+        break;
+      case INT:
+        recordConsumer.addInteger(((Number) value).intValue());
+        break;
+      case LONG:
+        recordConsumer.addLong(((Number) value).longValue());
+        break;
+      case FLOAT:
+        recordConsumer.addFloat(((Number) value).floatValue());
+        break;
+      case DOUBLE:
+        recordConsumer.addDouble(((Number) value).doubleValue());
+        break;
+      case BYTES:
+        ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        recordConsumer.addBinary(Binary.fromConstantByteArray(bytes));
+        break;
+      case FIXED:
+        recordConsumer.addBinary(Binary.fromConstantByteArray(((GenericFixed) value).bytes()));
+        break;
+      case STRING:
+      case ENUM:
+        recordConsumer.addBinary(Binary.fromString(value.toString()));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported Avro type: " + schema.getType());
+    }
+  }
+
+  private void writeList(Schema elementSchema, Collection<?> items) {
+    recordConsumer.startGroup();
+    if (!items.isEmpty()) {
+      recordConsumer.startField(LIST_REPEATED_NAME, 0);
+      for (Object item : items) {
+        recordConsumer.startGroup();
+        if (item != null) {
+          recordConsumer.startField(LIST_ELEMENT_NAME, 0);
+          writeValue(elementSchema, item);
+          recordConsumer.endField(LIST_ELEMENT_NAME, 0);
+        }
+        recordConsumer.endGroup();
+      }
+      recordConsumer.endField(LIST_REPEATED_NAME, 0);
+    }
+    recordConsumer.endGroup();
+  }
+
+  private void writeMap(Schema valueSchema, Map<?, ?> map) {
+    recordConsumer.startGroup();
+    if (!map.isEmpty()) {
+      recordConsumer.startField(MAP_REPEATED_NAME, 0);
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        recordConsumer.startGroup();
+        recordConsumer.startField(MAP_KEY_NAME, 0);
+        recordConsumer.addBinary(Binary.fromString(entry.getKey().toString()));
+        recordConsumer.endField(MAP_KEY_NAME, 0);
+        if (entry.getValue() != null) {
+          recordConsumer.startField(MAP_VALUE_NAME, 1);
+          writeValue(valueSchema, entry.getValue());
+          recordConsumer.endField(MAP_VALUE_NAME, 1);
+        }
+        recordConsumer.endGroup();
+      }
+      recordConsumer.endField(MAP_REPEATED_NAME, 0);
+    }
+    recordConsumer.endGroup();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.parquet;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.avro.Errors;
+import com.streamsets.pipeline.lib.generator.columnar.BaseColumnarDataGenerator;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+public class ParquetDataGenerator extends BaseColumnarDataGenerator {
+  private final String compressionCodec;
+  private final int rowGroupSize;
+  private final int pageSize;
+  private final int dictionaryPageSize;
+  private final boolean dictionaryEncoding;
+  private ParquetWriter<GenericRecord> writer;
+
+  public ParquetDataGenerator(
+      boolean schemaInHeader,
+      OutputStream outputStream,
+      Schema schema,
+      Map<String, Object> defaultValueMap,
+      String compressionCodec,
+      int rowGroupSize,
+      int pageSize,
+      int dictionaryPageSize,
+      boolean dictionaryEncoding
+  ) throws IOException {
+    super(schemaInHeader, outputStream, schema, defaultValueMap);
+    this.compressionCodec = compressionCodec;
+    this.rowGroupSize = rowGroupSize;
+    this.pageSize = pageSize;
+    this.dictionaryPageSize = dictionaryPageSize;
+    this.dictionaryEncoding = dictionaryEncoding;
+    if (!schemaInHeader) {
+      initialize();
+    }
+  }
+
+  @Override
+  protected void initializeWriter(Path path, Configuration conf) throws IOException {
+    try {
+      writer = new Builder(path, schema)
+          .withConf(conf)
+          .withCompressionCodec(CompressionCodecName.valueOf(compressionCodec))
+          .withRowGroupSize(rowGroupSize)
+          .withPageSize(pageSize)
+          .withDictionaryPageSize(dictionaryPageSize)
+          .withDictionaryEncoding(dictionaryEncoding)
+          .build();
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Can't write Avro schema as Parquet: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeAvroRecord(Record record, GenericRecord avroRecord) throws IOException, DataGeneratorException {
+    String missing = AvroParquetWriteSupport.findMissingValue(schema, avroRecord, "");
+    if (missing != null) {
+      throw new DataGeneratorException(Errors.AVRO_GENERATOR_00, record.getHeader().getSourceId(), missing);
+    }
+    writer.write(avroRecord);
+  }
+
+  @Override
+  protected void closeWriter() throws IOException {
+    writer.close();
+  }
+
+  private static class Builder extends ParquetWriter.Builder<GenericRecord, Builder> {
+    private final Schema schema;
+
+    Builder(Path path, Schema schema) {
+      super(path);
+      this.schema = schema;
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<GenericRecord> getWriteSupport(Configuration conf) {
+      return new AvroParquetWriteSupport(schema);
+    }
+  }
+}
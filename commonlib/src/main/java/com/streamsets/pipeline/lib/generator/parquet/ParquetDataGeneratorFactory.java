@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.parquet;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.columnar.BaseColumnarDataGeneratorFactory;
+import com.streamsets.pipeline.lib.util.SchemaRegistryException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+public class ParquetDataGeneratorFactory extends BaseColumnarDataGeneratorFactory {
+  static final String KEY_PREFIX = "parquet.";
+  public static final String COMPRESSION_CODEC_KEY = KEY_PREFIX + "compressionCodec";
+  static final String COMPRESSION_CODEC_DEFAULT = "SNAPPY";
+  public static final String ROW_GROUP_SIZE_KEY = KEY_PREFIX + "rowGroupSize";
+  static final int ROW_GROUP_SIZE_DEFAULT = 128 * 1024 * 1024;
+  public static final String PAGE_SIZE_KEY = KEY_PREFIX + "pageSize";
+  static final int PAGE_SIZE_DEFAULT = 1024 * 1024;
+  public static final String DICTIONARY_PAGE_SIZE_KEY = KEY_PREFIX + "dictionaryPageSize";
+  static final int DICTIONARY_PAGE_SIZE_DEFAULT = 1024 * 1024;
+  public static final String DICTIONARY_ENCODING_KEY = KEY_PREFIX + "dictionaryEncoding";
+  static final boolean DICTIONARY_ENCODING_DEFAULT = true;
+
+  public static final Map<String, Object> CONFIGS;
+
+  static {
+    Map<String, Object> configs = createSchemaConfigs();
+    configs.put(COMPRESSION_CODEC_KEY, COMPRESSION_CODEC_DEFAULT);
+    configs.put(ROW_GROUP_SIZE_KEY, ROW_GROUP_SIZE_DEFAULT);
+    configs.put(PAGE_SIZE_KEY, PAGE_SIZE_DEFAULT);
+    configs.put(DICTIONARY_PAGE_SIZE_KEY, DICTIONARY_PAGE_SIZE_DEFAULT);
+    configs.put(DICTIONARY_ENCODING_KEY, DICTIONARY_ENCODING_DEFAULT);
+    CONFIGS = Collections.unmodifiableMap(configs);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static final Set<Class<? extends Enum>> MODES = (Set) ImmutableSet.of(); // NOSONAR
+
+  private final String compressionCodec;
+  private final int rowGroupSize;
+  private final int pageSize;
+  private final int dictionaryPageSize;
+  private final boolean dictionaryEncoding;
+
+  public ParquetDataGeneratorFactory(Settings settings) throws SchemaRegistryException {
+    super(settings);
+    compressionCodec = settings.getConfig(COMPRESSION_CODEC_KEY);
+    rowGroupSize = settings.getConfig(ROW_GROUP_SIZE_KEY);
+    pageSize = settings.getConfig(PAGE_SIZE_KEY);
+    dictionaryPageSize = settings.getConfig(DICTIONARY_PAGE_SIZE_KEY);
+    dictionaryEncoding = settings.getConfig(DICTIONARY_ENCODING_KEY);
+  }
+
+  @Override
+  public DataGenerator getGenerator(OutputStream os) throws IOException {
+    return new ParquetDataGenerator(
+        isSchemaInHeader(),
+        os,
+        getSchema(),
+        getDefaultValues(),
+        compressionCodec,
+        rowGroupSize,
+        pageSize,
+        dictionaryPageSize,
+        dictionaryEncoding
+    );
+  }
+}
@@ -15,11 +15,13 @@
  */
 package com.streamsets.pipeline.lib.generator.protobuf;
 
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.util.ProtobufEncoder;
 import com.streamsets.pipeline.lib.util.ProtobufTypeUtil;
 
 import java.io.IOException;
@@ -35,6 +37,9 @@ public class ProtobufDataGenerator implements DataGenerator {
   private boolean closed;
   private final Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap;
   private final Map<String, Object> defaultValueMap;
+  // compiled encoder, NULL when the message type is not supported by it and DynamicMessage is used instead
+  private final ProtobufEncoder encoder;
+  private final CodedOutputStream codedOutputStream;
 
   public ProtobufDataGenerator(
       OutputStream outputStream,
@@ -42,8 +47,21 @@ public class ProtobufDataGenerator implements DataGenerator {
       Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap,
       Map<String, Object> defaultValueMap,
       boolean isDelimited
+  ) {
+    this(outputStream, descriptor, messageTypeToExtensionMap, defaultValueMap, null, isDelimited);
+  }
+
+  public ProtobufDataGenerator(
+      OutputStream outputStream,
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap,
+      Map<String, Object> defaultValueMap,
+      ProtobufEncoder encoder,
+      boolean isDelimited
   ) {
     this.outputStream = outputStream;
+    this.encoder = encoder;
+    this.codedOutputStream = (encoder == null) ? null : CodedOutputStream.newInstance(outputStream);
     this.descriptor = descriptor;
     this.messageTypeToExtensionMap = messageTypeToExtensionMap;
     this.defaultValueMap = defaultValueMap;
@@ -55,6 +73,12 @@ public class ProtobufDataGenerator implements DataGenerator {
     if (closed) {
       throw new IOException("generator has been closed");
     }
+    if (encoder != null) {
+      encoder.encode(record, codedOutputStream, isDelimited);
+      // every message is handed to the output stream right away, same as writeTo does
+      codedOutputStream.flush();
+      return;
+    }
     DynamicMessage message = ProtobufTypeUtil.sdcFieldToProtobufMsg(
         record,
         descriptor,
@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.util.ProtobufConstants;
+import com.streamsets.pipeline.lib.util.ProtobufEncoder;
 import com.streamsets.pipeline.lib.util.ProtobufTypeUtil;
 
 import java.io.IOException;
@@ -53,6 +54,7 @@ public class ProtobufDataGeneratorFactory extends DataGeneratorFactory {
   // that is accessible via the configured Protobuf descriptor file
   private final Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap;
   private final Map<String, Object> defaultValueMap;
+  private final ProtobufEncoder encoder;
 
   public ProtobufDataGeneratorFactory(Settings settings) throws StageException {
     super(settings);
@@ -69,6 +71,10 @@ public class ProtobufDataGeneratorFactory extends DataGeneratorFactory {
         messageTypeToExtensionMap,
         defaultValueMap
     );
+    // records are encoded without DynamicMessage unless the message uses features the encoder does not support
+    encoder = ProtobufEncoder.isSupported(descriptor, messageTypeToExtensionMap)
+        ? new ProtobufEncoder(descriptor, messageTypeToExtensionMap, defaultValueMap)
+        : null;
   }
 
   @Override
@@ -78,6 +84,7 @@ public class ProtobufDataGeneratorFactory extends DataGeneratorFactory {
         descriptor,
         messageTypeToExtensionMap,
         defaultValueMap,
+        encoder,
         isDelimited
     );
   }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.wholefile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Copies a whole file with its reads overlapping its writes. A reader thread fills chunks from the source while the
+ * calling thread writes the previously filled ones to the destination, so reading (and the checksum, metrics and
+ * rate limiting done by the wrapper streams of the file ref) is no longer on the critical path of writing.
+ *
+ * The source and the destination are neither closed nor used by the reader thread once {@link #copy} returns.
+ */
+final class PipelinedCopy {
+  // Double buffering: one chunk is filled while the other one is written.
+  static final int CHUNKS = 2;
+
+  private static final Object END_OF_FILE = new Object();
+
+  private static final ExecutorService READERS = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("Whole File Reader Thread-%d").setDaemon(true).build()
+  );
+
+  @FunctionalInterface
+  interface Source {
+    /**
+     * Reads into the remaining space of the buffer, returns the number of bytes read, 0 or -1 at the end of the file.
+     */
+    int read(ByteBuffer buffer) throws IOException;
+  }
+
+  @FunctionalInterface
+  interface Sink {
+    /**
+     * Writes the remaining bytes of the buffer.
+     */
+    void write(ByteBuffer buffer) throws IOException;
+  }
+
+  private PipelinedCopy() {}
+
+  /**
+   * The buffer size is split across the chunks, so the copy holds no more memory than a single buffer did.
+   */
+  static int chunkSize(int bufferSize) {
+    return Math.max(1, bufferSize / CHUNKS);
+  }
+
+  static void copy(ReadableByteChannel in, WritableByteChannel out, int bufferSize) throws IOException {
+    ByteBuffer[] chunks = new ByteBuffer[CHUNKS];
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = ByteBuffer.allocateDirect(chunkSize(bufferSize));
+    }
+    copy(
+        in::read,
+        buffer -> {
+          while (buffer.hasRemaining()) {
+            out.write(buffer);
+          }
+        },
+        chunks
+    );
+  }
+
+  static void copy(InputStream in, OutputStream out, int bufferSize) throws IOException {
+    ByteBuffer[] chunks = new ByteBuffer[CHUNKS];
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = ByteBuffer.allocate(chunkSize(bufferSize));
+    }
+    copy(
+        buffer -> {
+          int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+          if (read > 0) {
+            buffer.position(buffer.position() + read);
+          }
+          return read;
+        },
+        buffer -> {
+          out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+          buffer.position(buffer.limit());
+        },
+        chunks
+    );
+  }
+
+  static void copy(Source source, Sink sink, ByteBuffer[] chunks) throws IOException {
+    BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(chunks.length);
+    for (ByteBuffer chunk : chunks) {
+      free.add(chunk);
+    }
+    // Room for all the chunks plus the end of file or the failure of the reader, so the reader never blocks on it
+    BlockingQueue<Object> filled = new ArrayBlockingQueue<>(chunks.length + 1);
+    CountDownLatch readerDone = new CountDownLatch(1);
+
+    Future<?> reader = READERS.submit(() -> {
+      try {
+        boolean endOfFile = false;
+        while (!endOfFile) {
+          ByteBuffer chunk = free.take();
+          chunk.clear();
+          endOfFile = fill(source, chunk);
+          chunk.flip();
+          if (chunk.hasRemaining()) {
+            filled.add(chunk);
+          }
+        }
+        filled.add(END_OF_FILE);
+      } catch (InterruptedException ex) {
+        // Cancelled because writing failed
+        Thread.currentThread().interrupt();
+      } catch (Throwable ex) { //NOSONAR
+        filled.add(ex);
+      } finally {
+        readerDone.countDown();
+      }
+    });
+
+    boolean completed = false;
+    try {
+      Object next;
+      while ((next = filled.take()) != END_OF_FILE) {
+        if (next instanceof Throwable) {
+          throw propagate((Throwable) next);
+        }
+        ByteBuffer chunk = (ByteBuffer) next;
+        sink.write(chunk);
+        free.add(chunk);
+      }
+      completed = true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while copying the whole file");
+    } finally {
+      if (!completed) {
+        reader.cancel(true);
+      }
+      awaitUninterruptibly(readerDone);
+    }
+  }
+
+  /**
+   * Fills the chunk, returns true if the end of the file was reached.
+   */
+  private static boolean fill(Source source, ByteBuffer chunk) throws IOException {
+    while (chunk.hasRemaining()) {
+      if (source.read(chunk) <= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static IOException propagate(Throwable t) {
+    if (t instanceof IOException) {
+      return (IOException) t;
+    } else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return new IOException(t);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -23,12 +23,10 @@ import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
-import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -83,21 +81,11 @@ final class WholeFileDataGenerator implements DataGenerator {
       //Don't have to close this here, because generate.close will call output stream close
       WritableByteChannel writableByteChannel = Channels.newChannel(outputStream); //NOSONAR
       try (ReadableByteChannel readableByteChannel = getReadableStream(fileRef, ReadableByteChannel.class)){
-        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
-        while ((readableByteChannel.read(buffer)) > 0) {
-          //Flip to use the buffer from 0 to position.
-          buffer.flip();
-          while (buffer.hasRemaining()) {
-            writableByteChannel.write(buffer);
-          }
-          //Compact the buffer for reuse.
-          buffer.clear();
-        }
+        PipelinedCopy.copy(readableByteChannel, writableByteChannel, bufferSize);
       }
     } else {
-      byte[] b = new byte[bufferSize];
       try (InputStream stream = getReadableStream(fileRef, InputStream.class)) {
-        IOUtils.copyLarge(stream, outputStream, b);
+        PipelinedCopy.copy(stream, outputStream, bufferSize);
       }
     }
   }
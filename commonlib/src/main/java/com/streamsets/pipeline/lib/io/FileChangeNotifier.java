@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The <code>FileChangeNotifier</code> wakes up readers waiting for data when there are changes in the directories of
+ * the files they read, so they do not need to poll the files at a fixed interval.
+ * <p/>
+ * Changes are tracked with a generation counter that is increased on every change. A reader takes the current
+ * generation before looking for data and, if it does not find any, waits for a newer generation. This way a change
+ * happening while the reader is looking at the files is never lost.
+ * <p/>
+ * Directories that could not be watched (they do not exist, or the file system does not support it) do not wake up
+ * readers, readers must bound their waits to pick up changes in them.
+ */
+public class FileChangeNotifier implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(FileChangeNotifier.class);
+
+  private final WatchService watchService;
+  private final ScheduledExecutorService executor;
+  private final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();
+  private final Object lock = new Object();
+  private long generation;
+  private volatile boolean open;
+
+  public FileChangeNotifier() throws IOException {
+    watchService = FileSystems.getDefault().newWatchService();
+    open = true;
+    executor = new SafeScheduledExecutorService(1, "File Change Notifier");
+    executor.submit(this::watch);
+  }
+
+  /**
+   * Starts watching the given directory for created, modified and deleted files.
+   *
+   * @param dir the directory to watch.
+   * @return <code>true</code> if the directory is being watched, <code>false</code> if it could not be watched.
+   */
+  public boolean register(Path dir) {
+    if (watchedDirs.contains(dir)) {
+      return true;
+    }
+    if (!open || !Files.isDirectory(dir)) {
+      return false;
+    }
+    try {
+      dir.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE
+      );
+      watchedDirs.add(dir);
+      LOG.debug("Watching directory '{}'", dir);
+      return true;
+    } catch (IOException | ClosedWatchServiceException ex) {
+      LOG.debug("Could not watch directory '{}': {}", dir, ex.toString(), ex);
+      return false;
+    }
+  }
+
+  /**
+   * Returns if the notifier is still watching for changes.
+   *
+   * @return if the notifier is still watching for changes.
+   */
+  public boolean isOpen() {
+    return open;
+  }
+
+  /**
+   * Returns the current change generation, to be given to {@link #await(long, long)}.
+   *
+   * @return the current change generation.
+   */
+  public long getGeneration() {
+    synchronized (lock) {
+      return generation;
+    }
+  }
+
+  /**
+   * Waits until there is a change newer than the given generation, the wait time passes or the notifier is closed.
+   *
+   * @param generation the generation taken before the reader last looked for data.
+   * @param waitMillis the maximum number of milliseconds to wait.
+   * @throws InterruptedException thrown if the thread was interrupted while waiting.
+   */
+  public void await(long generation, long waitMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + waitMillis;
+    synchronized (lock) {
+      while (open && this.generation == generation) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return;
+        }
+        lock.wait(remaining);
+      }
+    }
+  }
+
+  private void watch() {
+    try {
+      while (open) {
+        WatchKey key = watchService.take();
+        key.pollEvents();
+        if (!key.reset()) {
+          watchedDirs.remove((Path) key.watchable());
+          LOG.debug("Directory '{}' is no longer watched", key.watchable());
+        }
+        synchronized (lock) {
+          generation++;
+          lock.notifyAll();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      LOG.debug("File change notifier stopped");
+    } finally {
+      open = false;
+      synchronized (lock) {
+        lock.notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    open = false;
+    try {
+      watchService.close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
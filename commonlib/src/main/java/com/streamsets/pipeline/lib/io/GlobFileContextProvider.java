@@ -38,6 +38,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Predicate;
 
 public class GlobFileContextProvider extends BaseFileContextProvider {
   private static final Logger LOG = LoggerFactory.getLogger(GlobFileContextProvider.class);
@@ -108,6 +109,7 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
   private final PostProcessingOptions postProcessing;
   private final String archiveDir;
   private final FileEventPublisher eventPublisher;
+  private final Predicate<MultiFileInfo> fileFilter;
   private int scanIntervalSecs;
   private boolean inPreviewMode;
 
@@ -127,6 +129,35 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
       String archiveDir,
       FileEventPublisher eventPublisher,
       boolean inPreviewMode) throws IOException {
+    this(
+        allowForLateDirectoryCreation,
+        fileInfos,
+        scanIntervalSecs,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        eventPublisher,
+        inPreviewMode,
+        fileInfo -> true
+    );
+  }
+
+  /**
+   * @param fileFilter only the resolved files accepted by the filter are read, so that several providers can share
+   * the files matching the same file infos.
+   */
+  public GlobFileContextProvider(
+      boolean allowForLateDirectoryCreation,
+      List<MultiFileInfo> fileInfos,
+      int scanIntervalSecs,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      FileEventPublisher eventPublisher,
+      boolean inPreviewMode,
+      Predicate<MultiFileInfo> fileFilter) throws IOException {
     super();
     // if scan interval is zero the GlobFileInfo will work synchronously and it won't require an executor
     globFileInfos = new CopyOnWriteArrayList<GlobFileInfo>();
@@ -140,6 +171,7 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
     this.archiveDir = archiveDir;
     this.eventPublisher = eventPublisher;
     this.inPreviewMode = inPreviewMode;
+    this.fileFilter = fileFilter;
 
     executor = (scanIntervalSecs == 0) ? null :
         new SafeScheduledExecutorService(fileInfos.size() / 3 + 1, "File Finder");
@@ -163,6 +195,10 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
     if (fileInfo.getFileRollMode() == FileRollMode.PATTERN
         && !GlobFilePathUtil.hasGlobWildcard(fileInfo.getFileFullPath().replaceAll("\\$\\{"+"PATTERN"+"\\}", "")))
     {
+      if (!fileFilter.test(fileInfo)) {
+        LOG.debug("Skipping '{}', filtered out", fileInfo.getFileFullPath());
+        return;
+      }
       fileContexts.add(
           new FileContext(
               fileInfo,
@@ -215,8 +251,14 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
       GlobFileInfo globfileInfo = iterator.next();
       Set<Path> found = globfileInfo.find();
       for (Path path : found) {
+        MultiFileInfo fileInfo = globfileInfo.getFileInfo(path);
+        // the finder remembers the path anyway, so a filtered out file is not found again
+        if (!fileFilter.test(fileInfo)) {
+          LOG.debug("Skipping '{}', filtered out", path);
+          continue;
+        }
         FileContext fileContext = new FileContext(
-            globfileInfo.getFileInfo(path),
+            fileInfo,
             charset,
             maxLineLength,
             postProcessing,
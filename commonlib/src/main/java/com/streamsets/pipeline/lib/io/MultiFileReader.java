@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.io;
 
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.lib.util.GlobFilePathUtil;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,9 +25,13 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * The <code>MultiFileReader</code> is a Reader that allows to read multiple files in a 'tail -f' mode while
@@ -55,9 +60,14 @@ public class MultiFileReader implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(MultiFileReader.class);
 
   private final static long MAX_YIELD_TIME = Integer.parseInt(System.getProperty("MultiFileReader.yield.ms", "500"));
+  private final static long MAX_NOTIFIED_YIELD_TIME =
+      Integer.parseInt(System.getProperty("MultiFileReader.notified.yield.ms", "5000"));
 
+  private final List<MultiFileInfo> fileInfos;
   private final FileContextProvider fileContextProvider;
   private final List<FileEvent> events;
+  private FileChangeNotifier changeNotifier;
+  private boolean allDirectoriesWatched;
   private boolean open;
   private boolean inPreviewMode;
 
@@ -79,6 +89,42 @@ public class MultiFileReader implements Closeable {
       int scanIntervalSecs,
       boolean allowForLateDirectoryCreation,
       boolean inPreviewMode
+  ) throws IOException {
+    this(
+        fileInfos,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        globbing,
+        scanIntervalSecs,
+        allowForLateDirectoryCreation,
+        inPreviewMode,
+        fileInfo -> true
+    );
+  }
+
+  /**
+   * Creates a <code>MultiFileReader</code> that will only read the files accepted by the given filter. Several readers
+   * can then share the files matching the same file infos, each one reading its own files.
+   *
+   * @param fileInfos a list with the information for for each directory to scan/read.
+   * @param charset the data charset (for all files)
+   * @param maxLineLength the maximum line length (for all files)
+   * @param fileFilter filter on the resolved files, wildcards already replaced by the matching paths.
+   * @throws IOException thrown if there was an IO error while creating the reader.
+   */
+  public MultiFileReader(
+      List<MultiFileInfo> fileInfos,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      boolean globbing,
+      int scanIntervalSecs,
+      boolean allowForLateDirectoryCreation,
+      boolean inPreviewMode,
+      Predicate<MultiFileInfo> fileFilter
   ) throws IOException {
     Utils.checkNotNull(fileInfos, "fileInfos");
     Utils.checkArgument(!fileInfos.isEmpty(), "fileInfos cannot be empty");
@@ -90,6 +136,7 @@ public class MultiFileReader implements Closeable {
         "archiveDir cannot be empty if postProcessing is ARCHIVE");
 
     archiveDir = (postProcessing == PostProcessingOptions.ARCHIVE) ? archiveDir : null;
+    this.fileInfos = fileInfos;
     this.inPreviewMode = inPreviewMode;
 
     events = new ArrayList<>(fileInfos.size() * 2);
@@ -111,9 +158,10 @@ public class MultiFileReader implements Closeable {
         postProcessing,
         archiveDir,
         eventPublisher,
-        inPreviewMode
+        inPreviewMode,
+        fileFilter
     ) : new ExactFileContextProvider(
-        fileInfos,
+        fileInfos.stream().filter(fileFilter).collect(Collectors.toList()),
         charset,
         maxLineLength,
         postProcessing,
@@ -125,6 +173,27 @@ public class MultiFileReader implements Closeable {
     open = true;
   }
 
+  /**
+   * Sets the notifier used to wake up {@link #next(long)} when the directories of the files change, instead of
+   * polling the files every {@link #MAX_YIELD_TIME} milliseconds.
+   * <p/>
+   * Directories that cannot be watched, because they have wildcards or do not exist yet, are still polled.
+   *
+   * @param changeNotifier the notifier to register the directories with.
+   */
+  public void setChangeNotifier(FileChangeNotifier changeNotifier) {
+    this.changeNotifier = changeNotifier;
+    allDirectoriesWatched = true;
+    for (MultiFileInfo fileInfo : fileInfos) {
+      Path dir = Paths.get(fileInfo.getFileFullPath()).getParent();
+      boolean watched = dir != null
+          && !GlobFilePathUtil.hasGlobWildcard(dir.toString())
+          && changeNotifier.register(dir);
+      allDirectoriesWatched &= watched;
+    }
+    LOG.debug("Change notifications enabled, all directories watched: {}", allDirectoriesWatched);
+  }
+
   /**
    * Sets the file offsets to use for the next read. To work correctly, the last return offsets should be used or
    * an empty <code>Map</code> if there is none.
@@ -180,6 +249,24 @@ public class MultiFileReader implements Closeable {
     return (remaining > 0) ? remaining : 0;
   }
 
+  private long getChangeGeneration() {
+    return (changeNotifier != null) ? changeNotifier.getGeneration() : 0;
+  }
+
+  // waits for a file change if there is a notifier, returns false if interrupted
+  private boolean waitForChanges(long remainingMillis, long generation) {
+    if (changeNotifier == null || !changeNotifier.isOpen()) {
+      return ThreadUtil.sleep(Math.min(remainingMillis, MAX_YIELD_TIME));
+    }
+    try {
+      long maxYieldTime = (allDirectoriesWatched) ? MAX_NOTIFIED_YIELD_TIME : MAX_YIELD_TIME;
+      changeNotifier.await(generation, Math.min(remainingMillis, maxYieldTime));
+      return true;
+    } catch (InterruptedException ex) {
+      return false;
+    }
+  }
+
   /**
    * Reads the next {@link LiveFileChunk} from the directories waiting the specified time for one.
    *
@@ -192,6 +279,7 @@ public class MultiFileReader implements Closeable {
     long startTime = System.currentTimeMillis();
     LiveFileChunk chunk = null;
     boolean exit = false;
+    long generation = getChangeGeneration();
     fileContextProvider.startNewLoop();
     while (!exit) {
       if (!fileContextProvider.didFullLoop()) {
@@ -239,7 +327,8 @@ public class MultiFileReader implements Closeable {
           if (!exit && LOG.isTraceEnabled()) {
             LOG.trace("next(): looped through all directories, yielding CPU");
           }
-          exit = exit || !ThreadUtil.sleep(Math.min(getRemainingWaitTime(startTime, waitMillis), MAX_YIELD_TIME));
+          exit = exit || !waitForChanges(getRemainingWaitTime(startTime, waitMillis), generation);
+          generation = getChangeGeneration();
           fileContextProvider.startNewLoop();
         }
       }
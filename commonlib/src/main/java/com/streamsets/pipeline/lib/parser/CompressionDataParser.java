@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.ext.DataCollectorServices;
 import com.streamsets.pipeline.api.ext.json.JsonMapper;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.common.DataFormatConstants;
 import com.streamsets.pipeline.config.Compression;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -50,6 +51,7 @@ public class CompressionDataParser extends AbstractDataParser {
   private final String id;
   private final Compression compression;
   private final String compressionFilePattern;
+  private final int readAheadBuffers;
   private final DataParserFactory dataParserFactory;
 
   private String offset;
@@ -64,12 +66,25 @@ public class CompressionDataParser extends AbstractDataParser {
       Compression compression,
       String compressionFilePattern,
       DataParserFactory dataParserFactory
+  ) {
+    this(id, is, offset, compression, compressionFilePattern, 0, dataParserFactory);
+  }
+
+  public CompressionDataParser(
+      String id,
+      InputStream is,
+      String offset,
+      Compression compression,
+      String compressionFilePattern,
+      int readAheadBuffers,
+      DataParserFactory dataParserFactory
   ) {
     this.id = id;
     this.is = is;
     this.offset = offset;
     this.compression = compression;
     this.compressionFilePattern = compressionFilePattern;
+    this.readAheadBuffers = readAheadBuffers;
     this.dataParserFactory = dataParserFactory;
   }
 
@@ -80,7 +95,14 @@ public class CompressionDataParser extends AbstractDataParser {
         offset = ZERO;
       }
       // first invocation of this method on the parser. Initialize
-      compressionInput = new CompressionInputBuilder(compression, compressionFilePattern, is, offset).build();
+      compressionInput = new CompressionInputBuilder(
+          compression,
+          compressionFilePattern,
+          is,
+          offset,
+          id,
+          readAheadBuffers
+      ).build();
       offset = compressionInput.getStreamPosition(offset);
     }
     Record record = null;
@@ -171,17 +193,32 @@ public class CompressionDataParser extends AbstractDataParser {
     private final String compressedFilePattern;
     private final InputStream inputStream;
     private final String offset;
+    private final String id;
+    private final int readAheadBuffers;
 
     public CompressionInputBuilder(
         Compression compressionInputFormat,
         String compressedFilePattern,
         InputStream inputStream,
         String offset
+    ) {
+      this(compressionInputFormat, compressedFilePattern, inputStream, offset, null, 0);
+    }
+
+    public CompressionInputBuilder(
+        Compression compressionInputFormat,
+        String compressedFilePattern,
+        InputStream inputStream,
+        String offset,
+        String id,
+        int readAheadBuffers
     ) {
       this.compressionInputFormat = compressionInputFormat;
       this.compressedFilePattern = compressedFilePattern;
       this.inputStream = inputStream;
       this.offset = offset;
+      this.id = id;
+      this.readAheadBuffers = readAheadBuffers;
     }
 
     public CompressionDataParser.CompressionInput build() throws IOException {
@@ -190,11 +227,15 @@ public class CompressionDataParser extends AbstractDataParser {
           case NONE:
             return new None(inputStream);
           case COMPRESSED_FILE:
-            return new CompressorInput(inputStream);
+            return new CompressorInput(inputStream, id, readAheadBuffers);
           case ARCHIVE:
             return new ArchiveInput(compressedFilePattern, new None(inputStream), offset);
           case COMPRESSED_ARCHIVE:
-            return new ArchiveInput(compressedFilePattern, new CompressorInput(inputStream), offset);
+            return new ArchiveInput(
+                compressedFilePattern,
+                new CompressorInput(inputStream, id, readAheadBuffers),
+                offset
+            );
           default:
             throw new IllegalArgumentException();
         }
@@ -250,12 +291,25 @@ public class CompressionDataParser extends AbstractDataParser {
       private InputStream inputStream;
 
       public CompressorInput(InputStream inputStream) throws IOException {
+        this(inputStream, null, 0);
+      }
+
+      public CompressorInput(InputStream inputStream, String id, int readAheadBuffers) throws IOException {
         try {
           this.inputStream = new CompressorStreamFactory(DECOMPRESS_UNTIL_EOF).createCompressorInputStream(
               new BufferedInputStream(inputStream));
         } catch (CompressorException e) {
           throw new IOException(e);
         }
+        if (readAheadBuffers > 0) {
+          // decompress on a separate thread so it runs concurrently with the parsing of the decompressed data
+          this.inputStream = new ReadAheadInputStream(
+              id == null ? "decompression" : id,
+              this.inputStream,
+              readAheadBuffers,
+              DataFormatConstants.DECOMPRESSION_READ_AHEAD_BUFFER_SIZE
+          );
+        }
       }
 
       @Override
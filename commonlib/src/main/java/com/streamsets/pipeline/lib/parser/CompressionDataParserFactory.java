@@ -32,7 +32,7 @@ public class CompressionDataParserFactory extends DataParserFactory {
   @Override
   public DataParser getParser(String id, InputStream is, String offset) throws DataParserException {
     return new CompressionDataParser(id, is, offset, settings.getCompression(), settings.getFilePatternInArchive(),
-        dataParserFactory);
+        settings.getDecompressionReadAheadBuffers(), dataParserFactory);
   }
 
   @Override
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.record.PathElement;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.data.DataFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projection and predicate pushed down into a data parser.
+ *
+ * The projection is the set of field paths to keep, every other field is skipped by the parser before its
+ * {@link Field} is created. A path keeps its whole subtree, list indexes in paths are ignored so a path going through
+ * a list applies to all its elements. An empty set of paths keeps everything.
+ *
+ * The predicate keeps only the records whose field at the predicate path has one of the given values. Values are
+ * compared with the type of the field: numbers by value, so that 1 and 1.0 are equal, booleans with true and false,
+ * and strings and other types by text. A value enclosed in double quotes only matches string fields, so "true" does
+ * not match a boolean field. The predicate field is always part of the projection.
+ */
+public class FieldProjection {
+  static final String KEY_PREFIX = "projection.";
+  public static final String FIELD_PATHS_CONFIG = KEY_PREFIX + "fieldPaths";
+  public static final String PREDICATE_FIELD_PATH_CONFIG = KEY_PREFIX + "predicateFieldPath";
+  public static final String PREDICATE_VALUES_CONFIG = KEY_PREFIX + "predicateValues";
+
+  public static final Map<String, Object> CONFIGS;
+
+  static {
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(FIELD_PATHS_CONFIG, Collections.<String>emptyList());
+    configs.put(PREDICATE_FIELD_PATH_CONFIG, "");
+    configs.put(PREDICATE_VALUES_CONFIG, Collections.<String>emptyList());
+    CONFIGS = Collections.unmodifiableMap(configs);
+  }
+
+  public static final FieldProjection ALL = new FieldProjection(Collections.<String>emptyList(), null, null);
+
+  /**
+   * Node of the projection tree, children are looked up by field name.
+   */
+  public static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private boolean all;
+
+    private Node(boolean all) {
+      this.all = all;
+    }
+
+    /**
+     * Returns TRUE if the whole subtree under this node is kept.
+     */
+    public boolean isAll() {
+      return all;
+    }
+
+    /**
+     * Returns the node for the given child field or NULL if the child field is not kept.
+     */
+    public Node getChild(String name) {
+      return all ? this : children.get(name);
+    }
+  }
+
+  private final Node root;
+  private final List<PathElement> predicatePath;
+  private final boolean predicate;
+  private final Set<String> predicateStrings = new HashSet<>();
+  private final List<BigDecimal> predicateNumbers = new ArrayList<>();
+  private final Set<Boolean> predicateBooleans = new HashSet<>();
+
+  public static FieldProjection create(DataFactory.Settings settings) {
+    List<String> fieldPaths = settings.getConfig(FIELD_PATHS_CONFIG);
+    String predicateFieldPath = settings.getConfig(PREDICATE_FIELD_PATH_CONFIG);
+    List<String> predicateValues = settings.getConfig(PREDICATE_VALUES_CONFIG);
+    if ((fieldPaths == null || fieldPaths.isEmpty()) && (predicateFieldPath == null || predicateFieldPath.isEmpty())) {
+      return ALL;
+    }
+    return new FieldProjection(fieldPaths, predicateFieldPath, predicateValues);
+  }
+
+  public FieldProjection(List<String> fieldPaths, String predicateFieldPath, List<String> predicateValues) {
+    boolean projected = fieldPaths != null && !fieldPaths.isEmpty();
+    root = new Node(!projected);
+    if (projected) {
+      for (String fieldPath : fieldPaths) {
+        add(PathElement.parse(fieldPath, true));
+      }
+    }
+    if (predicateFieldPath != null && !predicateFieldPath.isEmpty()) {
+      predicatePath = PathElement.parse(predicateFieldPath, true);
+      predicate = true;
+      if (predicateValues != null) {
+        for (String value : predicateValues) {
+          addPredicateValue(value);
+        }
+      }
+      if (projected) {
+        add(predicatePath);
+      }
+    } else {
+      predicatePath = ImmutableList.of();
+      predicate = false;
+    }
+  }
+
+  private void addPredicateValue(String value) {
+    if (value == null) {
+      return;
+    }
+    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      predicateStrings.add(value.substring(1, value.length() - 1));
+      return;
+    }
+    predicateStrings.add(value);
+    String literal = value.trim();
+    if ("true".equalsIgnoreCase(literal) || "false".equalsIgnoreCase(literal)) {
+      predicateBooleans.add(Boolean.valueOf(literal));
+    } else {
+      try {
+        predicateNumbers.add(new BigDecimal(literal));
+      } catch (NumberFormatException ex) {
+        // Not a number, only matches by text
+      }
+    }
+  }
+
+  private void add(List<PathElement> path) {
+    Node node = root;
+    for (PathElement element : path) {
+      if (element.getType() == PathElement.Type.MAP) {
+        Node child = node.children.get(element.getName());
+        if (child == null) {
+          child = new Node(false);
+          node.children.put(element.getName(), child);
+        }
+        node = child;
+      }
+    }
+    node.all = true;
+    node.children.clear();
+  }
+
+  /**
+   * Returns TRUE if the parser has to skip fields or records.
+   */
+  public boolean isEnabled() {
+    return !root.isAll() || predicate;
+  }
+
+  /**
+   * Returns TRUE if the parser has to skip fields.
+   */
+  public boolean isProjected() {
+    return !root.isAll();
+  }
+
+  public Node getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns TRUE if the record with the given root field passes the predicate.
+   */
+  public boolean accept(Field rootField) {
+    if (!predicate) {
+      return true;
+    }
+    Field field = rootField;
+    for (PathElement element : predicatePath) {
+      if (field == null || field.getValue() == null) {
+        return false;
+      }
+      switch (element.getType()) {
+        case ROOT:
+          break;
+        case MAP:
+          if (field.getType() != Field.Type.MAP && field.getType() != Field.Type.LIST_MAP) {
+            return false;
+          }
+          field = field.getValueAsMap().get(element.getName());
+          break;
+        case LIST:
+          if (field.getType() != Field.Type.LIST && field.getType() != Field.Type.LIST_MAP) {
+            return false;
+          }
+          List<Field> list = field.getValueAsList();
+          field = (element.getIndex() >= 0 && element.getIndex() < list.size()) ? list.get(element.getIndex()) : null;
+          break;
+        default:
+          return false;
+      }
+    }
+    if (field == null || field.getValue() == null) {
+      return false;
+    }
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+      case LIST:
+      case FILE_REF:
+        return false;
+      case BOOLEAN:
+        return predicateBooleans.contains(field.getValueAsBoolean());
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case DECIMAL:
+        BigDecimal number = toBigDecimal(field);
+        if (number == null) {
+          // NaN and infinity
+          return predicateStrings.contains(field.getValueAsString());
+        }
+        for (BigDecimal value : predicateNumbers) {
+          if (value.compareTo(number) == 0) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return predicateStrings.contains(field.getValueAsString());
+    }
+  }
+
+  private static BigDecimal toBigDecimal(Field field) {
+    Object value = field.getValue();
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    try {
+      return new BigDecimal(value.toString());
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+}
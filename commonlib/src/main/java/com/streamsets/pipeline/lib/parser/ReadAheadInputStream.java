@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input stream that reads the wrapped stream on a separate thread into a bounded set of buffers.
+ *
+ * It is used to run decompression concurrently with parsing: while the parser consumes one buffer the read-ahead
+ * thread is already decompressing the next ones. Bytes are handed over strictly in order, so offsets computed by the
+ * consumer of this stream are the same as when reading the wrapped stream directly.
+ *
+ * Read-ahead threads come from a pool shared by all the streams, and no more streams than processors read ahead at the
+ * same time. A stream opened while all of them are in use reads the wrapped stream directly, on the thread of its
+ * consumer.
+ */
+public class ReadAheadInputStream extends InputStream {
+  private static final Logger LOG = LoggerFactory.getLogger(ReadAheadInputStream.class);
+
+  private static final long CLOSE_WAIT_MILLIS = 1000;
+
+  private static final int MAX_READ_AHEADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+  private static final Semaphore READ_AHEADS = new Semaphore(MAX_READ_AHEADS);
+  private static final ExecutorService READ_AHEAD_EXECUTOR = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("ReadAhead-%d").setDaemon(true).build()
+  );
+
+  private static final class Chunk {
+    private final byte[] buffer;
+    private int length;
+
+    Chunk(byte[] buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  // marker put in the filled queue once the wrapped stream is exhausted (or failed)
+  private static final Chunk END = new Chunk(new byte[0]);
+
+  private final InputStream inputStream;
+  private final BlockingQueue<Chunk> free;
+  private final BlockingQueue<Chunk> filled;
+  private final String name;
+  private final Future<?> readAheadTask;
+  private final CountDownLatch readAheadFinished = new CountDownLatch(1);
+  private final Object closeLock = new Object();
+
+  private volatile boolean closed;
+  // guarded by closeLock, the wrapped stream is not thread safe so it is closed by the read-ahead thread if it is
+  // still reading from it when close() gives up waiting for it
+  private boolean readAheadStarted;
+  private boolean readAheadDone;
+  private boolean closeOnExit;
+  private volatile IOException readError;
+  private Chunk current;
+  private int position;
+  private boolean eof;
+
+  public ReadAheadInputStream(String name, InputStream inputStream, int bufferCount, int bufferSize) {
+    Utils.checkNotNull(inputStream, "inputStream");
+    Utils.checkArgument(bufferCount > 0, "bufferCount must be greater than zero");
+    Utils.checkArgument(bufferSize > 0, "bufferSize must be greater than zero");
+    this.name = name;
+    this.inputStream = inputStream;
+    // one extra slot so the END marker can always be queued without blocking
+    free = new ArrayBlockingQueue<>(bufferCount);
+    filled = new ArrayBlockingQueue<>(bufferCount + 1);
+    for (int i = 0; i < bufferCount; i++) {
+      free.add(new Chunk(new byte[bufferSize]));
+    }
+    readAheadTask = submit();
+  }
+
+  private Future<?> submit() {
+    if (!READ_AHEADS.tryAcquire()) {
+      LOG.debug("All read-ahead threads are in use, '{}' is read directly", name);
+      free.clear();
+      readAheadFinished.countDown();
+      return null;
+    }
+    return READ_AHEAD_EXECUTOR.submit(this::readAhead);
+  }
+
+  @VisibleForTesting
+  static int getActiveReadAheads() {
+    return MAX_READ_AHEADS - READ_AHEADS.availablePermits();
+  }
+
+  @VisibleForTesting
+  boolean isReadAhead() {
+    return readAheadTask != null;
+  }
+
+  private void readAhead() {
+    synchronized (closeLock) {
+      if (readAheadDone) {
+        // closed before the task started
+        return;
+      }
+      readAheadStarted = true;
+    }
+    try {
+      readChunks();
+    } finally {
+      boolean closeStream;
+      synchronized (closeLock) {
+        readAheadDone = true;
+        closeStream = closeOnExit;
+      }
+      READ_AHEADS.release();
+      readAheadFinished.countDown();
+      if (closeStream) {
+        try {
+          inputStream.close();
+        } catch (IOException ex) {
+          LOG.warn("Could not close the stream of read-ahead '{}': {}", name, ex, ex);
+        }
+      }
+    }
+  }
+
+  private void readChunks() {
+    try {
+      while (!closed) {
+        Chunk chunk = free.take();
+        chunk.length = fill(chunk.buffer);
+        if (chunk.length < 0) {
+          break;
+        }
+        filled.put(chunk);
+      }
+    } catch (InterruptedException ex) {
+      // close() was called, nothing else to do
+      Thread.currentThread().interrupt();
+      return;
+    } catch (IOException ex) {
+      if (!closed) {
+        readError = ex;
+      }
+    }
+    filled.offer(END);
+  }
+
+  private int fill(byte[] buffer) throws IOException {
+    int total = 0;
+    while (total < buffer.length) {
+      int read = inputStream.read(buffer, total, buffer.length - total);
+      if (read < 0) {
+        return (total == 0) ? -1 : total;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  private boolean nextChunk() throws IOException {
+    if (current != null) {
+      return true;
+    }
+    if (eof) {
+      return false;
+    }
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    try {
+      current = filled.take();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for read-ahead data");
+    }
+    if (current == END) {
+      current = null;
+      eof = true;
+      if (readError != null) {
+        throw new IOException(readError.toString(), readError);
+      }
+      return false;
+    }
+    position = 0;
+    return true;
+  }
+
+  private void releaseIfConsumed() {
+    if (position == current.length) {
+      free.offer(current);
+      current = null;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (readAheadTask == null) {
+      return inputStream.read();
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int b = current.buffer[position++] & 0xFF;
+    releaseIfConsumed();
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (readAheadTask == null) {
+      return inputStream.read(b, off, len);
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int count = Math.min(len, current.length - position);
+    System.arraycopy(current.buffer, position, b, off, count);
+    position += count;
+    releaseIfConsumed();
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (readAheadTask == null) {
+      return inputStream.available();
+    }
+    return (current == null) ? 0 : current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      if (readAheadTask == null) {
+        inputStream.close();
+        return;
+      }
+      readAheadTask.cancel(true);
+      synchronized (closeLock) {
+        if (!readAheadStarted) {
+          readAheadDone = true;
+          READ_AHEADS.release();
+          readAheadFinished.countDown();
+        }
+      }
+      try {
+        readAheadFinished.await(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      current = null;
+      free.clear();
+      filled.clear();
+      boolean stillReading;
+      synchronized (closeLock) {
+        stillReading = !readAheadDone;
+        closeOnExit = stillReading;
+      }
+      if (stillReading) {
+        // closing the stream while the thread is reading from it is not safe, the thread closes it once done
+        LOG.warn(
+            "Read-ahead '{}' did not finish in {}ms, it will close the stream when done",
+            name,
+            CLOSE_WAIT_MILLIS
+        );
+      } else {
+        inputStream.close();
+      }
+    }
+  }
+
+}
@@ -31,6 +31,7 @@ import com.streamsets.pipeline.lib.csv.DelimitedDataParser;
 import com.streamsets.pipeline.lib.csv.OverrunCsvParser;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.parser.ParserRuntimeException;
 import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
 
@@ -47,6 +48,7 @@ public class DelimitedCharDataParser extends AbstractDataParser {
   private final String readerId;
   private final DelimitedDataParser parser;
   private final DelimitedDataParserSettings settings;
+  private final FieldProjection projection;
   // Instance wise counter of extra columns that will remember how many columns have been every added in case
   // that user checked 'Allow extra columns'
   private int extraColumnCounter = 1;
@@ -79,6 +81,7 @@ public class DelimitedCharDataParser extends AbstractDataParser {
     this.context = context;
     this.readerId = readerId;
     this.settings = settings;
+    this.projection = (settings.getProjection() == null) ? FieldProjection.ALL : settings.getProjection();
     final CsvHeader header = settings.getHeader();
 
     switch(settings.getParser()) {
@@ -158,12 +161,18 @@ public class DelimitedCharDataParser extends AbstractDataParser {
   @Override
   public Record parse() throws IOException, DataParserException {
     Record record = null;
-    long offset = parser.getReaderPosition();
-    String[] columns = parser.read();
-    if (columns != null) {
-      record = createRecord(offset, columns);
-    } else {
-      eof = true;
+    while (record == null && !eof) {
+      long offset = parser.getReaderPosition();
+      String[] columns = parser.read();
+      if (columns != null) {
+        record = createRecord(offset, columns);
+        if (!projection.accept(record.get())) {
+          // filtered out by the projection predicate, continue with the next line
+          record = null;
+        }
+      } else {
+        eof = true;
+      }
     }
     return record;
   }
@@ -206,6 +215,7 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       }
       record.set(Field.create(row));
     } else {
+      FieldProjection.Node node = projection.getRoot();
       LinkedHashMap<String, Field> listMap = new LinkedHashMap<>(columns.length);
       for (int i = 0; i < columns.length; i++) {
         String key;
@@ -219,7 +229,10 @@ public class DelimitedCharDataParser extends AbstractDataParser {
             key = Integer.toString(i);
           }
         }
-        listMap.put(key, getField(columns[i]));
+        // columns outside of the projection are skipped
+        if (node.getChild(key) != null) {
+          listMap.put(key, getField(columns[i]));
+        }
       }
       record.set(Field.createListMap(listMap));
     }
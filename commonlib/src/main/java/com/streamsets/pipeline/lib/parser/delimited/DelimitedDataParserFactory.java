@@ -28,6 +28,7 @@ import com.streamsets.pipeline.config.CsvRecordType;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
 import org.apache.commons.csv.CSVFormat;
@@ -70,6 +71,7 @@ public class DelimitedDataParserFactory extends DataParserFactory {
           DelimitedDataConstants.MULTI_CHARACTER_LINE_DELIMITER_CONFIG,
           DelimitedDataConstants.DEFAULT_MULTI_CHARACTER_LINE_DELIMITER
       )
+      .putAll(FieldProjection.CONFIGS)
       .build();
 
   public static final Set<Class<? extends Enum>> MODES =
@@ -95,6 +97,11 @@ public class DelimitedDataParserFactory extends DataParserFactory {
   private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
                                                          reader.getPos()));
+    FieldProjection projection = FieldProjection.create(getSettings());
+    if (projection.isProjected() && getSettings().getMode(CsvRecordType.class) == CsvRecordType.LIST) {
+      // list records have no field names to project on
+      throw new DataParserException(Errors.DELIMITED_PARSER_02, id);
+    }
 
     DelimitedDataParserSettings.Builder builder = DelimitedDataParserSettings.builder();
 
@@ -149,6 +156,7 @@ public class DelimitedDataParserFactory extends DataParserFactory {
           .withUnivocitySkipEmptyLines(getSettings().getConfig(DelimitedDataConstants.UNIVOCITY_SKIP_EMPTY_LINES))
           .withUnivocityCommentChar(getSettings().getConfig(DelimitedDataConstants.UNIVOCITY_COMMENT_CHAR))
           .withUnivocityLineSeparator(getSettings().getConfig(DelimitedDataConstants.UNIVOCITY_LINE_SEPARATOR))
+          .withProjection(projection)
           .build();
 
       if (getSettings().getCharset().name().equals("UTF-8")) {
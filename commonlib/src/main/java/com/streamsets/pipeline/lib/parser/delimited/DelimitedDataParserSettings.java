@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.parser.delimited;
 import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvParser;
 import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import org.apache.commons.csv.CSVFormat;
 
 public class DelimitedDataParserSettings {
@@ -31,6 +32,7 @@ public class DelimitedDataParserSettings {
   private String nullConstant;
   private boolean allowExtraColumns;
   private String extraColumnPrefix;
+  private FieldProjection projection;
   private char multiCharacterQuoteChar;
   private char multiCharacterEscapeChar;
   private String multiCharacterFieldDelimiter;
@@ -90,6 +92,10 @@ public class DelimitedDataParserSettings {
     return extraColumnPrefix;
   }
 
+  public FieldProjection getProjection() {
+    return projection;
+  }
+
   public char getMultiCharacterQuoteChar() {
     return multiCharacterQuoteChar;
   }
@@ -153,6 +159,7 @@ public class DelimitedDataParserSettings {
     private String nullConstant;
     private boolean allowExtraColumns;
     private String extraColumnPrefix;
+    private FieldProjection projection = FieldProjection.ALL;
 
     private char multiCharacterQuoteChar;
     private char multiCharacterEscapeChar;
@@ -222,6 +229,11 @@ public class DelimitedDataParserSettings {
       return this;
     }
 
+    public Builder withProjection(FieldProjection projection) {
+      this.projection = projection;
+      return this;
+    }
+
     public Builder withMultiCharQuoteChar(char quoteChar) {
       this.multiCharacterQuoteChar = quoteChar;
       return this;
@@ -292,6 +304,7 @@ public class DelimitedDataParserSettings {
       delimitedDataParserSettings.skipStartLines = this.skipStartLines;
       delimitedDataParserSettings.nullConstant = this.nullConstant;
       delimitedDataParserSettings.extraColumnPrefix = this.extraColumnPrefix;
+      delimitedDataParserSettings.projection = this.projection;
       delimitedDataParserSettings.format = this.format;
       delimitedDataParserSettings.parseNull = this.parseNull;
       delimitedDataParserSettings.multiCharacterFieldDelimiter = this.multiCharacterFieldDelimiter;
@@ -22,6 +22,7 @@ import com.streamsets.pipeline.api.GenerateResourceBundle;
 public enum Errors implements ErrorCode {
   DELIMITED_PARSER_00("Cannot advance reader '{}' to offset '{}'"),
   DELIMITED_PARSER_01("Unexpected number of columns at offset {}, contains {} fields whereas only {} are available in header"),
+  DELIMITED_PARSER_02("Cannot create parser '{}', fields to keep require the List-Map root field type"),
   ;
 
   private final String msg;
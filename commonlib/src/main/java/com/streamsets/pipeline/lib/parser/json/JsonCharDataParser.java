@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -40,6 +41,8 @@ public class JsonCharDataParser extends AbstractDataParser {
   private final String readerId;
   private final int maxObjectLen;
   private final JsonObjectReader parser;
+  private final FieldProjection projection;
+  private final JsonProjectionReader projectionReader;
   private boolean eof;
 
   public JsonCharDataParser(
@@ -49,10 +52,35 @@ public class JsonCharDataParser extends AbstractDataParser {
       long readerOffset,
       Mode mode,
       int maxObjectLen
+  ) throws IOException {
+    this(context, readerId, reader, readerOffset, mode, maxObjectLen, FieldProjection.ALL, 0);
+  }
+
+  /**
+   * @param readLimit overrun limit of the reader, applied to the characters left after removing the fields outside
+   *     of the projection.
+   */
+  public JsonCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      OverrunReader reader,
+      long readerOffset,
+      Mode mode,
+      int maxObjectLen,
+      FieldProjection projection,
+      int readLimit
   ) throws IOException {
     this.context = context;
     this.readerId = readerId;
     this.maxObjectLen = maxObjectLen;
+    this.projection = projection;
+    if (projection.isProjected()) {
+      // fields outside of the projection are removed before the JSON parser tokenizes them
+      projectionReader = new JsonProjectionReader(reader, projection.getRoot(), readerOffset);
+      reader = new OverrunReader(projectionReader, readLimit, false, false);
+    } else {
+      projectionReader = null;
+    }
     parser = ((ContextExtensions) context).createJsonObjectReader(
         reader,
         readerOffset,
@@ -65,22 +93,24 @@ public class JsonCharDataParser extends AbstractDataParser {
   @Override
   public Record parse() throws IOException, DataParserException {
     Record record = null;
-    long offset = parser.getReaderPosition();
-    try {
-      Object json = parser.read();
-      if (json != JsonObjectReader.EOF) {
-        record = createRecord(offset, json);
-      } else {
-        eof = true;
+    while (record == null && !eof) {
+      long offset = getReaderPosition();
+      try {
+        Object json = parser.read();
+        if (json != JsonObjectReader.EOF) {
+          record = createRecord(offset, json);
+        } else {
+          eof = true;
+        }
+      } catch (ObjectLengthException ex) {
+        throw new DataParserException(Errors.JSON_PARSER_02, readerId, offset, maxObjectLen);
       }
-    } catch (ObjectLengthException ex) {
-      throw new DataParserException(Errors.JSON_PARSER_02, readerId, offset, maxObjectLen);
     }
     return record;
   }
 
   public Field parseAsField() throws IOException, DataParserException {
-    long offset = parser.getReaderPosition();
+    long offset = getReaderPosition();
     try {
       Object json = parser.read();
       return (json != JsonObjectReader.EOF) ? jsonToField(json,  offset) : null;
@@ -89,9 +119,16 @@ public class JsonCharDataParser extends AbstractDataParser {
     }
   }
 
+  /**
+   * Returns the record for the given JSON object or NULL if it is filtered out by the projection predicate.
+   */
   protected Record createRecord(long offset, Object json) throws DataParserException {
+    Field field = jsonToField(json, offset);
+    if (!projection.accept(field)) {
+      return null;
+    }
     Record record = context.createRecord(readerId + "::" + offset);
-    record.set(jsonToField(json,  offset));
+    record.set(field);
     return record;
   }
 
@@ -148,7 +185,12 @@ public class JsonCharDataParser extends AbstractDataParser {
 
   @Override
   public String getOffset() {
-    return eof ? String.valueOf(-1) : String.valueOf(parser.getReaderPosition());
+    return eof ? String.valueOf(-1) : String.valueOf(getReaderPosition());
+  }
+
+  private long getReaderPosition() {
+    long position = parser.getReaderPosition();
+    return (projectionReader == null) ? position : projectionReader.toSourcePosition(position);
   }
 
   @Override
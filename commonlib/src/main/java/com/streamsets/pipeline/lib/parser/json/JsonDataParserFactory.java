@@ -22,16 +22,16 @@ import com.streamsets.pipeline.config.JsonMode;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
 public class JsonDataParserFactory extends DataParserFactory {
-  public static final Map<String, Object> CONFIGS = Collections.emptyMap();
+  public static final Map<String, Object> CONFIGS = FieldProjection.CONFIGS;
 
   @SuppressWarnings("umchecked")
   public static final Set<Class<? extends Enum>> MODES = ImmutableSet.of(JsonMode.class);
@@ -55,7 +55,8 @@ public class JsonDataParserFactory extends DataParserFactory {
                                                          reader.getPos()));
     try {
       return new JsonCharDataParser(getSettings().getContext(), id, reader, offset,
-                                    getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen());
+                                    getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen(),
+                                    FieldProjection.create(getSettings()), getSettings().getOverRunLimit());
     } catch (IOException ex) {
       throw new DataParserException(Errors.JSON_PARSER_00, id, offset, ex.toString(), ex);
     }
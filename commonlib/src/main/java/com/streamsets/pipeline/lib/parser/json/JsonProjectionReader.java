@@ -0,0 +1,324 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.json;
+
+import com.streamsets.pipeline.lib.parser.FieldProjection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Removes the object entries outside of a {@link FieldProjection} from a JSON stream before it reaches the JSON
+ * parser, so skipped values are only scanned as characters and never tokenized nor allocated.
+ * <p/>
+ * Entries are only removed from objects starting at or after the initial position, so the parser can skip to it using
+ * positions of the original stream. Positions of the filtered stream are mapped back with
+ * {@link #toSourcePosition(long)}, which must be called with increasing positions.
+ */
+class JsonProjectionReader extends Reader {
+  private static final int BUFFER_SIZE = 8192;
+
+  private static class Frame {
+    private final boolean object;
+    // null if all the entries of the object or all the elements of the array are kept
+    private final FieldProjection.Node node;
+    private boolean expectingKey;
+    private boolean hasEntries;
+    private FieldProjection.Node valueNode;
+
+    private Frame(boolean object, FieldProjection.Node node) {
+      this.object = object;
+      this.node = node;
+      this.expectingKey = object;
+    }
+  }
+
+  private final Reader reader;
+  private final FieldProjection.Node root;
+  private final long initialPosition;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final Deque<Frame> frames = new ArrayDeque<>();
+
+  private final StringBuilder out = new StringBuilder();
+  // filtered position of the first character in out and number of characters of out already read
+  private long outStart;
+  private int outRead;
+  // filtered positions where the difference with the source position changes, and the new difference
+  private final TreeMap<Long, Long> deltas = new TreeMap<>();
+  private long delta;
+  private long sourcePos;
+  private boolean eof;
+
+  private boolean inString;
+  private boolean escape;
+  // not null while reading the key of an entry that may be removed, the entry is held back until the key is known
+  private StringBuilder key;
+  private long entryStart;
+
+  private boolean skipping;
+  private boolean skipStarted;
+  private boolean skipInString;
+  private boolean skipEscape;
+  private int skipDepth;
+
+  JsonProjectionReader(Reader reader, FieldProjection.Node root, long initialPosition) {
+    this.reader = reader;
+    this.root = root;
+    this.initialPosition = initialPosition;
+  }
+
+  /**
+   * Returns the position in the original stream of the given position of the filtered stream.
+   */
+  long toSourcePosition(long position) {
+    Map.Entry<Long, Long> floor = deltas.floorEntry(position);
+    if (floor == null) {
+      return position;
+    }
+    deltas.headMap(floor.getKey(), false).clear();
+    return position + floor.getValue();
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (available() == 0 && !eof) {
+      fill();
+    }
+    int available = available();
+    if (available == 0) {
+      return -1;
+    }
+    int read = Math.min(len, available);
+    out.getChars(outRead, outRead + read, cbuf, off);
+    outRead += read;
+    if (outRead >= BUFFER_SIZE) {
+      out.delete(0, outRead);
+      outStart += outRead;
+      outRead = 0;
+    }
+    return read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private int available() {
+    int limit = (key == null || eof) ? out.length() : (int) (entryStart - outStart);
+    return limit - outRead;
+  }
+
+  private void fill() throws IOException {
+    int read = reader.read(buffer);
+    if (read == -1) {
+      eof = true;
+    }
+    for (int i = 0; i < read; i++) {
+      process(buffer[i]);
+      sourcePos++;
+    }
+  }
+
+  private void process(char c) {
+    if (skipping && skip(c)) {
+      return;
+    }
+    if (inString) {
+      if (key != null && (escape || c != '"')) {
+        key.append(c);
+      }
+      emit(c);
+      if (escape) {
+        escape = false;
+      } else if (c == '\\') {
+        escape = true;
+      } else if (c == '"') {
+        inString = false;
+        if (key != null) {
+          endKey();
+        }
+      }
+      return;
+    }
+    Frame frame = frames.peek();
+    boolean projecting = frame != null && frame.object && frame.node != null;
+    switch (c) {
+      case '"':
+        if (projecting && frame.expectingKey) {
+          frame.expectingKey = false;
+          entryStart = outStart + out.length();
+          // separators are only written before kept entries
+          if (frame.hasEntries) {
+            emit(',');
+          }
+          key = new StringBuilder();
+        }
+        inString = true;
+        emit(c);
+        break;
+      case ',':
+        if (projecting) {
+          frame.expectingKey = true;
+        } else {
+          emit(c);
+        }
+        break;
+      case '{':
+      case '[':
+        emit(c);
+        FieldProjection.Node node = getValueNode(frame);
+        if (c == '{' && sourcePos < initialPosition) {
+          node = null;
+        }
+        frames.push(new Frame(c == '{', node));
+        break;
+      case '}':
+      case ']':
+        emit(c);
+        frames.poll();
+        break;
+      default:
+        emit(c);
+    }
+  }
+
+  private FieldProjection.Node getValueNode(Frame parent) {
+    FieldProjection.Node node;
+    if (parent == null) {
+      node = root;
+    } else if (parent.object) {
+      node = (parent.node == null) ? null : parent.valueNode;
+    } else {
+      // the projection applies to all the elements of a list
+      node = parent.node;
+    }
+    return (node == null || node.isAll()) ? null : node;
+  }
+
+  private void endKey() {
+    Frame frame = frames.peek();
+    FieldProjection.Node child = frame.node.getChild(unescape(key));
+    key = null;
+    if (child == null) {
+      // remove the entry read so far and skip its value
+      out.setLength((int) (entryStart - outStart));
+      deltas.tailMap(entryStart, true).clear();
+      delta = deltas.isEmpty() ? 0 : deltas.lastEntry().getValue();
+      skipping = true;
+      skipStarted = false;
+      skipDepth = 0;
+    } else {
+      frame.hasEntries = true;
+      frame.valueNode = child;
+    }
+  }
+
+  /**
+   * Skips the colon and the value of a removed entry.
+   *
+   * @return FALSE if the value ended just before the given character, which has to be processed.
+   */
+  private boolean skip(char c) {
+    if (!skipStarted) {
+      if (c != ':' && !Character.isWhitespace(c)) {
+        skipStarted = true;
+        if (c == '"') {
+          skipInString = true;
+        } else if (c == '{' || c == '[') {
+          skipDepth = 1;
+        }
+      }
+    } else if (skipInString) {
+      if (skipEscape) {
+        skipEscape = false;
+      } else if (c == '\\') {
+        skipEscape = true;
+      } else if (c == '"') {
+        skipInString = false;
+        skipping = skipDepth > 0;
+      }
+    } else if (skipDepth > 0) {
+      if (c == '"') {
+        skipInString = true;
+      } else if (c == '{' || c == '[') {
+        skipDepth++;
+      } else if (c == '}' || c == ']') {
+        skipping = --skipDepth > 0;
+      }
+    } else if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+      // end of a number, boolean or null
+      skipping = false;
+      return false;
+    }
+    return true;
+  }
+
+  private void emit(char c) {
+    long position = outStart + out.length();
+    if (sourcePos - position != delta) {
+      delta = sourcePos - position;
+      deltas.put(position, delta);
+    }
+    out.append(c);
+  }
+
+  private static String unescape(CharSequence escaped) {
+    StringBuilder sb = new StringBuilder(escaped.length());
+    for (int i = 0; i < escaped.length(); i++) {
+      char c = escaped.charAt(i);
+      if (c == '\\' && i + 1 < escaped.length()) {
+        c = escaped.charAt(++i);
+        switch (c) {
+          case 'b':
+            c = '\b';
+            break;
+          case 'f':
+            c = '\f';
+            break;
+          case 'n':
+            c = '\n';
+            break;
+          case 'r':
+            c = '\r';
+            break;
+          case 't':
+            c = '\t';
+            break;
+          case 'u':
+            try {
+              c = (char) Integer.parseInt(escaped.subSequence(i + 1, i + 5).toString(), 16);
+              i += 4;
+            } catch (IndexOutOfBoundsException | NumberFormatException ex) {
+              // invalid escape, reported by the JSON parser
+            }
+            break;
+          default:
+            // quote, backslash and slash stand for themselves
+        }
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+}
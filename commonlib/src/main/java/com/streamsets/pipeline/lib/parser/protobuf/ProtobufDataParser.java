@@ -15,15 +15,19 @@
  */
 package com.streamsets.pipeline.lib.parser.protobuf;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.lib.io.OverrunInputStream;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.util.ProtobufDecoder;
 import com.streamsets.pipeline.lib.util.ProtobufTypeUtil;
+import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,6 +37,7 @@ import java.util.Set;
 public class ProtobufDataParser extends AbstractDataParser {
 
   private static final String OFFSET_SEPARATOR = "::";
+  private static final int READ_CHUNK_SIZE = 64 * 1024;
 
   private boolean eof;
   private final ProtoConfigurableEntity.Context context;
@@ -45,6 +50,9 @@ public class ProtobufDataParser extends AbstractDataParser {
   private final Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap;
   private final ExtensionRegistry extensionRegistry;
   private final boolean isDelimited;
+  // compiled decoder, NULL when the message type is not supported by it and DynamicMessage is used instead
+  private final ProtobufDecoder decoder;
+  private byte[] messageBuffer;
 
   public ProtobufDataParser(
       ProtoConfigurableEntity.Context context,
@@ -56,6 +64,32 @@ public class ProtobufDataParser extends AbstractDataParser {
       String readerOffset,
       int maxObjectLength,
       boolean isDelimited
+  ) throws IOException, Descriptors.DescriptorValidationException, DataParserException {
+    this(
+        context,
+        messageId,
+        descriptor,
+        messageTypeToExtensionMap,
+        extensionRegistry,
+        null,
+        inputStream,
+        readerOffset,
+        maxObjectLength,
+        isDelimited
+    );
+  }
+
+  public ProtobufDataParser(
+      ProtoConfigurableEntity.Context context,
+      String messageId,
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap,
+      ExtensionRegistry extensionRegistry,
+      ProtobufDecoder decoder,
+      InputStream inputStream,
+      String readerOffset,
+      int maxObjectLength,
+      boolean isDelimited
   ) throws IOException, Descriptors.DescriptorValidationException, DataParserException {
     this.context = context;
     this.inputStream = new OverrunInputStream(inputStream, maxObjectLength, true);
@@ -65,6 +99,7 @@ public class ProtobufDataParser extends AbstractDataParser {
     this.descriptor = descriptor;
     this.builder = DynamicMessage.newBuilder(descriptor);
     this.isDelimited = isDelimited;
+    this.decoder = decoder;
 
     // skip to the required location
     if (readerOffset != null && !readerOffset.isEmpty() && !readerOffset.equals("0")) {
@@ -78,6 +113,9 @@ public class ProtobufDataParser extends AbstractDataParser {
     DynamicMessage message;
     long pos = inputStream.getPos();
     inputStream.resetCount();
+    if (decoder != null) {
+      return parseWithDecoder(pos);
+    }
     if (!isDelimited) {
       if (!eof) {
         builder.mergeFrom(inputStream, extensionRegistry);
@@ -103,6 +141,54 @@ public class ProtobufDataParser extends AbstractDataParser {
     return record;
   }
 
+  private Record parseWithDecoder(long pos) throws IOException, DataParserException {
+    CodedInputStream input;
+    if (!isDelimited) {
+      if (eof) {
+        return null;
+      }
+      input = CodedInputStream.newInstance(inputStream);
+      // Set EOF since non-delimited can only contain a single message.
+      eof = true;
+    } else {
+      int firstByte = inputStream.read();
+      if (firstByte == -1) {
+        // No more messages to process in this stream.
+        eof = true;
+        return null;
+      }
+      // reading exactly the message bytes keeps the stream position at the end of the message
+      int size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+      readMessage(size);
+      input = CodedInputStream.newInstance(messageBuffer, 0, size);
+    }
+    Record record = context.createRecord(messageId + OFFSET_SEPARATOR + pos);
+    // If the message does not contain required fields then decode throws UninitializedMessageException
+    record.set(decoder.decode(record, input));
+    return record;
+  }
+
+  private void readMessage(int size) throws IOException {
+    if (size < 0) {
+      throw new InvalidProtocolBufferException("Protobuf message claimed to have negative size: " + size);
+    }
+    // the buffer grows as the message is read, so a corrupted size fails on the data read instead of on allocation
+    int read = 0;
+    while (read < size) {
+      int chunk = Math.min(size - read, READ_CHUNK_SIZE);
+      if (messageBuffer == null || messageBuffer.length < read + chunk) {
+        int length = (messageBuffer == null) ? 0 : messageBuffer.length;
+        byte[] buffer = new byte[Math.min(size, Math.max(read + chunk, length * 2))];
+        if (messageBuffer != null) {
+          System.arraycopy(messageBuffer, 0, buffer, 0, read);
+        }
+        messageBuffer = buffer;
+      }
+      IOUtils.readFully(inputStream, messageBuffer, read, chunk);
+      read += chunk;
+    }
+  }
+
   @Override
   public String getOffset() throws DataParserException {
     return eof ? String.valueOf(-1) : String.valueOf(inputStream.getPos());
@@ -24,6 +24,7 @@ import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.Errors;
 import com.streamsets.pipeline.lib.util.ProtobufConstants;
+import com.streamsets.pipeline.lib.util.ProtobufDecoder;
 import com.streamsets.pipeline.lib.util.ProtobufTypeUtil;
 
 import java.io.IOException;
@@ -58,6 +59,7 @@ public class ProtobufDataParserFactory extends DataParserFactory {
   private final ExtensionRegistry extensionRegistry;
   private final Map<String, Object> defaultValueMap;
   private final boolean isDelimited;
+  private final ProtobufDecoder decoder;
 
   public ProtobufDataParserFactory(Settings settings) throws StageException {
     super(settings);
@@ -83,6 +85,11 @@ public class ProtobufDataParserFactory extends DataParserFactory {
         extensionRegistry.add(f);
       }
     }
+
+    // messages are decoded without DynamicMessage unless they use features the compiled decoder does not support
+    decoder = ProtobufDecoder.isSupported(descriptor, messageTypeToExtensionMap)
+        ? new ProtobufDecoder(descriptor, messageTypeToExtensionMap)
+        : null;
   }
 
   @Override
@@ -94,6 +101,7 @@ public class ProtobufDataParserFactory extends DataParserFactory {
           descriptor,
           messageTypeToExtensionMap,
           extensionRegistry,
+          decoder,
           is,
           offset,
           getSettings().getOverRunLimit(),
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UninitializedMessageException;
+import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.WireFormat;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.protobuf.Errors;
+import com.streamsets.pipeline.lib.util.ProtobufMessageSchema.FieldInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decodes protobuf messages straight from the wire format into SDC fields.
+ *
+ * The result is the same as parsing the message into a {@link com.google.protobuf.DynamicMessage} and converting it
+ * with {@link ProtobufTypeUtil#protobufToSdcField}, including default values, extensions and unknown fields stored in
+ * the record header, but without building the intermediate message and without descriptor lookups per field: the
+ * message types are compiled once into tag to field tables when the decoder is created.
+ *
+ * Instances are thread safe.
+ */
+public class ProtobufDecoder {
+  private static final String FORWARD_SLASH = "/";
+  private static final String VALUE = "value";
+  private static final int RECURSION_LIMIT = 100;
+
+  private final ProtobufMessageSchema schema;
+
+  /**
+   * @param descriptor                protobuf descriptor of the messages to decode
+   * @param messageTypeToExtensionMap protobuf extensions map, extensions not in the map are handled as unknown fields
+   */
+  public ProtobufDecoder(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    schema = ProtobufMessageSchema.compile(descriptor, messageTypeToExtensionMap);
+  }
+
+  /**
+   * Returns if the given message type can be handled by the decoder, messages using proto2 groups cannot.
+   */
+  public static boolean isSupported(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    return ProtobufMessageSchema.isSupported(descriptor, messageTypeToExtensionMap);
+  }
+
+  /**
+   * Decodes a message reading the given input until its end (or its current limit).
+   *
+   * @param record record the message is decoded for, unknown fields are added to its header
+   * @param input  input positioned at the beginning of the message
+   * @return new Field instance representing the decoded message
+   * @throws UninitializedMessageException if the message does not contain all its required fields
+   */
+  public Field decode(Record record, CodedInputStream input) throws IOException, DataParserException {
+    List<String> missingFields = new ArrayList<>(0);
+    Field field = decodeMessage(record, "", schema, input, "", missingFields, 0);
+    if (!missingFields.isEmpty()) {
+      throw new UninitializedMessageException(missingFields);
+    }
+    return field;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Field decodeMessage(
+      Record record,
+      String fieldPath,
+      ProtobufMessageSchema schema,
+      CodedInputStream input,
+      String missingPrefix,
+      List<String> missingFields,
+      int depth
+  ) throws IOException, DataParserException {
+    if (depth > RECURSION_LIMIT) {
+      throw new InvalidProtocolBufferException("Protocol message had too many levels of nesting.");
+    }
+    FieldInfo[] fields = schema.getFields();
+    Object[] values = new Object[fields.length];
+    UnknownFieldSet.Builder unknownFields = null;
+
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      FieldInfo field = schema.findByNumber(WireFormat.getTagFieldNumber(tag));
+      int wireType = WireFormat.getTagWireType(tag);
+      if (field != null && wireType == field.wireType) {
+        if (field.mapField) {
+          readMapEntry(record, fieldPath, field, values, input, missingPrefix, missingFields, depth);
+        } else if (field.message) {
+          readMessage(record, fieldPath, field, values, input, missingPrefix, missingFields, depth);
+        } else {
+          unknownFields = readScalar(field, values, input, unknownFields);
+        }
+      } else if (field != null && field.packable && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        int oldLimit = input.pushLimit(input.readRawVarint32());
+        while (input.getBytesUntilLimit() > 0) {
+          unknownFields = readScalar(field, values, input, unknownFields);
+        }
+        input.popLimit(oldLimit);
+      } else {
+        if (wireType == WireFormat.WIRETYPE_END_GROUP) {
+          throw new InvalidProtocolBufferException("Protocol message end-group tag did not match expected tag.");
+        }
+        if (unknownFields == null) {
+          unknownFields = UnknownFieldSet.newBuilder();
+        }
+        unknownFields.mergeFieldFrom(tag, input);
+      }
+    }
+
+    for (FieldInfo field : schema.getRequiredFields()) {
+      if (values[field.index] == null) {
+        missingFields.add(missingPrefix + getMissingName(field));
+      }
+    }
+
+    LinkedHashMap<String, Field> sdcRecordMapFieldValue = new LinkedHashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      FieldInfo field = fields[i];
+      Object value = values[i];
+      if (value == null) {
+        // extensions are only added when present
+        if (i < schema.getDeclaredCount()) {
+          sdcRecordMapFieldValue.put(field.name, field.createAbsentField());
+        }
+      } else if (field.mapField) {
+        sdcRecordMapFieldValue.put(field.name, Field.create((Map<String, Field>) value));
+      } else if (field.repeated) {
+        sdcRecordMapFieldValue.put(field.name, Field.create((List<Field>) value));
+      } else if (field.message) {
+        sdcRecordMapFieldValue.put(
+            field.name,
+            decodeMessage(
+                record,
+                fieldPath + FORWARD_SLASH + field.name,
+                field.messageSchema,
+                ((ByteString) value).newCodedInput(),
+                missingPrefix + getMissingName(field) + ".",
+                missingFields,
+                depth + 1
+            )
+        );
+      } else {
+        sdcRecordMapFieldValue.put(field.name, createScalarField(field, value));
+      }
+    }
+
+    if (unknownFields != null) {
+      addUnknownFields(record, fieldPath, unknownFields.build());
+    }
+    return Field.createListMap(sdcRecordMapFieldValue);
+  }
+
+  private static UnknownFieldSet.Builder readScalar(
+      FieldInfo field,
+      Object[] values,
+      CodedInputStream input,
+      UnknownFieldSet.Builder unknownFields
+  ) throws IOException {
+    if (field.type == WireFormat.FieldType.ENUM) {
+      int number = input.readEnum();
+      Descriptors.EnumValueDescriptor value = findEnumValue(field, number);
+      if (value == null) {
+        // unknown value of a closed enum, protobuf keeps it as an unknown field
+        if (unknownFields == null) {
+          unknownFields = UnknownFieldSet.newBuilder();
+        }
+        unknownFields.mergeVarintField(field.number, number);
+      } else {
+        setScalar(field, values, value);
+      }
+    } else {
+      setScalar(field, values, readScalar(field, input));
+    }
+    return unknownFields;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void setScalar(FieldInfo field, Object[] values, Object value) {
+    if (field.repeated) {
+      List<Field> list = (List<Field>) values[field.index];
+      if (list == null) {
+        list = new ArrayList<>();
+        values[field.index] = list;
+      }
+      list.add(createScalarField(field, value));
+    } else {
+      clearOneofSiblings(field, values);
+      // same as protobuf, setting a field without presence to its default value clears it
+      values[field.index] = (!field.hasPresence && field.isDefaultValue(value)) ? null : value;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readMessage(
+      Record record,
+      String fieldPath,
+      FieldInfo field,
+      Object[] values,
+      CodedInputStream input,
+      String missingPrefix,
+      List<String> missingFields,
+      int depth
+  ) throws IOException, DataParserException {
+    if (field.repeated) {
+      List<Field> list = (List<Field>) values[field.index];
+      if (list == null) {
+        list = new ArrayList<>();
+        values[field.index] = list;
+      }
+      int index = list.size();
+      int oldLimit = input.pushLimit(input.readRawVarint32());
+      list.add(
+          decodeMessage(
+              record,
+              fieldPath + "[" + index + "]",
+              field.messageSchema,
+              input,
+              missingPrefix + getMissingName(field) + "[" + index + "].",
+              missingFields,
+              depth + 1
+          )
+      );
+      input.checkLastTagWas(0);
+      input.popLimit(oldLimit);
+    } else {
+      // a singular message present more than once is merged, which is the same as decoding the concatenation
+      // of all its occurrences, so it is decoded once the whole parent message has been read
+      ByteString bytes = input.readBytes();
+      Object previous = values[field.index];
+      clearOneofSiblings(field, values);
+      values[field.index] = (previous == null) ? bytes : ((ByteString) previous).concat(bytes);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readMapEntry(
+      Record record,
+      String fieldPath,
+      FieldInfo field,
+      Object[] values,
+      CodedInputStream input,
+      String missingPrefix,
+      List<String> missingFields,
+      int depth
+  ) throws IOException, DataParserException {
+    Map<String, Field> map = (Map<String, Field>) values[field.index];
+    if (map == null) {
+      map = new HashMap<>();
+      values[field.index] = map;
+    }
+    FieldInfo keyInfo = field.getMapKey();
+    FieldInfo valueInfo = field.getMapValue();
+    Object key = null;
+    Object value = null;
+
+    int oldLimit = input.pushLimit(input.readRawVarint32());
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      int number = WireFormat.getTagFieldNumber(tag);
+      int wireType = WireFormat.getTagWireType(tag);
+      if (number == keyInfo.number && wireType == keyInfo.wireType) {
+        key = readScalar(keyInfo, input);
+      } else if (number == valueInfo.number && wireType == valueInfo.wireType) {
+        if (valueInfo.message) {
+          ByteString bytes = input.readBytes();
+          value = (value == null) ? bytes : ((ByteString) value).concat(bytes);
+        } else if (valueInfo.type == WireFormat.FieldType.ENUM) {
+          Descriptors.EnumValueDescriptor enumValue = findEnumValue(valueInfo, input.readEnum());
+          if (enumValue != null) {
+            value = enumValue;
+          }
+        } else {
+          value = readScalar(valueInfo, input);
+        }
+      } else if (wireType == WireFormat.WIRETYPE_END_GROUP) {
+        throw new InvalidProtocolBufferException("Protocol message end-group tag did not match expected tag.");
+      } else {
+        input.skipField(tag);
+      }
+    }
+    input.checkLastTagWas(0);
+    input.popLimit(oldLimit);
+
+    // entries missing the key or the value (or having default ones without presence) are ignored
+    if (key != null && !keyInfo.hasPresence && keyInfo.isDefaultValue(key)) {
+      key = null;
+    }
+    if (value != null && !valueInfo.hasPresence && valueInfo.isDefaultValue(value)) {
+      value = null;
+    }
+    if (key != null && value != null) {
+      Field valueField;
+      if (valueInfo.message) {
+        valueField = decodeMessage(
+            record,
+            fieldPath + FORWARD_SLASH + VALUE,
+            valueInfo.messageSchema,
+            ((ByteString) value).newCodedInput(),
+            missingPrefix + getMissingName(field) + "[" + map.size() + "]." + VALUE + ".",
+            missingFields,
+            depth + 1
+        );
+      } else {
+        valueField = createScalarField(valueInfo, value);
+      }
+      map.put(key.toString(), valueField);
+    }
+  }
+
+  /**
+   * Reads a value of a field that is neither a message nor an enum.
+   */
+  private static Object readScalar(FieldInfo field, CodedInputStream input) throws IOException {
+    switch (field.type) {
+      case DOUBLE:
+        return input.readDouble();
+      case FLOAT:
+        return input.readFloat();
+      case INT64:
+        return input.readInt64();
+      case UINT64:
+        return input.readUInt64();
+      case INT32:
+        return input.readInt32();
+      case FIXED64:
+        return input.readFixed64();
+      case FIXED32:
+        return input.readFixed32();
+      case BOOL:
+        return input.readBool();
+      case STRING:
+        return field.strictUtf8 ? input.readStringRequireUtf8() : input.readString();
+      case BYTES:
+        return input.readByteArray();
+      case UINT32:
+        return input.readUInt32();
+      case SFIXED32:
+        return input.readSFixed32();
+      case SFIXED64:
+        return input.readSFixed64();
+      case SINT32:
+        return input.readSInt32();
+      case SINT64:
+        return input.readSInt64();
+      default:
+        throw new IllegalStateException("Unexpected protobuf field type: " + field.type);
+    }
+  }
+
+  /**
+   * Returns the enum value for the number, NULL if a proto2 enum does not define it. proto3 enums are open and keep
+   * unknown numbers as they are.
+   */
+  private static Descriptors.EnumValueDescriptor findEnumValue(FieldInfo field, int number) {
+    Descriptors.EnumDescriptor enumType = field.descriptor.getEnumType();
+    if (field.openEnum) {
+      return enumType.findValueByNumberCreatingIfUnknown(number);
+    }
+    return enumType.findValueByNumber(number);
+  }
+
+  private static Field createScalarField(FieldInfo field, Object value) {
+    if (value instanceof Descriptors.EnumValueDescriptor) {
+      return Field.create(Field.Type.STRING, ((Descriptors.EnumValueDescriptor) value).getName());
+    }
+    return Field.create(field.sdcType, value);
+  }
+
+  private static void clearOneofSiblings(FieldInfo field, Object[] values) {
+    if (field.oneofSiblings != null) {
+      for (int sibling : field.oneofSiblings) {
+        values[sibling] = null;
+      }
+    }
+  }
+
+  private static String getMissingName(FieldInfo field) {
+    return field.extension ? "(" + field.descriptor.getFullName() + ")" : field.name;
+  }
+
+  private static void addUnknownFields(
+      Record record,
+      String fieldPath,
+      UnknownFieldSet unknownFields
+  ) throws DataParserException {
+    // unknown fields go into the record header, same as ProtobufTypeUtil does
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    try {
+      unknownFields.writeDelimitedTo(bOut);
+    } catch (IOException e) {
+      throw new DataParserException(Errors.PROTOBUF_10, e.toString(), e);
+    }
+    String path = fieldPath.isEmpty() ? FORWARD_SLASH : fieldPath;
+    byte[] bytes = org.apache.commons.codec.binary.Base64.encodeBase64(bOut.toByteArray());
+    record.getHeader().setAttribute(
+        ProtobufTypeUtil.PROTOBUF_UNKNOWN_FIELDS_PREFIX + path,
+        new String(bytes, StandardCharsets.UTF_8)
+    );
+  }
+
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.UninitializedMessageException;
+import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.WireFormat;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.parser.protobuf.Errors;
+import com.streamsets.pipeline.lib.util.ProtobufMessageSchema.FieldInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes SDC records straight into the protobuf wire format.
+ *
+ * The output is the same as serializing the message built by {@link ProtobufTypeUtil#sdcFieldToProtobufMsg}:
+ * fields are looked up, defaulted and validated in the same way, unknown fields are taken from the record header and
+ * fields are written in field number order. The message types are compiled once when the encoder is created and no
+ * {@link com.google.protobuf.DynamicMessage} is built per record.
+ *
+ * Instances are thread safe.
+ */
+public class ProtobufEncoder {
+  private static final String FORWARD_SLASH = "/";
+
+  private final ProtobufMessageSchema schema;
+  private final Map<String, Object> defaultValueMap;
+
+  /**
+   * @param descriptor                protobuf descriptor of the messages to encode
+   * @param messageTypeToExtensionMap protobuf extensions map
+   * @param defaultValueMap           protobuf default field values
+   */
+  public ProtobufEncoder(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap,
+      Map<String, Object> defaultValueMap
+  ) {
+    schema = ProtobufMessageSchema.compile(descriptor, messageTypeToExtensionMap);
+    this.defaultValueMap = defaultValueMap;
+  }
+
+  /**
+   * Returns if the given message type can be handled by the encoder, messages using proto2 groups cannot.
+   */
+  public static boolean isSupported(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    return ProtobufMessageSchema.isSupported(descriptor, messageTypeToExtensionMap);
+  }
+
+  /**
+   * Serializes a record into a protobuf message.
+   *
+   * @param record record to serialize
+   * @return serialized message
+   * @throws UninitializedMessageException if the record does not have values for all the required fields
+   */
+  public byte[] encode(Record record) throws IOException, DataGeneratorException {
+    Field root = record.get();
+    Map<String, Field> valueAsMap = (root == null || root.getValue() == null)
+        ? Collections.emptyMap()
+        : root.getValueAsMap();
+    return encodeMessage(record, valueAsMap, "", schema);
+  }
+
+  /**
+   * Serializes a record into a protobuf message written to the given output, which is not flushed.
+   *
+   * @param record    record to serialize
+   * @param output    output to write the message to
+   * @param delimited if the message is preceded by its size, as {@code writeDelimitedTo} does
+   */
+  public void encode(Record record, CodedOutputStream output, boolean delimited)
+      throws IOException, DataGeneratorException {
+    byte[] message = encode(record);
+    if (delimited) {
+      output.writeUInt32NoTag(message.length);
+    }
+    output.writeRawBytes(message);
+  }
+
+  private byte[] encodeMessage(
+      Record record,
+      Field field,
+      String fieldPath,
+      ProtobufMessageSchema schema
+  ) throws IOException, DataGeneratorException {
+    if (field == null) {
+      return null;
+    }
+    // a message is always a Map in a record representing protobuf data
+    return encodeMessage(record, field.getValueAsMap(), fieldPath, schema);
+  }
+
+  private byte[] encodeMessage(
+      Record record,
+      Map<String, Field> valueAsMap,
+      String fieldPath,
+      ProtobufMessageSchema schema
+  ) throws IOException, DataGeneratorException {
+    FieldInfo[] fields = schema.getFields();
+    Object[] values = new Object[fields.length];
+
+    for (FieldInfo f : fields) {
+      Field mapField = valueAsMap.get(f.name);
+      if (f.mapField) {
+        if (mapField != null) {
+          values[f.index] = encodeMapEntries(record, mapField, fieldPath, f);
+        }
+      } else if (f.repeated) {
+        if (mapField != null) {
+          values[f.index] = getRepeatedValues(record, mapField, fieldPath, f);
+        }
+      } else {
+        Object val;
+        if (valueAsMap.containsKey(f.name)) {
+          val = getValue(f, mapField, record, fieldPath + FORWARD_SLASH + f.name);
+        } else {
+          // record does not contain field, look up default value
+          String key = schema.getDescriptor().getFullName() + "." + f.name;
+          if (!defaultValueMap.containsKey(key) && !f.optional) {
+            throw new DataGeneratorException(Errors.PROTOBUF_04, record.getHeader().getSourceId(), key);
+          }
+          val = defaultValueMap.get(key);
+        }
+        if (val != null) {
+          setValue(f, values, val);
+        }
+      }
+    }
+
+    List<String> missingFields = null;
+    for (FieldInfo f : schema.getRequiredFields()) {
+      if (values[f.index] == null) {
+        if (missingFields == null) {
+          missingFields = new ArrayList<>();
+        }
+        missingFields.add(f.extension ? "(" + f.descriptor.getFullName() + ")" : f.name);
+      }
+    }
+    if (missingFields != null) {
+      throw new UninitializedMessageException(missingFields);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    for (FieldInfo f : schema.getWriteOrder()) {
+      Object value = values[f.index];
+      if (value == null) {
+        continue;
+      }
+      if (f.repeated) {
+        writeRepeated(output, f, (List<?>) value);
+      } else {
+        writeValue(output, f, value);
+      }
+    }
+    UnknownFieldSet unknownFields = getUnknownFields(record, fieldPath);
+    if (unknownFields != null) {
+      unknownFields.writeTo(output);
+    }
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void setValue(FieldInfo f, Object[] values, Object value) {
+    if (f.oneofSiblings != null) {
+      for (int sibling : f.oneofSiblings) {
+        values[sibling] = null;
+      }
+    }
+    // same as protobuf, setting a field without presence to its default value clears it
+    values[f.index] = (!f.hasPresence && f.isDefaultValue(value)) ? null : value;
+  }
+
+  private List<byte[]> encodeMapEntries(
+      Record record,
+      Field field,
+      String fieldPath,
+      FieldInfo f
+  ) throws IOException, DataGeneratorException {
+    FieldInfo keyInfo = f.getMapKey();
+    FieldInfo valueInfo = f.getMapValue();
+    Map<String, Field> sdcMapField = field.getValueAsMap();
+    if (sdcMapField == null) {
+      return Collections.emptyList();
+    }
+    List<byte[]> entries = new ArrayList<>(sdcMapField.size());
+    for (Map.Entry<String, Field> entry : sdcMapField.entrySet()) {
+      // MapEntry contains key and value fields
+      Object[] entryValues = new Object[2];
+      Object key = entry.getKey();
+      if (keyInfo.javaType != Descriptors.FieldDescriptor.JavaType.STRING) {
+        key = getValue(keyInfo, Field.create(entry.getKey()), record, fieldPath);
+      }
+      setValue(keyInfo, entryValues, key);
+      Object value = getValue(
+          valueInfo,
+          entry.getValue(),
+          record,
+          fieldPath + FORWARD_SLASH + entry.getKey()
+      );
+      if (value != null) {
+        setValue(valueInfo, entryValues, value);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+      for (FieldInfo entryField : f.messageSchema.getWriteOrder()) {
+        if (entryValues[entryField.index] != null) {
+          writeValue(output, entryField, entryValues[entryField.index]);
+        }
+      }
+      output.flush();
+      entries.add(bytes.toByteArray());
+    }
+    return entries;
+  }
+
+  private List<Object> getRepeatedValues(
+      Record record,
+      Field field,
+      String fieldPath,
+      FieldInfo f
+  ) throws IOException, DataGeneratorException {
+    List<Object> toReturn = new ArrayList<>();
+    List<Field> valueAsList = field.getValueAsList();
+    if (valueAsList != null) {
+      // According to proto 2 and 3 language guide repeated fields can have 0 elements.
+      // Also null is treated as empty in case of json mappings so I guess we can ignore if it is null.
+      for (int i = 0; i < valueAsList.size(); i++) {
+        Object value;
+        if (f.message) {
+          // repeated field of type message
+          value = encodeMessage(
+              record,
+              valueAsList.get(i),
+              fieldPath + FORWARD_SLASH + f.name + "[" + i + "]",
+              f.messageSchema
+          );
+        } else {
+          // repeated field of primitive types
+          value = getValue(f, valueAsList.get(i), record, fieldPath + FORWARD_SLASH + f.name);
+        }
+        if (value != null) {
+          toReturn.add(value);
+        }
+      }
+    }
+    return toReturn;
+  }
+
+  private Object getValue(
+      FieldInfo f,
+      Field field,
+      Record record,
+      String protoFieldPath
+  ) throws IOException, DataGeneratorException {
+    Object value = null;
+    try {
+      if (field != null && field.getValue() != null) {
+        switch (f.javaType) {
+          case BOOLEAN:
+            value = field.getValueAsBoolean();
+            break;
+          case BYTE_STRING:
+            value = field.getValueAsByteArray();
+            break;
+          case DOUBLE:
+            value = field.getValueAsDouble();
+            break;
+          case ENUM:
+            value = f.descriptor.getEnumType().findValueByName(field.getValueAsString());
+            break;
+          case FLOAT:
+            value = field.getValueAsFloat();
+            break;
+          case INT:
+            value = field.getValueAsInteger();
+            break;
+          case LONG:
+            value = field.getValueAsLong();
+            break;
+          case STRING:
+            value = field.getValueAsString();
+            break;
+          case MESSAGE:
+            value = encodeMessage(record, field, protoFieldPath, f.messageSchema);
+            break;
+          default:
+            throw new DataGeneratorException(Errors.PROTOBUF_03, f.javaType.name());
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      throw new DataGeneratorException(Errors.PROTOBUF_11, field.getValue(), f.javaType.name(), e);
+    }
+    return value;
+  }
+
+  private static UnknownFieldSet getUnknownFields(Record record, String fieldPath) throws IOException {
+    String path = fieldPath.isEmpty() ? FORWARD_SLASH : fieldPath;
+    String attribute = record.getHeader().getAttribute(ProtobufTypeUtil.PROTOBUF_UNKNOWN_FIELDS_PREFIX + path);
+    if (attribute == null) {
+      return null;
+    }
+    UnknownFieldSet.Builder unknownFieldBuilder = UnknownFieldSet.newBuilder();
+    unknownFieldBuilder.mergeDelimitedFrom(
+        new ByteArrayInputStream(
+            org.apache.commons.codec.binary.Base64.decodeBase64(attribute.getBytes(StandardCharsets.UTF_8))
+        )
+    );
+    return unknownFieldBuilder.build();
+  }
+
+  private static void writeRepeated(CodedOutputStream output, FieldInfo f, List<?> values) throws IOException {
+    if (values.isEmpty()) {
+      return;
+    }
+    if (f.packed) {
+      int size = 0;
+      for (Object value : values) {
+        size += computeSizeNoTag(f.type, value);
+      }
+      output.writeTag(f.number, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      output.writeUInt32NoTag(size);
+      for (Object value : values) {
+        writeNoTag(output, f.type, value);
+      }
+    } else {
+      for (Object value : values) {
+        writeValue(output, f, value);
+      }
+    }
+  }
+
+  private static void writeValue(CodedOutputStream output, FieldInfo f, Object value) throws IOException {
+    output.writeTag(f.number, f.wireType);
+    writeNoTag(output, f.type, value);
+  }
+
+  private static void writeNoTag(CodedOutputStream output, WireFormat.FieldType type, Object value)
+      throws IOException {
+    switch (type) {
+      case DOUBLE:
+        output.writeDoubleNoTag(((Number) value).doubleValue());
+        break;
+      case FLOAT:
+        output.writeFloatNoTag(((Number) value).floatValue());
+        break;
+      case INT64:
+        output.writeInt64NoTag(((Number) value).longValue());
+        break;
+      case UINT64:
+        output.writeUInt64NoTag(((Number) value).longValue());
+        break;
+      case INT32:
+        output.writeInt32NoTag(((Number) value).intValue());
+        break;
+      case FIXED64:
+        output.writeFixed64NoTag(((Number) value).longValue());
+        break;
+      case FIXED32:
+        output.writeFixed32NoTag(((Number) value).intValue());
+        break;
+      case BOOL:
+        output.writeBoolNoTag((Boolean) value);
+        break;
+      case STRING:
+        output.writeStringNoTag((String) value);
+        break;
+      case BYTES:
+      case MESSAGE:
+        if (value instanceof ByteString) {
+          output.writeBytesNoTag((ByteString) value);
+        } else {
+          output.writeByteArrayNoTag((byte[]) value);
+        }
+        break;
+      case UINT32:
+        output.writeUInt32NoTag(((Number) value).intValue());
+        break;
+      case ENUM:
+        output.writeEnumNoTag(((Descriptors.EnumValueDescriptor) value).getNumber());
+        break;
+      case SFIXED32:
+        output.writeSFixed32NoTag(((Number) value).intValue());
+        break;
+      case SFIXED64:
+        output.writeSFixed64NoTag(((Number) value).longValue());
+        break;
+      case SINT32:
+        output.writeSInt32NoTag(((Number) value).intValue());
+        break;
+      case SINT64:
+        output.writeSInt64NoTag(((Number) value).longValue());
+        break;
+      default:
+        throw new IllegalStateException("Unexpected protobuf field type: " + type);
+    }
+  }
+
+  private static int computeSizeNoTag(WireFormat.FieldType type, Object value) {
+    switch (type) {
+      case DOUBLE:
+        return CodedOutputStream.computeDoubleSizeNoTag(((Number) value).doubleValue());
+      case FLOAT:
+        return CodedOutputStream.computeFloatSizeNoTag(((Number) value).floatValue());
+      case INT64:
+        return CodedOutputStream.computeInt64SizeNoTag(((Number) value).longValue());
+      case UINT64:
+        return CodedOutputStream.computeUInt64SizeNoTag(((Number) value).longValue());
+      case INT32:
+        return CodedOutputStream.computeInt32SizeNoTag(((Number) value).intValue());
+      case FIXED64:
+        return CodedOutputStream.computeFixed64SizeNoTag(((Number) value).longValue());
+      case FIXED32:
+        return CodedOutputStream.computeFixed32SizeNoTag(((Number) value).intValue());
+      case BOOL:
+        return CodedOutputStream.computeBoolSizeNoTag((Boolean) value);
+      case UINT32:
+        return CodedOutputStream.computeUInt32SizeNoTag(((Number) value).intValue());
+      case ENUM:
+        return CodedOutputStream.computeEnumSizeNoTag(((Descriptors.EnumValueDescriptor) value).getNumber());
+      case SFIXED32:
+        return CodedOutputStream.computeSFixed32SizeNoTag(((Number) value).intValue());
+      case SFIXED64:
+        return CodedOutputStream.computeSFixed64SizeNoTag(((Number) value).longValue());
+      case SINT32:
+        return CodedOutputStream.computeSInt32SizeNoTag(((Number) value).intValue());
+      case SINT64:
+        return CodedOutputStream.computeSInt64SizeNoTag(((Number) value).longValue());
+      default:
+        // strings, bytes and messages are never packed
+        throw new IllegalStateException("Unexpected packed protobuf field type: " + type);
+    }
+  }
+}
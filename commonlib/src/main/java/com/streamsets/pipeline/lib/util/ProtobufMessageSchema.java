@@ -0,0 +1,309 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.WireFormat;
+import com.streamsets.pipeline.api.Field;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed view of a protobuf message type used by {@link ProtobufDecoder} and {@link ProtobufEncoder}.
+ *
+ * Everything that {@link ProtobufTypeUtil} looks up through the descriptors for every message (fields, extensions,
+ * wire types, default values, oneof members, nested types) is resolved once per message type when the schema is
+ * compiled, so the per record work is reduced to reading and writing the wire format.
+ */
+final class ProtobufMessageSchema {
+  private static final int MAX_DENSE_FIELD_NUMBER = 1024;
+
+  private final Descriptors.Descriptor descriptor;
+  private final FieldInfo[] fields;
+  private final int declaredCount;
+  private final FieldInfo[] writeOrder;
+  private final FieldInfo[] denseByNumber;
+  private final Map<Integer, FieldInfo> sparseByNumber;
+  private final List<FieldInfo> requiredFields;
+
+  static final class FieldInfo {
+    final int index;
+    final Descriptors.FieldDescriptor descriptor;
+    final String name;
+    final int number;
+    final WireFormat.FieldType type;
+    final int wireType;
+    final Descriptors.FieldDescriptor.JavaType javaType;
+    final Field.Type sdcType;
+    final boolean repeated;
+    final boolean packable;
+    final boolean packed;
+    final boolean mapField;
+    final boolean message;
+    final boolean required;
+    final boolean optional;
+    final boolean extension;
+    // proto3 singular scalars have no presence, setting them to their default value is the same as clearing them
+    final boolean hasPresence;
+    final boolean strictUtf8;
+    final boolean openEnum;
+    final Object defaultValue;
+    int[] oneofSiblings;
+    ProtobufMessageSchema messageSchema;
+
+    private FieldInfo(int index, Descriptors.FieldDescriptor descriptor, boolean extension) {
+      this.index = index;
+      this.descriptor = descriptor;
+      this.extension = extension;
+      name = descriptor.getName();
+      number = descriptor.getNumber();
+      type = descriptor.getLiteType();
+      wireType = type.getWireType();
+      javaType = descriptor.getJavaType();
+      sdcType = getSdcType(javaType);
+      repeated = descriptor.isRepeated();
+      packable = repeated && type.isPackable();
+      packed = descriptor.isPacked();
+      mapField = descriptor.isMapField();
+      message = javaType == Descriptors.FieldDescriptor.JavaType.MESSAGE;
+      required = descriptor.isRequired();
+      optional = descriptor.isOptional();
+      boolean proto3 = descriptor.getFile().getSyntax() == Descriptors.FileDescriptor.Syntax.PROTO3;
+      hasPresence = !proto3 || repeated || message || descriptor.getContainingOneof() != null;
+      strictUtf8 = type == WireFormat.FieldType.STRING
+          && (proto3 || descriptor.getFile().getOptions().getJavaStringCheckUtf8());
+      openEnum = javaType == Descriptors.FieldDescriptor.JavaType.ENUM
+          && descriptor.getEnumType().getFile().getSyntax() == Descriptors.FileDescriptor.Syntax.PROTO3;
+      defaultValue = (repeated || message) ? null : descriptor.getDefaultValue();
+    }
+
+    boolean isDefaultValue(Object value) {
+      if (value instanceof byte[]) {
+        return defaultValue instanceof ByteString && ByteString.copyFrom((byte[]) value).equals(defaultValue);
+      }
+      return value.equals(defaultValue);
+    }
+
+    /**
+     * Returns the value {@link ProtobufTypeUtil} uses for fields not present in the message.
+     */
+    Field createAbsentField() {
+      Object value = null;
+      if (optional && !message) {
+        value = defaultValue;
+        if (value instanceof ByteString) {
+          value = ((ByteString) value).toByteArray();
+        }
+      }
+      return Field.create(sdcType, value);
+    }
+
+    FieldInfo getMapKey() {
+      return messageSchema.fields[0];
+    }
+
+    FieldInfo getMapValue() {
+      return messageSchema.fields[1];
+    }
+  }
+
+  private ProtobufMessageSchema(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    this.descriptor = descriptor;
+    List<FieldInfo> all = new ArrayList<>();
+    for (Descriptors.FieldDescriptor fieldDescriptor : descriptor.getFields()) {
+      all.add(new FieldInfo(all.size(), fieldDescriptor, false));
+    }
+    declaredCount = all.size();
+    Set<Descriptors.FieldDescriptor> extensions = messageTypeToExtensionMap.get(descriptor.getFullName());
+    if (extensions != null) {
+      for (Descriptors.FieldDescriptor fieldDescriptor : extensions) {
+        all.add(new FieldInfo(all.size(), fieldDescriptor, true));
+      }
+    }
+    fields = all.toArray(new FieldInfo[all.size()]);
+
+    writeOrder = Arrays.copyOf(fields, fields.length);
+    Arrays.sort(writeOrder, Comparator.comparingInt(f -> f.number));
+
+    int maxNumber = 0;
+    for (FieldInfo field : fields) {
+      maxNumber = Math.max(maxNumber, field.number);
+    }
+    if (maxNumber <= MAX_DENSE_FIELD_NUMBER) {
+      denseByNumber = new FieldInfo[maxNumber + 1];
+      sparseByNumber = null;
+    } else {
+      denseByNumber = null;
+      sparseByNumber = new HashMap<>();
+    }
+    List<FieldInfo> required = new ArrayList<>();
+    for (FieldInfo field : fields) {
+      if (denseByNumber != null) {
+        denseByNumber[field.number] = field;
+      } else {
+        sparseByNumber.put(field.number, field);
+      }
+      if (field.required) {
+        required.add(field);
+      }
+    }
+    requiredFields = Collections.unmodifiableList(required);
+
+    for (FieldInfo field : fields) {
+      Descriptors.OneofDescriptor oneof = field.extension ? null : field.descriptor.getContainingOneof();
+      if (oneof != null) {
+        int[] siblings = new int[oneof.getFieldCount() - 1];
+        int i = 0;
+        for (Descriptors.FieldDescriptor member : oneof.getFields()) {
+          if (member != field.descriptor) {
+            siblings[i++] = member.getIndex();
+          }
+        }
+        field.oneofSiblings = siblings;
+      }
+    }
+  }
+
+  /**
+   * Compiles the schema of the given message type and of all the message types reachable from it.
+   *
+   * @param descriptor                protobuf descriptor of the top level message
+   * @param messageTypeToExtensionMap protobuf extensions map
+   * @return the compiled schema of the top level message
+   */
+  static ProtobufMessageSchema compile(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    return compile(descriptor, messageTypeToExtensionMap, new HashMap<>());
+  }
+
+  private static ProtobufMessageSchema compile(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap,
+      Map<Descriptors.Descriptor, ProtobufMessageSchema> compiled
+  ) {
+    ProtobufMessageSchema schema = compiled.get(descriptor);
+    if (schema == null) {
+      schema = new ProtobufMessageSchema(descriptor, messageTypeToExtensionMap);
+      // registered before resolving the nested types to support recursive messages
+      compiled.put(descriptor, schema);
+      for (FieldInfo field : schema.fields) {
+        if (field.message) {
+          field.messageSchema = compile(field.descriptor.getMessageType(), messageTypeToExtensionMap, compiled);
+        }
+      }
+    }
+    return schema;
+  }
+
+  /**
+   * Returns if the compiled decoder and encoder can handle the given message type, proto2 groups are not supported.
+   */
+  static boolean isSupported(
+      Descriptors.Descriptor descriptor,
+      Map<String, Set<Descriptors.FieldDescriptor>> messageTypeToExtensionMap
+  ) {
+    return checkSupported(compile(descriptor, messageTypeToExtensionMap), new HashMap<>());
+  }
+
+  private static boolean checkSupported(ProtobufMessageSchema schema, Map<ProtobufMessageSchema, Boolean> visited) {
+    if (visited.put(schema, Boolean.TRUE) != null) {
+      return true;
+    }
+    if (schema.descriptor.getOptions().getMessageSetWireFormat()) {
+      return false;
+    }
+    for (FieldInfo field : schema.fields) {
+      if (field.type == WireFormat.FieldType.GROUP) {
+        return false;
+      }
+      if (field.message && !checkSupported(field.messageSchema, visited)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  Descriptors.Descriptor getDescriptor() {
+    return descriptor;
+  }
+
+  /**
+   * Returns the declared fields followed by the extensions, in the order used by {@link ProtobufTypeUtil}.
+   */
+  FieldInfo[] getFields() {
+    return fields;
+  }
+
+  int getDeclaredCount() {
+    return declaredCount;
+  }
+
+  /**
+   * Returns all the fields sorted by field number, the order in which protobuf serializes them.
+   */
+  FieldInfo[] getWriteOrder() {
+    return writeOrder;
+  }
+
+  List<FieldInfo> getRequiredFields() {
+    return requiredFields;
+  }
+
+  FieldInfo findByNumber(int number) {
+    if (denseByNumber != null) {
+      return (number < denseByNumber.length) ? denseByNumber[number] : null;
+    }
+    return sparseByNumber.get(number);
+  }
+
+  private static Field.Type getSdcType(Descriptors.FieldDescriptor.JavaType javaType) {
+    switch (javaType) {
+      case BOOLEAN:
+        return Field.Type.BOOLEAN;
+      case BYTE_STRING:
+        return Field.Type.BYTE_ARRAY;
+      case DOUBLE:
+        return Field.Type.DOUBLE;
+      case ENUM:
+        return Field.Type.STRING;
+      case FLOAT:
+        return Field.Type.FLOAT;
+      case INT:
+        return Field.Type.INTEGER;
+      case LONG:
+        return Field.Type.LONG;
+      case STRING:
+        return Field.Type.STRING;
+      case MESSAGE:
+        return Field.Type.MAP;
+      default:
+        throw new IllegalArgumentException(javaType.name());
+    }
+  }
+}
@@ -34,6 +34,7 @@ public enum DataFormatErrors implements ErrorCode {
   DATA_FORMAT_11(AvroSchemaLookupMode.AUTO.getLabel() + " is not supported for this stage"),
 
   DATA_FORMAT_12("Data format must be specified"),
+  DATA_FORMAT_13("Fields to Keep require the List-Map root field type"),
   DATA_FORMAT_200("Field cannot be empty"),
   DATA_FORMAT_201("Cannot create the parser factory: {}"),
 
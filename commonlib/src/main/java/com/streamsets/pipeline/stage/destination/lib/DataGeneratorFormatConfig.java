@@ -39,6 +39,10 @@ import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
 import com.streamsets.pipeline.config.DestinationAvroSchemaSourceChooserValues;
 import com.streamsets.pipeline.config.JsonMode;
 import com.streamsets.pipeline.config.JsonModeChooserValues;
+import com.streamsets.pipeline.config.OrcCompression;
+import com.streamsets.pipeline.config.OrcCompressionChooserValues;
+import com.streamsets.pipeline.config.ParquetCompression;
+import com.streamsets.pipeline.config.ParquetCompressionChooserValues;
 import com.streamsets.pipeline.config.TextFieldMissingAction;
 import com.streamsets.pipeline.config.TextFieldMissingActionChooserValues;
 import com.streamsets.pipeline.config.WholeFileExistsAction;
@@ -49,6 +53,8 @@ import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.generator.binary.BinaryDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.delimited.DelimitedDataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.orc.OrcDataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.parquet.ParquetDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.text.TextDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.wholefile.WholeFileDataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.xml.XmlDataGeneratorFactory;
@@ -307,7 +313,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       displayPosition = 400,
       displayMode = ConfigDef.DisplayMode.BASIC,
       dependsOn = "dataFormat^",
-      triggeredByValue = "AVRO",
+      triggeredByValue = {"AVRO", "PARQUET", "ORC"},
       group = "DATA_FORMAT"
   )
   @ValueChooserModel(DestinationAvroSchemaSourceChooserValues.class)
@@ -323,7 +329,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       displayMode = ConfigDef.DisplayMode.BASIC,
       group = "#0",
       dependencies = {
-          @Dependency(configName = "dataFormat^", triggeredByValues = "AVRO"),
+          @Dependency(configName = "dataFormat^", triggeredByValues = {"AVRO", "PARQUET", "ORC"}),
           @Dependency(configName = "avroSchemaSource", triggeredByValues = "INLINE")
       },
       mode = ConfigDef.Mode.JSON
@@ -371,7 +377,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       label = "Schema Registry URLs",
       description = "List of Confluent Schema Registry URLs",
       dependencies = {
-          @Dependency(configName = "dataFormat^", triggeredByValues = "AVRO"),
+          @Dependency(configName = "dataFormat^", triggeredByValues = {"AVRO", "PARQUET", "ORC"}),
           @Dependency(configName = "avroSchemaSource", triggeredByValues = "REGISTRY")
       },
       displayPosition = 431,
@@ -386,7 +392,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       type = ConfigDef.Type.CREDENTIAL,
       label = "Basic Auth User Info",
       dependencies = {
-          @Dependency(configName = "dataFormat^", triggeredByValues = "AVRO"),
+          @Dependency(configName = "dataFormat^", triggeredByValues = {"AVRO", "PARQUET", "ORC"}),
           @Dependency(configName = "avroSchemaSource", triggeredByValues = "REGISTRY")
       },
       displayPosition = 432,
@@ -415,7 +421,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       type = ConfigDef.Type.STRING,
       label = "Schema Subject",
       dependencies = {
-          @Dependency(configName = "dataFormat^", triggeredByValues = "AVRO"),
+          @Dependency(configName = "dataFormat^", triggeredByValues = {"AVRO", "PARQUET", "ORC"}),
           @Dependency(configName = "avroSchemaSource", triggeredByValues = "REGISTRY"),
           @Dependency(configName = "schemaLookupMode", triggeredByValues = "SUBJECT")
       },
@@ -463,7 +469,7 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       label = "Schema ID",
       min = 1,
       dependencies = {
-          @Dependency(configName = "dataFormat^", triggeredByValues = "AVRO"),
+          @Dependency(configName = "dataFormat^", triggeredByValues = {"AVRO", "PARQUET", "ORC"}),
           @Dependency(configName = "schemaLookupMode", triggeredByValues = "ID")
       },
       displayPosition = 460,
@@ -655,6 +661,142 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
   )
   public String xmlSchema = "";
 
+  /** For Parquet Content **/
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "SNAPPY",
+      label = "Parquet Compression Codec",
+      displayPosition = 530,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "PARQUET"
+  )
+  @ValueChooserModel(ParquetCompressionChooserValues.class)
+  public ParquetCompression parquetCompression = ParquetCompression.SNAPPY;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "128",
+      label = "Row Group Size (MB)",
+      description = "Records are buffered in memory up to this size for every open file before they are written.",
+      min = 1,
+      max = 1024,
+      displayPosition = 540,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "PARQUET"
+  )
+  public int parquetRowGroupSize = 128;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1024",
+      label = "Page Size (KB)",
+      min = 1,
+      displayPosition = 550,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "PARQUET"
+  )
+  public int parquetPageSize = 1024;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "true",
+      label = "Dictionary Encoding",
+      description = "Encodes columns with few distinct values with a dictionary.",
+      displayPosition = 560,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "PARQUET"
+  )
+  public boolean parquetDictionaryEncoding = true;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1024",
+      label = "Dictionary Page Size (KB)",
+      description = "Columns fall back to plain encoding once their dictionary exceeds this size.",
+      min = 1,
+      displayPosition = 570,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "parquetDictionaryEncoding",
+      triggeredByValue = "true"
+  )
+  public int parquetDictionaryPageSize = 1024;
+
+  /** For ORC Content **/
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "ZLIB",
+      label = "ORC Compression Codec",
+      displayPosition = 580,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "ORC"
+  )
+  @ValueChooserModel(OrcCompressionChooserValues.class)
+  public OrcCompression orcCompression = OrcCompression.ZLIB;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "64",
+      label = "Stripe Size (MB)",
+      description = "Records are buffered in memory up to this size for every open file before they are written.",
+      min = 1,
+      max = 1024,
+      displayPosition = 590,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "ORC"
+  )
+  public int orcStripeSize = 64;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1024",
+      label = "Row Batch Size",
+      description = "Number of records converted to columns at a time.",
+      min = 1,
+      displayPosition = 600,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "ORC"
+  )
+  public int orcBatchSize = 1024;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "true",
+      label = "Dictionary Encoding",
+      description = "Encodes string columns with few distinct values with a dictionary.",
+      displayPosition = 610,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "ORC"
+  )
+  public boolean orcDictionaryEncoding = true;
+
   /**
    * Indicates whether delimiter must be written after each protobuf message.
    * By default messages are always written with a delimiter.
@@ -694,6 +836,8 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       case SDC_JSON:
       case AVRO:
       case XML:
+      case PARQUET:
+      case ORC:
         // no-op
         break;
       case PROTOBUF:
@@ -760,6 +904,23 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       case AVRO:
         valid &= configureAvroDataGenerator(context, configPrefix, issues, builder);
         break;
+      case PARQUET:
+        valid &= configureAvroSchema(context, configPrefix, issues, builder);
+        configureSchemaLookup(builder);
+        builder.setConfig(ParquetDataGeneratorFactory.COMPRESSION_CODEC_KEY, parquetCompression.getCodecName());
+        builder.setConfig(ParquetDataGeneratorFactory.ROW_GROUP_SIZE_KEY, parquetRowGroupSize * 1024 * 1024);
+        builder.setConfig(ParquetDataGeneratorFactory.PAGE_SIZE_KEY, parquetPageSize * 1024);
+        builder.setConfig(ParquetDataGeneratorFactory.DICTIONARY_ENCODING_KEY, parquetDictionaryEncoding);
+        builder.setConfig(ParquetDataGeneratorFactory.DICTIONARY_PAGE_SIZE_KEY, parquetDictionaryPageSize * 1024);
+        break;
+      case ORC:
+        valid &= configureAvroSchema(context, configPrefix, issues, builder);
+        configureSchemaLookup(builder);
+        builder.setConfig(OrcDataGeneratorFactory.COMPRESSION_CODEC_KEY, orcCompression.getCodecName());
+        builder.setConfig(OrcDataGeneratorFactory.STRIPE_SIZE_KEY, orcStripeSize * 1024L * 1024L);
+        builder.setConfig(OrcDataGeneratorFactory.BATCH_SIZE_KEY, orcBatchSize);
+        builder.setConfig(OrcDataGeneratorFactory.DICTIONARY_ENCODING_KEY, orcDictionaryEncoding);
+        break;
       case BINARY:
         builder.setConfig(BinaryDataGeneratorFactory.FIELD_PATH_KEY, binaryFieldPath);
         break;
@@ -811,6 +972,32 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
       String configPrefix,
       List<Stage.ConfigIssue> issues,
       DataGeneratorFactoryBuilder builder
+  ) {
+    boolean valid = configureAvroSchema(context, configPrefix, issues, builder);
+
+    if ((avroSchemaSource == INLINE || avroSchemaSource == HEADER) && registerSchema) {
+      // Subject used for registering schema
+      builder.setConfig(SUBJECT_KEY, subjectToRegister);
+      builder.setConfig(SCHEMA_REPO_URLS_KEY, schemaRegistryUrlsForRegistration);
+      builder.setConfig(BASIC_AUTH_USER_INFO, basicAuthUserInfoForRegistration.get());
+    } else {
+      configureSchemaLookup(builder);
+    }
+    builder.setConfig(INCLUDE_SCHEMA_KEY, includeSchema);
+    builder.setConfig(REGISTER_SCHEMA_KEY, registerSchema);
+    builder.setConfig(COMPRESSION_CODEC_KEY, avroCompression.getCodecName());
+
+    return valid;
+  }
+
+  /**
+   * Avro schema configs, shared by all formats that describe their records with an Avro schema.
+   */
+  private boolean configureAvroSchema(
+      ProtoConfigurableEntity.Context context,
+      String configPrefix,
+      List<Stage.ConfigIssue> issues,
+      DataGeneratorFactoryBuilder builder
   ) {
     boolean valid = true;
     Schema schema = null;
@@ -855,23 +1042,17 @@ public class DataGeneratorFormatConfig implements DataFormatConfig {
     builder.setConfig(SCHEMA_REPO_URLS_KEY, schemaRegistryUrls);
     builder.setConfig(BASIC_AUTH_USER_INFO, basicAuthUserInfo.get());
 
-    if ((avroSchemaSource == INLINE || avroSchemaSource == HEADER) && registerSchema) {
-      // Subject used for registering schema
-      builder.setConfig(SUBJECT_KEY, subjectToRegister);
-      builder.setConfig(SCHEMA_REPO_URLS_KEY, schemaRegistryUrlsForRegistration);
-      builder.setConfig(BASIC_AUTH_USER_INFO, basicAuthUserInfoForRegistration.get());
-    } else if (schemaLookupMode == AvroSchemaLookupMode.SUBJECT) {
+    return valid;
+  }
+
+  private void configureSchemaLookup(DataGeneratorFactoryBuilder builder) {
+    if (schemaLookupMode == AvroSchemaLookupMode.SUBJECT) {
       // Subject used for looking up schema
       builder.setConfig(SUBJECT_KEY, subject);
     } else {
       // Schema ID used for looking up schema
       builder.setConfig(SCHEMA_ID_KEY, schemaId);
     }
-    builder.setConfig(INCLUDE_SCHEMA_KEY, includeSchema);
-    builder.setConfig(REGISTER_SCHEMA_KEY, registerSchema);
-    builder.setConfig(COMPRESSION_CODEC_KEY, avroCompression.getCodecName());
-
-    return valid;
   }
 
   private boolean validateProtobufFormat(
@@ -55,6 +55,7 @@ import com.streamsets.pipeline.lib.el.DataUnitsEL;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
 import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.parser.excel.WorkbookParserConstants;
 import com.streamsets.pipeline.lib.parser.log.LogDataFormatValidator;
 import com.streamsets.pipeline.lib.parser.log.LogDataParserFactory;
@@ -177,6 +178,50 @@ public class DataParserFormatConfig implements DataFormatConfig {
 
   /* End Charset Related */
 
+  /* Field projection, applied by the JSON and delimited parsers while parsing */
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.LIST,
+      label = "Fields to Keep",
+      description = "Fields to parse in each record, other fields are skipped while parsing. Leave empty to keep all " +
+          "fields. Delimited data requires the List-Map root field type",
+      dependsOn = "dataFormat^",
+      triggeredByValue = {"JSON", "DELIMITED"},
+      displayPosition = 1100,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DATA_FORMAT"
+  )
+  public List<String> projectionFieldPaths = new ArrayList<>();
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      defaultValue = "",
+      label = "Filter Field",
+      description = "Keep only the records where this field has one of the filter values. Leave empty to keep all records",
+      dependsOn = "dataFormat^",
+      triggeredByValue = {"JSON", "DELIMITED"},
+      displayPosition = 1110,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DATA_FORMAT"
+  )
+  public String projectionPredicateFieldPath = "";
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.LIST,
+      label = "Filter Values",
+      description = "Values of the filter field in the records to keep. Numbers and booleans are compared by value. " +
+          "Enclose a value in double quotes to only match string fields",
+      dependsOn = "dataFormat^",
+      triggeredByValue = {"JSON", "DELIMITED"},
+      displayPosition = 1120,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DATA_FORMAT"
+  )
+  public List<String> projectionPredicateValues = new ArrayList<>();
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
@@ -1411,6 +1456,10 @@ public class DataParserFormatConfig implements DataFormatConfig {
   // with a default value of 50.
   public int stringBuilderPoolSize;
 
+  // Number of buffers decompressed ahead of the parser on a separate thread for compressed files, configured in
+  // sdc.properties. Zero (the default) decompresses on the thread consuming the parser.
+  public int decompressionReadAheadBuffers;
+
   @Override
   public boolean init(
       ProtoConfigurableEntity.Context context,
@@ -1491,6 +1540,10 @@ public class DataParserFormatConfig implements DataFormatConfig {
         DataFormatConstants.MAX_RUNNERS_CONFIG_KEY,
         DataFormatConstants.DEFAULT_STRING_BUILDER_POOL_SIZE
     );
+    decompressionReadAheadBuffers = context.getConfiguration().get(
+        DataFormatConstants.DECOMPRESSION_READ_AHEAD_BUFFERS_CONFIG_KEY,
+        DataFormatConstants.DEFAULT_DECOMPRESSION_READ_AHEAD_BUFFERS
+    );
     switch (dataFormat) {
       case JSON:
         valid = validateJson(context, configPrefix, issues);
@@ -1654,6 +1707,17 @@ public class DataParserFormatConfig implements DataFormatConfig {
       );
       valid = false;
     }
+
+    if (csvRecordType == CsvRecordType.LIST && projectionFieldPaths != null && !projectionFieldPaths.isEmpty()) {
+      issues.add(
+          context.createConfigIssue(
+              DataFormatGroups.DATA_FORMAT.name(),
+              configPrefix + "projectionFieldPaths",
+              DataFormatErrors.DATA_FORMAT_13
+          )
+      );
+      valid = false;
+    }
     return valid;
   }
 
@@ -1815,9 +1879,11 @@ public class DataParserFormatConfig implements DataFormatConfig {
         break;
       case JSON:
         builder.setMaxDataLen(jsonMaxObjectLen).setMode(jsonContent);
+        buildProjection(builder);
         break;
       case DELIMITED:
         buildDelimitedParser(builder);
+        buildProjection(builder);
         break;
       case XML:
         builder.setMaxDataLen(xmlMaxObjectLen).setConfig(XmlDataParserFactory.RECORD_ELEMENT_KEY, xmlRecordElement)
@@ -1899,6 +1965,7 @@ public class DataParserFormatConfig implements DataFormatConfig {
     builder.setRemoveCtrlChars(removeCtrlChars);
     builder.setCompression(compression);
     builder.setFilePatternInArchive(filePatternInArchive);
+    builder.setDecompressionReadAheadBuffers(Math.max(0, decompressionReadAheadBuffers));
     return valid;
   }
 
@@ -1953,6 +2020,13 @@ public class DataParserFormatConfig implements DataFormatConfig {
         );
   }
 
+  private void buildProjection(DataParserFactoryBuilder builder) {
+    builder
+        .setConfig(FieldProjection.FIELD_PATHS_CONFIG, projectionFieldPaths)
+        .setConfig(FieldProjection.PREDICATE_FIELD_PATH_CONFIG, projectionPredicateFieldPath)
+        .setConfig(FieldProjection.PREDICATE_VALUES_CONFIG, projectionPredicateValues);
+  }
+
   private void buildProtobufParser(DataParserFactoryBuilder builder) {
     builder
         .setConfig(ProtobufConstants.PROTO_DESCRIPTOR_FILE_KEY, protoDescriptorFile)
@@ -26,6 +26,7 @@ import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
@@ -39,6 +40,7 @@ import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -327,4 +329,35 @@ public class TestDelimitedDataGenerator {
     gen.close();
   }
 
+  @Test
+  public void testReusableGenerator() throws Exception {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.DELIMITED)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.NO_HEADER)
+        .build();
+
+    ReusableDataGenerator reusable = factory.getReusableGenerator();
+    for (int i = 0; i < 3; i++) {
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("a", Field.create("A" + i));
+      map.put("b", Field.create("B" + i));
+      Record record = RecordCreator.create();
+      record.set(Field.createListMap(map));
+
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      DataGenerator gen = factory.getGenerator(expected);
+      gen.write(record);
+      gen.close();
+
+      reusable.serialize(record);
+      Assert.assertArrayEquals(expected.toByteArray(), reusable.toByteArray());
+      Assert.assertEquals(
+          "A" + i + ",B" + i + "\r\n",
+          new String(reusable.getBuffer(), reusable.getOffset(), reusable.getLength(), StandardCharsets.UTF_8)
+      );
+    }
+    reusable.close();
+  }
+
 }
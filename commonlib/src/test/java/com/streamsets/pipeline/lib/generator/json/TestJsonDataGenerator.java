@@ -26,8 +26,10 @@ import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.data.DataFactory;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 import com.streamsets.pipeline.lib.io.fileref.FileRefTestUtil;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
@@ -42,6 +44,7 @@ import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -218,4 +221,64 @@ public class TestJsonDataGenerator {
       testDir.delete();
     }
   }
+
+  @Test
+  public void testReusableGenerator() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.MULTIPLE_OBJECTS)
+        .build();
+
+    ReusableDataGenerator reusable = factory.getReusableGenerator();
+    for (int i = 0; i < 3; i++) {
+      Map<String, Field> map = new LinkedHashMap<>();
+      map.put("id", Field.create(i));
+      map.put("name", Field.create("name" + i));
+      Record record = RecordCreator.create();
+      record.set(Field.create(map));
+
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      DataGenerator gen = factory.getGenerator(expected);
+      gen.write(record);
+      gen.close();
+
+      reusable.serialize(record);
+      Assert.assertArrayEquals(expected.toByteArray(), reusable.toByteArray());
+      Assert.assertEquals(
+          "{\"id\":" + i + ",\"name\":\"name" + i + "\"}",
+          new String(reusable.getBuffer(), reusable.getOffset(), reusable.getLength(), StandardCharsets.UTF_8)
+      );
+    }
+    reusable.close();
+  }
+
+  @Test
+  public void testReusableGeneratorRecoversFromError() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.MULTIPLE_OBJECTS)
+        .build();
+    ReusableDataGenerator reusable = factory.getReusableGenerator();
+
+    File testDir = new File("target", UUID.randomUUID().toString());
+    testDir.mkdirs();
+    try {
+      FileRefTestUtil.writePredefinedTextToFile(testDir);
+      Record record = RecordCreator.create();
+      Map<String, Object> metadata = FileRefTestUtil.getFileMetadata(testDir);
+      FileRef fileRef = FileRefTestUtil.getLocalFileRef(testDir, false, null, null);
+      record.set(FileRefUtil.getWholeFileRecordRootField(fileRef, metadata));
+      reusable.serialize(record);
+      Assert.fail("Json should not process FileRef field");
+    } catch (DataGeneratorException e) {
+      Assert.assertEquals(Errors.JSON_GENERATOR_01, e.getErrorCode());
+    } finally {
+      testDir.delete();
+    }
+
+    Record record = RecordCreator.create();
+    record.set(Field.create("Hello"));
+    reusable.serialize(record);
+    Assert.assertEquals("\"Hello\"", new String(reusable.toByteArray(), StandardCharsets.UTF_8));
+    reusable.close();
+  }
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.orc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.data.DataFactory;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.RecordReader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+
+public class TestOrcDataGenerator {
+
+  private static final String AVRO_SCHEMA = "{\n"
+    +"\"type\": \"record\",\n"
+    +"\"name\": \"Employee\",\n"
+    +"\"fields\": [\n"
+    +" {\"name\": \"name\", \"type\": \"string\"},\n"
+    +" {\"name\": \"age\", \"type\": \"int\"}\n"
+    +"]}";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Record createRecord(String name, int age) {
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("name", Field.create(name));
+    map.put("age", Field.create(age));
+    Record record = RecordCreator.create();
+    record.set(Field.create(map));
+    return record;
+  }
+
+  private Reader generate(DestinationAvroSchemaSource schemaSource, int records) throws Exception {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    DataFactory factory = new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.ORC)
+        .setConfig(SCHEMA_SOURCE_KEY, schemaSource)
+        .setConfig(SCHEMA_KEY, AVRO_SCHEMA)
+        .setConfig(OrcDataGeneratorFactory.COMPRESSION_CODEC_KEY, "SNAPPY")
+        // Smaller than the number of records, so that several row batches are written
+        .setConfig(OrcDataGeneratorFactory.BATCH_SIZE_KEY, 10)
+        .build();
+    Assert.assertTrue(factory instanceof OrcDataGeneratorFactory);
+
+    File file = new File(tempFolder.getRoot(), "data.orc");
+    try (
+        OutputStream os = new FileOutputStream(file);
+        DataGenerator gen = ((OrcDataGeneratorFactory) factory).getGenerator(os)
+    ) {
+      for (int i = 0; i < records; i++) {
+        gen.write(createRecord("name" + i, i));
+      }
+    }
+    return OrcFile.createReader(new Path(file.toURI()), OrcFile.readerOptions(new Configuration()));
+  }
+
+  private void assertRows(Reader reader, int records) throws Exception {
+    Assert.assertEquals(records, reader.getNumberOfRows());
+    VectorizedRowBatch batch = reader.getSchema().createRowBatch();
+    int row = 0;
+    try (RecordReader rows = reader.rows()) {
+      while (rows.nextBatch(batch)) {
+        BytesColumnVector names = (BytesColumnVector) batch.cols[0];
+        LongColumnVector ages = (LongColumnVector) batch.cols[1];
+        for (int i = 0; i < batch.size; i++, row++) {
+          Assert.assertEquals("name" + row, names.toString(i));
+          Assert.assertEquals(row, ages.vector[i]);
+        }
+      }
+    }
+    Assert.assertEquals(records, row);
+  }
+
+  @Test
+  public void testGenerate() throws Exception {
+    Reader reader = generate(DestinationAvroSchemaSource.INLINE, 25);
+    Assert.assertEquals(CompressionKind.SNAPPY, reader.getCompressionKind());
+    Assert.assertEquals("struct<name:string,age:int>", reader.getSchema().toString());
+    assertRows(reader, 25);
+  }
+
+  @Test
+  public void testInferSchemaWithoutHeader() throws Exception {
+    Reader reader = generate(DestinationAvroSchemaSource.HEADER, 25);
+    Assert.assertEquals("struct<name:string,age:int>", reader.getSchema().toString());
+    assertRows(reader, 25);
+  }
+}
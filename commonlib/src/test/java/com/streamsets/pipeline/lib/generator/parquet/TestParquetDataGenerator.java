@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.data.DataFactory;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.Type;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+
+public class TestParquetDataGenerator {
+
+  private static final String AVRO_SCHEMA = "{\n"
+    +"\"type\": \"record\",\n"
+    +"\"name\": \"Employee\",\n"
+    +"\"fields\": [\n"
+    +" {\"name\": \"name\", \"type\": \"string\"},\n"
+    +" {\"name\": \"age\", \"type\": \"int\"},\n"
+    +" {\"name\": \"emails\", \"type\": {\"type\": \"array\", \"items\": \"string\"}},\n"
+    +" {\"name\": \"boss\", \"type\": [\"null\", \"string\"], \"default\" : null}\n"
+    +"]}";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private DataFactory createFactory(DestinationAvroSchemaSource schemaSource, String codec) {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.PARQUET)
+        .setConfig(SCHEMA_SOURCE_KEY, schemaSource)
+        .setConfig(SCHEMA_KEY, AVRO_SCHEMA)
+        .setConfig(ParquetDataGeneratorFactory.COMPRESSION_CODEC_KEY, codec)
+        .build();
+  }
+
+  private Record createRecord(String name, int age) {
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("name", Field.create(name));
+    map.put("age", Field.create(age));
+    map.put("emails", Field.create(ImmutableList.of(Field.create(name + "@streamsets.com"))));
+    map.put("boss", Field.create(Field.Type.STRING, null));
+    Record record = RecordCreator.create();
+    record.set(Field.create(map));
+    return record;
+  }
+
+  private File write(DataFactory factory, Record... records) throws IOException, DataGeneratorException {
+    File file = new File(tempFolder.getRoot(), "data.parquet");
+    try (
+        OutputStream os = new FileOutputStream(file);
+        DataGenerator gen = ((ParquetDataGeneratorFactory) factory).getGenerator(os)
+    ) {
+      for (Record record : records) {
+        gen.write(record);
+      }
+    }
+    return file;
+  }
+
+  @Test
+  public void testFactory() throws Exception {
+    DataFactory factory = createFactory(DestinationAvroSchemaSource.INLINE, "SNAPPY");
+    Assert.assertTrue(factory instanceof ParquetDataGeneratorFactory);
+    DataGenerator generator = ((ParquetDataGeneratorFactory) factory).getGenerator(new ByteArrayOutputStream());
+    Assert.assertTrue(generator instanceof ParquetDataGenerator);
+  }
+
+  @Test
+  public void testGenerate() throws Exception {
+    File file = write(
+        createFactory(DestinationAvroSchemaSource.INLINE, "GZIP"),
+        createRecord("hari", 3100),
+        createRecord("natty", 3200)
+    );
+
+    ParquetMetadata metadata = ParquetFileReader.readFooter(new Configuration(), new Path(file.toURI()));
+    MessageType schema = metadata.getFileMetaData().getSchema();
+    Assert.assertEquals(OriginalType.UTF8, schema.getType("name").getOriginalType());
+    Assert.assertEquals(OriginalType.LIST, schema.getType("emails").getOriginalType());
+    Assert.assertTrue(schema.getType("boss").isRepetition(Type.Repetition.OPTIONAL));
+    Assert.assertEquals(
+        CompressionCodecName.GZIP,
+        metadata.getBlocks().get(0).getColumns().get(0).getCodec()
+    );
+
+    try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), new Path(file.toURI())).build()) {
+      Group group = reader.read();
+      Assert.assertEquals("hari", group.getString("name", 0));
+      Assert.assertEquals(3100, group.getInteger("age", 0));
+      Assert.assertEquals(
+          "hari@streamsets.com",
+          group.getGroup("emails", 0).getGroup("list", 0).getString("element", 0)
+      );
+      Assert.assertEquals(0, group.getFieldRepetitionCount("boss"));
+
+      group = reader.read();
+      Assert.assertEquals("natty", group.getString("name", 0));
+      Assert.assertEquals(3200, group.getInteger("age", 0));
+      Assert.assertNull(reader.read());
+    }
+  }
+
+  @Test
+  public void testInferSchemaWithoutHeader() throws Exception {
+    File file = write(createFactory(DestinationAvroSchemaSource.HEADER, "SNAPPY"), createRecord("hari", 3100));
+
+    try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), new Path(file.toURI())).build()) {
+      Group group = reader.read();
+      Assert.assertEquals("hari", group.getString("name", 0));
+      Assert.assertEquals(3100, group.getInteger("age", 0));
+      Assert.assertNull(reader.read());
+    }
+  }
+
+  @Test(expected = DataGeneratorException.class)
+  public void testMissingRequiredValue() throws Exception {
+    Record record = createRecord("hari", 3100);
+    record.delete("/age");
+    write(createFactory(DestinationAvroSchemaSource.INLINE, "SNAPPY"), record);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator.wholefile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+public class TestPipelinedCopy {
+  private static final byte[] DATA = new byte[1024 * 1024 + 17];
+
+  static {
+    new Random(42).nextBytes(DATA);
+  }
+
+  @Test
+  public void testChunkSize() throws Exception {
+    Assert.assertEquals(512, PipelinedCopy.chunkSize(1024));
+    Assert.assertEquals(1, PipelinedCopy.chunkSize(1));
+  }
+
+  @Test
+  public void testCopyStreams() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PipelinedCopy.copy(new ByteArrayInputStream(DATA), out, 1000);
+    Assert.assertArrayEquals(DATA, out.toByteArray());
+  }
+
+  @Test
+  public void testCopyChannels() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PipelinedCopy.copy(Channels.newChannel(new ByteArrayInputStream(DATA)), Channels.newChannel(out), 1000);
+    Assert.assertArrayEquals(DATA, out.toByteArray());
+  }
+
+  @Test
+  public void testCopyEmpty() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PipelinedCopy.copy(new ByteArrayInputStream(new byte[0]), out, 1000);
+    Assert.assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testReadFailure() throws Exception {
+    InputStream in = new InputStream() {
+      private int read;
+
+      @Override
+      public int read() throws IOException {
+        if (read++ == 5000) {
+          throw new IOException("read failure");
+        }
+        return 0;
+      }
+    };
+    try {
+      PipelinedCopy.copy(in, new ByteArrayOutputStream(), 1000);
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("read failure", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testWriteFailure() throws Exception {
+    OutputStream out = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("write failure");
+      }
+    };
+    try {
+      PipelinedCopy.copy(new ByteArrayInputStream(DATA), out, 1000);
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("write failure", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSourceReturningZero() throws Exception {
+    ByteBuffer[] chunks = {ByteBuffer.allocate(10), ByteBuffer.allocate(10)};
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PipelinedCopy.copy(
+        buffer -> 0,
+        buffer -> out.write(buffer.array(), buffer.position(), buffer.remaining()),
+        chunks
+    );
+    Assert.assertEquals(0, out.size());
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.pipeline.config.Compression;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestReadAheadInputStream {
+
+  @Test
+  public void testReadsAllBytesInOrder() throws Exception {
+    byte[] data = new byte[1024 * 1024 + 17];
+    new Random(1).nextBytes(data);
+
+    try (InputStream is = new ReadAheadInputStream("test", new ByteArrayInputStream(data), 3, 4096)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Assert.assertEquals(data.length, IOUtils.copy(is, out));
+      Assert.assertArrayEquals(data, out.toByteArray());
+      Assert.assertEquals(-1, is.read());
+    }
+  }
+
+  @Test
+  public void testSingleByteReads() throws Exception {
+    byte[] data = "StreamSets".getBytes();
+    try (InputStream is = new ReadAheadInputStream("test", new ByteArrayInputStream(data), 1, 3)) {
+      for (byte b : data) {
+        Assert.assertEquals(b, is.read());
+      }
+      Assert.assertEquals(-1, is.read());
+    }
+  }
+
+  @Test
+  public void testReadErrorIsPropagated() throws Exception {
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("broken");
+      }
+    };
+    try (InputStream is = new ReadAheadInputStream("test", failing, 2, 16)) {
+      is.read();
+      Assert.fail();
+    } catch (IOException ex) {
+      Assert.assertTrue(ex.getMessage().contains("broken"));
+    }
+  }
+
+  @Test
+  public void testCloseBeforeFullyRead() throws Exception {
+    byte[] data = new byte[64 * 1024];
+    InputStream is = new ReadAheadInputStream("test", new ByteArrayInputStream(data), 1, 1024);
+    Assert.assertEquals(0, is.read());
+    is.close();
+    try {
+      is.read(new byte[10]);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCloseDoesNotRaceBlockedRead() throws Exception {
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch streamClosed = new CountDownLatch(1);
+    AtomicBoolean inRead = new AtomicBoolean();
+    AtomicBoolean closedWhileReading = new AtomicBoolean();
+    InputStream blocking = new InputStream() {
+      @Override
+      public int read() {
+        inRead.set(true);
+        reading.countDown();
+        // ignores interrupts, like a read blocked on the network
+        boolean released = false;
+        while (!released) {
+          try {
+            release.await();
+            released = true;
+          } catch (InterruptedException ex) {
+            // keep waiting
+          }
+        }
+        inRead.set(false);
+        return 0;
+      }
+
+      @Override
+      public void close() {
+        closedWhileReading.set(inRead.get());
+        streamClosed.countDown();
+      }
+    };
+
+    InputStream is = new ReadAheadInputStream("test", blocking, 1, 16);
+    Assert.assertTrue(reading.await(10, TimeUnit.SECONDS));
+    is.close();
+    // the read-ahead thread is still reading, so it is the one closing the stream once the read returns
+    Assert.assertEquals(1, streamClosed.getCount());
+    release.countDown();
+    Assert.assertTrue(streamClosed.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(closedWhileReading.get());
+  }
+
+  @Test
+  public void testReadsDirectlyWhenAllThreadsAreBusy() throws Exception {
+    byte[] data = new byte[64];
+    new Random(3).nextBytes(data);
+    List<ReadAheadInputStream> streams = new ArrayList<>();
+    try {
+      // each stream keeps reading ahead until it is consumed, its single buffer is full
+      ReadAheadInputStream direct = null;
+      for (int i = 0; i <= Runtime.getRuntime().availableProcessors() + 2 && direct == null; i++) {
+        ReadAheadInputStream is = new ReadAheadInputStream("test", new ByteArrayInputStream(data), 1, 4);
+        streams.add(is);
+        if (!is.isReadAhead()) {
+          direct = is;
+        }
+      }
+      Assert.assertNotNull(direct);
+      Assert.assertArrayEquals(data, IOUtils.toByteArray(direct));
+    } finally {
+      for (InputStream is : streams) {
+        is.close();
+      }
+      // leave the read-aheads to the other tests
+      while (ReadAheadInputStream.getActiveReadAheads() > 0) {
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  @Test
+  public void testCompressorInputWithReadAhead() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (CompressorOutputStream out = new CompressorStreamFactory().createCompressorOutputStream("bzip2", bytes)) {
+      for (int i = 0; i < 10000; i++) {
+        out.write(("line" + i + "\n").getBytes());
+      }
+    }
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bytes.toByteArray()),
+        "0",
+        "myFile",
+        2
+    ).build();
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(input.getNextInputStream()))) {
+      for (int i = 0; i < 10000; i++) {
+        Assert.assertEquals("line" + i, reader.readLine());
+      }
+      Assert.assertNull(reader.readLine());
+    }
+    input.close();
+  }
+
+}
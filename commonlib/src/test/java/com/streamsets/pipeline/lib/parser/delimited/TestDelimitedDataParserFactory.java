@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.lib.parser.delimited;
 
+import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
@@ -23,9 +24,11 @@ import com.streamsets.pipeline.config.CsvMode;
 import com.streamsets.pipeline.config.CsvParser;
 import com.streamsets.pipeline.config.CsvRecordType;
 import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
 import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.junit.Assert;
@@ -156,4 +159,49 @@ public class TestDelimitedDataParserFactory {
     Assert.assertEquals(12, Long.parseLong(parser.getOffset()));
     parser.close();
   }
+
+  @Test
+  public void testProjectionAndPredicate() throws Exception {
+    Stage.Context context = ContextInfoCreator.createSourceContext("", false, OnRecordError.DISCARD,
+                                                                   Collections.<String>emptyList());
+    DataParserFactory factory = new DataParserFactoryBuilder(context, DataParserFormat.DELIMITED)
+        .setMaxDataLen(100)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .setMode(CsvRecordType.LIST_MAP)
+        .setConfig(FieldProjection.FIELD_PATHS_CONFIG, ImmutableList.of("/a", "/c"))
+        .setConfig(FieldProjection.PREDICATE_FIELD_PATH_CONFIG, "/b")
+        .setConfig(FieldProjection.PREDICATE_VALUES_CONFIG, ImmutableList.of("keep"))
+        .build();
+
+    DataParser parser = factory.getParser("id", "a,b,c,d\n1,drop,3,4\n5,keep,7,8\n");
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(
+        ImmutableList.of("a", "b", "c"),
+        ImmutableList.copyOf(record.get().getValueAsListMap().keySet())
+    );
+    Assert.assertEquals("5", record.get("/a").getValueAsString());
+    Assert.assertEquals("keep", record.get("/b").getValueAsString());
+    Assert.assertEquals("7", record.get("/c").getValueAsString());
+
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals("-1", parser.getOffset());
+    parser.close();
+  }
+
+  @Test(expected = DataParserException.class)
+  public void testProjectionRequiresListMap() throws Exception {
+    Stage.Context context = ContextInfoCreator.createSourceContext("", false, OnRecordError.DISCARD,
+                                                                   Collections.<String>emptyList());
+    DataParserFactory factory = new DataParserFactoryBuilder(context, DataParserFormat.DELIMITED)
+        .setMaxDataLen(100)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .setMode(CsvRecordType.LIST)
+        .setConfig(FieldProjection.FIELD_PATHS_CONFIG, ImmutableList.of("/a"))
+        .build();
+
+    factory.getParser("id", "a,b\n1,2\n");
+  }
 }
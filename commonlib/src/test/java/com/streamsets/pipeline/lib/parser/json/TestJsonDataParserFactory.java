@@ -15,6 +15,8 @@
  */
 package com.streamsets.pipeline.lib.parser.json;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
@@ -23,13 +25,18 @@ import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
 import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class TestJsonDataParserFactory {
 
@@ -107,4 +114,119 @@ public class TestJsonDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testProjectionAndPredicate() throws Exception {
+    DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON)
+        .setMaxDataLen(1000)
+        .setMode(JsonMode.MULTIPLE_OBJECTS)
+        .setConfig(FieldProjection.FIELD_PATHS_CONFIG, ImmutableList.of("/id", "/user/name"))
+        .setConfig(FieldProjection.PREDICATE_FIELD_PATH_CONFIG, "/type")
+        .setConfig(FieldProjection.PREDICATE_VALUES_CONFIG, ImmutableList.of("click"))
+        .build();
+
+    String json = "{\"id\":1,\"type\":\"view\",\"user\":{\"name\":\"a\",\"age\":10},\"payload\":[1,2]}\n" +
+        "{\"id\":2,\"type\":\"click\",\"user\":{\"name\":\"b\",\"age\":20},\"payload\":[3,4]}";
+    DataParser parser = factory.getParser("id", json);
+
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(ImmutableSet.of("id", "type", "user"), record.get().getValueAsMap().keySet());
+    Assert.assertEquals(2, record.get("/id").getValueAsInteger());
+    Assert.assertEquals("click", record.get("/type").getValueAsString());
+    Assert.assertEquals(ImmutableSet.of("name"), record.get("/user").getValueAsMap().keySet());
+    Assert.assertEquals("b", record.get("/user/name").getValueAsString());
+
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals("-1", parser.getOffset());
+    parser.close();
+  }
+
+  private List<String> filteredIds(String predicateFieldPath, String... predicateValues) throws Exception {
+    DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON)
+        .setMaxDataLen(1000)
+        .setMode(JsonMode.MULTIPLE_OBJECTS)
+        .setConfig(FieldProjection.PREDICATE_FIELD_PATH_CONFIG, predicateFieldPath)
+        .setConfig(FieldProjection.PREDICATE_VALUES_CONFIG, Arrays.asList(predicateValues))
+        .build();
+
+    String json = "{\"id\":\"a\",\"n\":1,\"b\":true}\n" +
+        "{\"id\":\"b\",\"n\":1.0,\"b\":\"true\"}\n" +
+        "{\"id\":\"c\",\"n\":\"1\",\"b\":false}\n" +
+        "{\"id\":\"d\",\"n\":10000000000,\"b\":\"yes\"}\n";
+    List<String> ids = new ArrayList<>();
+    try (DataParser parser = factory.getParser("id", json)) {
+      for (Record record = parser.parse(); record != null; record = parser.parse()) {
+        ids.add(record.get("/id").getValueAsString());
+      }
+    }
+    return ids;
+  }
+
+  @Test
+  public void testPredicateComparesTypedValues() throws Exception {
+    // numbers by value, strings by text
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), filteredIds("/n", "1"));
+    Assert.assertEquals(ImmutableList.of("a", "b"), filteredIds("/n", "1.00"));
+    Assert.assertEquals(ImmutableList.of("d"), filteredIds("/n", "1E10"));
+    // quoted values only match strings
+    Assert.assertEquals(ImmutableList.of("c"), filteredIds("/n", "\"1\""));
+
+    Assert.assertEquals(ImmutableList.of("a", "b"), filteredIds("/b", "true"));
+    Assert.assertEquals(ImmutableList.of("b"), filteredIds("/b", "\"true\""));
+    Assert.assertEquals(ImmutableList.of("c", "d"), filteredIds("/b", "false", "yes"));
+  }
+
+  @Test
+  public void testProjectionSkipsValuesAndKeepsOffsets() throws Exception {
+    String json = "{\"id\":1,\"skip\":{\"a\":\"}\\\"{\",\"b\":[1,{\"c\":null}]},\"user\":{\"name\":\"a\",\"age\":10}}\n" +
+        "{\"skip\":true , \"user\":[{\"na\\u006De\":\"b\",\"x\":[]},{\"age\":2}], \"id\":2}\n" +
+        "[{\"id\":3,\"more\":\"x\"}]\n";
+
+    for (JsonMode mode : ImmutableList.of(JsonMode.MULTIPLE_OBJECTS, JsonMode.ARRAY_OBJECTS)) {
+      String data = (mode == JsonMode.ARRAY_OBJECTS) ? "[" + json.trim().replace("\n", ",") + "]" : json;
+      DataParserFactory factory = new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON)
+          .setMaxDataLen(1000)
+          .setMode(mode)
+          .build();
+      DataParserFactory projectedFactory = new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON)
+          .setMaxDataLen(1000)
+          .setMode(mode)
+          .setConfig(FieldProjection.FIELD_PATHS_CONFIG, ImmutableList.of("/id", "/user/name"))
+          .build();
+
+      DataParser parser = factory.getParser("id", data);
+      DataParser projectedParser = projectedFactory.getParser("id", data);
+      String firstOffset = null;
+      for (int i = 1; i <= 3; i++) {
+        Record record = parser.parse();
+        Record projected = projectedParser.parse();
+        Assert.assertNotNull(projected);
+        // offsets are positions in the original data
+        Assert.assertEquals(record.getHeader().getSourceId(), projected.getHeader().getSourceId());
+        Assert.assertEquals(parser.getOffset(), projectedParser.getOffset());
+        if (i == 1) {
+          firstOffset = projectedParser.getOffset();
+          Assert.assertEquals(ImmutableSet.of("id", "user"), projected.get().getValueAsMap().keySet());
+          Assert.assertEquals(ImmutableSet.of("name"), projected.get("/user").getValueAsMap().keySet());
+        } else if (i == 2) {
+          Assert.assertEquals(ImmutableSet.of("user", "id"), projected.get().getValueAsMap().keySet());
+          Assert.assertEquals("b", projected.get("/user[0]/name").getValueAsString());
+          Assert.assertTrue(projected.get("/user[1]").getValueAsMap().isEmpty());
+        } else {
+          Assert.assertEquals(ImmutableSet.of("id"), projected.get("[0]").getValueAsMap().keySet());
+        }
+      }
+      Assert.assertNull(projectedParser.parse());
+      parser.close();
+      projectedParser.close();
+
+      // resuming from an offset skips the same data as without projection
+      projectedParser = projectedFactory.getParser("id", new StringReader(data), Long.parseLong(firstOffset));
+      Record record = projectedParser.parse();
+      Assert.assertEquals(2, record.get("/id").getValueAsInteger());
+      Assert.assertEquals("b", record.get("/user[0]/name").getValueAsString());
+      projectedParser.close();
+    }
+  }
+
 }
@@ -17,10 +17,13 @@ package com.streamsets.pipeline.lib.util;
 
 import com.google.common.io.Resources;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.DescriptorProtos;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.UninitializedMessageException;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
@@ -528,4 +531,116 @@ public class TestProtobufTypeUtil {
 
   }
 
+  @Test
+  public void testDecoderMatchesProtoToSdc() throws Exception {
+    byte[] data = ProtobufTestUtil.getProtoBufData();
+    List<DynamicMessage> messages = ProtobufTestUtil.getMessages(md, extensionRegistry, data);
+    Assert.assertTrue(ProtobufDecoder.isSupported(md, typeToExtensionMap));
+    ProtobufDecoder decoder = new ProtobufDecoder(md, typeToExtensionMap);
+
+    CodedInputStream input = CodedInputStream.newInstance(data);
+    for (int i = 0; i < messages.size(); i++) {
+      Record expected = RecordCreator.create();
+      expected.set(ProtobufTypeUtil.protobufToSdcField(expected, "", md, typeToExtensionMap, messages.get(i)));
+
+      Record record = RecordCreator.create();
+      int oldLimit = input.pushLimit(input.readRawVarint32());
+      record.set(decoder.decode(record, input));
+      input.popLimit(oldLimit);
+
+      Assert.assertEquals(expected.get(), record.get());
+      ProtobufTestUtil.checkProtobufRecords(record.get(), i);
+      ProtobufTestUtil.checkProtobufRecordsForExtensions(record.get(), i);
+      ProtobufTestUtil.checkRecordForUnknownFields(record, i);
+      for (String name : expected.getHeader().getAttributeNames()) {
+        Assert.assertEquals(expected.getHeader().getAttribute(name), record.getHeader().getAttribute(name));
+      }
+    }
+    Assert.assertTrue(input.isAtEnd());
+  }
+
+  @Test
+  public void testDecoderMissingRequiredField() throws Exception {
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    PersonProto.Person.newBuilder()
+        .setId(1)
+        .setName("John Doe")
+        .addPhone(PersonProto.Person.PhoneNumber.newBuilder().setNumber("7568345"))
+        .build()
+        .writeTo(bOut);
+
+    // in test1.desc the phone type is required
+    Map<String, Descriptors.FileDescriptor> fileDescriptorMap = new HashMap<>();
+    DescriptorProtos.FileDescriptorSet fileDescriptorSet = DescriptorProtos.FileDescriptorSet.parseFrom(
+        new FileInputStream(Resources.getResource("test1.desc").getPath())
+    );
+    ProtobufTypeUtil.getAllFileDescriptors(fileDescriptorSet, new HashMap<>(), fileDescriptorMap);
+    Descriptors.Descriptor descriptor =
+        ProtobufTypeUtil.getDescriptor(fileDescriptorSet, fileDescriptorMap, "test1.desc", "util.Person");
+    ProtobufDecoder decoder = new ProtobufDecoder(descriptor, typeToExtensionMap);
+    try {
+      decoder.decode(RecordCreator.create(), CodedInputStream.newInstance(bOut.toByteArray()));
+      Assert.fail();
+    } catch (UninitializedMessageException ex) {
+      Assert.assertEquals(Collections.singletonList("phone[0].type"), ex.getMissingFields());
+    }
+  }
+
+  @Test
+  public void testEncoderMatchesSdcToProtobuf() throws Exception {
+    Assert.assertTrue(ProtobufEncoder.isSupported(md, typeToExtensionMap));
+    ProtobufEncoder encoder = new ProtobufEncoder(md, typeToExtensionMap, defaultValueMap);
+
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    CodedOutputStream output = CodedOutputStream.newInstance(bOut);
+    for (Record record : ProtobufTestUtil.getProtobufRecords()) {
+      DynamicMessage expected = ProtobufTypeUtil.sdcFieldToProtobufMsg(record, md, typeToExtensionMap, defaultValueMap);
+      Assert.assertArrayEquals(expected.toByteArray(), encoder.encode(record));
+      encoder.encode(record, output, true);
+    }
+    output.flush();
+    ProtobufTestUtil.checkProtobufDataFields(bOut.toByteArray());
+    ProtobufTestUtil.checkProtobufDataExtensions(bOut.toByteArray());
+    ProtobufTestUtil.checkProtobufDataUnknownFields(bOut.toByteArray());
+  }
+
+  @Test
+  public void testEncoderDecoderRepeatedAndOneof() throws Exception {
+    Descriptors.Descriptor repeated = RepeatedProto.getDescriptor().findMessageTypeByName("Repeated");
+    Record record = RecordCreator.create();
+    Map<String, Field> map = new HashMap<>();
+    map.put("samples", Field.create(Arrays.asList(Field.create(1), Field.create(2), Field.create(3))));
+    record.set(Field.create(map));
+
+    ProtobufEncoder encoder = new ProtobufEncoder(repeated, typeToExtensionMap, defaultValueMap);
+    byte[] bytes = encoder.encode(record);
+    Assert.assertArrayEquals(
+        ProtobufTypeUtil.sdcFieldToProtobufMsg(record, repeated, typeToExtensionMap, defaultValueMap).toByteArray(),
+        bytes
+    );
+    Record decoded = RecordCreator.create();
+    decoded.set(new ProtobufDecoder(repeated, typeToExtensionMap).decode(decoded, CodedInputStream.newInstance(bytes)));
+    Assert.assertEquals(
+        Arrays.asList(Field.create(1), Field.create(2), Field.create(3)),
+        decoded.get("/samples").getValueAsList()
+    );
+
+    // both members of the oneof are in the record, the last one set wins
+    Descriptors.Descriptor oneof = OneofProto.getDescriptor().findMessageTypeByName("Oneof");
+    record = RecordCreator.create();
+    map = new HashMap<>();
+    map.put("oneofInt", Field.create(5));
+    map.put("oneofString", Field.create("Hello"));
+    record.set(Field.create(map));
+
+    bytes = new ProtobufEncoder(oneof, typeToExtensionMap, defaultValueMap).encode(record);
+    DynamicMessage expected = ProtobufTypeUtil.sdcFieldToProtobufMsg(record, oneof, typeToExtensionMap, defaultValueMap);
+    Assert.assertArrayEquals(expected.toByteArray(), bytes);
+
+    decoded = RecordCreator.create();
+    decoded.set(new ProtobufDecoder(oneof, typeToExtensionMap).decode(decoded, CodedInputStream.newInstance(bytes)));
+    Record expectedRecord = RecordCreator.create();
+    expectedRecord.set(ProtobufTypeUtil.protobufToSdcField(expectedRecord, "", oneof, typeToExtensionMap, expected));
+    Assert.assertEquals(expectedRecord.get(), decoded.get());
+  }
 }
@@ -53,4 +53,17 @@ public class TestParserUpgraderService {
 
     UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "preserveRootElement", false);
   }
+
+  @Test
+  public void testV3ToV4() {
+    Mockito.doReturn(3).when(context).getFromVersion();
+    Mockito.doReturn(4).when(context).getToVersion();
+
+    String dataFormatPrefix = "dataFormatConfig.";
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "projectionFieldPaths", new ArrayList<>());
+    UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "projectionPredicateFieldPath", "");
+    UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "projectionPredicateValues", new ArrayList<>());
+  }
 }
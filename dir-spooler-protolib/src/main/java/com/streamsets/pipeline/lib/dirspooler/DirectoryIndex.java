@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the directories watched by the {@link DirectorySpooler}, with the last modified time each one had when
+ * its files were last listed. Creating, renaming or deleting a file changes the last modified time of its directory,
+ * so reconciliation scans only need to list the directories whose time changed. Files written in place are reported
+ * by the file system events.
+ * <p/>
+ * The index can be saved when the spooler is destroyed so a restart does not list every directory again. It is only
+ * loaded back for the same spool directory, file pattern and offset, and it is deleted once loaded so a crash falls
+ * back to a full scan.
+ */
+class DirectoryIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryIndex.class);
+
+  private static final String SPOOL_DIR = "spoolDir";
+  private static final String PATTERN = "pattern";
+  private static final String CURRENT_FILE = "currentFile";
+  private static final String DIRECTORY_PREFIX = "dir:";
+
+  // a directory listed too soon after its last change may have missed a file created within the time resolution
+  private static final long SETTLE_MILLIS = 2000;
+  private static final long UNKNOWN = -1;
+
+  private final Path indexFile;
+  private final Map<String, Long> directories = new ConcurrentHashMap<>();
+
+  /**
+   * @param indexFile file the index is saved to and loaded from, {@code null} to keep the index in memory only.
+   */
+  DirectoryIndex(Path indexFile) {
+    this.indexFile = indexFile;
+  }
+
+  Set<String> getDirectories() {
+    return directories.keySet();
+  }
+
+  boolean isEmpty() {
+    return directories.isEmpty();
+  }
+
+  /**
+   * Adds a directory that has to be listed by the next reconciliation scan.
+   */
+  void add(String dir) {
+    directories.put(dir, UNKNOWN);
+  }
+
+  void remove(String dir) {
+    directories.remove(dir);
+  }
+
+  void clear() {
+    directories.clear();
+  }
+
+  /**
+   * Tells whether the directory may have files that were not listed yet.
+   *
+   * @param lastModified current last modified time of the directory
+   */
+  boolean hasChanged(String dir, long lastModified) {
+    Long indexed = directories.get(dir);
+    return indexed == null || indexed == UNKNOWN || indexed != lastModified;
+  }
+
+  /**
+   * Records that the directory was listed.
+   *
+   * @param lastModified last modified time of the directory, read before listing it
+   * @param listingTime time the listing started
+   */
+  void listed(String dir, long lastModified, long listingTime) {
+    directories.put(dir, listingTime - lastModified > SETTLE_MILLIS ? lastModified : UNKNOWN);
+  }
+
+  static long getLastModifiedTime(String dir) throws IOException {
+    return Files.getLastModifiedTime(Paths.get(dir)).toMillis();
+  }
+
+  /**
+   * Loads the saved index and deletes its file.
+   *
+   * @return {@code true} if an index was saved for the same spool directory, file pattern and current file.
+   */
+  boolean load(String spoolDir, String pattern, WrappedFile currentFile) {
+    directories.clear();
+    if (indexFile == null || !Files.exists(indexFile)) {
+      return false;
+    }
+    Properties properties = new Properties();
+    try {
+      try (InputStream is = Files.newInputStream(indexFile)) {
+        properties.load(is);
+      }
+      Files.delete(indexFile);
+    } catch (IOException ex) {
+      LOG.warn("Could not load the directory index '{}', listing all directories: {}", indexFile, ex.toString(), ex);
+      return false;
+    }
+    if (!Objects.equals(spoolDir, properties.getProperty(SPOOL_DIR))
+        || !Objects.equals(Objects.toString(pattern, ""), properties.getProperty(PATTERN))
+        || !Objects.equals(toString(currentFile), properties.getProperty(CURRENT_FILE))) {
+      LOG.debug("Directory index '{}' was saved for another spool directory or offset, ignoring it", indexFile);
+      return false;
+    }
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(DIRECTORY_PREFIX)) {
+        directories.put(key.substring(DIRECTORY_PREFIX.length()), Long.parseLong(properties.getProperty(key)));
+      }
+    }
+    LOG.debug("Loaded '{}' directories from the directory index '{}'", directories.size(), indexFile);
+    return !directories.isEmpty();
+  }
+
+  /**
+   * Saves the index, the given directories still have files to process and are listed again after a restart.
+   */
+  void save(String spoolDir, String pattern, WrappedFile currentFile, Collection<String> pendingDirectories) {
+    if (indexFile == null) {
+      return;
+    }
+    Properties properties = new Properties();
+    properties.setProperty(SPOOL_DIR, spoolDir);
+    properties.setProperty(PATTERN, Objects.toString(pattern, ""));
+    properties.setProperty(CURRENT_FILE, toString(currentFile));
+    for (Map.Entry<String, Long> entry : directories.entrySet()) {
+      long lastModified = pendingDirectories.contains(entry.getKey()) ? UNKNOWN : entry.getValue();
+      properties.setProperty(DIRECTORY_PREFIX + entry.getKey(), Long.toString(lastModified));
+    }
+    Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(indexFile.getParent());
+      try (OutputStream os = Files.newOutputStream(tmpFile)) {
+        properties.store(os, null);
+      }
+      Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.debug("Saved '{}' directories to the directory index '{}'", directories.size(), indexFile);
+    } catch (IOException ex) {
+      LOG.warn("Could not save the directory index '{}': {}", indexFile, ex.toString(), ex);
+    }
+  }
+
+  /**
+   * Deletes the saved index, if any.
+   */
+  void delete() {
+    if (indexFile == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(indexFile);
+    } catch (IOException ex) {
+      LOG.warn("Could not delete the directory index '{}': {}", indexFile, ex.toString(), ex);
+    }
+  }
+
+  private static String toString(WrappedFile file) {
+    return file == null ? "" : file.getAbsolutePath();
+  }
+}
@@ -28,10 +28,24 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +60,16 @@ public class DirectorySpooler {
   private static final Logger LOG = LoggerFactory.getLogger(DirectorySpooler.class);
   private static final String PENDING_FILES = "pending.files";
 
+  // sdc.properties switch to pick up new files from file system events, full scans then only reconcile the queue
+  static final String USE_FILE_SYSTEM_EVENTS = "com.streamsets.pipeline.lib.dirspooler.useFileSystemEvents";
+  static final String RECONCILIATION_PERIOD_SEC = "com.streamsets.pipeline.lib.dirspooler.reconciliationPeriodSec";
+  static final int RECONCILIATION_PERIOD_SEC_DEFAULT = 300;
+  // directory the index of listed directories is saved to on destroy, so a restart only lists the changed ones
+  static final String INDEX_DIR = "com.streamsets.pipeline.lib.dirspooler.indexDir";
+
+  // longest time a thread waiting for a file holds the close lock, so the finder can queue files in between
+  private static final long POLL_SLICE_MILLIS = 100;
+
   private final PushSource.Context context;
   private final String spoolDir;
   protected final int maxSpoolFiles;
@@ -274,6 +298,8 @@ public class DirectorySpooler {
   }
 
   protected volatile WrappedFile currentFile;
+  // Serializes advancing currentFile, which pollers do concurrently under the shared read lock
+  private final Object currentFileMonitor = new Object();
   protected WrappedFile initialFile;
 
   protected WrappedFile spoolDirPath;
@@ -290,8 +316,18 @@ public class DirectorySpooler {
 
   volatile FilePurger purger;
   volatile FileFinder finder;
+  volatile FileEventWatcher watcher;
 
   private Set<WrappedFile> filesBeingProcessed;
+  // mirrors filesQueue for constant time lookups, the queue contains() is linear
+  private Set<WrappedFile> queuedFiles;
+
+  private long reconciliationPeriodMillis;
+  private volatile long lastFullScan;
+  private volatile boolean fullScanNeeded;
+  private volatile boolean scanNeeded;
+  // only used with file system events, which report the files written in place
+  private DirectoryIndex directoryIndex;
 
   private void checkBaseDir(WrappedFile path) throws IOException {
     Preconditions.checkState(path.isAbsolute(), Utils.formatL("Path '{}' is not an absolute path", path));
@@ -313,6 +349,7 @@ public class DirectorySpooler {
       // 11 is the DEFAULT_INITIAL_CAPACITY -- seems pretty random, but lets use the same one.
       filesQueue = new PriorityBlockingQueue<>(11, pathComparator);
       filesBeingProcessed = ConcurrentHashMap.newKeySet();
+      queuedFiles = ConcurrentHashMap.newKeySet();
 
       if(StringUtils.isEmpty(sourceFile)) {
         this.currentFile = null;
@@ -329,6 +366,7 @@ public class DirectorySpooler {
         // Adding initialFile to the filesQueue as it is not added later due to thread safety
         if (fs.exists(initialFile)) {
           filesQueue.add(initialFile);
+          queuedFiles.add(initialFile);
         }
       }
 
@@ -370,13 +408,52 @@ public class DirectorySpooler {
   private void startSpooling() throws IOException {
     running = true;
 
-    scheduledExecutor = new SafeScheduledExecutorService(1, "directory-dirspooler");
+    boolean useFileSystemEvents = fs.supportsFileSystemEvents()
+        && context.getConfiguration().get(USE_FILE_SYSTEM_EVENTS, false)
+        && !SpoolDirUtil.isGlobPattern(spoolDir);
+
+    scheduledExecutor = new SafeScheduledExecutorService(useFileSystemEvents ? 2 : 1, "directory-dirspooler");
+
+    if (useFileSystemEvents) {
+      // register before the initial scan so files arriving during the scan are not missed
+      reconciliationPeriodMillis = TimeUnit.SECONDS.toMillis(
+          context.getConfiguration().get(RECONCILIATION_PERIOD_SEC, RECONCILIATION_PERIOD_SEC_DEFAULT)
+      );
+      String indexDir = context.getConfiguration().get(INDEX_DIR, "");
+      directoryIndex = new DirectoryIndex(StringUtils.isEmpty(indexDir) || context.isPreview()
+          ? null
+          : Paths.get(indexDir, context.getPipelineId() + "-" + context.getStageInfo().getInstanceName() + ".index")
+      );
+      watcher = new FileEventWatcher();
+      if (directoryIndex.load(spoolDirPath.getAbsolutePath(), pattern, currentFile)) {
+        LOG.debug("Listing only the directories of '{}' changed since the last run", spoolDirPath);
+        for (String dir : new ArrayList<>(directoryIndex.getDirectories())) {
+          try {
+            watcher.register(Paths.get(dir));
+          } catch (NoSuchFileException ex) {
+            directoryIndex.remove(dir);
+          }
+        }
+      } else {
+        fullScanNeeded = true;
+      }
+    }
 
     findAndQueueFiles(true, false);
+    lastFullScan = System.currentTimeMillis();
 
     finder = new FileFinder();
     scheduledExecutor.scheduleAtFixedRate(finder, spoolingPeriodSec, spoolingPeriodSec, TimeUnit.SECONDS);
 
+    if (watcher != null) {
+      LOG.info(
+          "Watching '{}' for new files, reconciling with a full scan every '{}' seconds",
+          spoolDirPath,
+          TimeUnit.MILLISECONDS.toSeconds(reconciliationPeriodMillis)
+      );
+      scheduledExecutor.submit(watcher);
+    }
+
     if (postProcessing == FilePostProcessing.ARCHIVE && archiveRetentionMillis > 0) {
       // create and schedule file purger only if the retention time is > 0
       purger = new FilePurger();
@@ -391,6 +468,12 @@ public class DirectorySpooler {
 
   public void destroy() {
     running = false;
+    if (watcher != null) {
+      if (directoryIndex != null && watcher.isWatching() && !fullScanNeeded) {
+        directoryIndex.save(spoolDirPath.getAbsolutePath(), pattern, currentFile, getPendingDirectories());
+      }
+      watcher.close();
+    }
     try {
       if (scheduledExecutor != null) {
         scheduledExecutor.shutdownNow();
@@ -531,12 +614,9 @@ public class DirectorySpooler {
       }
     }
 
-    if (!filesQueue.contains(file) && !filesBeingProcessed.contains(file)) {
-      if (currentFile != null) {
-        if (fs.compare(file, currentFile, useLastModified) > 0) {
-          filesQueue.add(file);
-        }
-      } else {
+    if (!queuedFiles.contains(file) && !filesBeingProcessed.contains(file)) {
+      if (currentFile == null || fs.compare(file, currentFile, useLastModified) > 0) {
+        queuedFiles.add(file);
         filesQueue.add(file);
       }
       spoolQueueMeter.mark(filesQueue.size());
@@ -559,7 +639,7 @@ public class DirectorySpooler {
     return !waitForPathAppearance;
   }
 
-  public synchronized WrappedFile poolForFile(long wait, TimeUnit timeUnit) throws InterruptedException {
+  public WrappedFile poolForFile(long wait, TimeUnit timeUnit) throws InterruptedException {
     Preconditions.checkArgument(wait >= 0, "wait must be zero or greater");
     Preconditions.checkNotNull(timeUnit, "timeUnit cannot be null");
     long initial = System.currentTimeMillis();
@@ -576,39 +656,43 @@ public class DirectorySpooler {
     WrappedFile next = null;
 
     LOG.debug("Polling for file, waiting '{}' ms", TimeUnit.MILLISECONDS.convert(wait, timeUnit));
-    while (!context.isStopped() && System.currentTimeMillis() - initial < wait && next == null) {
+    // each thread claims a file by removing it from the queue, there is no need to serialize the callers. Waiting
+    // happens in short slices of the read lock so the finder can queue a whole scan atomically in between.
+    long remaining;
+    while (!context.isStopped() && (remaining = wait - (System.currentTimeMillis() - initial)) > 0 && next == null) {
       closeLock.readLock().lock();
       try {
-        next = filesQueue.peek();
+        next = filesQueue.poll(Math.min(remaining, POLL_SLICE_MILLIS), TimeUnit.MILLISECONDS);
         if (next != null) {
-          if (filesBeingProcessed.contains(next)) {
+          queuedFiles.remove(next);
+          if (!filesBeingProcessed.add(next)) {
             // file is already being processed by some other thread
             next = null;
           } else {
-            addFileBeingProcessed(next);
+            advanceCurrentFile(next);
           }
         }
       } finally {
-        LOG.debug("Polling for file returned '{}'", next);
-
-        if (next != null) {
-          currentFile = next;
-        }
-
-        filesQueue.poll();
-
         closeLock.readLock().unlock();
       }
-
-      if (next == null) {
-        Thread.sleep(intervalMillis);
-      }
     }
+    LOG.debug("Polling for file returned '{}'", next);
 
     pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
     return next;
   }
 
+  /**
+   * Files are claimed by several threads at once and in no particular order, so the current file only moves forward.
+   */
+  private void advanceCurrentFile(WrappedFile file) {
+    synchronized (currentFileMonitor) {
+      if (currentFile == null || fs.compare(file, currentFile, useLastModified) > 0) {
+        currentFile = file;
+      }
+    }
+  }
+
   public void handleFileAsError(WrappedFile fileToHandle) throws IOException {
     if (errorArchiveDirPath != null && !context.isPreview()) {
       if (fs.exists(fileToHandle)) {
@@ -651,6 +735,49 @@ public class DirectorySpooler {
       return;
     }
 
+    boolean useIndex = directoryIndex != null && watcher.isWatching();
+    List<WrappedFile> directories;
+    if (useIndex && !fullScanNeeded) {
+      directories = getChangedDirectories();
+      LOG.debug("Listing '{}' changed directories", directories.size());
+    } else {
+      fullScanNeeded = false;
+      directories = getDirectoriesToScan();
+      if (useIndex) {
+        directoryIndex.clear();
+        for (WrappedFile dir : directories) {
+          // directories created while file system events were lost were not registered yet
+          watcher.register(dir);
+        }
+      }
+    }
+
+    for (WrappedFile dir : directories) {
+      try {
+        List<WrappedFile> matchingFile = new ArrayList<>();
+
+        long listingTime = System.currentTimeMillis();
+        long lastModified = useIndex ? DirectoryIndex.getLastModifiedTime(dir.getAbsolutePath()) : 0;
+        fs.addFiles(dir, this.currentFile, matchingFile, includeStartingFile, useLastModified);
+
+        if (!queueFiles(matchingFile, checkCurrent)) {
+          return;
+        }
+        if (useIndex) {
+          directoryIndex.listed(dir.getAbsolutePath(), lastModified, listingTime);
+        }
+      } catch(IOException ex) {
+        LOG.error("findAndQueueFiles(): newDirectoryStream failed. " + ex.getMessage(), ex);
+        destroy(ex);
+      }
+    }
+
+    spoolQueueMeter.mark(filesQueue.size());
+    pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+    LOG.debug("Found '{}' files", filesQueue.size());
+  }
+
+  private List<WrappedFile> getDirectoriesToScan() throws IOException {
     final List<WrappedFile> directories = new ArrayList<>();
 
     if (processSubdirectories && useLastModified) {
@@ -669,48 +796,142 @@ public class DirectorySpooler {
     } else {
       directories.add(spoolDirPath);
     }
+    return directories;
+  }
 
-    for (WrappedFile dir : directories) {
+  /**
+   * Returns the indexed directories whose last modified time changed since they were listed, plus their new
+   * subdirectories.
+   */
+  private List<WrappedFile> getChangedDirectories() throws IOException {
+    final List<WrappedFile> directories = new ArrayList<>();
+    for (String dir : new ArrayList<>(directoryIndex.getDirectories())) {
+      long lastModified;
       try {
-        List<WrappedFile> matchingFile = new ArrayList<>();
+        lastModified = DirectoryIndex.getLastModifiedTime(dir);
+      } catch (NoSuchFileException ex) {
+        LOG.debug("Directory '{}' was deleted, removing it from the index", dir);
+        directoryIndex.remove(dir);
+        continue;
+      }
+      if (directoryIndex.hasChanged(dir, lastModified)) {
+        directories.add(fs.getFile(dir));
+        if (processSubdirectories && useLastModified) {
+          addNewSubdirectories(Paths.get(dir), directories);
+        }
+      }
+    }
+    return directories;
+  }
 
-        fs.addFiles(dir, this.currentFile, matchingFile, includeStartingFile, useLastModified);
+  private void addNewSubdirectories(Path dir, List<WrappedFile> directories) throws IOException {
+    try (DirectoryStream<Path> subDirs = Files.newDirectoryStream(dir, Files::isDirectory)) {
+      for (Path subDir : subDirs) {
+        if (!directoryIndex.getDirectories().contains(subDir.toString())) {
+          for (WrappedFile newDir : watcher.getSubdirectories(subDir)) {
+            LOG.debug("Found new directory '{}'", newDir);
+            watcher.register(newDir);
+            directoryIndex.add(newDir.getAbsolutePath());
+            directories.add(newDir);
+          }
+        }
+      }
+    }
+  }
 
-        if (matchingFile.size() > 0) {
-          try {
-            // if there are matching files, acquire write lock
-            closeLock.writeLock().lock();
+  /**
+   * Returns the directories of the files that are queued, being processed or waiting to be queued.
+   */
+  private Set<String> getPendingDirectories() {
+    Set<String> directories = new HashSet<>();
+    List<String> files = new ArrayList<>();
+    for (WrappedFile file : queuedFiles) {
+      files.add(file.getAbsolutePath());
+    }
+    for (WrappedFile file : filesBeingProcessed) {
+      files.add(file.getAbsolutePath());
+    }
+    for (Path path : watcher.getTooRecent()) {
+      files.add(path.toString());
+    }
+    for (String file : files) {
+      Path parent = Paths.get(file).getParent();
+      if (parent != null) {
+        directories.add(parent.toString());
+      }
+    }
+    return directories;
+  }
 
-            for (WrappedFile file : matchingFile) {
-              if (!running) {
-                return;
-              }
+  /**
+   * Adds the given files to the queue while holding the write lock, so pollers see all of them at once.
+   *
+   * @return false if the spooler was destroyed meanwhile.
+   */
+  private boolean queueFiles(List<WrappedFile> matchingFile, boolean checkCurrent) {
+    if (matchingFile.isEmpty()) {
+      return true;
+    }
+    try {
+      // if there are matching files, acquire write lock
+      closeLock.writeLock().lock();
 
-              if (this.currentFile == null
-                  || (this.initialFile != null && fs.compare(this.currentFile, this.initialFile, useLastModified) == 0)
-                  || fs.compare(file, this.currentFile, useLastModified) > 0) {
-                if (!fs.isDirectory(file)) {
-                  LOG.trace("Found file '{}'", file);
-                  addFileToQueue(file, checkCurrent);
-                }
-              } else {
-                LOG.trace("Discarding file {} because it is already older than currentFile", file.getAbsolutePath());
-              }
-            }
-          } finally {
-            closeLock.writeLock().unlock();
-          }
+      for (WrappedFile file : matchingFile) {
+        if (!running) {
+          return false;
         }
 
-      } catch(IOException ex) {
-        LOG.error("findAndQueueFiles(): newDirectoryStream failed. " + ex.getMessage(), ex);
-        destroy(ex);
+        if (this.currentFile == null
+            || (this.initialFile != null && fs.compare(this.currentFile, this.initialFile, useLastModified) == 0)
+            || fs.compare(file, this.currentFile, useLastModified) > 0) {
+          if (!fs.isDirectory(file)) {
+            LOG.trace("Found file '{}'", file);
+            addFileToQueue(file, checkCurrent);
+          }
+        } else {
+          LOG.trace("Discarding file {} because it is already older than currentFile", file.getAbsolutePath());
+        }
       }
+    } finally {
+      closeLock.writeLock().unlock();
     }
+    return true;
+  }
 
-    spoolQueueMeter.mark(filesQueue.size());
-    pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
-    LOG.debug("Found '{}' files", filesQueue.size());
+  /**
+   * Queues files reported by the file system events, applying the same checks as the directory scans.
+   *
+   * @return the files modified too recently to be queued yet.
+   */
+  private List<Path> queueNewFiles(Collection<Path> paths) throws IOException {
+    List<Path> tooRecent = new ArrayList<>();
+    if (paths.isEmpty()) {
+      return tooRecent;
+    }
+    if (filesQueue.size() >= maxSpoolFiles) {
+      LOG.debug("Exceeded max number '{}' of spool files in directory, leaving new files to the next scan", maxSpoolFiles);
+      fullScanNeeded = true;
+      return tooRecent;
+    }
+    // SDC-3551: Pick up only files with mtime strictly less than scan time.
+    final long scanTime = System.currentTimeMillis();
+    List<WrappedFile> matchingFile = new ArrayList<>();
+    for (Path path : paths) {
+      if (!fs.patternMatches(path.getFileName().toString()) || !Files.isRegularFile(path)) {
+        continue;
+      }
+      WrappedFile file = fs.getFile(path.toString());
+      if (Math.max(fs.getLastModifiedTime(file), fs.getChangedTime(file)) < scanTime) {
+        matchingFile.add(file);
+      } else {
+        tooRecent.add(path);
+      }
+    }
+    if (queueFiles(matchingFile, true)) {
+      spoolQueueMeter.mark(filesQueue.size());
+      pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+    }
+    return tooRecent;
   }
 
   class FileFinder implements Runnable {
@@ -720,6 +941,13 @@ public class DirectorySpooler {
 
     @Override
     public synchronized void run() {
+      if (watcher != null && watcher.isWatching() && !fullScanNeeded && !scanNeeded
+          && System.currentTimeMillis() - lastFullScan < reconciliationPeriodMillis) {
+        // new files are queued by the watcher
+        return;
+      }
+      scanNeeded = false;
+      lastFullScan = System.currentTimeMillis();
       // by using current we give a chance to have unprocessed files out of order
       LOG.debug("Starting file finder from '{}'", currentFile);
       try {
@@ -731,6 +959,104 @@ public class DirectorySpooler {
     }
   }
 
+  /**
+   * Queues files as they are created in (or moved into) the watched directories. Events lost by the file system
+   * (overflow) or files that can not be queued yet are left to the next reconciliation scan.
+   */
+  class FileEventWatcher implements Runnable {
+    private final WatchService watchService;
+    private volatile boolean watching = true;
+    // files modified too recently to be queued, they are retried shortly even if no other event arrives
+    private volatile List<Path> tooRecent = new ArrayList<>();
+
+    FileEventWatcher() throws IOException {
+      watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    void register(WrappedFile dir) throws IOException {
+      register(Paths.get(dir.getAbsolutePath()));
+    }
+
+    void register(Path dir) throws IOException {
+      dir.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY
+      );
+    }
+
+    boolean isWatching() {
+      return watching;
+    }
+
+    List<Path> getTooRecent() {
+      return tooRecent;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          WatchKey key = tooRecent.isEmpty()
+              ? watchService.take()
+              : watchService.poll(POLL_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+          Set<Path> paths = new LinkedHashSet<>(tooRecent);
+          if (key != null) {
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+              if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                LOG.debug("File system events for '{}' were lost, scheduling a full scan", dir);
+                fullScanNeeded = true;
+                continue;
+              }
+              Path path = dir.resolve((Path) event.context());
+              if (!Files.isDirectory(path)) {
+                paths.add(path);
+              } else if (processSubdirectories && useLastModified
+                  && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                // files may have landed before the directory was registered
+                for (WrappedFile subDir : getSubdirectories(path)) {
+                  register(subDir);
+                  directoryIndex.add(subDir.getAbsolutePath());
+                }
+                scanNeeded = true;
+              }
+            }
+            if (!key.reset()) {
+              LOG.debug("Directory '{}' is no longer watched", dir);
+            }
+          }
+          tooRecent = queueNewFiles(paths);
+        }
+      } catch (InterruptedException | ClosedWatchServiceException ex) {
+        LOG.debug("Stopped watching '{}'", spoolDirPath);
+      } catch (Exception ex) {
+        LOG.warn("Error while watching '{}' for new files, falling back to scans: {}", spoolDirPath, ex.toString(), ex);
+      } finally {
+        watching = false;
+        close();
+      }
+    }
+
+    List<WrappedFile> getSubdirectories(Path path) throws IOException {
+      List<WrappedFile> directories = new ArrayList<>();
+      try {
+        fs.addDirectory(fs.getFile(path.toString()), directories);
+      } catch (Exception ex) {
+        throw new IOException(Utils.format("Could not list the directories in '{}': {}", path, ex.toString()), ex);
+      }
+      return directories;
+    }
+
+    void close() {
+      try {
+        watchService.close();
+      } catch (IOException ex) {
+        LOG.debug("Error closing watch service: {}", ex.toString(), ex);
+      }
+    }
+  }
+
   class FilePurger implements Runnable {
 
     @Override
@@ -193,6 +193,16 @@ public interface WrappedFileSystem {
    */
   boolean findDirectoryPathCreationWatcher(List<WrappedFile> spoolDirPath);
 
+  /**
+   * Tells whether new files in the directories of this file system can be watched with a
+   * {@link java.nio.file.WatchService} of the default file system, using the absolute paths of the {@link WrappedFile}s.
+   *
+   * @return {@code true} if file system events are supported
+   */
+  default boolean supportsFileSystemEvents() {
+    return false;
+  }
+
   /**
    * Returns the FileRef Builder for whole file data format
    *
@@ -35,10 +35,10 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
 import com.streamsets.pipeline.lib.elasticsearch.ElasticsearchStageDelegate;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.lib.parser.shaded.com.google.code.regexp.Pattern;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -81,6 +81,7 @@ public class ElasticsearchTarget extends BaseTarget {
   private ELEval routingEval;
   private ELEval additionalPropertiesEval;
   private DataGeneratorFactory generatorFactory;
+  private ReusableDataGenerator recordGenerator;
   private ErrorRecordHandler errorRecordHandler;
   private ElasticsearchStageDelegate delegate;
   private static final Pattern elVarPattern = Pattern.compile(".*\\$\\{.*:.*\\(.*\\)\\}.*");
@@ -242,6 +243,7 @@ public class ElasticsearchTarget extends BaseTarget {
         .setMode(Mode.MULTIPLE_OBJECTS)
         .setCharset(Charset.forName(conf.charset))
         .build();
+    recordGenerator = generatorFactory.getReusableGenerator();
 
     return issues;
   }
@@ -251,6 +253,14 @@ public class ElasticsearchTarget extends BaseTarget {
     if(delegate != null) {
       delegate.destroy();
     }
+    if (recordGenerator != null) {
+      try {
+        recordGenerator.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing record generator: {}", ex.toString(), ex);
+      }
+      recordGenerator = null;
+    }
     super.destroy();
   }
 
@@ -310,14 +320,16 @@ public class ElasticsearchTarget extends BaseTarget {
         if (additionalPropertiesIsEval) {
           additionalPropertiesName = additionalPropertiesEval.eval(elVars, additionalProperties, String.class);
         }
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        DataGenerator generator = generatorFactory.getGenerator(baos);
-        generator.write(record);
-        generator.close();
+        recordGenerator.serialize(record);
 
         int opCode = -1;
         String opType = record.getHeader().getAttribute(OperationType.SDC_OPERATION_TYPE);
-        String recordJson = new String(baos.toByteArray(), StandardCharsets.UTF_8).replace("\n", "");
+        String recordJson = new String(
+            recordGenerator.getBuffer(),
+            recordGenerator.getOffset(),
+            recordGenerator.getLength(),
+            StandardCharsets.UTF_8
+        ).replace("\n", "");
         // Check if the operation code from header attribute is valid
         if (!StringUtils.isEmpty(opType)) {
           try {
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.cloudstorage.destination;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Google Cloud Storage object written across batches.
+ *
+ * Google Cloud Storage can't make the data sent to a resumable upload session durable without finalizing the object,
+ * so the object is built out of components instead. Records are serialized by a single generator into an in-memory
+ * buffer which is uploaded as a temporary component object whenever it is full and on {@link #flush()}. Once
+ * {@link #awaitComponents()} returns every record written so far is stored in an uploaded component. Every
+ * {@link #MAX_COMPOSE_SOURCES} components are composed into a temporary object holding the data uploaded so far, so
+ * only a few temporary objects exist at any time. {@link #complete()} composes what is left, in order, into the final
+ * object and deletes the temporary objects. As the components hold consecutive pieces of the generator's output, the
+ * final object is the same as if it had been written in one go.
+ *
+ * The temporary objects are tagged with the owner of the object, see {@link #recoverAbandoned}.
+ */
+final class ComposedObject {
+  private static final Logger LOG = LoggerFactory.getLogger(ComposedObject.class);
+
+  // Google Cloud Storage limits for the sources of a single compose request and the components of an object
+  static final int MAX_COMPOSE_SOURCES = 32;
+  static final int MAX_COMPONENTS = 1024;
+  static final String COMPONENT_PREFIX = "_tmp_";
+  static final String OWNER_KEY = "sdcOwner";
+  static final String LAST_COMPONENT_KEY = "sdcLastComponent";
+
+  private static final String COMPOSED_SUFFIX = ".composed";
+  private static final Pattern COMPONENT_PATTERN = Pattern.compile(COMPONENT_PREFIX + "(.+)\\.(\\d+)");
+  private static final Pattern COMPOSED_PATTERN = Pattern.compile(COMPONENT_PREFIX + "(.+)\\.composed");
+
+  interface GeneratorFactory {
+    DataGenerator create(OutputStream outputStream) throws IOException;
+  }
+
+  private final ObjectUploader uploader;
+  private final BlobInfo blobInfo;
+  private final BlobInfo composedInfo;
+  private final String owner;
+  private final int componentSize;
+  private final DataGenerator generator;
+  // components not composed into the temporary object yet
+  private final Map<String, Future<BlobInfo>> components = new LinkedHashMap<>();
+
+  private ByteArrayOutputStream component = new ByteArrayOutputStream();
+  private int componentCount;
+  private boolean composed;
+  private long uploadedBytes;
+  private long recordCount;
+  private long lastWriteTime;
+  private boolean dirty;
+
+  ComposedObject(
+      ObjectUploader uploader,
+      BlobInfo blobInfo,
+      String owner,
+      int componentSize,
+      boolean compress,
+      GeneratorFactory generatorFactory
+  ) throws IOException {
+    this.uploader = uploader;
+    this.blobInfo = blobInfo;
+    this.owner = owner;
+    this.composedInfo = BlobInfo.newBuilder(blobInfo.getBucket(), getComposedName(blobInfo.getName())).build();
+    this.componentSize = componentSize;
+    this.lastWriteTime = System.currentTimeMillis();
+    OutputStream out = new ComponentOutputStream();
+    // Sync flushing makes the concatenation of the components a single valid gzip stream
+    this.generator = generatorFactory.create(compress ? new GZIPOutputStream(out, true) : out);
+  }
+
+  String getBucket() {
+    return blobInfo.getBucket();
+  }
+
+  String getName() {
+    return blobInfo.getName();
+  }
+
+  long getRecordCount() {
+    return recordCount;
+  }
+
+  long getSize() {
+    return uploadedBytes + component.size();
+  }
+
+  long getLastWriteTime() {
+    return lastWriteTime;
+  }
+
+  /**
+   * Whether the object must be completed, keeping one component for the data written on completion.
+   */
+  boolean isFull() {
+    return componentCount >= MAX_COMPONENTS - 1;
+  }
+
+  void write(Record record) throws IOException, DataGeneratorException {
+    generator.write(record);
+    recordCount++;
+    lastWriteTime = System.currentTimeMillis();
+    dirty = true;
+  }
+
+  /**
+   * Starts uploading everything written since the last flush.
+   */
+  void flush() throws IOException {
+    if (dirty) {
+      generator.flush();
+      uploadComponent();
+      dirty = false;
+    }
+  }
+
+  /**
+   * Waits until all the components uploaded so far are stored, composing them into the temporary object once there
+   * are enough of them.
+   */
+  void awaitComponents() throws IOException {
+    for (Map.Entry<String, Future<BlobInfo>> entry : components.entrySet()) {
+      ObjectUploader.await(entry.getValue(), entry.getKey());
+    }
+    if (components.size() >= MAX_COMPOSE_SOURCES - 1) {
+      List<String> sources = new ArrayList<>();
+      if (composed) {
+        sources.add(composedInfo.getName());
+      }
+      sources.addAll(components.keySet());
+      BlobInfo target = composedInfo.toBuilder()
+          .setMetadata(ImmutableMap.of(OWNER_KEY, owner, LAST_COMPONENT_KEY, String.valueOf(componentCount)))
+          .build();
+      compose(uploader.getStorage(), target, sources);
+      composed = true;
+      delete(uploader.getStorage(), blobInfo.getBucket(), components.keySet());
+      components.clear();
+    }
+  }
+
+  /**
+   * Uploads the remaining data, composes the final object and deletes the temporary objects. Returns false if nothing
+   * was written to the object.
+   */
+  boolean complete() throws IOException {
+    generator.close();
+    uploadComponent();
+    for (Map.Entry<String, Future<BlobInfo>> entry : components.entrySet()) {
+      ObjectUploader.await(entry.getValue(), entry.getKey());
+    }
+    List<String> sources = new ArrayList<>();
+    if (composed) {
+      sources.add(composedInfo.getName());
+    }
+    sources.addAll(components.keySet());
+    if (recordCount > 0) {
+      compose(uploader.getStorage(), blobInfo, sources);
+    }
+    delete(uploader.getStorage(), blobInfo.getBucket(), sources);
+    LOG.debug("Completed object {} with {} components and {} records", blobInfo.getName(), componentCount, recordCount);
+    return recordCount > 0;
+  }
+
+  private void uploadComponent() throws IOException {
+    if (component.size() == 0) {
+      return;
+    }
+    componentCount++;
+    String name = getComponentName(blobInfo.getName(), componentCount);
+    BlobInfo componentInfo = BlobInfo.newBuilder(blobInfo.getBucket(), name)
+        .setMetadata(ImmutableMap.of(OWNER_KEY, owner))
+        .build();
+    components.put(name, uploader.upload(componentInfo, component.toByteArray()));
+    uploadedBytes += component.size();
+    component = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Composes the sources, in order, into the target. The first request composes up to 32 sources, the next ones
+   * append to the partially composed target.
+   */
+  private static void compose(Storage storage, BlobInfo target, List<String> sources) throws IOException {
+    try {
+      int from = 0;
+      while (from < sources.size()) {
+        Storage.ComposeRequest.Builder request = Storage.ComposeRequest.newBuilder().setTarget(target);
+        if (from > 0) {
+          request.addSource(target.getName());
+        }
+        int to = Math.min(sources.size(), from + MAX_COMPOSE_SOURCES - (from > 0 ? 1 : 0));
+        request.addSource(sources.subList(from, to));
+        storage.compose(request.build());
+        from = to;
+      }
+    } catch (StorageException e) {
+      throw new IOException("Composing object " + target.getName() + " failed: " + e, e);
+    }
+  }
+
+  private static void delete(Storage storage, String bucket, Collection<String> names) {
+    if (names.isEmpty()) {
+      return;
+    }
+    List<BlobId> blobIds = new ArrayList<>(names.size());
+    for (String name : names) {
+      blobIds.add(BlobId.of(bucket, name));
+    }
+    try {
+      storage.delete(blobIds);
+    } catch (StorageException e) {
+      LOG.warn("Could not delete temporary objects {}: {}", names, e.toString(), e);
+    }
+  }
+
+  /**
+   * Name of a component: the object name with {@link #COMPONENT_PREFIX} in front of its last path segment and the
+   * component number appended.
+   */
+  static String getComponentName(String name, int number) {
+    return getTemporaryName(name, "." + number);
+  }
+
+  static String getComposedName(String name) {
+    return getTemporaryName(name, COMPOSED_SUFFIX);
+  }
+
+  private static String getTemporaryName(String name, String suffix) {
+    int slash = name.lastIndexOf('/');
+    return name.substring(0, slash + 1) + COMPONENT_PREFIX + name.substring(slash + 1) + suffix;
+  }
+
+  /**
+   * Completes the objects the given owner left open anywhere under the prefix when the pipeline stopped without
+   * running destroy. Their components were stored before the batches that wrote them were acknowledged, so the data
+   * must be made visible. The generator didn't get to write what it writes on close, so the recovered objects lack the
+   * closing of formats that have one, like the gzip trailer.
+   *
+   * All the objects under the prefix are listed, as the partitions written before the stop are not known.
+   *
+   * @return the names of the recovered objects
+   */
+  static List<String> recoverAbandoned(
+      Storage storage,
+      String bucket,
+      String prefix,
+      String owner,
+      String contentType
+  ) throws IOException {
+    // temporary objects of every object left open, by object name
+    Map<String, TreeMap<Integer, String>> abandoned = new TreeMap<>();
+    Map<String, Integer> lastComposed = new HashMap<>();
+    try {
+      for (Blob blob : storage.list(bucket, Storage.BlobListOption.prefix(prefix)).iterateAll()) {
+        int slash = blob.getName().lastIndexOf('/');
+        String directory = blob.getName().substring(0, slash + 1);
+        String segment = blob.getName().substring(slash + 1);
+        Map<String, String> metadata = blob.getMetadata();
+        if (!segment.startsWith(COMPONENT_PREFIX) || metadata == null || !owner.equals(metadata.get(OWNER_KEY))) {
+          continue;
+        }
+        Matcher component = COMPONENT_PATTERN.matcher(segment);
+        Matcher composed = COMPOSED_PATTERN.matcher(segment);
+        if (composed.matches()) {
+          String name = directory + composed.group(1);
+          abandoned.computeIfAbsent(name, n -> new TreeMap<>()).put(0, blob.getName());
+          lastComposed.put(name, Integer.parseInt(metadata.getOrDefault(LAST_COMPONENT_KEY, "0")));
+        } else if (component.matches()) {
+          abandoned.computeIfAbsent(directory + component.group(1), n -> new TreeMap<>())
+              .put(Integer.parseInt(component.group(2)), blob.getName());
+        }
+      }
+
+      List<String> recovered = new ArrayList<>();
+      for (Map.Entry<String, TreeMap<Integer, String>> entry : abandoned.entrySet()) {
+        // components already composed, if the deletion that follows the composition didn't happen
+        int last = lastComposed.getOrDefault(entry.getKey(), 0);
+        List<String> sources = new ArrayList<>();
+        for (Map.Entry<Integer, String> temporary : entry.getValue().entrySet()) {
+          if (temporary.getKey() == 0 || temporary.getKey() > last) {
+            sources.add(temporary.getValue());
+          }
+        }
+        LOG.info("Completing object '{}' left open in bucket '{}'", entry.getKey(), bucket);
+        compose(storage, BlobInfo.newBuilder(bucket, entry.getKey()).setContentType(contentType).build(), sources);
+        delete(storage, bucket, entry.getValue().values());
+        recovered.add(entry.getKey());
+      }
+      return recovered;
+    } catch (StorageException e) {
+      throw new IOException("Looking for objects left open under " + prefix + " failed: " + e, e);
+    }
+  }
+
+  /**
+   * Collects the serialized data, handing a component over to the uploader whenever it is full.
+   */
+  private class ComponentOutputStream extends OutputStream {
+    @Override
+    public void write(int b) throws IOException {
+      component.write(b);
+      uploadIfFull();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      component.write(b, off, len);
+      uploadIfFull();
+    }
+
+    private void uploadIfFull() throws IOException {
+      // The last allowed component simply keeps growing until the object is rolled
+      if (component.size() >= componentSize && !isFull()) {
+        uploadComponent();
+      }
+    }
+  }
+}
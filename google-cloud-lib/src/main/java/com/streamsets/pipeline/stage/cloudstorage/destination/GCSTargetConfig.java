@@ -151,6 +151,94 @@ public class GCSTargetConfig {
   )
   public boolean compress;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10",
+      label = "Upload Threads",
+      description = "Number of objects uploaded concurrently",
+      displayPosition = 240,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS",
+      min = 1
+  )
+  public int uploadThreads = 10;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "64",
+      label = "Max In-Flight Data (MB)",
+      description = "Maximum amount of serialized data waiting to be uploaded. Writing blocks once it is reached.",
+      displayPosition = 250,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS",
+      min = 1,
+      max = 1024
+  )
+  public int maxInFlightSize = 64;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Keep Objects Open Across Batches",
+      description = "Writes records into objects that stay open across batches and are completed when one of the " +
+          "roll conditions is met. Batches are only acknowledged after their data is stored in temporary objects. " +
+          "Objects left open by an unclean stop are completed when the pipeline starts again, without the closing " +
+          "of formats that have one, like the gzip trailer.",
+      displayPosition = 260,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS"
+  )
+  public boolean rollAcrossBatches;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "128",
+      label = "Max Object Size (MB)",
+      description = "Exceeding this size triggers the creation of a new object. Use 0 to opt out.",
+      displayPosition = 270,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS",
+      min = 0,
+      dependsOn = "rollAcrossBatches",
+      triggeredByValue = "true"
+  )
+  public long maxObjectSize = 128;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "60",
+      label = "Idle Timeout (secs)",
+      description = "Maximum time for an object to remain open without new records. Use 0 to opt out.",
+      displayPosition = 280,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS",
+      min = 0,
+      dependsOn = "rollAcrossBatches",
+      triggeredByValue = "true"
+  )
+  public long idleTimeout = 60;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "100",
+      label = "Max Open Objects",
+      description = "Maximum number of objects kept open at the same time. Each open object holds a component of up " +
+          "to 8 MB in memory. When the limit is reached, the least recently written object is completed.",
+      displayPosition = 290,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "GCS",
+      min = 1,
+      dependsOn = "rollAcrossBatches",
+      triggeredByValue = "true"
+  )
+  public int maxOpenObjects = 100;
+
   public List<Stage.ConfigIssue> init(Stage.Context context, List<Stage.ConfigIssue> issues) {
     dataGeneratorFormatConfig.init(
         context,
@@ -17,6 +17,7 @@
 package com.streamsets.pipeline.stage.cloudstorage.destination;
 
 import com.google.api.gax.core.CredentialsProvider;
+import com.google.cloud.NoCredentials;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
@@ -51,7 +52,6 @@ import com.streamsets.pipeline.stage.cloudstorage.lib.GCSEvents;
 import com.streamsets.pipeline.stage.cloudstorage.lib.GcsUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
-import com.streamsets.pipeline.stage.pubsub.lib.Groups;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,11 +62,16 @@ import java.io.OutputStream;
 import java.nio.channels.Channels;
 import java.time.ZoneId;
 import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPOutputStream;
 
@@ -74,6 +79,9 @@ public class GoogleCloudStorageTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(GoogleCloudStorageTarget.class);
   private static final String PARTITION_TEMPLATE = "partitionTemplate";
   private static final String TIME_DRIVER = "timeDriverTemplate";
+  // Set to the host of a local emulator, e.g. fake-gcs-server, to use it instead of Google Cloud Storage
+  static final String STORAGE_EMULATOR_HOST = "STORAGE_EMULATOR_HOST";
+  private static final int COMPONENT_SIZE = ObjectUploader.RESUMABLE_THRESHOLD;
 
   private final GCSTargetConfig gcsTargetConfig;
 
@@ -86,6 +94,9 @@ public class GoogleCloudStorageTarget extends BaseTarget {
   private CredentialsProvider credentialsProvider;
   private Calendar calendar;
   private ErrorRecordHandler errorRecordHandler;
+  private ObjectUploader uploader;
+  private final Map<String, ComposedObject> openObjects = new LinkedHashMap<>();
+  private String owner;
 
   public GoogleCloudStorageTarget(GCSTargetConfig gcsTargetConfig) {
     this.gcsTargetConfig = gcsTargetConfig;
@@ -103,7 +114,7 @@ public class GoogleCloudStorageTarget extends BaseTarget {
     calendar = Calendar.getInstance(TimeZone.getTimeZone(ZoneId.of(gcsTargetConfig.timeZoneID)));
 
     try {
-      storage = StorageOptions.newBuilder().setCredentials(credentialsProvider.getCredentials()).build().getService();
+      storage = createStorage();
     } catch (IOException | NullPointerException e) {
       issues.add(getContext().createConfigIssue(
           Groups.CREDENTIALS.name(),
@@ -118,12 +129,71 @@ public class GoogleCloudStorageTarget extends BaseTarget {
     }
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
 
+    // Identifies the temporary objects of this stage instance, to only recover those after an unclean stop
+    owner = getContext().getSdcId() + "/" + getContext().getPipelineId() + "/"
+        + getContext().getStageInfo().getInstanceName() + "/" + getContext().getRunnerId();
+
+    if (issues.isEmpty() && gcsTargetConfig.dataFormat != DataFormat.WHOLE_FILE) {
+      uploader = new ObjectUploader(
+          storage,
+          gcsTargetConfig.uploadThreads,
+          gcsTargetConfig.maxInFlightSize * 1024 * 1024,
+          getContext().createTimer("uploadLatency"),
+          getContext().createCounter("inFlightBytes")
+      );
+      if (gcsTargetConfig.rollAcrossBatches && !getContext().isPreview()) {
+        recoverAbandonedObjects(issues);
+      }
+    }
+
     return issues;
   }
 
+  /**
+   * Completes the objects this stage instance left open when the pipeline stopped without running destroy, under any
+   * of the partitions it may have been writing to.
+   */
+  private void recoverAbandonedObjects(List<ConfigIssue> issues) {
+    String prefix = GcsUtil.normalizePrefix(gcsTargetConfig.commonPrefix);
+    try {
+      ComposedObject.recoverAbandoned(storage, gcsTargetConfig.bucketTemplate, prefix, owner, getContentType());
+    } catch (IOException e) {
+      LOG.error(Errors.GCS_10.getMessage(), e.toString(), e);
+      issues.add(getContext().createConfigIssue(
+          Groups.GCS.name(),
+          "gcsTargetConfig.commonPrefix",
+          Errors.GCS_10,
+          e.toString()
+      ));
+    }
+  }
+
+  Storage createStorage() throws IOException {
+    StorageOptions.Builder builder = StorageOptions.newBuilder();
+    String emulatorHost = System.getenv(STORAGE_EMULATOR_HOST);
+    if (StringUtils.isNotEmpty(emulatorHost)) {
+      LOG.info("Using the Google Cloud Storage emulator at {}", emulatorHost);
+      builder.setHost(emulatorHost).setCredentials(NoCredentials.getInstance());
+    } else {
+      builder.setCredentials(credentialsProvider.getCredentials());
+    }
+    return builder.build().getService();
+  }
+
   @Override
   public void destroy() {
-    // Clean up any open resources.
+    // Objects completed here are not reported, the pipeline is no longer able to send events
+    for (ComposedObject object : openObjects.values()) {
+      try {
+        object.complete();
+      } catch (IOException e) {
+        LOG.error("Could not complete object '{}' in bucket '{}': {}", object.getName(), object.getBucket(), e.toString(), e);
+      }
+    }
+    openObjects.clear();
+    if (uploader != null) {
+      uploader.shutdown();
+    }
     super.destroy();
   }
 
@@ -146,72 +216,218 @@ public class GoogleCloudStorageTarget extends BaseTarget {
               batch
           );
 
-      pathToRecordMap.keySet().forEach(path -> {
-        Collection<Record> records = pathToRecordMap.get(path);
-        String fileName = GcsUtil.normalizePrefix(path) + gcsTargetConfig.fileNamePrefix + '_' + UUID.randomUUID();
-        if (StringUtils.isNotEmpty(gcsTargetConfig.fileNameSuffix)) {
-          fileName = fileName + "." + gcsTargetConfig.fileNameSuffix;
+      if (gcsTargetConfig.rollAcrossBatches) {
+        writeToOpenObjects(pathToRecordMap);
+      } else {
+        uploadObjects(pathToRecordMap);
+      }
+    }
+  }
+
+  /**
+   * Serializes every partition into its own object and uploads the objects concurrently, waiting for all of them
+   * before returning.
+   */
+  private void uploadObjects(Multimap<String, Record> pathToRecordMap) {
+    List<PendingUpload> uploads = new ArrayList<>();
+    pathToRecordMap.keySet().forEach(path -> {
+      Collection<Record> records = pathToRecordMap.get(path);
+      String fileName = getObjectName(path);
+      try {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        OutputStream os = bOut;
+        if (gcsTargetConfig.compress) {
+          os = new GZIPOutputStream(bOut);
+        }
+        BlobId blobId = BlobId.of(gcsTargetConfig.bucketTemplate, fileName);
+        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(getContentType()).build();
+        final AtomicInteger recordsWithoutErrors = new AtomicInteger(0);
+        try (DataGenerator dg = gcsTargetConfig.dataGeneratorFormatConfig
+            .getDataGeneratorFactory().getGenerator(os)) {
+          records.forEach(record -> {
+            try {
+              dg.write(record);
+              recordsWithoutErrors.incrementAndGet();
+            } catch (DataGeneratorException | IOException e) {
+              LOG.error("Error writing record {}. Reason {}", record.getHeader().getSourceId(), e);
+              errorRecordHandler.onError(new OnRecordErrorException(
+                      record,
+                      Errors.GCS_02,
+                      record.getHeader().getSourceId(),
+                      e));
+            }
+          });
+        } catch (IOException e) {
+          LOG.error("Error happened when creating Output stream", e);
+          records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
+                  record,
+                  Errors.GCS_08,
+                  e)));
         }
-        try {
-          ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-          OutputStream os = bOut;
-          if (gcsTargetConfig.compress) {
-            fileName = fileName + ".gz";
-            os = new GZIPOutputStream(bOut);
-          }
-          BlobId blobId = BlobId.of(gcsTargetConfig.bucketTemplate, fileName);
-          BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(getContentType()).build();
-          final AtomicInteger recordsWithoutErrors = new AtomicInteger(0);
-          try (DataGenerator dg = gcsTargetConfig.dataGeneratorFormatConfig
-              .getDataGeneratorFactory().getGenerator(os)) {
-            records.forEach(record -> {
-              try {
-                dg.write(record);
-                recordsWithoutErrors.incrementAndGet();
-              } catch (DataGeneratorException | IOException e) {
-                LOG.error("Error writing record {}. Reason {}", record.getHeader().getSourceId(), e);
-                errorRecordHandler.onError(new OnRecordErrorException(
-                        record,
-                        Errors.GCS_02,
-                        record.getHeader().getSourceId(),
-                        e));
-              }
-            });
-          } catch (IOException e) {
-            LOG.error("Error happened when creating Output stream", e);
-            records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
-                    record,
-                    Errors.GCS_08,
-                    e)));
-          }
 
+        if (recordsWithoutErrors.get() > 0) {
           try {
-            if (recordsWithoutErrors.get() > 0) {
-              Blob blob = storage.create(blobInfo, bOut.toByteArray());
-              GCSEvents.GCS_OBJECT_WRITTEN.create(getContext())
-                  .with(GCSEvents.BUCKET, blob.getBucket())
-                  .with(GCSEvents.OBJECT_KEY, blob.getName())
-                  .with(GCSEvents.RECORD_COUNT, recordsWithoutErrors.longValue())
-                  .createAndSend();
-            }
-          } catch (StorageException e) {
+            uploads.add(new PendingUpload(
+                fileName,
+                records,
+                recordsWithoutErrors.longValue(),
+                uploader.upload(blobInfo, bOut.toByteArray())
+            ));
+          } catch (IOException e) {
             LOG.error("Error happened when writing to Output stream", e);
             records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
                     record,
                     Errors.GCS_09,
                     e)));
           }
-        } catch (IOException e) {
-          LOG.error("Error happened when creating Output stream", e);
-          records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
-                  record,
-                  Errors.GCS_08,
-                  e)));
         }
-      });
+      } catch (IOException e) {
+        LOG.error("Error happened when creating Output stream", e);
+        records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
+                record,
+                Errors.GCS_08,
+                e)));
+      }
+    });
+
+    uploads.forEach(upload -> {
+      try {
+        BlobInfo blob = ObjectUploader.await(upload.future, upload.name);
+        GCSEvents.GCS_OBJECT_WRITTEN.create(getContext())
+            .with(GCSEvents.BUCKET, blob.getBucket())
+            .with(GCSEvents.OBJECT_KEY, blob.getName())
+            .with(GCSEvents.RECORD_COUNT, upload.recordCount)
+            .createAndSend();
+      } catch (IOException e) {
+        LOG.error("Error happened when writing to Output stream", e);
+        upload.records.forEach(record -> errorRecordHandler.onError(new OnRecordErrorException(
+                record,
+                Errors.GCS_09,
+                e)));
+      }
+    });
+  }
+
+  /**
+   * Writes every partition into the object kept open for it, then completes the objects that reached one of the
+   * roll conditions and waits until the data written to the others is stored in uploaded components.
+   */
+  private void writeToOpenObjects(Multimap<String, Record> pathToRecordMap) throws StageException {
+    for (String path : pathToRecordMap.keySet()) {
+      ComposedObject object = openObjects.get(path);
+      for (Record record : pathToRecordMap.get(path)) {
+        if (object == null) {
+          if (openObjects.size() >= gcsTargetConfig.maxOpenObjects) {
+            completeLeastRecentlyWritten();
+          }
+          object = openObject(path);
+          openObjects.put(path, object);
+        }
+        try {
+          object.write(record);
+        } catch (DataGeneratorException | IOException e) {
+          LOG.error("Error writing record {}. Reason {}", record.getHeader().getSourceId(), e);
+          errorRecordHandler.onError(new OnRecordErrorException(
+              record,
+              Errors.GCS_02,
+              record.getHeader().getSourceId(),
+              e
+          ));
+        }
+      }
+    }
+
+    long now = System.currentTimeMillis();
+    try {
+      Iterator<ComposedObject> iterator = openObjects.values().iterator();
+      while (iterator.hasNext()) {
+        ComposedObject object = iterator.next();
+        if (shouldRoll(object, now)) {
+          iterator.remove();
+          complete(object);
+        } else {
+          object.flush();
+        }
+      }
+      for (ComposedObject object : openObjects.values()) {
+        object.awaitComponents();
+      }
+    } catch (IOException e) {
+      LOG.error(Errors.GCS_10.getMessage(), e.toString(), e);
+      throw new StageException(Errors.GCS_10, e.toString(), e);
     }
   }
 
+  /**
+   * Completes the open object that went the longest without new records, to stay within the configured number of
+   * open objects.
+   */
+  private void completeLeastRecentlyWritten() throws StageException {
+    Map.Entry<String, ComposedObject> oldest = null;
+    for (Map.Entry<String, ComposedObject> entry : openObjects.entrySet()) {
+      if (oldest == null || entry.getValue().getLastWriteTime() < oldest.getValue().getLastWriteTime()) {
+        oldest = entry;
+      }
+    }
+    if (oldest != null) {
+      openObjects.remove(oldest.getKey());
+      try {
+        complete(oldest.getValue());
+      } catch (IOException e) {
+        LOG.error(Errors.GCS_10.getMessage(), e.toString(), e);
+        throw new StageException(Errors.GCS_10, e.toString(), e);
+      }
+    }
+  }
+
+  private void complete(ComposedObject object) throws IOException {
+    if (object.complete()) {
+      GCSEvents.GCS_OBJECT_WRITTEN.create(getContext())
+          .with(GCSEvents.BUCKET, object.getBucket())
+          .with(GCSEvents.OBJECT_KEY, object.getName())
+          .with(GCSEvents.RECORD_COUNT, object.getRecordCount())
+          .createAndSend();
+    }
+  }
+
+  private boolean shouldRoll(ComposedObject object, long now) {
+    long maxObjectSizeBytes = gcsTargetConfig.maxObjectSize * 1024 * 1024;
+    long idleTimeoutMillis = gcsTargetConfig.idleTimeout * 1000;
+    return object.isFull()
+        || (maxObjectSizeBytes > 0 && object.getSize() >= maxObjectSizeBytes)
+        || (idleTimeoutMillis > 0 && now - object.getLastWriteTime() >= idleTimeoutMillis);
+  }
+
+  private ComposedObject openObject(String path) throws StageException {
+    BlobInfo blobInfo = BlobInfo.newBuilder(gcsTargetConfig.bucketTemplate, getObjectName(path))
+        .setContentType(getContentType())
+        .build();
+    try {
+      return new ComposedObject(
+          uploader,
+          blobInfo,
+          owner,
+          COMPONENT_SIZE,
+          gcsTargetConfig.compress,
+          out -> gcsTargetConfig.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(out)
+      );
+    } catch (IOException e) {
+      LOG.error(Errors.GCS_10.getMessage(), e.toString(), e);
+      throw new StageException(Errors.GCS_10, e.toString(), e);
+    }
+  }
+
+  private String getObjectName(String path) {
+    String fileName = GcsUtil.normalizePrefix(path) + gcsTargetConfig.fileNamePrefix + '_' + UUID.randomUUID();
+    if (StringUtils.isNotEmpty(gcsTargetConfig.fileNameSuffix)) {
+      fileName = fileName + "." + gcsTargetConfig.fileNameSuffix;
+    }
+    if (gcsTargetConfig.compress) {
+      fileName = fileName + ".gz";
+    }
+    return fileName;
+  }
+
   private void handleWholeFileFormat(Batch batch, ELVars elVars) {
     batch.getRecords().forEachRemaining(record -> {
       RecordEL.setRecordInContext(elVars, record);
@@ -288,4 +504,18 @@ public class GoogleCloudStorageTarget extends BaseTarget {
     }
     return null;
   }
+
+  private static final class PendingUpload {
+    private final String name;
+    private final Collection<Record> records;
+    private final long recordCount;
+    private final Future<BlobInfo> future;
+
+    private PendingUpload(String name, Collection<Record> records, long recordCount, Future<BlobInfo> future) {
+      this.name = name;
+      this.records = records;
+      this.recordCount = recordCount;
+      this.future = future;
+    }
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.cloudstorage.destination;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Uploads objects to Google Cloud Storage on a pool of threads.
+ *
+ * The number of bytes handed over but not yet uploaded is bounded, {@link #upload(BlobInfo, byte[])} blocks the
+ * caller until enough of the pending uploads are done. Small objects are sent in a single request, larger ones
+ * through a resumable upload session so that a failed chunk is retried by the client instead of the whole object.
+ */
+final class ObjectUploader {
+  // Objects larger than this are uploaded through a resumable session
+  static final int RESUMABLE_THRESHOLD = 8 * 1024 * 1024;
+
+  private final Storage storage;
+  private final SafeScheduledExecutorService executor;
+  private final Semaphore inFlightPermits;
+  private final int maxInFlightBytes;
+  private final Timer uploadTimer;
+  private final Counter inFlightBytesCounter;
+
+  ObjectUploader(Storage storage, int threads, int maxInFlightBytes, Timer uploadTimer, Counter inFlightBytesCounter) {
+    this.storage = storage;
+    this.executor = new SafeScheduledExecutorService(threads, "Google Cloud Storage Uploader");
+    this.maxInFlightBytes = maxInFlightBytes;
+    this.inFlightPermits = new Semaphore(maxInFlightBytes);
+    this.uploadTimer = uploadTimer;
+    this.inFlightBytesCounter = inFlightBytesCounter;
+  }
+
+  /**
+   * Starts uploading the given object, waiting first if too many bytes are already in flight.
+   */
+  Future<BlobInfo> upload(BlobInfo blobInfo, byte[] data) throws IOException {
+    // An object larger than the limit takes all the permits, so it is uploaded on its own
+    int permits = Math.min(data.length, maxInFlightBytes);
+    try {
+      inFlightPermits.acquire(permits);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.toString());
+    }
+    inFlightBytesCounter.inc(data.length);
+    try {
+      return executor.submit(() -> {
+        try (Timer.Context ignored = uploadTimer.time()) {
+          return doUpload(blobInfo, data);
+        } finally {
+          inFlightBytesCounter.dec(data.length);
+          inFlightPermits.release(permits);
+        }
+      });
+    } catch (RuntimeException e) {
+      inFlightBytesCounter.dec(data.length);
+      inFlightPermits.release(permits);
+      throw e;
+    }
+  }
+
+  Storage getStorage() {
+    return storage;
+  }
+
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private BlobInfo doUpload(BlobInfo blobInfo, byte[] data) throws IOException {
+    if (data.length <= RESUMABLE_THRESHOLD) {
+      return storage.create(blobInfo, data);
+    }
+    try (WriteChannel writer = storage.writer(blobInfo)) {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      while (buffer.hasRemaining()) {
+        writer.write(buffer);
+      }
+    }
+    return blobInfo;
+  }
+
+  /**
+   * Waits for an upload started by {@link #upload(BlobInfo, byte[])}, rethrowing its failure as an IOException.
+   */
+  static BlobInfo await(Future<BlobInfo> future, String name) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.toString());
+    } catch (ExecutionException e) {
+      throw new IOException("Uploading object " + name + " failed: " + e.getCause(), e.getCause());
+    }
+  }
+}
@@ -25,7 +25,7 @@ import com.streamsets.pipeline.api.Target;
 import com.streamsets.pipeline.config.DataFormat;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "Write to Google Cloud Storage",
     description = "Writes error records to Google Cloud Storage",
     upgraderDef = "upgrader/ToErrorGoogleCloudStorageDTarget.yaml",
@@ -29,6 +29,7 @@ public enum Errors implements ErrorCode {
   GCS_07("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
   GCS_08("Error happened when creating Output stream"),
   GCS_09("Error happened when writing to Output stream"),
+  GCS_10("Error writing objects kept open across batches: {}"),
   ;
 
   private final String msg;
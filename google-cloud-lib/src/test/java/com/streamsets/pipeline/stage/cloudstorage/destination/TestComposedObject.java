@@ -0,0 +1,340 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.cloudstorage.destination;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.api.gax.paging.Page;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestComposedObject {
+  private static final String OWNER = "sdc/pipeline/stage/0";
+  private static final String NAME = "dir/sdc.txt";
+
+  private Storage storage;
+  // contents and metadata of the objects in the bucket
+  private Map<String, byte[]> objects;
+  private Map<String, Map<String, String>> metadata;
+  private AtomicInteger uploads;
+  private Counter inFlightBytes;
+  private ObjectUploader uploader;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    objects = new ConcurrentHashMap<>();
+    metadata = new ConcurrentHashMap<>();
+    uploads = new AtomicInteger();
+    storage = Mockito.mock(Storage.class);
+    Mockito.when(storage.create(Mockito.any(BlobInfo.class), Mockito.any(byte[].class))).thenAnswer(invocation -> {
+      BlobInfo blobInfo = (BlobInfo) invocation.getArguments()[0];
+      put(blobInfo, (byte[]) invocation.getArguments()[1]);
+      uploads.incrementAndGet();
+      return null;
+    });
+    Mockito.when(storage.compose(Mockito.any(Storage.ComposeRequest.class))).thenAnswer(invocation -> {
+      Storage.ComposeRequest request = (Storage.ComposeRequest) invocation.getArguments()[0];
+      Assert.assertTrue(request.getSourceBlobs().size() <= ComposedObject.MAX_COMPOSE_SOURCES);
+      ByteArrayOutputStream data = new ByteArrayOutputStream();
+      for (Storage.ComposeRequest.SourceBlob source : request.getSourceBlobs()) {
+        Assert.assertTrue(source.getName(), objects.containsKey(source.getName()));
+        data.write(objects.get(source.getName()));
+      }
+      put(request.getTarget(), data.toByteArray());
+      return null;
+    });
+    Mockito.when(storage.delete(Mockito.any(Iterable.class))).thenAnswer(invocation -> {
+      List<Boolean> deleted = new ArrayList<>();
+      for (BlobId blobId : (Iterable<BlobId>) invocation.getArguments()[0]) {
+        metadata.remove(blobId.getName());
+        deleted.add(objects.remove(blobId.getName()) != null);
+      }
+      return deleted;
+    });
+    Mockito.when(storage.list(Mockito.eq("bucket"), Mockito.<Storage.BlobListOption>anyVararg())).thenAnswer(
+        invocation -> {
+          List<Blob> blobs = new ArrayList<>();
+          for (String name : objects.keySet()) {
+            if (name.startsWith("dir/")) {
+              Blob blob = Mockito.mock(Blob.class);
+              Mockito.when(blob.getName()).thenReturn(name);
+              Mockito.when(blob.getMetadata()).thenReturn(metadata.get(name));
+              blobs.add(blob);
+            }
+          }
+          Page<Blob> page = Mockito.mock(Page.class);
+          Mockito.when(page.iterateAll()).thenReturn(blobs);
+          return page;
+        }
+    );
+    inFlightBytes = new Counter();
+    uploader = new ObjectUploader(storage, 4, 1024, new Timer(), inFlightBytes);
+  }
+
+  @After
+  public void tearDown() {
+    uploader.shutdown();
+  }
+
+  private void put(BlobInfo blobInfo, byte[] data) {
+    objects.put(blobInfo.getName(), data);
+    if (blobInfo.getMetadata() != null) {
+      metadata.put(blobInfo.getName(), blobInfo.getMetadata());
+    }
+  }
+
+  private String read(String name) {
+    return new String(objects.get(name), StandardCharsets.UTF_8);
+  }
+
+  private int countTemporaryObjects() {
+    int count = 0;
+    for (String name : objects.keySet()) {
+      if (name.startsWith("dir/" + ComposedObject.COMPONENT_PREFIX)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testTemporaryNames() {
+    Assert.assertEquals("a/b/_tmp_sdc_1.json.1", ComposedObject.getComponentName("a/b/sdc_1.json", 1));
+    Assert.assertEquals("_tmp_sdc_1.3", ComposedObject.getComponentName("sdc_1", 3));
+    Assert.assertEquals("a/_tmp_sdc_1.composed", ComposedObject.getComposedName("a/sdc_1"));
+  }
+
+  @Test
+  public void testComposeComponentsInOrder() throws Exception {
+    ComposedObject object = createObject(4);
+    object.write(createRecord("aaa"));
+    object.write(createRecord("bbb"));
+    object.flush();
+    object.awaitComponents();
+    // Everything written so far is stored before the object is completed
+    Assert.assertEquals("[aaa\n", read(ComposedObject.getComponentName(NAME, 1)));
+    Assert.assertEquals("bbb\n", read(ComposedObject.getComponentName(NAME, 2)));
+    Assert.assertFalse(objects.containsKey(NAME));
+    Assert.assertEquals(OWNER, metadata.get(ComposedObject.getComponentName(NAME, 1)).get(ComposedObject.OWNER_KEY));
+
+    object.write(createRecord("ccc"));
+    Assert.assertTrue(object.complete());
+    Assert.assertEquals(3, object.getRecordCount());
+    Assert.assertEquals(0, inFlightBytes.getCount());
+    Assert.assertEquals("[aaa\nbbb\nccc\n]", read(NAME));
+    Assert.assertEquals(0, countTemporaryObjects());
+  }
+
+  @Test
+  public void testComponentsAreCompacted() throws Exception {
+    // Every batch of one record becomes a component
+    ComposedObject object = createObject(1024);
+    StringBuilder expected = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      object.write(createRecord("x" + i));
+      object.flush();
+      object.awaitComponents();
+      expected.append("x").append(i).append("\n");
+      Assert.assertTrue(countTemporaryObjects() < ComposedObject.MAX_COMPOSE_SOURCES);
+    }
+    // composed after every 31 components
+    Assert.assertEquals(
+        "93",
+        metadata.get(ComposedObject.getComposedName(NAME)).get(ComposedObject.LAST_COMPONENT_KEY)
+    );
+    Assert.assertTrue(object.complete());
+    Assert.assertEquals(expected.append("]").toString(), read(NAME));
+    Assert.assertEquals(0, countTemporaryObjects());
+  }
+
+  @Test
+  public void testChainedCompose() throws Exception {
+    // Every write becomes a component: the header, 40 records and the footer
+    ComposedObject object = createObject(1);
+    for (int i = 0; i < 40; i++) {
+      object.write(createRecord("x"));
+    }
+    Assert.assertTrue(object.complete());
+    Mockito.verify(storage, Mockito.times(2)).compose(Mockito.any(Storage.ComposeRequest.class));
+    StringBuilder expected = new StringBuilder("[");
+    for (int i = 0; i < 40; i++) {
+      expected.append("x\n");
+    }
+    Assert.assertEquals(expected.append("]").toString(), read(NAME));
+    Assert.assertEquals(0, countTemporaryObjects());
+  }
+
+  @Test
+  public void testComponentLimit() throws Exception {
+    ComposedObject object = createObject(1);
+    int records = 0;
+    while (!object.isFull()) {
+      object.write(createRecord("x"));
+      records++;
+    }
+    // The last component keeps growing until the object is completed
+    object.write(createRecord("y"));
+    Assert.assertTrue(object.complete());
+    Assert.assertEquals(ComposedObject.MAX_COMPONENTS, uploads.get());
+    Assert.assertEquals(2 * (records + 1) + 2, objects.get(NAME).length);
+    Assert.assertTrue(read(NAME).endsWith("x\ny\n]"));
+  }
+
+  @Test
+  public void testEmptyObject() throws Exception {
+    ComposedObject object = createObject(1024);
+    object.flush();
+    Assert.assertFalse(object.complete());
+    Mockito.verify(storage, Mockito.never()).compose(Mockito.any(Storage.ComposeRequest.class));
+    Assert.assertTrue(objects.isEmpty());
+  }
+
+  @Test
+  public void testRecoverAbandoned() throws Exception {
+    ComposedObject object = createObject(1024);
+    StringBuilder expected = new StringBuilder("[");
+    for (int i = 0; i < 40; i++) {
+      object.write(createRecord("x" + i));
+      object.flush();
+      object.awaitComponents();
+      expected.append("x").append(i).append("\n");
+    }
+    // Left behind by another pipeline writing to the same prefix
+    String foreign = ComposedObject.getComponentName("dir/other.txt", 1);
+    put(BlobInfo.newBuilder("bucket", foreign).setMetadata(ImmutableMap.of(ComposedObject.OWNER_KEY, "other")).build(),
+        new byte[]{1});
+
+    // The pipeline stops without completing the object
+    Assert.assertEquals(
+        ImmutableList.of(NAME),
+        ComposedObject.recoverAbandoned(storage, "bucket", "dir/", OWNER, "text/plain")
+    );
+    // The closing written on completion is lost
+    Assert.assertEquals(expected.toString(), read(NAME));
+    Assert.assertEquals(1, countTemporaryObjects());
+    Assert.assertTrue(objects.containsKey(foreign));
+  }
+
+  @Test
+  public void testRecoverSkipsComposedComponents() throws Exception {
+    put(BlobInfo.newBuilder("bucket", ComposedObject.getComposedName(NAME))
+        .setMetadata(ImmutableMap.of(ComposedObject.OWNER_KEY, OWNER, ComposedObject.LAST_COMPONENT_KEY, "2"))
+        .build(), "ab".getBytes(StandardCharsets.UTF_8));
+    // components 1 and 2 were composed, but not deleted yet
+    for (int i = 1; i <= 3; i++) {
+      put(BlobInfo.newBuilder("bucket", ComposedObject.getComponentName(NAME, i))
+          .setMetadata(ImmutableMap.of(ComposedObject.OWNER_KEY, OWNER))
+          .build(), String.valueOf((char) ('a' + i - 1)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    ComposedObject.recoverAbandoned(storage, "bucket", "dir/", OWNER, null);
+    Assert.assertEquals("abc", read(NAME));
+    Assert.assertEquals(0, countTemporaryObjects());
+  }
+
+  @Test
+  public void testRecoverAbandonedUnderNestedPrefixes() throws Exception {
+    String nested = "dir/2021/01/nested.txt";
+    put(BlobInfo.newBuilder("bucket", ComposedObject.getComponentName(nested, 1))
+        .setMetadata(ImmutableMap.of(ComposedObject.OWNER_KEY, OWNER))
+        .build(), "a".getBytes(StandardCharsets.UTF_8));
+    // completed objects under the prefix are left alone
+    put(BlobInfo.newBuilder("bucket", "dir/2021/01/done.txt").build(), "b".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertEquals(
+        ImmutableList.of(nested),
+        ComposedObject.recoverAbandoned(storage, "bucket", "dir/", OWNER, null)
+    );
+    Assert.assertEquals("a", read(nested));
+    Assert.assertEquals("b", read("dir/2021/01/done.txt"));
+    Assert.assertFalse(objects.containsKey(ComposedObject.getComponentName(nested, 1)));
+  }
+
+  private ComposedObject createObject(int componentSize) throws IOException {
+    return new ComposedObject(
+        uploader,
+        BlobInfo.newBuilder("bucket", NAME).build(),
+        OWNER,
+        componentSize,
+        false,
+        LineGenerator::new
+    );
+  }
+
+  private static Record createRecord(String value) {
+    Record record = RecordCreator.create();
+    record.set(Field.create(value));
+    return record;
+  }
+
+  /**
+   * Writes one line per record between a header and a footer, like the generators of formats with a prologue.
+   */
+  private static class LineGenerator implements DataGenerator {
+    private final OutputStream out;
+    private boolean started;
+
+    LineGenerator(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(Record record) throws IOException {
+      if (!started) {
+        out.write('[');
+        started = true;
+      }
+      out.write((record.get().getValueAsString() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (started) {
+        out.write(']');
+      }
+      out.close();
+    }
+  }
+}
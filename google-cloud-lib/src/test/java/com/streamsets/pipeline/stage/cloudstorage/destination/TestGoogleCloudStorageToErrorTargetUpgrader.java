@@ -72,4 +72,18 @@ public class TestGoogleCloudStorageToErrorTargetUpgrader {
     UpgraderTestUtils.assertExists(configs, newPrefix + credentialsFileContent, credentialsFileContentValue);
     UpgraderTestUtils.assertExists(configs, newPrefix + credentialsProvider, credentialsProviderValue);
   }
+
+  @Test
+  public void testUpgradeV2ToV3UploadSettings() {
+    Mockito.doReturn(2).when(context).getFromVersion();
+    Mockito.doReturn(3).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.uploadThreads", 10);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.maxInFlightSize", 64);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.rollAcrossBatches", false);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.maxObjectSize", 128);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.idleTimeout", 60);
+    UpgraderTestUtils.assertExists(configs, "gcsTargetConfig.maxOpenObjects", 100);
+  }
 }
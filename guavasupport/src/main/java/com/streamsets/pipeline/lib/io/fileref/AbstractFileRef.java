@@ -29,6 +29,8 @@ import java.util.Set;
  *
  */
 public abstract class AbstractFileRef extends FileRef {
+  public static final long UNKNOWN_SIZE = -1;
+
   private final boolean createMetrics;
   private final long totalSizeInBytes;
   private final double rateLimit;
@@ -40,7 +42,7 @@ public abstract class AbstractFileRef extends FileRef {
   /**
    * @param bufferSize The buffer size that can be used by the input stream.
    * @param createMetrics if the metrics are needed
-   * @param totalSizeInBytes the file size, can be null, if {@link #createMetrics} is false
+   * @param totalSizeInBytes the file size, {@link #UNKNOWN_SIZE} if it is only known once the file has been read
    */
   public AbstractFileRef(
       Set<Class<? extends AutoCloseable>> supportedStreamClasses,
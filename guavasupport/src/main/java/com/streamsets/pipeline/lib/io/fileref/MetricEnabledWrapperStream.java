@@ -40,6 +40,7 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
   private static final DecimalFormat df = new DecimalFormat("#.##");
   private static final String PER_SEC = "/s";
   private static final String PERCENT = "%";
+  private static final String UNKNOWN = "unknown";
 
 
   @SuppressWarnings("unchecked")
@@ -49,14 +50,27 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
     dataThroughputMeterForCurrentStream = new Meter();
     remainingBytesCounter = new Counter();
     sentBytesCounter = new Counter();
-    remainingBytesCounter.inc(fileSize);
+    if (isSizeKnown()) {
+      remainingBytesCounter.inc(fileSize);
+    }
     FileRefUtil.initMetricsIfNeeded(context);
     dataTransferMeter = context.getMeter(FileRefUtil.TRANSFER_THROUGHPUT_METER);
     gaugeStatisticsMap =  context.getGauge(FileRefUtil.fileStatisticGaugeName(context)).getValue();
     completedFileCount = (long)gaugeStatisticsMap.get(FileRefUtil.COMPLETED_FILE_COUNT);
     //Shows the size of the file in the brack after the file name.
-    gaugeStatisticsMap.put(FileRefUtil.FILE, String.format(FileRefUtil.BRACKETED_TEMPLATE, id, convertBytesToDisplayFormat(fileSize)));
+    gaugeStatisticsMap.put(
+        FileRefUtil.FILE,
+        String.format(FileRefUtil.BRACKETED_TEMPLATE, id, isSizeKnown() ? convertBytesToDisplayFormat(fileSize) : UNKNOWN)
+    );
+    if (!isSizeKnown()) {
+      gaugeStatisticsMap.put(FileRefUtil.REMAINING_BYTES, UNKNOWN);
+    }
+  }
+
+  private boolean isSizeKnown() {
+    return fileSize >= 0;
   }
+
   @Override
   protected void performPreReadOperation(int bytesToBeRead) {
     //NOOP
@@ -70,12 +84,17 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
       dataTransferMeter.mark(bytesRead);
       sentBytesCounter.inc(bytesRead);
       double sentBytes = (double) sentBytesCounter.getCount();
-      remainingBytesCounter.dec(bytesRead);
       //Putting one minute rate because that is the latest speed of transfer
       gaugeStatisticsMap.put(
           FileRefUtil.TRANSFER_THROUGHPUT,
           convertBytesToDisplayFormat(dataThroughputMeterForCurrentStream.getOneMinuteRate()) + PER_SEC
       );
+      if (!isSizeKnown()) {
+        // Neither a percent nor the remaining bytes can be computed
+        gaugeStatisticsMap.put(FileRefUtil.SENT_BYTES, convertBytesToDisplayFormat(sentBytes));
+        return;
+      }
+      remainingBytesCounter.dec(bytesRead);
       //Shows a percent of file copied in bracket after the sent bytes.
       gaugeStatisticsMap.put(
           FileRefUtil.SENT_BYTES,
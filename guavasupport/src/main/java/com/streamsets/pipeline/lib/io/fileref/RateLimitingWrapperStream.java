@@ -44,7 +44,8 @@ class RateLimitingWrapperStream<T extends AutoCloseable> extends AbstractPrePost
   protected void performPreReadOperation(int bytesToBeRead) {
     //At the last set of bytes we would actually
     //be reading less than what we wish to read so optimise for that.
-    int bytesWishToBeRead = (int) Math.min(bytesToBeRead, remainingStreamSize);
+    //When the size of the stream is unknown, permits are acquired for all the bytes to be read.
+    int bytesWishToBeRead = (remainingStreamSize < 0) ? bytesToBeRead : (int) Math.min(bytesToBeRead, remainingStreamSize);
     if (bytesWishToBeRead > 0) {
       acquire(bytesWishToBeRead);
     }
@@ -52,6 +53,8 @@ class RateLimitingWrapperStream<T extends AutoCloseable> extends AbstractPrePost
 
   @Override
   protected void performPostReadOperation(int bytesRead) {
-    remainingStreamSize -= bytesRead;
+    if (remainingStreamSize >= 0 && bytesRead > 0) {
+      remainingStreamSize -= bytesRead;
+    }
   }
 }
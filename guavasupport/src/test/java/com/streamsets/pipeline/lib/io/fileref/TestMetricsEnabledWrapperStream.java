@@ -28,6 +28,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -223,4 +224,29 @@ public class TestMetricsEnabledWrapperStream {
     Assert.assertEquals("1 TB", MetricEnabledWrapperStream.convertBytesToDisplayFormat(1099511627776d));
     Assert.assertEquals("1025 TB", MetricEnabledWrapperStream.convertBytesToDisplayFormat(1126999418470400d));
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUnknownSize() throws Exception {
+    byte[] data = FileRefTestUtil.TEXT.getBytes();
+    try (InputStream is = new MetricEnabledWrapperStream<>(
+        "converted",
+        AbstractFileRef.UNKNOWN_SIZE,
+        context,
+        new ByteArrayInputStream(data)
+    )) {
+      byte[] b = new byte[10];
+      while (is.read(b, 0, b.length) > 0) {
+        Assert.assertEquals(0, getRemainingBytes(is));
+      }
+      Assert.assertEquals(data.length, getSentBytes(is));
+    }
+    Map<String, Object> gaugeMap = gauge.getValue();
+    Assert.assertEquals("converted (unknown)", gaugeMap.get(FileRefUtil.FILE));
+    Assert.assertEquals(
+        MetricEnabledWrapperStream.convertBytesToDisplayFormat(data.length),
+        gaugeMap.get(FileRefUtil.SENT_BYTES)
+    );
+    Assert.assertEquals("unknown", gaugeMap.get(FileRefUtil.REMAINING_BYTES));
+  }
 }
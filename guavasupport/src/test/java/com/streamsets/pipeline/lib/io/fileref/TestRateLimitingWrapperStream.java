@@ -248,4 +248,24 @@ public class TestRateLimitingWrapperStream {
       Assert.assertFalse(isRateLimiterAcquired.get());
     }
   }
+
+  @Test
+  public void testUnknownSize() throws Exception {
+    try (InputStream is = Mockito.spy(new RateLimitingWrapperStream<>(
+        new ByteArrayInputStream(FileRefTestUtil.TEXT.getBytes()),
+        AbstractFileRef.UNKNOWN_SIZE,
+        RATE_LIMIT
+    ))) {
+      AtomicInteger bytesWishToBeRead = new AtomicInteger(-1);
+      AtomicBoolean isRateLimiterAcquired = new AtomicBoolean(false);
+      intercept(is, bytesWishToBeRead, isRateLimiterAcquired);
+      byte[] b = new byte[10];
+      while (is.read(b, 0, b.length) > 0) {
+        // every read is rate limited
+        Assert.assertTrue(isRateLimiterAcquired.get());
+        Assert.assertEquals(AbstractFileRef.UNKNOWN_SIZE, getRemainingStreamSize(is));
+        isRateLimiterAcquired.set(false);
+      }
+    }
+  }
 }
@@ -94,6 +94,8 @@ public enum Errors implements ErrorCode {
   HADOOPFS_60("Invalid Data Format {}, should be {} for File Type {}."),
   HADOOPFS_61("You must specify at least one of Hadoop FS URI, Hadoop FS Configuration Directory or fs.defaultFS"),
   HADOOPFS_62("Can't resolve credential: {}"),
+  HADOOPFS_63("Data Format {} compresses the file itself, Compression Codec should be None"),
+  HADOOPFS_64("Could not commit file '{}' at the end of the batch: {}"),
 
   ;
 
@@ -26,6 +26,8 @@ public class DataFormatChooserValues extends BaseEnumChooserValues<DataFormat> {
       DataFormat.BINARY,
       DataFormat.DELIMITED,
       DataFormat.JSON,
+      DataFormat.ORC,
+      DataFormat.PARQUET,
       DataFormat.PROTOBUF,
       DataFormat.SDC_JSON,
       DataFormat.TEXT,
@@ -120,7 +120,15 @@ public class HdfsTarget extends BaseTarget {
                 );
               }
             }
-            hdfsTargetConfigBean.getCurrentWriters().flushAll();
+            if (hdfsTargetConfigBean.getCurrentWriters().getWriterManager().isCommitEachBatch()) {
+              // Columnar files only become readable once closed, so they are committed with the batch
+              hdfsTargetConfigBean.getCurrentWriters().commitAll();
+              if (hdfsTargetConfigBean.getLateWriters() != null) {
+                hdfsTargetConfigBean.getLateWriters().commitAll();
+              }
+            } else {
+              hdfsTargetConfigBean.getCurrentWriters().flushAll();
+            }
           } else {
             emptyBatch();
           }
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.destination.hdfs;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
@@ -482,6 +483,10 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
       fileNameEL = dataGeneratorFormatConfig.fileNameEL;
     }
 
+    if (isColumnarFormat()) {
+      validateStageForColumnarFormat(context, issues);
+    }
+
     SequenceFile.CompressionType compressionType = (seqFileCompressionType != null)
       ? seqFileCompressionType.getType() : null;
     try {
@@ -550,6 +555,7 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
         if (idleTimeSecs > 0) {
           mgr.setIdleTimeoutSeconds(idleTimeSecs);
         }
+        mgr.setCommitEachBatch(isColumnarFormat());
 
         // We're skipping all hdfs-target-directory related validations if we're getting the configuration from header
         if(dirPathTemplateInHeader) {
@@ -608,6 +614,7 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
           if (idleTimeSecs > 0) {
             mgr.setIdleTimeoutSeconds(idleTimeSecs);
           }
+          mgr.setCommitEachBatch(isColumnarFormat());
 
           // validate if the lateRecordsDirPathTemplate can be resolved by Els constants
           if (mgr.validateDirTemplate(
@@ -685,6 +692,12 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
       toHdfsRecordsMeter = context.createMeter("toHdfsRecords");
       lateRecordsCounter = context.createCounter("lateRecords");
       lateRecordsMeter = context.createMeter("lateRecords");
+      Timer flushTimer = context.createTimer("flushLatency");
+      Counter inFlightBytesCounter = context.createCounter("inFlightBytes");
+      getCurrentWriters().setFlushMetrics(flushTimer, inFlightBytesCounter);
+      if (getLateWriters() != null) {
+        getLateWriters().setFlushMetrics(flushTimer, inFlightBytesCounter);
+      }
     }
 
     if (issues.isEmpty()) {
@@ -870,6 +883,35 @@ public class HdfsTargetConfigBean extends HdfsBaseConfigBean {
     }
   }
 
+  private boolean isColumnarFormat() {
+    return dataFormat == DataFormat.PARQUET || dataFormat == DataFormat.ORC;
+  }
+
+  private void validateStageForColumnarFormat(Stage.Context context, List<Stage.ConfigIssue> issues) {
+    if (fileType != HdfsFileType.TEXT) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.OUTPUT_FILES.name(),
+              getConfigBeanPrefix() + "fileType",
+              Errors.HADOOPFS_53,
+              fileType,
+              HdfsFileType.TEXT.getLabel(),
+              dataFormat.getLabel()
+          )
+      );
+    }
+    if (compression != CompressionMode.NONE) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.OUTPUT_FILES.name(),
+              getConfigBeanPrefix() + "compression",
+              Errors.HADOOPFS_63,
+              dataFormat.getLabel()
+          )
+      );
+    }
+  }
+
   protected boolean validateHadoopDir(final Stage.Context context, final String configName, final String configGroup,
       String dirPathTemplate, final List<Stage.ConfigIssue> issues) {
     if (!dirPathTemplate.startsWith("/")) {
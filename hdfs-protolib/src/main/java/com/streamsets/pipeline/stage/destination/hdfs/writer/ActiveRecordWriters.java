@@ -16,7 +16,10 @@
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -26,13 +29,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ActiveRecordWriters {
   private static final Logger LOG = LoggerFactory.getLogger(ActiveRecordWriters.class);
@@ -71,16 +82,56 @@ public class ActiveRecordWriters {
     }
   }
 
+  // Writers of different paths are looked up, rolled and released concurrently, a lock is only shared by the paths
+  // hashing to the same stripe.
+  private static final int PATH_LOCK_STRIPES = 64;
+  // Flushing and closing a file are round trips to the file system, they are done in parallel across writers.
+  private static final int MAX_PARALLEL_FILE_OPERATIONS = 16;
+
   private final RecordWriterManager manager;
+  private final Lock[] pathLocks;
+  private final ThreadPoolExecutor fileOperationsExecutor;
+  private Timer flushTimer;
+  private Counter inFlightBytesCounter;
 
   @VisibleForTesting
   Map<String, RecordWriter> writers;
   private Queue<DelayedRecordWriter> cutOffQueue;
 
   public ActiveRecordWriters(RecordWriterManager manager) {
-    writers = new HashMap<>();
+    writers = new ConcurrentHashMap<>();
     cutOffQueue = new DelayQueue<>();
     this.manager = manager;
+    pathLocks = new Lock[PATH_LOCK_STRIPES];
+    for (int i = 0; i < pathLocks.length; i++) {
+      pathLocks[i] = new ReentrantLock();
+    }
+    fileOperationsExecutor = new ThreadPoolExecutor(
+        MAX_PARALLEL_FILE_OPERATIONS,
+        MAX_PARALLEL_FILE_OPERATIONS,
+        60,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("Record Writers File Operations Thread-%d").setDaemon(true).build()
+    );
+    fileOperationsExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Lock guarding the writer of the given path. The locks always have to be taken in the following order
+   * 1. path lock and 2. RecordWriter (if we need both of them), or else we will get into a deadlock. A thread
+   * never holds the locks of two paths at once.
+   */
+  Lock getPathLock(String path) {
+    return pathLocks[(path.hashCode() & Integer.MAX_VALUE) % pathLocks.length];
+  }
+
+  /**
+   * Metrics of the flushes: their latency and the bytes they are sending to the file system.
+   */
+  public void setFlushMetrics(Timer flushTimer, Counter inFlightBytesCounter) {
+    this.flushTimer = flushTimer;
+    this.inFlightBytesCounter = inFlightBytesCounter;
   }
 
   public void commitOldFiles(FileSystem fs) throws IOException, StageException {
@@ -93,15 +144,20 @@ public class ActiveRecordWriters {
     }
     DelayedRecordWriter delayedWriter = cutOffQueue.poll();
     while (delayedWriter != null) {
-      if (!delayedWriter.getWriter().isClosed()) {
+      RecordWriter writer = delayedWriter.getWriter();
+      if (!writer.isClosed()) {
         if (IS_TRACE_ENABLED) {
-          LOG.trace("Purging '{}'", delayedWriter.getWriter().getPath());
+          LOG.trace("Purging '{}'", writer.getPath());
         }
-        //We are fine no lock on writer needed.
-        synchronized (this) {
-          writers.remove(delayedWriter.getWriter().getPath().toString());
+        String path = writer.getPath().toString();
+        Lock pathLock = getPathLock(path);
+        pathLock.lock();
+        try {
+          writers.remove(path, writer);
+          manager.commitWriter(writer);
+        } finally {
+          pathLock.unlock();
         }
-        manager.commitWriter(delayedWriter.getWriter());
       }
       delayedWriter = cutOffQueue.poll();
     }
@@ -109,12 +165,7 @@ public class ActiveRecordWriters {
 
   public RecordWriter get(Date now, Date recordDate, Record record) throws StageException, IOException {
     String path = manager.getPath(recordDate, record).toString();
-    RecordWriter writer = null;
-
-    //We are fine no lock on writer needed.
-    synchronized (this) {
-      writer = writers.get(path);
-    }
+    RecordWriter writer = writers.get(path);
 
     if(writer != null && manager.shouldRoll(writer, record)) {
       release(writer, true);
@@ -122,18 +173,24 @@ public class ActiveRecordWriters {
     }
 
     if (writer == null) {
-      writer = manager.getWriter(now, recordDate, record);
-      if (writer != null) {
-        if (IS_TRACE_ENABLED) {
-          LOG.trace("Got '{}'", writer.getPath());
-        }
-        writer.setActiveRecordWriters(this);
-
-        //We are fine no lock on writer needed.
-        synchronized(this) {
-          writers.put(path, writer);
+      Lock pathLock = getPathLock(path);
+      pathLock.lock();
+      try {
+        // Another thread may have created the writer while we were waiting for the lock
+        writer = writers.get(path);
+        if (writer == null) {
+          writer = manager.getWriter(now, recordDate, record);
+          if (writer != null) {
+            if (IS_TRACE_ENABLED) {
+              LOG.trace("Got '{}'", writer.getPath());
+            }
+            writer.setActiveRecordWriters(this);
+            writers.put(path, writer);
+            cutOffQueue.add(new DelayedRecordWriter(writer));
+          }
         }
-        cutOffQueue.add(new DelayedRecordWriter(writer));
+      } finally {
+        pathLock.unlock();
       }
     }
     return writer;
@@ -148,66 +205,212 @@ public class ActiveRecordWriters {
     return cutOffQueue.size();
   }
 
-  //The whole function is synchronized because
-  //the locks always have to taken in the following order
-  //1. ActiveRecordWriters and 2. RecordWriter (if we need both of them)
-  //or else we will get into a deadlock
-  //For Ex: idle close thread calls this method
-  //and the hdfsTarget (in the pipeline runnable thread), calls flushAll
-  public synchronized void release(RecordWriter writer, boolean roll) throws StageException, IOException {
-    writer.closeLock();
+  public void release(RecordWriter writer, boolean roll) throws StageException, IOException {
+    releaseWriter(writer, roll);
+    purge();
+  }
+
+  /**
+   * Releases a writer closed by its idle close thread, which already holds the lock of the writer's path. Purging
+   * would take the locks of other paths, so it is left to the pipeline thread.
+   */
+  void releaseIdleClosed(RecordWriter writer) throws StageException, IOException {
+    releaseWriter(writer, false);
+  }
+
+  private void releaseWriter(RecordWriter writer, boolean roll) throws StageException, IOException {
+    String path = writer.getPath().toString();
+    Lock pathLock = getPathLock(path);
+    pathLock.lock();
     try {
-      if (roll || writer.isIdleClosed() || manager.isOverThresholds(writer)) {
-        if (IS_TRACE_ENABLED) {
-          LOG.trace("Release '{}'", writer.getPath());
+      writer.closeLock();
+      try {
+        if (roll || writer.isIdleClosed() || manager.isOverThresholds(writer)) {
+          if (IS_TRACE_ENABLED) {
+            LOG.trace("Release '{}'", writer.getPath());
+          }
+          writers.remove(path, writer);
+          manager.commitWriter(writer);
         }
-        writers.remove(writer.getPath().toString());
-        manager.commitWriter(writer);
+      } finally {
+        writer.closeUnlock();
       }
     } finally {
-      writer.closeUnlock();
+      pathLock.unlock();
     }
-    purge();
   }
 
-  public synchronized void flushAll() throws StageException {
+  public void flushAll() throws StageException {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Flush all '{}'", toString());
     }
-    for (RecordWriter writer : writers.values()) {
+    List<RecordWriter> flushed = new ArrayList<>();
+    List<Future<Void>> flushes = new ArrayList<>();
+    for (final RecordWriter writer : writers.values()) {
       if (!writer.isClosed()) {
-        try {
-          writer.flush();
-        } catch (IOException ex) {
-          String msg = Utils.format("Flush failed on file : '{}'", writer.getPath().toString());
-          LOG.error(msg);
-          throw new StageException(Errors.HADOOPFS_58, writer.getPath().toString(), ex);
+        flushed.add(writer);
+        flushes.add(fileOperationsExecutor.submit(() -> {
+          flush(writer);
+          return null;
+        }));
+      }
+    }
+    // Wait for all the flushes before reporting the first failure, so no flush is left running
+    waitFor(flushed, flushes);
+  }
+
+  private void flush(RecordWriter writer) throws StageException {
+    // The idle close thread closes writers under the lock of their path, which also keeps them from closing mid-flush
+    Lock pathLock = getPathLock(writer.getPath().toString());
+    pathLock.lock();
+    try {
+      writer.closeLock();
+      try {
+        // Writers closed by their idle close thread since they were listed are already committed
+        if (!writer.isClosed()) {
+          flushOpen(writer);
         }
+      } finally {
+        writer.closeUnlock();
       }
+    } finally {
+      pathLock.unlock();
     }
   }
 
-  public synchronized void closeAll() throws StageException{
+  private void flushOpen(RecordWriter writer) throws StageException {
+    long inFlightBytes = 0;
+    Timer.Context flushTime = (flushTimer != null) ? flushTimer.time() : null;
+    try {
+      if (inFlightBytesCounter != null) {
+        inFlightBytes = writer.getUnflushedLength();
+        inFlightBytesCounter.inc(inFlightBytes);
+      }
+      writer.flush();
+    } catch (IOException ex) {
+      String msg = Utils.format("Flush failed on file : '{}'", writer.getPath().toString());
+      LOG.error(msg);
+      throw new StageException(Errors.HADOOPFS_58, writer.getPath().toString(), ex);
+    } finally {
+      if (inFlightBytesCounter != null) {
+        inFlightBytesCounter.dec(inFlightBytes);
+      }
+      if (flushTime != null) {
+        flushTime.stop();
+      }
+    }
+  }
+
+  /**
+   * Commits all the open files, used for the data formats whose files are only readable once closed, so that a batch
+   * is durable when it is acknowledged.
+   */
+  public void commitAll() throws StageException {
     if (IS_TRACE_ENABLED) {
-      LOG.trace("Close all '{}'", toString());
+      LOG.trace("Commit all '{}'", toString());
     }
-    if(writers != null) {
-      for (RecordWriter writer : writers.values()) {
-        writer.closeLock();
-        try {
-          if (!writer.isClosed()) {
-            manager.commitWriter(writer);
+    List<RecordWriter> committed = new ArrayList<>(writers.values());
+    List<Future<Void>> commits = new ArrayList<>(committed.size());
+    for (final RecordWriter writer : committed) {
+      commits.add(fileOperationsExecutor.submit(() -> {
+        commit(writer);
+        return null;
+      }));
+    }
+    waitFor(committed, commits);
+  }
+
+  private void commit(RecordWriter writer) throws StageException {
+    String path = writer.getPath().toString();
+    Lock pathLock = getPathLock(path);
+    pathLock.lock();
+    try {
+      writer.closeLock();
+      try {
+        // A writer closed by its idle close thread has already been released and committed
+        if (!writer.isClosed()) {
+          if (IS_TRACE_ENABLED) {
+            LOG.trace("Commit '{}'", path);
           }
-        } catch (IOException ex) {
-          String msg = Utils.format("Error closing writer {} : {}", writer, ex);
-          LOG.warn(msg, ex);
-        } finally {
-          writer.closeUnlock();
+          writers.remove(path, writer);
+          manager.commitWriter(writer);
+        }
+      } catch (IOException ex) {
+        LOG.error(Utils.format("Commit failed on file : '{}'", path));
+        throw new StageException(Errors.HADOOPFS_64, path, ex.toString(), ex);
+      } finally {
+        writer.closeUnlock();
+      }
+    } finally {
+      pathLock.unlock();
+    }
+  }
+
+  public void closeAll() throws StageException{
+    if (IS_TRACE_ENABLED) {
+      LOG.trace("Close all '{}'", toString());
+    }
+    try {
+      if (writers != null) {
+        List<RecordWriter> closed = new ArrayList<>(writers.values());
+        List<Future<Void>> closes = new ArrayList<>(closed.size());
+        for (final RecordWriter writer : closed) {
+          closes.add(fileOperationsExecutor.submit(() -> {
+            close(writer);
+            return null;
+          }));
         }
+        waitFor(closed, closes);
       }
+    } finally {
+      fileOperationsExecutor.shutdown();
+      writers = null;
+      cutOffQueue = null;
+    }
+  }
+
+  private void close(RecordWriter writer) throws StageException {
+    Lock pathLock = getPathLock(writer.getPath().toString());
+    pathLock.lock();
+    try {
+      writer.closeLock();
+      try {
+        if (!writer.isClosed()) {
+          manager.commitWriter(writer);
+        }
+      } catch (IOException ex) {
+        String msg = Utils.format("Error closing writer {} : {}", writer, ex);
+        LOG.warn(msg, ex);
+      } finally {
+        writer.closeUnlock();
+      }
+    } finally {
+      pathLock.unlock();
+    }
+  }
+
+  /**
+   * Waits for the file operations run on the given writers and throws the first failure once all of them are done.
+   */
+  private void waitFor(List<RecordWriter> writers, List<Future<Void>> operations) throws StageException {
+    StageException failure = null;
+    for (int i = 0; i < operations.size(); i++) {
+      try {
+        operations.get(i).get();
+      } catch (ExecutionException ex) {
+        if (failure == null) {
+          failure = (ex.getCause() instanceof StageException)
+              ? (StageException) ex.getCause()
+              : new StageException(Errors.HADOOPFS_58, writers.get(i).getPath().toString(), ex.getCause());
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new StageException(Errors.HADOOPFS_58, writers.get(i).getPath().toString(), ex);
+      }
+    }
+    if (failure != null) {
+      throw failure;
     }
-    writers = null;
-    cutOffQueue = null;
   }
 
 }
@@ -94,7 +94,11 @@ final class DefaultFsHelper implements FsHelper {
         if (globStatus != null) {
           for (FileStatus status : globStatus) {
             LOG.debug("Found uncommitted file '{}'", status.getPath());
-            recordWriterManager.renameToFinalName(fs, status.getPath());
+            if (recordWriterManager.isCommitEachBatch()) {
+              discardIncompleteFile(fs, status.getPath());
+            } else {
+              recordWriterManager.renameToFinalName(fs, status.getPath());
+            }
           }
         }
       }
@@ -103,8 +107,23 @@ final class DefaultFsHelper implements FsHelper {
 
   @Override
   public void handleAlreadyExistingFile(FileSystem fs, Path tempPath) throws StageException, IOException {
-    Path path = recordWriterManager.renameToFinalName(fs, tempPath);
-    LOG.warn("Path[{}] - Found previous file '{}', committing it", tempPath, path);
+    if (recordWriterManager.isCommitEachBatch()) {
+      discardIncompleteFile(fs, tempPath);
+    } else {
+      Path path = recordWriterManager.renameToFinalName(fs, tempPath);
+      LOG.warn("Path[{}] - Found previous file '{}', committing it", tempPath, path);
+    }
+  }
+
+  /**
+   * Files committed at the end of each batch are only left behind by a batch that was never acknowledged, which will
+   * be written again. They were never closed and can't be read, so they are deleted instead of committed.
+   */
+  private void discardIncompleteFile(FileSystem fs, Path tempPath) throws IOException {
+    LOG.warn("Path[{}] - Deleting file of a batch that was not committed", tempPath);
+    if (!fs.delete(tempPath, false)) {
+      throw new IOException(Utils.format("Could not delete '{}'", tempPath));
+    }
   }
 
   @Override
@@ -15,9 +15,13 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ElFunction;
 import com.streamsets.pipeline.api.ElParam;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -29,11 +33,15 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.lib.hdfs.common.Errors;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PathResolver {
   private static final String VALIDATE_CONTEXT = "validateContext";
@@ -69,6 +77,16 @@ public class PathResolver {
     .put("ss", Calendar.SECOND)
     .build();
 
+  // Resolved paths are memoized when the template only depends on the time bucket and on record fields and
+  // attributes given as literals, i.e. it only uses the time functions, record:value(), record:valueOrDefault(),
+  // record:attribute() and functions of the namespaces below.
+  private static final Pattern FUNCTION_PATTERN = Pattern.compile("([A-Za-z_]\\w*:)?[A-Za-z_]\\w*(?=\\s*\\()");
+  private static final Pattern RECORD_REFERENCE_PATTERN =
+      Pattern.compile("record:(value|valueOrDefault|attribute)\\s*\\(\\s*(?:'([^']*)'|\"([^\"]*)\")");
+  private static final Set<String> TIME_FUNCTIONS = ImmutableSet.of("YYYY", "YY", "MM", "DD", "hh", "mm", "ss", "every");
+  private static final Set<String> MEMOIZABLE_NAMESPACES = ImmutableSet.of("str:", "math:", "sdc:", "pipeline:", "runtime:");
+  private static final int MAX_MEMOIZED_PATHS = 10000;
+
   private final Stage.Context context;
   private final String pathTemplate;
   private int incrementUnit;
@@ -78,6 +96,9 @@ public class PathResolver {
   private final ELEval freqEdgeElEval;
   private final ELEval pathEval;
   private boolean validated;
+  private final List<String> referencedFields;
+  private final List<String> referencedAttributes;
+  private final Cache<List<Object>, String> resolvedPaths;
 
   public PathResolver(Stage.Context context, String config, String pathTemplate, TimeZone timeZone) {
     this.context = context;
@@ -86,6 +107,46 @@ public class PathResolver {
     elVars = context.createELVars();
     freqEdgeElEval = context.createELEval(config, FrequencyEdgeEL.class);
     pathEval = context.createELEval(config);
+    referencedFields = new ArrayList<>();
+    referencedAttributes = new ArrayList<>();
+    if (findRecordReferences(pathTemplate, referencedFields, referencedAttributes)) {
+      resolvedPaths = CacheBuilder.newBuilder().maximumSize(MAX_MEMOIZED_PATHS).build();
+    } else {
+      resolvedPaths = null;
+    }
+  }
+
+  /**
+   * Collects the record fields and attributes referenced by the template, returns false if the template uses a
+   * function that prevents memoizing its resolved paths.
+   */
+  static boolean findRecordReferences(String pathTemplate, List<String> fields, List<String> attributes) {
+    int recordFunctions = 0;
+    Matcher matcher = FUNCTION_PATTERN.matcher(pathTemplate);
+    while (matcher.find()) {
+      String namespace = matcher.group(1);
+      if (namespace == null) {
+        if (!TIME_FUNCTIONS.contains(matcher.group())) {
+          return false;
+        }
+      } else if (namespace.equals("record:")) {
+        recordFunctions++;
+      } else if (!MEMOIZABLE_NAMESPACES.contains(namespace)) {
+        return false;
+      }
+    }
+    matcher = RECORD_REFERENCE_PATTERN.matcher(pathTemplate);
+    while (matcher.find()) {
+      recordFunctions--;
+      String name = (matcher.group(2) != null) ? matcher.group(2) : matcher.group(3);
+      if (matcher.group(1).equals("attribute")) {
+        attributes.add(name);
+      } else {
+        fields.add(name);
+      }
+    }
+    // Any other record function, or a field path that is not a literal, makes the path depend on the whole record
+    return recordFunctions == 0;
   }
 
   public static class ValidateEL {
@@ -385,6 +446,45 @@ public class PathResolver {
   }
 
   String resolvePath(Date date, Record record) throws StageException {
+    if (resolvedPaths == null || record == null || !validated) {
+      return evaluatePath(date, record);
+    }
+    List<Object> key = new ArrayList<>(1 + referencedFields.size() + referencedAttributes.size());
+    key.add(truncateToIncrementUnit(date));
+    for (String fieldPath : referencedFields) {
+      Field field = record.get(fieldPath);
+      key.add(field == null ? null : field.getValue());
+    }
+    for (String attribute : referencedAttributes) {
+      key.add(record.getHeader().getAttribute(attribute));
+    }
+    String path = resolvedPaths.getIfPresent(key);
+    if (path == null) {
+      path = evaluatePath(date, record);
+      if (path != null) {
+        resolvedPaths.put(key, path);
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Drops the units smaller than the smallest one in the template, dates in the same time bucket of the template
+   * keep having the same floor date.
+   */
+  private long truncateToIncrementUnit(Date date) {
+    Calendar calendar = Calendar.getInstance(timeZone);
+    calendar.setTime(date);
+    for (int unit : UNITS_ORDERED) {
+      if (unit > incrementUnit) {
+        calendar.set(unit, calendar.getMinimum(unit));
+      }
+    }
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTimeInMillis();
+  }
+
+  private String evaluatePath(Date date, Record record) throws StageException {
     try {
       ELVars vars = context.createELVars();
       RecordEL.setRecordInContext(vars, record);
@@ -42,6 +42,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -69,6 +70,7 @@ public class RecordWriter {
   private Future<Void> currentIdleCloseFuture = null;
   private ActiveRecordWriters writers = null;
   private boolean batchContainsData = false;
+  private volatile long flushedLength;
   private volatile boolean renamed = false;
 
   private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
@@ -185,6 +187,7 @@ public class RecordWriter {
       } else if (seqWriter != null) {
         seqWriter.hflush();
       }
+      flushedLength = getLength();
     } finally {
       // reset this flag so we flush only when there is data.
       batchContainsData = false;
@@ -204,6 +207,11 @@ public class RecordWriter {
     return length;
   }
 
+  // bytes written since the last flush, they are sent to the file system by the next flush.
+  long getUnflushedLength() throws IOException {
+    return Math.max(0, getLength() - flushedLength);
+  }
+
   public long getRecords() {
     return recordCount;
   }
@@ -230,7 +238,7 @@ public class RecordWriter {
       this.idleClosed = idleClosed;
       // writers can never be null, except in tests
       if (idleClosed && writers != null) {
-        writers.release(this, false);
+        writers.releaseIdleClosed(this);
       }
     } finally {
       generator = null;
@@ -324,13 +332,17 @@ public class RecordWriter {
     public Void call() throws StageException{
       try {
         if (writers != null) {
-          //We are going to call close(true) which takes a lock on writers
-          //and then going to call writers.release() -> which will take a lock on
-          //ActiveRecordWriters
-          //The ordering for locking both ActiveRecordWriters and RecordWriter is
-          //1.ActiveRecordWriters 2. RecordWriter
-          synchronized (writers) {
+          //We are going to call close(true) which takes a lock on this writer
+          //and then going to call writers.releaseIdleClosed() -> which will take the lock
+          //of this writer's path in ActiveRecordWriters
+          //The ordering for locking both the path and RecordWriter is
+          //1.Path lock in ActiveRecordWriters 2. RecordWriter
+          Lock pathLock = writers.getPathLock(path.toString());
+          pathLock.lock();
+          try {
             close(true);
+          } finally {
+            pathLock.unlock();
           }
         } else {
           close(true);
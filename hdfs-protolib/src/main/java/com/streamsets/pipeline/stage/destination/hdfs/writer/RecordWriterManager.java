@@ -83,6 +83,7 @@ public class RecordWriterManager {
   private DataGeneratorFactory generatorFactory;
   private Target.Context context;
   private long idleTimeoutSeconds = -1L;
+  private boolean commitEachBatch;
   private final boolean rollIfHeader;
   private final String rollHeaderName;
   private final FsHelper fsHelper;
@@ -148,6 +149,18 @@ public class RecordWriterManager {
     this.idleTimeoutSeconds = idleTimeoutSeconds;
   }
 
+  /**
+   * Sets whether the open files are committed at the end of each batch, for the data formats whose files can't be
+   * read until they are closed. Temporary files left behind then belong to batches that were never acknowledged.
+   */
+  public void setCommitEachBatch(boolean commitEachBatch) {
+    this.commitEachBatch = commitEachBatch;
+  }
+
+  public boolean isCommitEachBatch() {
+    return commitEachBatch;
+  }
+
   public long getCutOffMillis() {
     return cutOffMillis;
   }
@@ -244,4 +244,33 @@ public class TestHdfsTargetUpgrader {
         ""
     );
   }
+
+  @Test
+  public void testUpgradeV5ToV6() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    final URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/HdfsDTarget.yaml");
+    final SelectorStageUpgrader upgrader = new SelectorStageUpgrader(
+        "stage",
+        new HdfsTargetUpgrader(),
+        yamlResource
+    );
+
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(5).when(context).getFromVersion();
+    Mockito.doReturn(6).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    String prefix = "hdfsTargetConfigBean.dataGeneratorFormatConfig.";
+    UpgraderTestUtils.assertExists(configs, prefix + "parquetCompression", "SNAPPY");
+    UpgraderTestUtils.assertExists(configs, prefix + "parquetRowGroupSize", 128);
+    UpgraderTestUtils.assertExists(configs, prefix + "parquetPageSize", 1024);
+    UpgraderTestUtils.assertExists(configs, prefix + "parquetDictionaryEncoding", true);
+    UpgraderTestUtils.assertExists(configs, prefix + "parquetDictionaryPageSize", 1024);
+    UpgraderTestUtils.assertExists(configs, prefix + "orcCompression", "ZLIB");
+    UpgraderTestUtils.assertExists(configs, prefix + "orcStripeSize", 64);
+    UpgraderTestUtils.assertExists(configs, prefix + "orcBatchSize", 1024);
+    UpgraderTestUtils.assertExists(configs, prefix + "orcDictionaryEncoding", true);
+  }
 }
@@ -35,10 +35,17 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
@@ -253,4 +260,132 @@ public class TestActiveRecordWriters {
       Assert.assertTrue(ex.getCause() instanceof IOException);
     }
   }
+
+  @Test
+  public void testFlushAllSkipsWriterIdleClosedMeanwhile() throws Exception {
+    RecordWriterManager mgr = new RecordWriterManagerTestBuilder()
+        .context(ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testFlushAllIdleClose", false, OnRecordError.TO_ERROR, null))
+        .dirPathTemplate(getTestDir().toString())
+        .build();
+
+    final ActiveRecordWriters writers = new ActiveRecordWriters(mgr);
+    Date now = new Date();
+    Record record = RecordCreator.create();
+    record.set(Field.create("a"));
+    RecordWriter writer = writers.get(now, now, record);
+    writer.write(record);
+
+    ReentrantLock pathLock = (ReentrantLock) writers.getPathLock(writer.getPath().toString());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    pathLock.lock();
+    try {
+      // the flush is queued for the open writer and waits for its path
+      Future<Void> flush = executor.submit(() -> {
+        writers.flushAll();
+        return null;
+      });
+      while (!pathLock.hasQueuedThreads()) {
+        Thread.sleep(10);
+      }
+      // meanwhile the writer is idle closed, which happens under the lock of its path
+      Method close = RecordWriter.class.getDeclaredMethod("close", boolean.class);
+      close.setAccessible(true);
+      close.invoke(writer, true);
+      pathLock.unlock();
+
+      flush.get();
+      Assert.assertTrue(writer.isIdleClosed());
+    } finally {
+      if (pathLock.isHeldByCurrentThread()) {
+        pathLock.unlock();
+      }
+      executor.shutdownNow();
+    }
+    writers.closeAll();
+  }
+
+  @Test
+  public void testConcurrentWritersOfDifferentPaths() throws Exception {
+    RecordWriterManager mgr = new RecordWriterManagerTestBuilder()
+        .context(ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testConcurrentWriters", false, OnRecordError.TO_ERROR, null))
+        .dirPathTemplate(getTestDir().toString() + "/${record:value('/')}")
+        .cutOffSecs(3600)
+        .build();
+
+    final ActiveRecordWriters writers = new ActiveRecordWriters(mgr);
+    final Date now = new Date();
+    int threads = 8;
+    final int recordsPerThread = 10;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        final String dir = "dir" + i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < recordsPerThread; j++) {
+            Record record = RecordCreator.create();
+            record.set(Field.create(dir));
+            RecordWriter writer = writers.get(now, now, record);
+            writer.write(record);
+            writers.release(writer, false);
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    writers.flushAll();
+    writers.closeAll();
+
+    // 2 records per file
+    for (int i = 0; i < threads; i++) {
+      File dir = new File(getTestDir().toString(), "dir" + i);
+      Assert.assertEquals(recordsPerThread / 2, dir.listFiles((d, name) -> name.startsWith("prefix")).length);
+      Assert.assertEquals(0, dir.listFiles((d, name) -> name.startsWith("_tmp_")).length);
+    }
+  }
+
+  @Test
+  public void testCommitAll() throws Exception {
+    RecordWriterManager mgr = new RecordWriterManagerTestBuilder()
+        .context(ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testCommitAll", false, OnRecordError.TO_ERROR, null))
+        .dirPathTemplate(getTestDir().toString() + "/${record:value('/')}")
+        .cutOffSecs(3600)
+        .build();
+
+    ActiveRecordWriters writers = new ActiveRecordWriters(mgr);
+    Date now = new Date();
+    List<RecordWriter> committed = new ArrayList<>();
+    for (String dir : new String[] {"a", "b"}) {
+      Record record = RecordCreator.create();
+      record.set(Field.create(dir));
+      RecordWriter writer = writers.get(now, now, record);
+      writer.write(record);
+      writers.release(writer, false);
+      committed.add(writer);
+    }
+
+    writers.commitAll();
+
+    for (RecordWriter writer : committed) {
+      Assert.assertTrue(writer.isClosed());
+      File dir = new File(writer.getPath().getParent().toString());
+      Assert.assertEquals(1, dir.listFiles((d, name) -> name.startsWith("prefix")).length);
+      Assert.assertEquals(0, dir.listFiles((d, name) -> name.startsWith("_tmp_")).length);
+    }
+
+    // the next batch writes to new files
+    Record record = RecordCreator.create();
+    record.set(Field.create("a"));
+    RecordWriter writer = writers.get(now, now, record);
+    Assert.assertNotSame(committed.get(0), writer);
+    Assert.assertFalse(writer.isClosed());
+    writers.closeAll();
+  }
 }
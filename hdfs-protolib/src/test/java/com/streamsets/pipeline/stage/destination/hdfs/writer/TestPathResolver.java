@@ -15,7 +15,10 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
@@ -27,7 +30,9 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 public class TestPathResolver {
@@ -280,4 +285,51 @@ public class TestPathResolver {
     Assert.assertEquals(expected, got);
 
   }
+
+  private Record createRecord(String a, String attribute) {
+    Record record = RecordCreator.create();
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create(a));
+    record.set(Field.create(map));
+    record.getHeader().setAttribute("attr", attribute);
+    return record;
+  }
+
+  @Test
+  public void testFindRecordReferences() {
+    List<String> fields = new ArrayList<>();
+    List<String> attributes = new ArrayList<>();
+    Assert.assertTrue(PathResolver.findRecordReferences(
+        "/${YYYY()}/${record:value('/a')}/${str:toLower(record:attribute(\"attr\"))}/${every(15, mm())}",
+        fields,
+        attributes
+    ));
+    Assert.assertEquals(ImmutableList.of("/a"), fields);
+    Assert.assertEquals(ImmutableList.of("attr"), attributes);
+
+    Assert.assertFalse(PathResolver.findRecordReferences("/${record:id()}", new ArrayList<>(), new ArrayList<>()));
+    Assert.assertFalse(PathResolver.findRecordReferences(
+        "/${record:value(str:concat('/', 'a'))}",
+        new ArrayList<>(),
+        new ArrayList<>()
+    ));
+    Assert.assertFalse(PathResolver.findRecordReferences("/${time:now()}", new ArrayList<>(), new ArrayList<>()));
+  }
+
+  @Test
+  public void testResolvePathMemoized() throws Exception {
+    PathResolver resolver = getPathTemplateEL(
+        "/${YYYY()}/${MM()}/${DD()}/${hh()}/${every(15, mm())}/${record:value('/a')}/${record:attribute('attr')}"
+    );
+
+    Assert.assertEquals("/2015/01/20/14/00/x/1", resolver.resolvePath(parseDate("2015-01-20T14:01:15Z"), createRecord("x", "1")));
+    // same time bucket, different minute
+    Assert.assertEquals("/2015/01/20/14/00/x/1", resolver.resolvePath(parseDate("2015-01-20T14:14:59Z"), createRecord("x", "1")));
+    // same time bucket, different field or attribute value
+    Assert.assertEquals("/2015/01/20/14/00/y/1", resolver.resolvePath(parseDate("2015-01-20T14:01:15Z"), createRecord("y", "1")));
+    Assert.assertEquals("/2015/01/20/14/00/x/2", resolver.resolvePath(parseDate("2015-01-20T14:01:15Z"), createRecord("x", "2")));
+    // next time bucket
+    Assert.assertEquals("/2015/01/20/14/15/x/1", resolver.resolvePath(parseDate("2015-01-20T14:15:00Z"), createRecord("x", "1")));
+    Assert.assertEquals("/2015/01/20/15/00/x/1", resolver.resolvePath(parseDate("2015-01-20T15:01:15Z"), createRecord("x", "1")));
+  }
 }
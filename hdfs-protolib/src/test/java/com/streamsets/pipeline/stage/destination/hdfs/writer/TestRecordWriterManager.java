@@ -589,6 +589,33 @@ public class TestRecordWriterManager {
     Assert.assertTrue(new File(f5).exists());
   }
 
+  @Test
+  public void testCommitOldFilesDiscardsFilesCommittedEachBatch() throws Exception {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    calendar.add(Calendar.HOUR, -2);
+    Date lastBatch = calendar.getTime();
+    ContextInfoCreator.setLastBatch(targetContext, lastBatch.getTime());
+
+    File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(testDir.mkdirs());
+
+    RecordWriterManager mgr = managerBuilder()
+      .dirPathTemplate(testDir.getAbsolutePath() + "/${YY()}_${MM()}_${DD()}_${hh()}/${record:value('/')}")
+      .cutOffSecs(3600)
+      .build();
+    mgr.setCommitEachBatch(true);
+
+    String f1 = createTempFile(mgr, lastBatch, "a");
+    File dir = new File(f1).getParentFile();
+
+    FileSystem fs = FileSystem.get(new URI("file:///"), new HdfsConfiguration());
+    mgr.commitOldFiles(fs);
+
+    // the file of a batch that was never committed is deleted, not published
+    Assert.assertFalse(new File(f1).exists());
+    Assert.assertEquals(0, dir.listFiles().length);
+  }
+
   @Test
   public void testShouldRoll() throws Exception {
     File testDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
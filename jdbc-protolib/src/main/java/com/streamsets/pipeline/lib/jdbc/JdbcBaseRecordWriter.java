@@ -66,6 +66,9 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
   private Map<String, String> columnsToParameters = new LinkedHashMap<>();
   private final List<JdbcFieldColumnMapping> generatedColumnMappings;
   private Map<String, Integer> columnType = new HashMap<>();
+  private Map<String, String> columnTypeName = new HashMap<>();
+  private Map<String, Integer> columnSize = new HashMap<>();
+  private Map<String, Integer> columnDecimalDigits = new HashMap<>();
   private List<String> primaryKeyColumns;
   private Map<String, String> columnsWithoutPrimaryKeys;
   JdbcRecordReader recordReader;
@@ -115,6 +118,9 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
   // Index of columns returned by DatabaseMetaData.getColumns. Defined in DatabaseMetaData class.
   private static final int COLUMN_NAME = 4;
   private static final int DATA_TYPE = 5;
+  private static final int TYPE_NAME = 6;
+  private static final int COLUMN_SIZE = 7;
+  private static final int DECIMAL_DIGITS = 9;
   private static final String MSSQL = "Microsoft";
 
   protected final int defaultOpCode;
@@ -212,6 +218,12 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
 
   int getColumnType(String columnName) { return columnType.get(columnName); }
 
+  String getColumnTypeName(String columnName) { return columnTypeName.get(columnName); }
+
+  int getColumnSize(String columnName) { return columnSize.get(columnName); }
+
+  int getColumnDecimalDigits(String columnName) { return columnDecimalDigits.get(columnName); }
+
   /**
    * Access database and obtain the metadata for the table.
    * Store columnName and "/columnName" to the columnsToFields map as a default column-to-field mapping.
@@ -234,6 +246,9 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
           columnsToFields.put(columnName, "/" + columnName); // Default implicit field mappings
           columnsToParameters.put(columnName, "?");
           columnType.put(columnName, columns.getInt(DATA_TYPE));
+          columnTypeName.put(columnName, columns.getString(TYPE_NAME));
+          columnSize.put(columnName, columns.getInt(COLUMN_SIZE));
+          columnDecimalDigits.put(columnName, columns.getInt(DECIMAL_DIGITS));
         }
       }
     } catch (SQLException e) {
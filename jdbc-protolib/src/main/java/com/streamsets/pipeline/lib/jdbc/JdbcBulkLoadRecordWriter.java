@@ -0,0 +1,237 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.codahale.metrics.Timer;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage.Context;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Base JDBC RecordWriter for the native bulk load protocols of a database.
+ *
+ * A batch made only of INSERT records with the same set of columns is streamed to the database with its bulk load
+ * protocol, in a single transaction. Any other batch (UPDATE or DELETE records, different columns or columns with
+ * custom parameters) is written as a whole with batched statements by a {@link JdbcGenericRecordWriter}, so that a
+ * batch is always committed or rolled back at once. When a bulk load fails, it is rolled back and the records are
+ * written again with batched statements so the failing records can be identified.
+ */
+public abstract class JdbcBulkLoadRecordWriter extends JdbcBaseRecordWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBulkLoadRecordWriter.class);
+  private static final String PARAMETER_PLACEHOLDER = "?";
+
+  private final boolean caseSensitive;
+  private final JdbcGenericRecordWriter batchWriter;
+  private final Timer bulkLoadTimer;
+
+  public JdbcBulkLoadRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String schema,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      List<String> customDataSqlStateCodes,
+      Context context
+  ) throws StageException {
+    super(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        rollbackOnError,
+        customMappings,
+        defaultOpCode,
+        unsupportedAction,
+        recordReader,
+        null,
+        caseSensitive,
+        customDataSqlStateCodes
+    );
+    this.caseSensitive = caseSensitive;
+    this.batchWriter = new JdbcGenericRecordWriter(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        rollbackOnError,
+        customMappings,
+        defaultOpCode,
+        unsupportedAction,
+        null,
+        recordReader,
+        caseSensitive,
+        customDataSqlStateCodes,
+        true,
+        context
+    );
+    this.bulkLoadTimer = context.createTimer("Bulk Load Timer");
+  }
+
+  /**
+   * Whether the given columns can be written with the bulk load protocol.
+   *
+   * @param columns columns to write
+   * @return false if the records must be written with batched statements instead
+   */
+  protected abstract boolean canBulkLoad(List<String> columns);
+
+  /**
+   * Streams the records to the table with the bulk load protocol. Records that can't be converted to the column
+   * types are added to errorRecords and skipped. The caller commits or rolls back the transaction.
+   *
+   * @param connection connection to write to
+   * @param columns columns to write, in order
+   * @param records INSERT records to write
+   * @param errorRecords the list to take error records
+   * @throws SQLException if the bulk load fails
+   */
+  protected abstract void bulkLoad(
+      Connection connection,
+      List<String> columns,
+      List<Record> records,
+      List<OnRecordErrorException> errorRecords
+  ) throws SQLException, StageException;
+
+  /**
+   * Column name as it has to be written in a statement.
+   */
+  protected String getQuotedColumnName(String column) {
+    return caseSensitive ? "\"" + column + "\"" : column;
+  }
+
+  @Override
+  public List<OnRecordErrorException> writePerRecord(Iterator<Record> recordIterator) throws StageException {
+    return batchWriter.writePerRecord(recordIterator);
+  }
+
+  @Override
+  public List<OnRecordErrorException> writeBatch(Iterator<Record> recordIterator) throws StageException {
+    final List<OnRecordErrorException> errorRecords = new LinkedList<>();
+    List<Record> records = new ArrayList<>();
+    List<String> batchColumns = null;
+    boolean bulkLoadable = true;
+
+    while (recordIterator.hasNext()) {
+      Record record = recordIterator.next();
+      int opCode = getOperationCode(record, errorRecords);
+      if (opCode <= 0) {
+        // Unsupported operation, already handled
+        continue;
+      }
+      if (bulkLoadable) {
+        List<String> columns = opCode == OperationType.INSERT_CODE ? getBulkLoadColumns(record) : null;
+        if (columns == null || (batchColumns != null && !columns.equals(batchColumns))) {
+          bulkLoadable = false;
+        }
+        batchColumns = columns;
+      }
+      records.add(record);
+    }
+    if (!records.isEmpty()) {
+      write(records, bulkLoadable ? batchColumns : null, errorRecords);
+    }
+    return errorRecords;
+  }
+
+  /**
+   * Columns of an INSERT record for the bulk load, or null if the record has to be written with a statement.
+   */
+  private List<String> getBulkLoadColumns(Record record) {
+    SortedMap<String, String> columnsToParameters = recordReader.getColumnsToParameters(
+        record,
+        OperationType.INSERT_CODE,
+        getColumnsToParameters(),
+        getColumnsToFields()
+    );
+    if (columnsToParameters.isEmpty()) {
+      return null;
+    }
+    for (Map.Entry<String, String> entry : columnsToParameters.entrySet()) {
+      if (!PARAMETER_PLACEHOLDER.equals(entry.getValue())) {
+        return null;
+      }
+    }
+    List<String> columns = new ArrayList<>(columnsToParameters.keySet());
+    return canBulkLoad(columns) ? columns : null;
+  }
+
+  private void write(
+      List<Record> records,
+      List<String> columns,
+      List<OnRecordErrorException> errorRecords
+  ) throws StageException {
+    if (columns == null) {
+      errorRecords.addAll(batchWriter.writeBatch(records.iterator()));
+      return;
+    }
+
+    List<OnRecordErrorException> conversionErrors = new LinkedList<>();
+    boolean loaded = false;
+    try (Connection connection = getDataSource().getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      // A single transaction, like the batched statements, so a failed bulk load can be written again
+      connection.setAutoCommit(false);
+      try (Timer.Context t = bulkLoadTimer.time()) {
+        bulkLoad(connection, columns, records, conversionErrors);
+        connection.commit();
+        loaded = true;
+      } catch (SQLException e) {
+        LOG.info(
+            "Bulk load of {} records into {} failed, writing them with batched statements: {}",
+            records.size(),
+            getTableName(),
+            jdbcUtil.formatSqlException(e)
+        );
+        connection.rollback();
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      handleSqlException(e);
+    }
+
+    if (loaded) {
+      errorRecords.addAll(conversionErrors);
+    } else {
+      errorRecords.addAll(batchWriter.writeBatch(records.iterator()));
+    }
+  }
+
+  @Override
+  public void deinit() {
+    batchWriter.deinit();
+  }
+}
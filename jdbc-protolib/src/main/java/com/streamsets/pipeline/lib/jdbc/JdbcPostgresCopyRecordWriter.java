@@ -0,0 +1,186 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.base.Joiner;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage.Context;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC RecordWriter that loads INSERT records with PostgreSQL COPY ... FROM STDIN in binary format.
+ * Records with other operations are written with batched statements.
+ */
+public class JdbcPostgresCopyRecordWriter extends JdbcBulkLoadRecordWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcPostgresCopyRecordWriter.class);
+
+  /** Encoded rows are sent to the server whenever this many bytes are buffered */
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Class constructor
+   *
+   * @param connectionString database connection string
+   * @param dataSource JDBC {@link DataSource} to get a connection from
+   * @param schema schema name
+   * @param tableName table name
+   * @param rollbackOnError whether to attempt rollback of failed batched statements
+   * @param customMappings any custom mappings the user provided
+   * @param defaultOpCode default operation code
+   * @param unsupportedAction What action to take if operation is invalid
+   * @param recordReader JDBCRecordReader to obtain data from incoming record
+   * @param caseSensitive indicate whether to enclose the table name or not
+   * @throws StageException
+   */
+  public JdbcPostgresCopyRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String schema,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      List<String> customDataSqlStateCodes,
+      Context context
+  ) throws StageException {
+    super(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        rollbackOnError,
+        customMappings,
+        defaultOpCode,
+        unsupportedAction,
+        recordReader,
+        caseSensitive,
+        customDataSqlStateCodes,
+        context
+    );
+  }
+
+  @Override
+  protected boolean canBulkLoad(List<String> columns) {
+    for (String column : columns) {
+      if (PostgresBinaryCopyEncoder.forType(getColumnTypeName(column)) == null) {
+        LOG.debug("Column {} of type {} has no binary COPY encoding", column, getColumnTypeName(column));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected void bulkLoad(
+      Connection connection,
+      List<String> columns,
+      List<Record> records,
+      List<OnRecordErrorException> errorRecords
+  ) throws SQLException {
+    List<PostgresBinaryCopyEncoder.ValueEncoder> encoders = new ArrayList<>(columns.size());
+    List<String> quotedColumns = new ArrayList<>(columns.size());
+    for (String column : columns) {
+      encoders.add(PostgresBinaryCopyEncoder.forType(getColumnTypeName(column)));
+      quotedColumns.add(getQuotedColumnName(column));
+    }
+
+    final String copySql = "COPY " + getTableName() + " (" + Joiner.on(", ").join(quotedColumns)
+        + ") FROM STDIN WITH (FORMAT binary)";
+    LOG.debug("Executing query: {}", copySql);
+
+    CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE * 2);
+      ByteArrayOutputStream row = new ByteArrayOutputStream();
+      DataOutputStream rowOut = new DataOutputStream(row);
+      buffer.write(PostgresBinaryCopyEncoder.HEADER);
+
+      for (Record record : records) {
+        row.reset();
+        if (!encodeRow(record, columns, encoders, rowOut, errorRecords)) {
+          continue;
+        }
+        row.writeTo(buffer);
+        if (buffer.size() >= COPY_BUFFER_SIZE) {
+          copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+          buffer.reset();
+        }
+      }
+
+      row.reset();
+      rowOut.writeShort(PostgresBinaryCopyEncoder.TRAILER);
+      row.writeTo(buffer);
+      copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+      long rows = copyIn.endCopy();
+      LOG.debug("Copied {} rows into {}", rows, getTableName());
+    } catch (IOException e) {
+      throw new SQLException("Error encoding COPY data: " + e.getMessage(), e);
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  private boolean encodeRow(
+      Record record,
+      List<String> columns,
+      List<PostgresBinaryCopyEncoder.ValueEncoder> encoders,
+      DataOutputStream out,
+      List<OnRecordErrorException> errorRecords
+  ) throws IOException {
+    out.writeShort(columns.size());
+    for (int i = 0; i < columns.size(); i++) {
+      String column = columns.get(i);
+      Field field = record.get(recordReader.getFieldPath(column, getColumnsToFields(), OperationType.INSERT_CODE));
+      try {
+        PostgresBinaryCopyEncoder.encode(encoders.get(i), field, out);
+      } catch (IllegalArgumentException | UnsupportedOperationException | ArithmeticException e) {
+        LOG.debug("Can't encode field of type {} for column {}: {}", field.getType(), column, e.getMessage());
+        errorRecords.add(new OnRecordErrorException(
+            record,
+            JdbcErrors.JDBC_23,
+            field.getValue(),
+            field.getType().toString(),
+            column,
+            getColumnType(column)
+        ));
+        return false;
+      }
+    }
+    return true;
+  }
+}
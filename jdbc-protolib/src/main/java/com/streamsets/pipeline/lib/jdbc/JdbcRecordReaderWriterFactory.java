@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.jdbc;
 
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Stage.Context;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
 import com.streamsets.pipeline.lib.operation.ChangeLogFormat;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
@@ -28,6 +29,43 @@ public final class JdbcRecordReaderWriterFactory {
 
   private JdbcRecordReaderWriterFactory(){}
 
+  public static JdbcRecordWriter createJdbcRecordWriter(
+      String connectionString,
+      HikariDataSource dataSource,
+      String schema,
+      String tableName,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      boolean rollbackOnError,
+      boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      DuplicateKeyAction duplicateKeyAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      List<String> customDataSqlStateCodes,
+      Context context
+  ) throws StageException {
+    return createJdbcRecordWriter(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        customMappings,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        defaultOpCode,
+        unsupportedAction,
+        duplicateKeyAction,
+        recordReader,
+        caseSensitive,
+        customDataSqlStateCodes,
+        false,
+        context
+    );
+  }
+
   // Called by JdbcTarget
   public static JdbcRecordWriter createJdbcRecordWriter(
       String connectionString,
@@ -44,9 +82,41 @@ public final class JdbcRecordReaderWriterFactory {
       JdbcRecordReader recordReader,
       boolean caseSensitive,
       List<String> customDataSqlStateCodes,
+      boolean useBulkLoad,
       Context context
   ) throws StageException {
-    if (defaultOpCode == OperationType.LOAD_CODE) {
+    DatabaseVendor vendor = DatabaseVendor.forUrl(connectionString);
+    if (useBulkLoad && vendor == DatabaseVendor.POSTGRESQL) {
+      return new JdbcPostgresCopyRecordWriter(
+          connectionString,
+          dataSource,
+          schema,
+          tableName,
+          rollbackOnError,
+          customMappings,
+          defaultOpCode,
+          unsupportedAction,
+          recordReader,
+          caseSensitive,
+          customDataSqlStateCodes,
+          context
+      );
+    } else if (useBulkLoad && vendor == DatabaseVendor.SQL_SERVER) {
+      return new JdbcSqlServerBulkCopyRecordWriter(
+          connectionString,
+          dataSource,
+          schema,
+          tableName,
+          rollbackOnError,
+          customMappings,
+          defaultOpCode,
+          unsupportedAction,
+          recordReader,
+          caseSensitive,
+          customDataSqlStateCodes,
+          context
+      );
+    } else if (defaultOpCode == OperationType.LOAD_CODE) {
       return new JdbcLoadRecordWriter(
           connectionString,
           dataSource,
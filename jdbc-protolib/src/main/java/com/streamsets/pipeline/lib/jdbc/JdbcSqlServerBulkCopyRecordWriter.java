@@ -0,0 +1,390 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.google.common.collect.ImmutableSet;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage.Context;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
+import microsoft.sql.DateTimeOffset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC RecordWriter that loads INSERT records with the SQL Server bulk copy API.
+ * Records with other operations are written with batched statements.
+ */
+public class JdbcSqlServerBulkCopyRecordWriter extends JdbcBulkLoadRecordWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcSqlServerBulkCopyRecordWriter.class);
+
+  private static final Set<Integer> SUPPORTED_TYPES = ImmutableSet.of(
+      Types.BIT,
+      Types.BOOLEAN,
+      Types.TINYINT,
+      Types.SMALLINT,
+      Types.INTEGER,
+      Types.BIGINT,
+      Types.REAL,
+      Types.FLOAT,
+      Types.DOUBLE,
+      Types.DECIMAL,
+      Types.NUMERIC,
+      Types.CHAR,
+      Types.VARCHAR,
+      Types.LONGVARCHAR,
+      Types.NCHAR,
+      Types.NVARCHAR,
+      Types.LONGNVARCHAR,
+      Types.BINARY,
+      Types.VARBINARY,
+      Types.LONGVARBINARY,
+      Types.DATE,
+      Types.TIME,
+      Types.TIMESTAMP,
+      microsoft.sql.Types.DATETIMEOFFSET
+  );
+
+  /**
+   * Class constructor
+   *
+   * @param connectionString database connection string
+   * @param dataSource JDBC {@link DataSource} to get a connection from
+   * @param schema schema name
+   * @param tableName table name
+   * @param rollbackOnError whether to attempt rollback of failed batched statements
+   * @param customMappings any custom mappings the user provided
+   * @param defaultOpCode default operation code
+   * @param unsupportedAction What action to take if operation is invalid
+   * @param recordReader JDBCRecordReader to obtain data from incoming record
+   * @param caseSensitive indicate whether to enclose the table name or not
+   * @throws StageException
+   */
+  public JdbcSqlServerBulkCopyRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String schema,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      List<String> customDataSqlStateCodes,
+      Context context
+  ) throws StageException {
+    super(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        rollbackOnError,
+        customMappings,
+        defaultOpCode,
+        unsupportedAction,
+        recordReader,
+        caseSensitive,
+        customDataSqlStateCodes,
+        context
+    );
+  }
+
+  @Override
+  protected boolean canBulkLoad(List<String> columns) {
+    for (String column : columns) {
+      if (!SUPPORTED_TYPES.contains(getColumnType(column))) {
+        LOG.debug("Column {} of JDBC type {} is not supported by bulk copy", column, getColumnType(column));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected void bulkLoad(
+      Connection connection,
+      List<String> columns,
+      List<Record> records,
+      List<OnRecordErrorException> errorRecords
+  ) throws SQLException {
+    List<Object[]> rows = new ArrayList<>(records.size());
+    for (Record record : records) {
+      Object[] row = toRow(record, columns, errorRecords);
+      if (row != null) {
+        rows.add(row);
+      }
+    }
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+    // NULL values are written as such instead of being replaced by the column defaults, as an INSERT does
+    options.setKeepNulls(true);
+    options.setBulkCopyTimeout(0);
+
+    try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class))) {
+      bulkCopy.setBulkCopyOptions(options);
+      bulkCopy.setDestinationTableName(getTableName());
+      for (int i = 0; i < columns.size(); i++) {
+        bulkCopy.addColumnMapping(i + 1, getQuotedColumnName(columns.get(i)));
+      }
+      LOG.debug("Bulk copying {} rows into {}", rows.size(), getTableName());
+      bulkCopy.writeToServer(new RowsBulkRecord(columns, rows));
+    }
+  }
+
+  private Object[] toRow(Record record, List<String> columns, List<OnRecordErrorException> errorRecords) {
+    Object[] row = new Object[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      String column = columns.get(i);
+      Field field = record.get(recordReader.getFieldPath(column, getColumnsToFields(), OperationType.INSERT_CODE));
+      try {
+        row[i] = toColumnValue(field, getColumnType(column));
+      } catch (IllegalArgumentException | UnsupportedOperationException | ArithmeticException e) {
+        LOG.debug("Can't convert field of type {} for column {}: {}", field.getType(), column, e.getMessage());
+        errorRecords.add(new OnRecordErrorException(
+            record,
+            JdbcErrors.JDBC_23,
+            field.getValue(),
+            field.getType().toString(),
+            column,
+            getColumnType(column)
+        ));
+        return null;
+      }
+    }
+    return row;
+  }
+
+  private static Object toColumnValue(Field field, int columnType) {
+    if (field == null || field.getValue() == null) {
+      return null;
+    }
+    switch (columnType) {
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return field.getValueAsBoolean();
+      case Types.TINYINT:
+      case Types.SMALLINT:
+        return field.getValueAsShort();
+      case Types.INTEGER:
+        return field.getValueAsInteger();
+      case Types.BIGINT:
+        return field.getValueAsLong();
+      case Types.REAL:
+        return field.getValueAsFloat();
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return field.getValueAsDouble();
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        return field.getValueAsDecimal();
+      case Types.BINARY:
+      case Types.VARBINARY:
+      case Types.LONGVARBINARY:
+        return field.getValueAsByteArray();
+      case Types.DATE:
+        return new java.sql.Date(toTimestamp(field).getTime());
+      case Types.TIME:
+        return new java.sql.Time(toTimestamp(field).getTime());
+      case Types.TIMESTAMP:
+        return toTimestamp(field);
+      case microsoft.sql.Types.DATETIMEOFFSET:
+        if (field.getType() == Field.Type.ZONED_DATETIME) {
+          ZonedDateTime dateTime = field.getValueAsZonedDateTime();
+          return DateTimeOffset.valueOf(
+              Timestamp.from(dateTime.toInstant()),
+              dateTime.getOffset().getTotalSeconds() / 60
+          );
+        }
+        return DateTimeOffset.valueOf(toTimestamp(field), 0);
+      default:
+        return field.getValueAsString();
+    }
+  }
+
+  private static Timestamp toTimestamp(Field field) {
+    if (field.getType() == Field.Type.ZONED_DATETIME) {
+      return Timestamp.from(field.getValueAsZonedDateTime().toInstant());
+    }
+    return new Timestamp(field.getValueAsDatetime().getTime());
+  }
+
+  /**
+   * Bulk copy source over rows already converted to the Java types of the destination columns.
+   */
+  private class RowsBulkRecord implements ISQLServerBulkRecord {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> columns;
+    private final transient Iterator<Object[]> rows;
+    private transient Object[] current;
+    private final transient Map<Integer, ColumnMetadata> columnMetadata = new HashMap<>();
+    private transient DateTimeFormatter timestampWithTimezoneFormatter;
+    private transient DateTimeFormatter timeWithTimezoneFormatter;
+
+    RowsBulkRecord(List<String> columns, List<Object[]> rows) {
+      this.columns = columns;
+      this.rows = rows.iterator();
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+      Set<Integer> ordinals = new LinkedHashSet<>();
+      for (int i = 1; i <= columns.size(); i++) {
+        ordinals.add(i);
+      }
+      return ordinals;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      ColumnMetadata metadata = columnMetadata.get(column);
+      return metadata != null ? metadata.name : columns.get(column - 1);
+    }
+
+    @Override
+    public int getColumnType(int column) {
+      ColumnMetadata metadata = columnMetadata.get(column);
+      return metadata != null
+          ? metadata.jdbcType
+          : JdbcSqlServerBulkCopyRecordWriter.this.getColumnType(columns.get(column - 1));
+    }
+
+    @Override
+    public int getPrecision(int column) {
+      ColumnMetadata metadata = columnMetadata.get(column);
+      return metadata != null ? metadata.precision : getColumnSize(columns.get(column - 1));
+    }
+
+    @Override
+    public int getScale(int column) {
+      ColumnMetadata metadata = columnMetadata.get(column);
+      return metadata != null ? metadata.scale : getColumnDecimalDigits(columns.get(column - 1));
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+      return false;
+    }
+
+    @Override
+    public Object[] getRowData() {
+      return current;
+    }
+
+    @Override
+    public boolean next() {
+      current = rows.hasNext() ? rows.next() : null;
+      return current != null;
+    }
+
+    // Column metadata set by the caller overrides the one of the destination table, and date time formats are used
+    // by the driver to parse values given as strings.
+
+    public void addColumnMetadata(
+        int positionInFile,
+        String name,
+        int jdbcType,
+        int precision,
+        int scale,
+        DateTimeFormatter dateTimeFormatter
+    ) {
+      Utils.checkArgument(
+          positionInFile >= 1 && positionInFile <= columns.size(),
+          Utils.format("Column position {} is out of range", positionInFile)
+      );
+      columnMetadata.put(positionInFile, new ColumnMetadata(name, jdbcType, precision, scale, dateTimeFormatter));
+    }
+
+    public void addColumnMetadata(int positionInFile, String name, int jdbcType, int precision, int scale) {
+      addColumnMetadata(positionInFile, name, jdbcType, precision, scale, null);
+    }
+
+    public void setTimestampWithTimezoneFormat(String dateTimeFormat) {
+      setTimestampWithTimezoneFormat(DateTimeFormatter.ofPattern(dateTimeFormat));
+    }
+
+    public void setTimestampWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {
+      this.timestampWithTimezoneFormatter = dateTimeFormatter;
+    }
+
+    public void setTimeWithTimezoneFormat(String timeFormat) {
+      setTimeWithTimezoneFormat(DateTimeFormatter.ofPattern(timeFormat));
+    }
+
+    public void setTimeWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {
+      this.timeWithTimezoneFormatter = dateTimeFormatter;
+    }
+
+    public DateTimeFormatter getColumnDateTimeFormatter(int column) {
+      ColumnMetadata metadata = columnMetadata.get(column);
+      if (metadata != null && metadata.dateTimeFormatter != null) {
+        return metadata.dateTimeFormatter;
+      }
+      switch (getColumnType(column)) {
+        case Types.TIMESTAMP_WITH_TIMEZONE:
+        case microsoft.sql.Types.DATETIMEOFFSET:
+          return timestampWithTimezoneFormatter;
+        case Types.TIME_WITH_TIMEZONE:
+          return timeWithTimezoneFormatter;
+        default:
+          return null;
+      }
+    }
+  }
+
+  private static final class ColumnMetadata {
+    private final String name;
+    private final int jdbcType;
+    private final int precision;
+    private final int scale;
+    private final DateTimeFormatter dateTimeFormatter;
+
+    ColumnMetadata(String name, int jdbcType, int precision, int scale, DateTimeFormatter dateTimeFormatter) {
+      this.name = name;
+      this.jdbcType = jdbcType;
+      this.precision = precision;
+      this.scale = scale;
+      this.dateTimeFormatter = dateTimeFormatter;
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.lib.jdbc;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import com.google.common.base.Strings;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
@@ -86,6 +87,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean.MILLISECONDS;
 
@@ -145,6 +149,17 @@ public class JdbcUtil {
    */
   public static final String MAX_OFFSET_VALUE_QUERY = "SELECT MAX(%s) FROM %s";
 
+  /**
+   * The query to count the rows of a table
+   */
+  public static final String ROW_COUNT_QUERY = "SELECT COUNT(*) FROM %s";
+
+  /**
+   * The query to select the first offset column value of each one of the given number of buckets
+   */
+  public static final String PARTITION_BOUNDARY_QUERY = "SELECT MIN(sdc_offset) FROM (SELECT %1$s AS sdc_offset," +
+      " NTILE(%2$d) OVER (ORDER BY %1$s) AS sdc_bucket FROM %3$s) sdc_buckets GROUP BY sdc_bucket ORDER BY sdc_bucket";
+
   /**
    * The index within the result set for the column that contains the min or max offset value
    */
@@ -428,68 +443,7 @@ public class JdbcUtil {
         ResultSet rs = st.executeQuery(minMaxOffsetQuery)
       ) {
         if (rs.next()) {
-          String minMaxValue = null;
-          final int colType = rs.getMetaData().getColumnType(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
-
-          switch (vendor) {
-            case ORACLE:
-              if(TableContextUtil.VENDOR_PARTITIONABLE_TYPES.get(DatabaseVendor.ORACLE).contains(colType)) {
-                switch (colType) {
-                  case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_LOCAL_TIME_ZONE:
-                  case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE:
-                    OffsetDateTime offsetDateTime = rs.getObject(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX, OffsetDateTime.class);
-                    if(offsetDateTime != null) {
-                      minMaxValue = offsetDateTime.toZonedDateTime().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                    }
-                    break;
-                  default:
-                    throw new IllegalStateException(Utils.format("Unexpected type: {}", colType));
-                }
-              }
-              break;
-
-            case SQL_SERVER:
-              if(TableContextUtil.VENDOR_PARTITIONABLE_TYPES.get(DatabaseVendor.SQL_SERVER).contains(colType)) {
-                if (colType == TableContextUtil.TYPE_SQL_SERVER_DATETIMEOFFSET) {
-                  DateTimeOffset dateTimeOffset = rs.getObject(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX, DateTimeOffset.class);
-                  if (dateTimeOffset != null) {
-                    minMaxValue = dateTimeOffset.getOffsetDateTime().toZonedDateTime().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                  }
-                }
-              }
-              break;
-          }
-
-          if(minMaxValue == null) {
-            switch (colType) {
-              case Types.DATE:
-                java.sql.Date date = rs.getDate(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
-                if (date != null) {
-                  minMaxValue = String.valueOf(
-                      getEpochMillisFromSqlDate(date)
-                  );
-                }
-                break;
-              case Types.TIME:
-                java.sql.Time time = rs.getTime(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
-                if (time != null) {
-                  minMaxValue = String.valueOf(
-                      getEpochMillisFromSqlTime(time)
-                  );
-                }
-                break;
-              case Types.TIMESTAMP:
-                Timestamp timestamp = rs.getTimestamp(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
-                if (timestamp != null) {
-                  final Instant instant = timestamp.toInstant();
-                  minMaxValue = String.valueOf(instant.toEpochMilli());
-                }
-                break;
-              default:
-                minMaxValue = rs.getString(MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
-                break;
-            }
-          }
+          String minMaxValue = getOffsetValue(vendor, rs, MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
           if (minMaxValue != null) {
             minMaxOffsetValues.put(offsetColumn, minMaxValue);
           }
@@ -502,6 +456,143 @@ public class JdbcUtil {
     return minMaxOffsetValues;
   }
 
+  /**
+   * Returns the values splitting the rows of a table in buckets of about rowsPerPartition rows each, ordered by the
+   * offset column.  The first value of each bucket but the first one is returned, so the list is empty when the table
+   * fits in a single bucket.
+   *
+   * The buckets are computed by the database with the NTILE window function, vendors not supporting it fail with an
+   * {@link SQLException}.
+   */
+  public static List<String> getPartitionBoundaryValues(
+      DatabaseVendor vendor,
+      Connection connection,
+      String schema,
+      String tableName,
+      QuoteChar quoteChar,
+      String offsetColumn,
+      long rowsPerPartition,
+      int maxPartitions
+  ) throws SQLException {
+    final String qualifiedTableName = TableContextUtil.getQuotedQualifiedTableName(
+        schema,
+        tableName,
+        quoteChar.getQuoteCharacter()
+    );
+    String quoteCharLeft = quoteChar.getQuoteCharacter();
+    String quoteCharRight = quoteChar.getQuoteCharacter().equals("[") ? "]" : quoteChar.getQuoteCharacter();
+    final String qualifiedOffsetColumn = TableContextUtil.getQuotedObjectName(offsetColumn, quoteCharLeft, quoteCharRight);
+
+    long rowCount = 0;
+    final String rowCountQuery = String.format(ROW_COUNT_QUERY, qualifiedTableName);
+    LOG.debug("Issuing row count query: {}", rowCountQuery);
+    try (
+      Statement st = connection.createStatement();
+      ResultSet rs = st.executeQuery(rowCountQuery)
+    ) {
+      if (rs.next()) {
+        rowCount = rs.getLong(1);
+      }
+    }
+
+    final long buckets = Math.min((rowCount + rowsPerPartition - 1) / rowsPerPartition, maxPartitions);
+    final List<String> boundaries = new ArrayList<>();
+    if (buckets < 2) {
+      return boundaries;
+    }
+
+    final String boundaryQuery = String.format(
+        PARTITION_BOUNDARY_QUERY,
+        qualifiedOffsetColumn,
+        buckets,
+        qualifiedTableName
+    );
+    LOG.debug("Issuing partition boundary query: {}", boundaryQuery);
+    try (
+      Statement st = connection.createStatement();
+      ResultSet rs = st.executeQuery(boundaryQuery)
+    ) {
+      String previous = null;
+      boolean first = true;
+      while (rs.next()) {
+        String value = getOffsetValue(vendor, rs, MIN_MAX_OFFSET_VALUE_QUERY_RESULT_SET_INDEX);
+        // the first bucket starts at the minimum value, and skewed values can span several buckets
+        if (!first && value != null && !value.equals(previous)) {
+          boundaries.add(value);
+        }
+        first = false;
+        previous = value;
+      }
+    }
+    return boundaries;
+  }
+
+  private static String getOffsetValue(DatabaseVendor vendor, ResultSet rs, int index) throws SQLException {
+    String offsetValue = null;
+    final int colType = rs.getMetaData().getColumnType(index);
+
+    switch (vendor) {
+      case ORACLE:
+        if(TableContextUtil.VENDOR_PARTITIONABLE_TYPES.get(DatabaseVendor.ORACLE).contains(colType)) {
+          switch (colType) {
+            case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+            case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE:
+              OffsetDateTime offsetDateTime = rs.getObject(index, OffsetDateTime.class);
+              if(offsetDateTime != null) {
+                offsetValue = offsetDateTime.toZonedDateTime().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+              }
+              break;
+            default:
+              throw new IllegalStateException(Utils.format("Unexpected type: {}", colType));
+          }
+        }
+        break;
+
+      case SQL_SERVER:
+        if(TableContextUtil.VENDOR_PARTITIONABLE_TYPES.get(DatabaseVendor.SQL_SERVER).contains(colType)) {
+          if (colType == TableContextUtil.TYPE_SQL_SERVER_DATETIMEOFFSET) {
+            DateTimeOffset dateTimeOffset = rs.getObject(index, DateTimeOffset.class);
+            if (dateTimeOffset != null) {
+              offsetValue = dateTimeOffset.getOffsetDateTime().toZonedDateTime().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            }
+          }
+        }
+        break;
+    }
+
+    if(offsetValue == null) {
+      switch (colType) {
+        case Types.DATE:
+          java.sql.Date date = rs.getDate(index);
+          if (date != null) {
+            offsetValue = String.valueOf(
+                getEpochMillisFromSqlDate(date)
+            );
+          }
+          break;
+        case Types.TIME:
+          java.sql.Time time = rs.getTime(index);
+          if (time != null) {
+            offsetValue = String.valueOf(
+                getEpochMillisFromSqlTime(time)
+            );
+          }
+          break;
+        case Types.TIMESTAMP:
+          Timestamp timestamp = rs.getTimestamp(index);
+          if (timestamp != null) {
+            final Instant instant = timestamp.toInstant();
+            offsetValue = String.valueOf(instant.toEpochMilli());
+          }
+          break;
+        default:
+          offsetValue = rs.getString(index);
+          break;
+      }
+    }
+    return offsetValue;
+  }
+
   /**
    * Wrapper for {@link java.sql.DatabaseMetaData#getImportedKeys(String, String, String)}
    *
@@ -558,7 +649,7 @@ public class JdbcUtil {
     header.setAttribute(jdbcNameSpacePrefix + "tables", Joiner.on(",").join(tableNames));
   }
 
-  private String getClobString(Clob data, int maxClobSize) throws IOException, SQLException {
+  String getClobString(Clob data, int maxClobSize) throws IOException, SQLException {
     if (data == null) {
       return null;
     }
@@ -584,7 +675,7 @@ public class JdbcUtil {
     return sb.toString();
   }
 
-  private byte[] getBlobBytes(Blob data, int maxBlobSize) throws IOException, SQLException {
+  byte[] getBlobBytes(Blob data, int maxBlobSize) throws IOException, SQLException {
     if (data == null) {
       return null;
     }
@@ -901,33 +992,66 @@ public class JdbcUtil {
       boolean timestampToString,
       DatabaseVendor vendor
   ) throws SQLException, StageException {
-    ResultSetMetaData md = rs.getMetaData();
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(md.getColumnCount());
+    return createRowConverter(
+        rs,
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        unknownTypeAction,
+        recordHeader,
+        timestampToString,
+        vendor
+    ).toFields(rs, errorRecordHandler);
+  }
 
-    for (int i = 1; i <= md.getColumnCount(); i++) {
-      try {
-        if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
-          DataType dataType = columnsToTypes.get(md.getColumnName(i));
-          Field field = resultToField(
-              md,
-              rs,
-              i,
-              maxClobSize,
-              maxBlobSize,
-              dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
-              unknownTypeAction,
-              timestampToString,
-              vendor
-          );
-          fields.put(md.getColumnLabel(i), field);
-        }
-      } catch (IOException|SQLException e) {
-        LOG.debug("Can't read from JDBC: {}", e.getMessage(), e);
-        errorRecordHandler.onError(JdbcErrors.JDBC_03, md.getColumnName(i), md.getColumnType(i), rs.getObject(i), e);
-      }
+  /**
+   * Returns the given converter if it was created for the result set, otherwise a new converter for it. Stages reading
+   * many rows from the same result set should keep the returned converter and pass it back for the next row.
+   */
+  public ResultSetRowConverter getRowConverter(
+      ResultSetRowConverter rowConverter,
+      ResultSet rs,
+      CommonSourceConfigBean commonSourceBean,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    if (rowConverter != null && rowConverter.isCreatedFor(rs)) {
+      return rowConverter;
     }
+    return createRowConverter(
+        rs,
+        commonSourceBean.maxClobSize,
+        commonSourceBean.maxBlobSize,
+        Collections.emptyMap(),
+        unknownTypeAction,
+        recordHeader,
+        commonSourceBean.convertTimestampToString,
+        vendor
+    );
+  }
 
-    return fields;
+  public ResultSetRowConverter createRowConverter(
+      ResultSet rs,
+      int maxClobSize,
+      int maxBlobSize,
+      Map<String, DataType> columnsToTypes,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    return new ResultSetRowConverter(
+        this,
+        rs,
+        maxClobSize,
+        maxBlobSize,
+        columnsToTypes,
+        unknownTypeAction,
+        recordHeader,
+        timestampToString,
+        vendor
+    );
   }
 
   private HikariConfig createDataSourceConfig(
@@ -1124,6 +1248,67 @@ public class JdbcUtil {
     }
   }
 
+  /**
+   * Write records to potentially different schemas and tables using EL expressions, writing the different tables
+   * concurrently on the given executor, and handle errors.
+   *
+   * The records of each table are written in order by a single task with the table's own record writer and
+   * connection, so the per table transaction semantics are the same as when writing sequentially. Errors are handed
+   * to the error record handler from the calling thread once all the tables have been written.
+   *
+   * @param batch batch of SDC records
+   * @param schemaTableClassifier classifier to group records according to the schema and table names, resolving the
+   *     EL expressions involved.
+   * @param recordWriters JDBC record writer cache
+   * @param errorRecordHandler error record handler
+   * @param perRecord indicate record or batch update
+   * @param executor executor writing the tables, its size bounds the connections used at the same time
+   * @throws StageException
+   */
+  public void write(
+      Batch batch,
+      SchemaTableClassifier schemaTableClassifier,
+      LoadingCache<SchemaAndTable, JdbcRecordWriter> recordWriters,
+      ErrorRecordHandler errorRecordHandler,
+      boolean perRecord,
+      ExecutorService executor
+  ) throws StageException {
+    Multimap<SchemaAndTable, Record> partitions = schemaTableClassifier.classify(batch);
+
+    List<Future<List<OnRecordErrorException>>> futures = new ArrayList<>(partitions.keySet().size());
+    for (SchemaAndTable key : partitions.keySet()) {
+      Collection<Record> records = partitions.get(key);
+      futures.add(executor.submit(() -> writeRecords(records.iterator(), key, recordWriters, perRecord)));
+    }
+
+    // Wait for every table before reporting anything, so no writer is left running if the handler throws
+    List<OnRecordErrorException> errors = new ArrayList<>();
+    Throwable failure = null;
+    for (Future<List<OnRecordErrorException>> future : futures) {
+      try {
+        errors.addAll(future.get());
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+
+    for (OnRecordErrorException error : errors) {
+      errorRecordHandler.onError(error);
+    }
+
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, StageException.class);
+      throw new StageException(JdbcErrors.JDBC_301, failure.toString(), failure);
+    }
+  }
+
   /**
    * Write records to the evaluated tables and handle errors.
    *
@@ -1173,6 +1358,17 @@ public class JdbcUtil {
       LoadingCache<T, JdbcRecordWriter> recordWriters,
       ErrorRecordHandler errorRecordHandler,
       boolean perRecord
+  ) throws StageException {
+    for (OnRecordErrorException error : writeRecords(recordIterator, key, recordWriters, perRecord)) {
+      errorRecordHandler.onError(error);
+    }
+  }
+
+  private <T> List<OnRecordErrorException> writeRecords(
+      Iterator<Record> recordIterator,
+      T key,
+      LoadingCache<T, JdbcRecordWriter> recordWriters,
+      boolean perRecord
   ) throws StageException {
     final JdbcRecordWriter jdbcRecordWriter;
     try {
@@ -1190,19 +1386,16 @@ public class JdbcUtil {
         messageParams = new Object[] {ex.getMessage(), ex.getCause()};
       }
       // Failed to create RecordWriter, report all as error records.
+      List<OnRecordErrorException> errors = new ArrayList<>();
       while (recordIterator.hasNext()) {
         Record record = recordIterator.next();
-        errorRecordHandler.onError(new OnRecordErrorException(record, errorCode, messageParams));
+        errors.add(new OnRecordErrorException(record, errorCode, messageParams));
       }
-      return;
+      return errors;
     }
-    List<OnRecordErrorException> errors = perRecord
+    return perRecord
         ? jdbcRecordWriter.writePerRecord(recordIterator)
         : jdbcRecordWriter.writeBatch(recordIterator);
-
-    for (OnRecordErrorException error : errors) {
-      errorRecordHandler.onError(error);
-    }
   }
 
   /**
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Encodes field values in the PostgreSQL binary COPY format.
+ *
+ * Each value is written as its length followed by the bytes of the binary representation of the column type, or a
+ * length of -1 for NULL. Only column types with a fixed and documented binary representation are supported.
+ */
+final class PostgresBinaryCopyEncoder {
+
+  /** Signature, flags and header extension length of a binary COPY stream. */
+  static final byte[] HEADER = {
+      'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+      0, 0, 0, 0,
+      0, 0, 0, 0
+  };
+
+  /** Field count written at the end of a binary COPY stream. */
+  static final short TRAILER = -1;
+
+  private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+  private static final long POSTGRES_EPOCH_DAY = POSTGRES_EPOCH.toLocalDate().toEpochDay();
+  private static final Instant POSTGRES_EPOCH_INSTANT = POSTGRES_EPOCH.toInstant(ZoneOffset.UTC);
+
+  private static final short NUMERIC_POSITIVE = 0x0000;
+  private static final short NUMERIC_NEGATIVE = 0x4000;
+  private static final int NUMERIC_DIGITS_PER_WORD = 4;
+
+  private static final byte JSONB_VERSION = 1;
+
+  @FunctionalInterface
+  interface ValueEncoder {
+    void encode(Field field, DataOutputStream out) throws IOException;
+  }
+
+  private PostgresBinaryCopyEncoder() {}
+
+  /**
+   * Returns the encoder for the given PostgreSQL type name, or null if values of the type can't be encoded.
+   */
+  static ValueEncoder forType(String typeName) {
+    if (typeName == null) {
+      return null;
+    }
+    switch (typeName.toLowerCase(Locale.ENGLISH)) {
+      case "int2":
+      case "smallserial":
+        return (field, out) -> {
+          out.writeInt(2);
+          out.writeShort(field.getValueAsShort());
+        };
+      case "int4":
+      case "serial":
+        return (field, out) -> {
+          out.writeInt(4);
+          out.writeInt(field.getValueAsInteger());
+        };
+      case "int8":
+      case "bigserial":
+        return (field, out) -> {
+          out.writeInt(8);
+          out.writeLong(field.getValueAsLong());
+        };
+      case "float4":
+        return (field, out) -> {
+          out.writeInt(4);
+          out.writeFloat(field.getValueAsFloat());
+        };
+      case "float8":
+        return (field, out) -> {
+          out.writeInt(8);
+          out.writeDouble(field.getValueAsDouble());
+        };
+      case "bool":
+        return (field, out) -> {
+          out.writeInt(1);
+          out.writeBoolean(field.getValueAsBoolean());
+        };
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+      case "json":
+        return (field, out) -> writeBytes(field.getValueAsString().getBytes(StandardCharsets.UTF_8), out);
+      case "jsonb":
+        return (field, out) -> {
+          byte[] bytes = field.getValueAsString().getBytes(StandardCharsets.UTF_8);
+          out.writeInt(bytes.length + 1);
+          out.writeByte(JSONB_VERSION);
+          out.write(bytes);
+        };
+      case "bytea":
+        return (field, out) -> writeBytes(field.getValueAsByteArray(), out);
+      case "uuid":
+        return (field, out) -> {
+          UUID uuid = UUID.fromString(field.getValueAsString());
+          out.writeInt(16);
+          out.writeLong(uuid.getMostSignificantBits());
+          out.writeLong(uuid.getLeastSignificantBits());
+        };
+      case "date":
+        return (field, out) -> {
+          out.writeInt(4);
+          out.writeInt(toPostgresDays(toLocalDateTime(field).toLocalDate()));
+        };
+      case "timestamp":
+        return (field, out) -> {
+          out.writeInt(8);
+          out.writeLong(toPostgresMicros(toLocalDateTime(field)));
+        };
+      case "timestamptz":
+        return (field, out) -> {
+          out.writeInt(8);
+          out.writeLong(toPostgresMicros(toInstant(field)));
+        };
+      case "numeric":
+        return (field, out) -> writeNumeric(field.getValueAsDecimal(), out);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Writes the value of the field, or NULL if the field has no value.
+   */
+  static void encode(ValueEncoder encoder, Field field, DataOutputStream out) throws IOException {
+    if (field == null || field.getValue() == null) {
+      out.writeInt(-1);
+    } else {
+      encoder.encode(field, out);
+    }
+  }
+
+  private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  // Date and time values without time zone are interpreted in the JVM time zone, as the JDBC driver does
+  private static LocalDateTime toLocalDateTime(Field field) {
+    if (field.getType() == Field.Type.ZONED_DATETIME) {
+      return field.getValueAsZonedDateTime().withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+    return LocalDateTime.ofInstant(field.getValueAsDatetime().toInstant(), ZoneId.systemDefault());
+  }
+
+  private static Instant toInstant(Field field) {
+    if (field.getType() == Field.Type.ZONED_DATETIME) {
+      return field.getValueAsZonedDateTime().toInstant();
+    }
+    return field.getValueAsDatetime().toInstant();
+  }
+
+  static int toPostgresDays(LocalDate date) {
+    return Math.toIntExact(date.toEpochDay() - POSTGRES_EPOCH_DAY);
+  }
+
+  static long toPostgresMicros(LocalDateTime dateTime) {
+    return ChronoUnit.MICROS.between(POSTGRES_EPOCH, dateTime);
+  }
+
+  static long toPostgresMicros(Instant instant) {
+    return ChronoUnit.MICROS.between(POSTGRES_EPOCH_INSTANT, instant);
+  }
+
+  /**
+   * Writes a numeric as its base 10000 digits, most significant first, together with the weight of the first digit,
+   * the sign and the number of decimal digits after the point.
+   */
+  static void writeNumeric(BigDecimal value, DataOutputStream out) throws IOException {
+    BigDecimal decimal = value.scale() < 0 ? value.setScale(0) : value;
+    short sign = decimal.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE;
+    int scale = decimal.scale();
+    BigInteger unscaled = decimal.unscaledValue().abs();
+
+    // Align the digits on base 10000 words: pad the fraction to a multiple of 4 digits
+    int fractionPadding = (NUMERIC_DIGITS_PER_WORD - scale % NUMERIC_DIGITS_PER_WORD) % NUMERIC_DIGITS_PER_WORD;
+    String digits = unscaled.multiply(BigInteger.TEN.pow(fractionPadding)).toString();
+    int fractionWords = (scale + fractionPadding) / NUMERIC_DIGITS_PER_WORD;
+    int leadingPadding = (NUMERIC_DIGITS_PER_WORD - digits.length() % NUMERIC_DIGITS_PER_WORD) % NUMERIC_DIGITS_PER_WORD;
+
+    List<Short> words = new ArrayList<>();
+    StringBuilder padded = new StringBuilder(digits.length() + leadingPadding);
+    for (int i = 0; i < leadingPadding; i++) {
+      padded.append('0');
+    }
+    padded.append(digits);
+    for (int i = 0; i < padded.length(); i += NUMERIC_DIGITS_PER_WORD) {
+      words.add(Short.parseShort(padded.substring(i, i + NUMERIC_DIGITS_PER_WORD)));
+    }
+    int weight = words.size() - fractionWords - 1;
+
+    // Leading and trailing zero words are implied by the weight and the scale
+    int first = 0;
+    while (first < words.size() && words.get(first) == 0) {
+      first++;
+      weight--;
+    }
+    int last = words.size();
+    while (last > first && words.get(last - 1) == 0) {
+      last--;
+    }
+    List<Short> significant = words.subList(first, last);
+    if (significant.isEmpty()) {
+      weight = 0;
+      sign = NUMERIC_POSITIVE;
+    }
+
+    out.writeInt(8 + 2 * significant.size());
+    out.writeShort(significant.size());
+    out.writeShort(weight);
+    out.writeShort(sign);
+    out.writeShort(scale);
+    for (short word : significant) {
+      out.writeShort(word);
+    }
+  }
+}
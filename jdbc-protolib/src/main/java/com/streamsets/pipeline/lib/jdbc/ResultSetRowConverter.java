@@ -0,0 +1,297 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.lib.jdbc.multithread.TableContextUtil;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts the rows of a result set into record fields.
+ *
+ * All the per column decisions (column label, data type, vendor specific handling, decimal scale and precision) are
+ * taken once from the {@link ResultSetMetaData} when the converter is created, each row is then read through an array
+ * of column handlers. Common numeric types are read with the primitive getters and {@link ResultSet#wasNull()}, types
+ * needing vendor specific handling go through {@link JdbcUtil#resultToField}.
+ *
+ * A converter is only valid for the result set it was created for, see {@link #isCreatedFor(ResultSet)}. Instances are
+ * not thread safe.
+ */
+public class ResultSetRowConverter {
+  private static final Logger LOG = LoggerFactory.getLogger(ResultSetRowConverter.class);
+
+  @FunctionalInterface
+  private interface ColumnHandler {
+    Field read(ResultSet rs, int columnIndex) throws SQLException, IOException, StageException;
+  }
+
+  private final ResultSet resultSet;
+  private final int[] columnIndexes;
+  private final String[] columnLabels;
+  private final String[] columnNames;
+  private final int[] columnTypes;
+  private final ColumnHandler[] handlers;
+  private final int mapCapacity;
+
+  ResultSetRowConverter(
+      JdbcUtil jdbcUtil,
+      ResultSet rs,
+      int maxClobSize,
+      int maxBlobSize,
+      Map<String, DataType> columnsToTypes,
+      UnknownTypeAction unknownTypeAction,
+      Set<String> recordHeader,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    this.resultSet = rs;
+    ResultSetMetaData md = rs.getMetaData();
+    int columnCount = md.getColumnCount();
+
+    int selected = 0;
+    int[] indexes = new int[columnCount];
+    for (int i = 1; i <= columnCount; i++) {
+      if (recordHeader == null || !recordHeader.contains(md.getColumnName(i))) {
+        indexes[selected++] = i;
+      }
+    }
+
+    columnIndexes = new int[selected];
+    columnLabels = new String[selected];
+    columnNames = new String[selected];
+    columnTypes = new int[selected];
+    handlers = new ColumnHandler[selected];
+    for (int c = 0; c < selected; c++) {
+      int index = indexes[c];
+      columnIndexes[c] = index;
+      // the same label instances are shared by all the rows (and converters)
+      columnLabels[c] = md.getColumnLabel(index).intern();
+      columnNames[c] = md.getColumnName(index);
+      columnTypes[c] = md.getColumnType(index);
+      DataType dataType = columnsToTypes.get(columnNames[c]);
+      handlers[c] = createHandler(
+          jdbcUtil,
+          md,
+          index,
+          maxClobSize,
+          maxBlobSize,
+          dataType == null ? DataType.USE_COLUMN_TYPE : dataType,
+          unknownTypeAction,
+          timestampToString,
+          vendor
+      );
+    }
+    // sized so the map never has to grow
+    mapCapacity = (int) (selected / 0.75f) + 1;
+  }
+
+  /**
+   * Returns true if this converter was created for the given result set.
+   */
+  public boolean isCreatedFor(ResultSet rs) {
+    return resultSet == rs;
+  }
+
+  /**
+   * Converts the current row of the result set into fields keyed by column label, in column order.
+   */
+  public LinkedHashMap<String, Field> toFields(
+      ResultSet rs,
+      ErrorRecordHandler errorRecordHandler
+  ) throws SQLException, StageException {
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(mapCapacity);
+    for (int c = 0; c < handlers.length; c++) {
+      int index = columnIndexes[c];
+      try {
+        fields.put(columnLabels[c], handlers[c].read(rs, index));
+      } catch (IOException|SQLException e) {
+        LOG.debug("Can't read from JDBC: {}", e.getMessage(), e);
+        errorRecordHandler.onError(JdbcErrors.JDBC_03, columnNames[c], columnTypes[c], rs.getObject(index), e);
+      }
+    }
+    return fields;
+  }
+
+  private static ColumnHandler createHandler(
+      JdbcUtil jdbcUtil,
+      ResultSetMetaData md,
+      int columnIndex,
+      int maxClobSize,
+      int maxBlobSize,
+      DataType userSpecifiedType,
+      UnknownTypeAction unknownTypeAction,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    if (userSpecifiedType != DataType.USE_COLUMN_TYPE) {
+      Field.Type type = Field.Type.valueOf(userSpecifiedType.getLabel());
+      return (rs, i) -> Field.create(type, rs.getObject(i));
+    }
+
+    int columnType = md.getColumnType(columnIndex);
+    if (isVendorSpecific(md, columnIndex, columnType, vendor)) {
+      return generic(jdbcUtil, md, maxClobSize, maxBlobSize, unknownTypeAction, timestampToString, vendor);
+    }
+
+    switch (columnType) {
+      case Types.BIGINT:
+        return (rs, i) -> {
+          long value = rs.getLong(i);
+          return Field.create(Field.Type.LONG, rs.wasNull() ? null : value);
+        };
+      case Types.INTEGER:
+        return (rs, i) -> {
+          int value = rs.getInt(i);
+          return Field.create(Field.Type.INTEGER, rs.wasNull() ? null : value);
+        };
+      case Types.SMALLINT:
+      case Types.TINYINT:
+        return (rs, i) -> {
+          short value = rs.getShort(i);
+          return Field.create(Field.Type.SHORT, rs.wasNull() ? null : value);
+        };
+      case Types.DOUBLE:
+        return (rs, i) -> {
+          double value = rs.getDouble(i);
+          return Field.create(Field.Type.DOUBLE, rs.wasNull() ? null : value);
+        };
+      case Types.FLOAT:
+      case Types.REAL:
+        return (rs, i) -> {
+          float value = rs.getFloat(i);
+          return Field.create(Field.Type.FLOAT, rs.wasNull() ? null : value);
+        };
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return (rs, i) -> Field.create(Field.Type.BOOLEAN, rs.getObject(i));
+      case Types.CHAR:
+      case Types.LONGNVARCHAR:
+      case Types.LONGVARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.VARCHAR:
+        return (rs, i) -> Field.create(Field.Type.STRING, rs.getString(i));
+      case Types.BINARY:
+      case Types.LONGVARBINARY:
+      case Types.VARBINARY:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, rs.getBytes(i));
+      case Types.CLOB:
+      case Types.NCLOB:
+        return (rs, i) -> Field.create(Field.Type.STRING, jdbcUtil.getClobString(rs.getClob(i), maxClobSize));
+      case Types.BLOB:
+        return (rs, i) -> Field.create(Field.Type.BYTE_ARRAY, jdbcUtil.getBlobBytes(rs.getBlob(i), maxBlobSize));
+      case Types.DATE:
+        return (rs, i) -> Field.create(Field.Type.DATE, rs.getDate(i));
+      case Types.TIME:
+        return (rs, i) -> Field.create(Field.Type.TIME, rs.getObject(i));
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        String scale = String.valueOf(md.getScale(columnIndex));
+        String precision = String.valueOf(md.getPrecision(columnIndex));
+        return (rs, i) -> {
+          BigDecimal value = rs.getBigDecimal(i);
+          Field field = Field.create(Field.Type.DECIMAL, value);
+          field.setAttribute(HeaderAttributeConstants.ATTR_SCALE, scale);
+          field.setAttribute(HeaderAttributeConstants.ATTR_PRECISION, precision);
+          return field;
+        };
+      case Types.TIMESTAMP:
+        if (timestampToString) {
+          return (rs, i) -> {
+            Timestamp timestamp = rs.getTimestamp(i);
+            return Field.create(Field.Type.STRING, timestamp == null ? null : timestamp.toString());
+          };
+        }
+        return (rs, i) -> {
+          Timestamp timestamp = rs.getTimestamp(i);
+          Field field = Field.create(Field.Type.DATETIME, timestamp);
+          if (timestamp != null) {
+            JdbcUtil.setNanosecondsinAttribute(timestamp.getNanos(), field);
+          }
+          return field;
+        };
+      default:
+        return generic(jdbcUtil, md, maxClobSize, maxBlobSize, unknownTypeAction, timestampToString, vendor);
+    }
+  }
+
+  private static ColumnHandler generic(
+      JdbcUtil jdbcUtil,
+      ResultSetMetaData md,
+      int maxClobSize,
+      int maxBlobSize,
+      UnknownTypeAction unknownTypeAction,
+      boolean timestampToString,
+      DatabaseVendor vendor
+  ) {
+    return (rs, i) -> jdbcUtil.resultToField(
+        md,
+        rs,
+        i,
+        maxClobSize,
+        maxBlobSize,
+        DataType.USE_COLUMN_TYPE,
+        unknownTypeAction,
+        timestampToString,
+        vendor
+    );
+  }
+
+  /**
+   * Mirrors the vendor specific types handled up front by {@link JdbcUtil#resultToField}.
+   */
+  private static boolean isVendorSpecific(
+      ResultSetMetaData md,
+      int columnIndex,
+      int columnType,
+      DatabaseVendor vendor
+  ) throws SQLException {
+    if (vendor == DatabaseVendor.ORACLE) {
+      switch (columnType) {
+        case TableContextUtil.TYPE_ORACLE_BINARY_FLOAT:
+        case TableContextUtil.TYPE_ORACLE_BINARY_DOUBLE:
+        case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE:
+        case TableContextUtil.TYPE_ORACLE_TIMESTAMP_WITH_LOCAL_TIME_ZONE:
+        case Types.SQLXML:
+          return true;
+        default:
+          return false;
+      }
+    } else if (vendor == DatabaseVendor.SQL_SERVER) {
+      return columnType == TableContextUtil.TYPE_SQL_SERVER_DATETIMEOFFSET;
+    } else if (vendor.isOneOf(DatabaseVendor.MYSQL, DatabaseVendor.MARIADB)) {
+      return (columnType == Types.SMALLINT || columnType == Types.INTEGER || columnType == Types.BIGINT)
+          && md.getColumnTypeName(columnIndex).endsWith("UNSIGNED");
+    }
+    return false;
+  }
+}
@@ -26,6 +26,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.MSQueryUtil;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.lib.operation.OperationType;
@@ -50,6 +51,7 @@ public class CDCJdbcRunnable extends JdbcBaseRunnable {
   private static final Logger LOG = LoggerFactory.getLogger(CTJdbcRunnable.class);
 
   private final Set<String> recordHeader;
+  private ResultSetRowConverter rowConverter;
   private final Map<String, SQLServerCDCSource.SourceTableInfo> infoMap;
   private Map<String, Integer> latestCdcTableColumnInfo;
 
@@ -103,14 +105,15 @@ public class CDCJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
+    rowConverter = jdbcUtil.getRowConverter(
+        rowConverter,
         rs,
         commonSourceConfigBean,
-        errorRecordHandler,
         tableJdbcConfigBean.unknownTypeAction,
         recordHeader,
         DatabaseVendor.SQL_SERVER
     );
+    LinkedHashMap<String, Field> fields = rowConverter.toFields(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
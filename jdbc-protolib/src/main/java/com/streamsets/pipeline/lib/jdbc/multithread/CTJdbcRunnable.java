@@ -26,6 +26,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.lib.operation.OperationType;
 import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
@@ -53,6 +54,7 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
   private static final String SYS_CHANGE_CONTEXT = "SYS_CHANGE_CONTEXT";
 
   private final Set<String> recordHeader;
+  private ResultSetRowConverter rowConverter;
 
   public CTJdbcRunnable(
       PushSource.Context context,
@@ -99,14 +101,15 @@ public final class CTJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
+    rowConverter = jdbcUtil.getRowConverter(
+        rowConverter,
         rs,
         commonSourceConfigBean,
-        errorRecordHandler,
         tableJdbcConfigBean.unknownTypeAction,
         recordHeader,
         DatabaseVendor.SQL_SERVER
     );
+    LinkedHashMap<String, Field> fields = rowConverter.toFields(rs, errorRecordHandler);
 
     Map<String, String> columnOffsets = new HashMap<>();
 
@@ -227,9 +227,12 @@ public class MultithreadedTableProvider {
             }
         );
 
-        nextStartingOffsets.forEach(
-            (col, off) -> nextMaxOffsets.put(col, lastPartition.generateNextPartitionOffset(col, off))
-        );
+        nextStartingOffsets.forEach((col, off) -> {
+          final String nextMaxOffset = lastPartition.generateNextPartitionOffset(col, off);
+          if (nextMaxOffset != null) {
+            nextMaxOffsets.put(col, nextMaxOffset);
+          }
+        });
 
         if (!reconstructedPartitions.remove(sourceTableContext, lastPartition)) {
           throw new IllegalStateException(String.format(
@@ -609,14 +612,16 @@ public class MultithreadedTableProvider {
           final boolean lastPartition =
               // no currently active partitions for the table
               numActivePartitions == 0
-              // and the number of partitions since we last saw data
-              && partition.getPartitionSequence() - maxPartitionWithData
+              // and either no partition can follow this one
+              && (partition.isOpenEnded()
+              // or the number of partitions since we last saw data
+              || partition.getPartitionSequence() - maxPartitionWithData
               // is greater than or equal to the max number of active partitions minus 1
               >= (maxNumActivePartitions(sourceTableContext) - 1)
               && TableContextUtil.allOffsetsBeyondMaxValues(
                   sourceTableContext,
                   partition.getPartitionOffsetStart()
-              )
+              ))
               ;
           if (!activeContextIter.hasNext() && thisPartition.isMarkedNoMoreData()
               && (!partition.isPartitioned() || lastPartition)) {
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.stage.origin.jdbc.table.QuoteChar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -45,6 +46,7 @@ public class TableContext {
   private final PartitioningMode partitioningMode;
   private final int maxNumActivePartitions;
   private final String extraOffsetColumnConditions;
+  private final List<String> partitionBoundaries = new ArrayList<>();
   private final boolean partitionable;
   private Map<String, String> offsetColumnToStartOffset = new HashMap<>();
   // optionally store all column labels and types
@@ -99,6 +101,40 @@ public class TableContext {
       PartitioningMode partitioningMode,
       int maxNumActivePartitions,
       String extraOffsetColumnConditions
+  ) {
+    this(
+        vendor,
+        quoteChar,
+        schema,
+        tableName,
+        offsetColumnToType,
+        offsetColumnToStartOffset,
+        offsetColumnToPartitionOffsetAdjustments,
+        offsetColumnToMinValues,
+        offsetColumnToMaxValues,
+        enableNonIncremental,
+        partitioningMode,
+        maxNumActivePartitions,
+        extraOffsetColumnConditions,
+        Collections.emptyList()
+    );
+  }
+
+  public TableContext(
+      DatabaseVendor vendor,
+      QuoteChar quoteChar,
+      String schema,
+      String tableName,
+      LinkedHashMap<String, Integer> offsetColumnToType,
+      Map<String, String> offsetColumnToStartOffset,
+      Map<String, String> offsetColumnToPartitionOffsetAdjustments,
+      Map<String, String> offsetColumnToMinValues,
+      Map<String, String> offsetColumnToMaxValues,
+      boolean enableNonIncremental,
+      PartitioningMode partitioningMode,
+      int maxNumActivePartitions,
+      String extraOffsetColumnConditions,
+      List<String> partitionBoundaries
   ) {
     this.vendor = vendor;
     this.quoteChar = quoteChar;
@@ -123,6 +159,9 @@ public class TableContext {
     if (offsetColumnToPartitionOffsetAdjustments != null) {
       this.offsetColumnToPartitionOffsetAdjustments.putAll(offsetColumnToPartitionOffsetAdjustments);
     }
+    if (partitionBoundaries != null) {
+      this.partitionBoundaries.addAll(partitionBoundaries);
+    }
     this.partitionable = isPartitionable(this);
   }
 
@@ -179,6 +218,19 @@ public class TableContext {
     }
   }
 
+  /**
+   * Returns the sampled offset column values starting each partition but the first one, in offset column order.  It is
+   * only populated in {@link PartitioningMode#ADAPTIVE} mode, partitions are then delimited by these values instead of
+   * a fixed partition size.
+   */
+  public List<String> getPartitionBoundaries() {
+    return Collections.unmodifiableList(partitionBoundaries);
+  }
+
+  public boolean hasPartitionBoundaries() {
+    return !partitionBoundaries.isEmpty();
+  }
+
   public boolean isNonIncrementalLoadRequired() {
     return isEnableNonIncremental() && getOffsetColumns().isEmpty();
   }
@@ -256,9 +308,20 @@ public class TableContext {
       ));
     }
 
+    if (sourceTableContext.getPartitioningMode() == PartitioningMode.ADAPTIVE
+        && !sourceTableContext.hasPartitionBoundaries()) {
+      reasons.add(String.format(
+          "Table %s is not partitionable because no partition boundaries could be sampled for it; only tables with" +
+              " more rows than the partition size can be partitioned in adaptive mode",
+          tableName
+      ));
+    }
+
     for (Map.Entry<String, Integer> offsetColToType : sourceTableContext.getOffsetColumnToType().entrySet()) {
       final int type = offsetColToType.getValue();
-      if (!isPartitionableType(sourceTableContext.getVendor(), type)) {
+      final boolean sampledStringType = sourceTableContext.hasPartitionBoundaries()
+          && TableContextUtil.SAMPLED_PARTITIONABLE_TYPES.contains(type);
+      if (!isPartitionableType(sourceTableContext.getVendor(), type) && !sampledStringType) {
         reasons.add(String.format(
             "Table %s is not partitionable because %s column (type %s) is not partitionable",
             tableName,
@@ -99,6 +99,21 @@ public class TableContextUtil {
     .add(Types.NUMERIC)
     .build();
 
+  /**
+   * Types that can only be partitioned with sampled partition boundaries, since no partition size can be added to them
+   */
+  public static final Set<Integer> SAMPLED_PARTITIONABLE_TYPES = ImmutableSet.<Integer>builder()
+    .add(Types.CHAR)
+    .add(Types.VARCHAR)
+    .add(Types.NCHAR)
+    .add(Types.NVARCHAR)
+    .build();
+
+  /**
+   * Maximum number of partitions a table is split into in adaptive partitioning mode
+   */
+  public static final int MAX_ADAPTIVE_PARTITIONS = 10000;
+
   public static final Map<DatabaseVendor, Set<Integer>> VENDOR_PARTITIONABLE_TYPES = ImmutableMap.<DatabaseVendor, Set<Integer>> builder()
     .put(DatabaseVendor.ORACLE, ImmutableSet.of(
       TYPE_ORACLE_TIMESTAMP_WITH_TIME_ZONE,
@@ -324,6 +339,21 @@ public class TableContextUtil {
     final Map<String, String> offsetAdjustments = new HashMap<>();
     offsetColumnToType.keySet().forEach(c -> offsetAdjustments.put(c, tableConfigBean.getPartitionSize()));
 
+    List<String> partitionBoundaries = Collections.emptyList();
+    if (tableConfigBean.getPartitioningMode() == PartitioningMode.ADAPTIVE
+        && offsetColumnToType.size() == 1
+        && !offsetColumnMinValues.isEmpty()) {
+      partitionBoundaries = samplePartitionBoundaries(
+          vendor,
+          connection,
+          schemaName,
+          tableName,
+          quoteChar,
+          offsetColumnToType.keySet().iterator().next(),
+          tableConfigBean.getPartitionSize()
+      );
+    }
+
     return new TableContext(
         vendor,
         quoteChar,
@@ -337,10 +367,65 @@ public class TableContextUtil {
         tableConfigBean.isEnableNonIncremental(),
         tableConfigBean.getPartitioningMode(),
         tableConfigBean.getMaxNumActivePartitions(),
-        tableConfigBean.getExtraOffsetColumnConditions()
+        tableConfigBean.getExtraOffsetColumnConditions(),
+        partitionBoundaries
     );
   }
 
+  /**
+   * Samples the offset column values splitting the table in partitions of about partitionSize rows each.  Sampling
+   * is best effort: if the partition size is not a row count or the database can't run the sampling query, no
+   * boundaries are returned and the table is not partitioned.
+   */
+  private List<String> samplePartitionBoundaries(
+      DatabaseVendor vendor,
+      Connection connection,
+      String schemaName,
+      String tableName,
+      QuoteChar quoteChar,
+      String offsetColumn,
+      String partitionSize
+  ) {
+    final String qualifiedTableName = getQualifiedTableName(schemaName, tableName);
+    final long rowsPerPartition;
+    try {
+      rowsPerPartition = Long.parseLong(partitionSize);
+    } catch (NumberFormatException e) {
+      LOG.warn("Partition size {} of table {} is not a number of rows", partitionSize, qualifiedTableName);
+      return Collections.emptyList();
+    }
+    if (rowsPerPartition <= 0) {
+      return Collections.emptyList();
+    }
+    try {
+      List<String> boundaries = jdbcUtil.getPartitionBoundaryValues(
+          vendor,
+          connection,
+          schemaName,
+          tableName,
+          quoteChar,
+          offsetColumn,
+          rowsPerPartition,
+          MAX_ADAPTIVE_PARTITIONS
+      );
+      LOG.info(
+          "Sampled {} partition boundaries for table {} with about {} rows per partition",
+          boundaries.size(),
+          qualifiedTableName,
+          rowsPerPartition
+      );
+      return boundaries;
+    } catch (SQLException e) {
+      LOG.warn(
+          "Unable to sample partition boundaries for table {}, it will not be partitioned: {}",
+          qualifiedTableName,
+          e.toString(),
+          e
+      );
+      return Collections.emptyList();
+    }
+  }
+
   /**
    * Evaluate ELs in Initial offsets as needed and populate the final String representation of initial offsets
    * in {@param offsetColumnToStartOffset}
@@ -784,6 +869,12 @@ public class TableContextUtil {
         final BigDecimal leftDecimal = new BigDecimal(leftOffset);
         final BigDecimal rightDecimal = new BigDecimal(rightOffset);
         return leftDecimal.compareTo(rightDecimal);
+      case Types.CHAR:
+      case Types.VARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+        // only an approximation of the database collation, partition boundaries never rely on it
+        return Integer.signum(leftOffset.compareTo(rightOffset));
     }
 
     throw new IllegalStateException(Utils.format("Unsupported type: {}", offsetJdbcType));
@@ -827,6 +918,10 @@ public class TableContextUtil {
       String column,
       String offset
   ) {
+    if (tableContext.hasPartitionBoundaries()) {
+      return getNextPartitionBoundary(tableContext, column, offset);
+    }
+
     final String partitionSize = tableContext.getOffsetColumnToPartitionOffsetAdjustments().get(column);
     final int offsetColumnType = tableContext.getOffsetColumnToType().get(column);
 
@@ -892,6 +987,35 @@ public class TableContextUtil {
     return null;
   }
 
+  /**
+   * Returns the first sampled partition boundary after the given offset, or null if the offset is in the last
+   * partition, which has no upper bound.
+   *
+   * Offsets are located by equality when possible: string values are ordered by the database collation, which can't
+   * be reproduced here, so a string offset that is neither the minimum value nor a boundary is treated as being in
+   * the last partition.
+   */
+  public static String getNextPartitionBoundary(TableContext tableContext, String column, String offset) {
+    final List<String> boundaries = tableContext.getPartitionBoundaries();
+    final int index = boundaries.indexOf(offset);
+    if (index >= 0) {
+      return index + 1 < boundaries.size() ? boundaries.get(index + 1) : null;
+    }
+    if (offset.equals(tableContext.getOffsetColumnToMinValues().get(column))) {
+      return boundaries.get(0);
+    }
+    final int offsetColumnType = tableContext.getOffsetColumnToType().get(column);
+    if (SAMPLED_PARTITIONABLE_TYPES.contains(offsetColumnType)) {
+      return null;
+    }
+    for (String boundary : boundaries) {
+      if (compareOffsetValues(offsetColumnType, tableContext.getVendor(), boundary, offset) > 0) {
+        return boundary;
+      }
+    }
+    return null;
+  }
+
   public static String getOffsetValueForTimestamp(Timestamp timestamp) {
     return getOffsetValueForTimestampParts(timestamp.getTime(), timestamp.getNanos());
   }
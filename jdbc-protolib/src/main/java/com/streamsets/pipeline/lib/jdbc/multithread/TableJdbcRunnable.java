@@ -23,6 +23,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
 import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
 import com.streamsets.pipeline.stage.origin.jdbc.table.TableJdbcConfigBean;
@@ -39,6 +40,8 @@ import java.util.Map;
 public class TableJdbcRunnable extends JdbcBaseRunnable {
   private static final Logger LOG = LoggerFactory.getLogger(TableJdbcRunnable.class);
 
+  private ResultSetRowConverter rowConverter;
+
   public TableJdbcRunnable(
       PushSource.Context context,
       int threadNumber,
@@ -73,13 +76,15 @@ public class TableJdbcRunnable extends JdbcBaseRunnable {
   ) throws SQLException, StageException {
     ResultSetMetaData md = rs.getMetaData();
 
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
+    rowConverter = jdbcUtil.getRowConverter(
+        rowConverter,
         rs,
         commonSourceConfigBean,
-        errorRecordHandler,
         tableJdbcConfigBean.unknownTypeAction,
+        null,
         getVendor()
     );
+    LinkedHashMap<String, Field> fields = rowConverter.toFields(rs, errorRecordHandler);
 
     // TODO: change offset format here for incremental mode (finished=true if result set end reached)
 
@@ -175,10 +175,13 @@ public class TableRuntimeContext {
           }
           // Set the partition end offset values.
           // For partitionSequence = 1, always run a bounded query. i.e offsetColumn > ? and offsetColumn < ?
-          this.partitionOffsetStart.forEach((col, offset) -> this.partitionOffsetEnd.put(
-              col,
-              TableContextUtil.generateNextPartitionOffset(sourceTableContext, col, offset)
-          ));
+          // unless the table has sampled partition boundaries and this is the only partition
+          this.partitionOffsetStart.forEach((col, offset) -> {
+            final String end = TableContextUtil.generateNextPartitionOffset(sourceTableContext, col, offset);
+            if (end != null) {
+              this.partitionOffsetEnd.put(col, end);
+            }
+          });
         }
     }
 
@@ -506,16 +509,34 @@ public class TableRuntimeContext {
 
     final int newPartitionSequence = lastPartition.partitionSequence > 0 ? lastPartition.partitionSequence + 1 : 1;
 
-    lastPartition.partitionOffsetStart.forEach(
-        (col, off) -> {
-          String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
-          nextStartingOffsets.put(col, basedOnStartOffset);
-        }
-    );
+    if (lastPartition.isOpenEnded()) {
+      if (LOG.isTraceEnabled()) {
+        LOG.trace(
+            "Cannot create next partition after {} since it has no upper bound",
+            lastPartition.getPartitionSequence()
+        );
+      }
+      return null;
+    }
 
-    nextStartingOffsets.forEach(
-        (col, off) -> nextMaxOffsets.put(col, lastPartition.generateNextPartitionOffset(col, off))
-    );
+    if (lastPartition.getSourceTableContext().hasPartitionBoundaries()) {
+      // partitions over sampled boundaries are contiguous
+      nextStartingOffsets.putAll(lastPartition.partitionOffsetEnd);
+    } else {
+      lastPartition.partitionOffsetStart.forEach(
+          (col, off) -> {
+            String basedOnStartOffset = lastPartition.generateNextPartitionOffset(col, off);
+            nextStartingOffsets.put(col, basedOnStartOffset);
+          }
+      );
+    }
+
+    nextStartingOffsets.forEach((col, off) -> {
+      final String nextMaxOffset = lastPartition.generateNextPartitionOffset(col, off);
+      if (nextMaxOffset != null) {
+        nextMaxOffsets.put(col, nextMaxOffset);
+      }
+    });
 
 
     final TableRuntimeContext nextPartition = new TableRuntimeContext(
@@ -530,6 +551,15 @@ public class TableRuntimeContext {
     return nextPartition;
   }
 
+  /**
+   * Returns whether this is a partition with no upper bound, like the last partition of a table partitioned over
+   * sampled boundaries, which also reads the rows added after the boundaries were sampled.  No partition can follow
+   * it.
+   */
+  public boolean isOpenEnded() {
+    return partitioned && partitionOffsetEnd.size() < sourceTableContext.getOffsetColumns().size();
+  }
+
   public String generateNextPartitionOffset(String column, String offset) {
     return TableContextUtil.generateNextPartitionOffset(
         sourceTableContext,
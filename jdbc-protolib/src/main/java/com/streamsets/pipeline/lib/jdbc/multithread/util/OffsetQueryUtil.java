@@ -78,6 +78,11 @@ public final class OffsetQueryUtil {
   private static final Splitter OFFSET_COLUMN_SPLITTER = Splitter.on(OFFSET_COLUMN_SEPARATOR);
 
   private static final String OFFSET_KEY_COLUMN_SEPARATOR = ",";
+  // Only values containing separators are escaped, and the marker tells them apart from the values stored unescaped,
+  // so all other values keep the version 2 offset representation. It is a control character, which offset values
+  // never start with in practice.
+  private static final char SOURCE_KEY_ESCAPE_MARKER = '\u0001';
+  private static final char[] SOURCE_KEY_SEPARATOR_CHARS = {',', ';'};
   public static final String OFFSET_KEY_COLUMN_NAME_VALUE_SEPARATOR = "=";
 
   private static final String OFFSET_COLUMN_NAME_VALUE = "%s=%s";
@@ -411,7 +416,56 @@ public final class OffsetQueryUtil {
       }
       sb.append(entry.getKey());
       sb.append(OFFSET_KEY_COLUMN_NAME_VALUE_SEPARATOR);
-      sb.append(entry.getValue());
+      sb.append(escapeSourceKeyOffsetValue(entry.getValue()));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Escapes the column and term separators out of an offset value, string offset columns may contain them.
+   * Values without separators are returned as is, so that offsets stay readable by earlier versions.
+   */
+  @VisibleForTesting
+  static String escapeSourceKeyOffsetValue(String value) {
+    if (StringUtils.containsNone(value, SOURCE_KEY_SEPARATOR_CHARS)
+        && (StringUtils.isEmpty(value) || value.charAt(0) != SOURCE_KEY_ESCAPE_MARKER)) {
+      return value;
+    }
+    final StringBuilder sb = new StringBuilder(value.length() + 8);
+    sb.append(SOURCE_KEY_ESCAPE_MARKER);
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case ',':
+          sb.append("\\c");
+          break;
+        case ';':
+          sb.append("\\s");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  @VisibleForTesting
+  static String unescapeSourceKeyOffsetValue(String value) {
+    if (value.isEmpty() || value.charAt(0) != SOURCE_KEY_ESCAPE_MARKER) {
+      return value;
+    }
+    final StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 1; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        final char next = value.charAt(++i);
+        sb.append(next == 'c' ? ',' : next == 's' ? ';' : next);
+      } else {
+        sb.append(c);
+      }
     }
     return sb.toString();
   }
@@ -437,7 +491,7 @@ public final class OffsetQueryUtil {
           ));
         }
 
-        offsetMap.put(parts[0], parts[1]);
+        offsetMap.put(parts[0], unescapeSourceKeyOffsetValue(parts[1]));
       }
     }
     return offsetMap;
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hand written scanner for the single row DML statements generated by LogMiner.
+ *
+ * It understands the common redo shapes: {@code INSERT INTO "S"."T" (...) VALUES (...)},
+ * {@code UPDATE "S"."T" SET ... WHERE ...} and {@code DELETE FROM "S"."T" WHERE ...}, with quoted identifiers, ROWID,
+ * string literals, NULL, {@code IS NULL} conditions and function calls such as TO_DATE or HEXTORAW. The SQL is read
+ * in place, no regular expressions or token objects are created, only the column names and values.
+ *
+ * Anything else (table aliases, OR conditions, unsupported types, ...) makes {@link #parse(String, int)} return false,
+ * the caller is then expected to fall back to {@link SQLListener} or {@link SQLParser}. The columns returned mimic the
+ * ones of the parser used for the fallback, so records do not change depending on the parser that read them.
+ *
+ * Instances are not thread safe, use one per parsing thread.
+ */
+public class FastSQLParser {
+
+  private static final String NULL_STRING = "NULL";
+  private static final String ROWID = "ROWID";
+
+  private final boolean pegCompatible;
+  private final HashMap<String, String> columns = new HashMap<>();
+  private final List<String> insertColumns = new ArrayList<>();
+  private final StringBuilder buffer = new StringBuilder();
+  private boolean caseSensitive = false;
+  private boolean allowNulls = false;
+  private Set<String> columnsExpected;
+
+  private String sql;
+  private int length;
+  private int pos;
+  private String value;
+
+  /**
+   * @param pegCompatible if the columns must match the ones returned by {@link SQLParserUtils#process} instead of the
+   * ones returned by {@link SQLListener}.
+   */
+  public FastSQLParser(boolean pegCompatible) {
+    this.pegCompatible = pegCompatible;
+  }
+
+  /**
+   * Parses the given redo SQL.
+   *
+   * @param sql SQL statement to parse.
+   * @param operationCode One of {@code OracleCDCOperationCode} constants.
+   * @return true if the statement was parsed and the columns are available through {@link #getColumns()}, false if
+   * the statement must be parsed with one of the other parsers.
+   */
+  public boolean parse(String sql, int operationCode) {
+    columns.clear();
+    insertColumns.clear();
+    if (sql == null) {
+      return false;
+    }
+    this.sql = sql;
+    length = sql.length();
+    pos = 0;
+
+    boolean parsed;
+    switch (operationCode) {
+      case OracleCDCOperationCode.INSERT_CODE:
+        parsed = parseInsert();
+        break;
+      case OracleCDCOperationCode.UPDATE_CODE:
+      case OracleCDCOperationCode.SELECT_FOR_UPDATE_CODE:
+        parsed = parseUpdate();
+        break;
+      case OracleCDCOperationCode.DELETE_CODE:
+        parsed = parseDelete();
+        break;
+      default:
+        parsed = false;
+    }
+    parsed = parsed && parseEnd();
+    this.sql = null;
+    value = null;
+
+    if (!parsed) {
+      columns.clear();
+      return false;
+    }
+    if (pegCompatible && allowNulls && columnsExpected != null) {
+      columnsExpected.forEach(col -> columns.putIfAbsent(col, null));
+    }
+    return true;
+  }
+
+  private boolean parseInsert() {
+    if (!keyword("INSERT") || !keyword("INTO") || !tableName() || !expect('(')) {
+      return false;
+    }
+    do {
+      String name = columnName();
+      if (name == null) {
+        return false;
+      }
+      insertColumns.add(name);
+    } while (expect(','));
+
+    if (!expect(')') || !keyword("VALUES") || !expect('(')) {
+      return false;
+    }
+    int index = 0;
+    do {
+      if (index == insertColumns.size() || !columnValue()) {
+        return false;
+      }
+      putColumn(insertColumns.get(index++), value);
+    } while (expect(','));
+    return index == insertColumns.size() && expect(')');
+  }
+
+  private boolean parseUpdate() {
+    if (!keyword("UPDATE") || !tableName() || !keyword("SET")) {
+      return false;
+    }
+    do {
+      String name = columnName();
+      if (name == null || !expect('=') || !columnValue()) {
+        return false;
+      }
+      putColumn(name, value);
+    } while (expect(','));
+    return whereClause();
+  }
+
+  private boolean parseDelete() {
+    return keyword("DELETE") && keyword("FROM") && tableName() && whereClause();
+  }
+
+  private boolean parseEnd() {
+    skipWhitespace();
+    if (pos < length && sql.charAt(pos) == ';') {
+      pos++;
+      skipWhitespace();
+    }
+    return pos == length;
+  }
+
+  /**
+   * Reads the optional WHERE clause, only conditions joined by AND are supported.
+   */
+  private boolean whereClause() {
+    skipWhitespace();
+    if (pos == length || sql.charAt(pos) == ';') {
+      return true;
+    }
+    if (!keyword("WHERE")) {
+      return false;
+    }
+    do {
+      String name = columnName();
+      if (name == null) {
+        return false;
+      }
+      if (expect('=')) {
+        if (!columnValue()) {
+          return false;
+        }
+        if (!columns.containsKey(name)) {
+          columns.put(name, value);
+        }
+      } else if (keyword("IS") && keyword(NULL_STRING)) {
+        if (!columns.containsKey(name) && (pegCompatible || isExpectedNull(name))) {
+          columns.put(name, null);
+        }
+      } else {
+        return false;
+      }
+    } while (keyword("AND"));
+    return true;
+  }
+
+  private boolean isExpectedNull(String name) {
+    return allowNulls && columnsExpected != null && columnsExpected.contains(name);
+  }
+
+  private void putColumn(String name, String value) {
+    if (!pegCompatible || !columns.containsKey(name)) {
+      columns.put(name, value);
+    }
+  }
+
+  private boolean tableName() {
+    skipWhitespace();
+    if (skipQuotedIdentifier() < 0 || pos == length || sql.charAt(pos) != '.') {
+      return false;
+    }
+    pos++;
+    return skipQuotedIdentifier() >= 0;
+  }
+
+  /**
+   * Skips a quoted identifier and returns the index of its first character, or -1 if there is none at the current
+   * position. Identifiers with escaped quotes or starting with a single quote are left to the other parsers.
+   */
+  private int skipQuotedIdentifier() {
+    if (pos == length || sql.charAt(pos) != '"') {
+      return -1;
+    }
+    int start = pos + 1;
+    int end = sql.indexOf('"', start);
+    if (end <= start || sql.charAt(start) == '\'' || (end + 1 < length && sql.charAt(end + 1) == '"')) {
+      return -1;
+    }
+    pos = end + 1;
+    return start;
+  }
+
+  private String columnName() {
+    skipWhitespace();
+    String name;
+    int start = skipQuotedIdentifier();
+    if (start >= 0) {
+      name = sql.substring(start, pos - 1);
+    } else if (matches(ROWID)) {
+      name = sql.substring(pos, pos + ROWID.length());
+      pos += ROWID.length();
+    } else {
+      return null;
+    }
+    return caseSensitive ? name : name.toUpperCase();
+  }
+
+  /**
+   * Reads a column value into {@link #value}, returns false if it is not one of the supported value shapes.
+   */
+  private boolean columnValue() {
+    skipWhitespace();
+    if (pos == length) {
+      return false;
+    }
+    char c = sql.charAt(pos);
+    if (c == '\'') {
+      return stringLiteral();
+    }
+    if (matches(NULL_STRING)) {
+      pos += NULL_STRING.length();
+      value = null;
+      return true;
+    }
+    int start = pos;
+    while (pos < length && isIdentifierChar(sql.charAt(pos))) {
+      pos++;
+    }
+    if (pos == start || pos == length || sql.charAt(pos) != '(') {
+      return false;
+    }
+    return functionCall(start);
+  }
+
+  private boolean stringLiteral() {
+    int start = pos + 1;
+    int end = sql.indexOf('\'', start);
+    boolean escaped = false;
+    buffer.setLength(0);
+    while (end >= 0 && end + 1 < length && sql.charAt(end + 1) == '\'') {
+      escaped = true;
+      buffer.append(sql, start, end + 1);
+      start = end + 2;
+      end = sql.indexOf('\'', start);
+    }
+    if (end < 0) {
+      return false;
+    }
+    if (escaped) {
+      value = buffer.append(sql, start, end).toString();
+    } else {
+      value = sql.substring(start, end);
+    }
+    pos = end + 1;
+    return true;
+  }
+
+  /**
+   * Reads a function call whose name starts at the given index, the value is the text of the call. As the ANTLR
+   * parser works on tokens, the whitespace outside of literals is dropped unless PEG compatibility is requested.
+   */
+  private boolean functionCall(int start) {
+    buffer.setLength(0);
+    int depth = 0;
+    boolean inLiteral = false;
+    for (int i = start; i < length; i++) {
+      char c = sql.charAt(i);
+      if (inLiteral) {
+        if (c == '\'') {
+          if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+            // escaped quote, both the PEG and the ANTLR parsers unescape it in the whole function text
+            i++;
+          } else {
+            inLiteral = false;
+          }
+        }
+        buffer.append(c);
+      } else if (c == '\'') {
+        inLiteral = true;
+        buffer.append(c);
+      } else if (c == '(') {
+        depth++;
+        buffer.append(c);
+      } else if (c == ')') {
+        buffer.append(c);
+        if (--depth == 0) {
+          pos = i + 1;
+          value = buffer.toString();
+          return true;
+        }
+      } else if (c == '"' || c == ';') {
+        return false;
+      } else if (pegCompatible || !isWhitespace(c)) {
+        buffer.append(c);
+      }
+    }
+    return false;
+  }
+
+  private boolean keyword(String keyword) {
+    skipWhitespace();
+    if (!matches(keyword)) {
+      return false;
+    }
+    pos += keyword.length();
+    return true;
+  }
+
+  private boolean expect(char c) {
+    skipWhitespace();
+    if (pos < length && sql.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if the word is at the current position, ignoring case and not followed by another identifier char.
+   */
+  private boolean matches(String word) {
+    int end = pos + word.length();
+    return sql.regionMatches(true, pos, word, 0, word.length())
+        && (end == length || !isIdentifierChar(sql.charAt(end)));
+  }
+
+  private void skipWhitespace() {
+    while (pos < length && isWhitespace(sql.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+  }
+
+  private static boolean isIdentifierChar(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  /**
+   * Reset the parser to use with the next statement. All column information is cleared.
+   */
+  public void reset() {
+    columns.clear();
+    insertColumns.clear();
+    columnsExpected = null;
+  }
+
+  public Map<String, String> getColumns() {
+    return columns;
+  }
+
+  public void setCaseSensitive() {
+    this.caseSensitive = true;
+  }
+
+  public void allowNulls() {
+    this.allowNulls = true;
+  }
+
+  public void setColumns(Set<String> columns) {
+    this.columnsExpected = columns;
+  }
+}
@@ -231,13 +231,24 @@ public class JdbcDTarget extends DTarget {
         useMultiRowInsert,
         maxPrepStmtParameters,
         changeLogFormat,
-        defaultOperation,
+        defaultOperation.getCode(),
         unsupportedAction,
+        null, // no support for duplicate-key errors
         getHikariConfigBean(),
-        customDataSqlStateCodes
+        customDataSqlStateCodes,
+        useBulkLoad()
     );
   }
 
+  /**
+   * Whether INSERT records are written with the native bulk load protocol of the database.
+   * <p/>
+   * Subclasses for databases with a supported bulk load protocol override this method to expose it as a config.
+   */
+  protected boolean useBulkLoad() {
+    return false;
+  }
+
   public String getSchema() {
     return schema;
   }
@@ -26,6 +26,7 @@ import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.service.sshtunnel.SshTunnelService;
 import com.streamsets.pipeline.lib.cache.CacheCleaner;
 import com.streamsets.pipeline.lib.el.ELUtils;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import com.streamsets.pipeline.lib.jdbc.BasicConnectionString;
 import com.streamsets.pipeline.lib.jdbc.DuplicateKeyAction;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
@@ -51,6 +52,7 @@ import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -61,9 +63,13 @@ public class JdbcTarget extends BaseTarget {
 
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
+  // Number of tables written at the same time when the schema or table name is an expression
+  private static final String TABLE_WRITER_THREADS = "com.streamsets.pipeline.stage.destination.jdbc.tableWriterThreads";
+  private static final int TABLE_WRITER_THREADS_DEFAULT = 1;
 
   protected final boolean rollbackOnError;
   protected final boolean useMultiRowOp;
+  protected final boolean useBulkLoad;
   protected final int maxPrepStmtParameters;
 
   protected final String schemaNameTemplate;
@@ -87,6 +93,7 @@ public class JdbcTarget extends BaseTarget {
   protected final DuplicateKeyAction duplicateKeyAction;
 
   private SshTunnelService sshTunnelService;
+  private ExecutorService tableWriterExecutor;
 
   protected final JdbcUtil jdbcUtil;
 
@@ -110,6 +117,7 @@ public class JdbcTarget extends BaseTarget {
           JdbcRecordReaderWriterFactory.createRecordReader(changeLogFormat),
           caseSensitive,
           customDataSqlStateCodes,
+          useBulkLoad,
           getContext()
       );
     }
@@ -167,6 +175,40 @@ public class JdbcTarget extends BaseTarget {
       DuplicateKeyAction duplicateKeyAction,
       HikariPoolConfigBean hikariConfigBean,
       final List<String> customDataSqlStateCodes
+  ) {
+    this(
+        schemaNameTemplate,
+        tableNameTemplate,
+        customMappings,
+        caseSensitive,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        changeLogFormat,
+        defaultOpCode,
+        unsupportedAction,
+        duplicateKeyAction,
+        hikariConfigBean,
+        customDataSqlStateCodes,
+        false
+    );
+  }
+
+  public JdbcTarget(
+      final String schemaNameTemplate,
+      final String tableNameTemplate,
+      final List<JdbcFieldColumnParamMapping> customMappings,
+      final boolean caseSensitive,
+      final boolean rollbackOnError,
+      final boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      final ChangeLogFormat changeLogFormat,
+      final int defaultOpCode,
+      UnsupportedOperationAction unsupportedAction,
+      DuplicateKeyAction duplicateKeyAction,
+      HikariPoolConfigBean hikariConfigBean,
+      final List<String> customDataSqlStateCodes,
+      final boolean useBulkLoad
   ) {
     this.jdbcUtil = UtilsProvider.getJdbcUtil();
     this.schemaNameTemplate = schemaNameTemplate;
@@ -175,6 +217,7 @@ public class JdbcTarget extends BaseTarget {
     this.caseSensitive = caseSensitive;
     this.rollbackOnError = rollbackOnError;
     this.useMultiRowOp = useMultiRowOp;
+    this.useBulkLoad = useBulkLoad;
     this.maxPrepStmtParameters = maxPrepStmtParameters;
     this.changeLogFormat = changeLogFormat;
     this.defaultOpCode = defaultOpCode;
@@ -234,6 +277,16 @@ public class JdbcTarget extends BaseTarget {
 
     if (dynamicSchemaName || dynamicTableName) {
       schemaTableClassifier = new SchemaTableClassifier(schemaNameTemplate, tableNameTemplate, context);
+
+      // every table writer holds a pool connection while writing
+      int tableWriterThreads = Math.min(
+          context.getConfiguration().get(TABLE_WRITER_THREADS, TABLE_WRITER_THREADS_DEFAULT),
+          hikariConfigBean.maximumPoolSize
+      );
+      LOG.debug("Writing up to {} tables at the same time", tableWriterThreads);
+      if (tableWriterThreads > 1) {
+        tableWriterExecutor = new SafeScheduledExecutorService(tableWriterThreads, "JDBC Producer Table Writer");
+      }
     }
 
     ELUtils.validateExpression(schemaNameTemplate,
@@ -290,6 +343,9 @@ public class JdbcTarget extends BaseTarget {
     if (sshTunnelService != null){
       sshTunnelService.stop();
     }
+    if (tableWriterExecutor != null) {
+      tableWriterExecutor.shutdownNow();
+    }
     recordWriters.invalidateAll();
     if (null != dataSource) {
       dataSource.close();
@@ -311,7 +367,16 @@ public class JdbcTarget extends BaseTarget {
       return;
     }
 
-    if (dynamicSchemaName || dynamicTableName)  {
+    if ((dynamicSchemaName || dynamicTableName) && tableWriterExecutor != null) {
+      jdbcUtil.write(
+          batch,
+          schemaTableClassifier,
+          recordWriters,
+          errorRecordHandler,
+          perRecord,
+          tableWriterExecutor
+      );
+    } else if (dynamicSchemaName || dynamicTableName)  {
       jdbcUtil.write(
           batch,
           schemaTableClassifier,
@@ -21,6 +21,7 @@ import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -58,6 +59,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -83,6 +85,7 @@ public abstract class AbstractTableJdbcSource extends BasePushSource implements
   private static final Joiner NEW_LINE_JOINER = Joiner.on("\n");
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
+  private static final String MYSQL_USE_CURSOR_FETCH = "useCursorFetch";
 
   protected final HikariPoolConfigBean hikariConfigBean;
   protected final CommonSourceConfigBean commonSourceConfigBean;
@@ -188,6 +191,12 @@ public abstract class AbstractTableJdbcSource extends BasePushSource implements
   }
 
   protected void checkConnectionAndBootstrap(Stage.Context context, List<ConfigIssue> issues) {
+    if (tableJdbcConfigBean.streamingRead && hikariConfigBean.getVendor() == DatabaseVendor.MYSQL) {
+      // Several result sets can be open on a thread connection, so rather than MySQL row by row streaming (one
+      // result set per connection) use server side cursors, which honor the fetch size. Explicit driver properties
+      // still take precedence.
+      hikariConfigBean.addExtraDriverProperties(ImmutableMap.of(MYSQL_USE_CURSOR_FETCH, "true"));
+    }
     try {
       hikariDataSource = jdbcUtil.createDataSourceForRead(hikariConfigBean);
     } catch (StageException e) {
@@ -311,9 +320,10 @@ public abstract class AbstractTableJdbcSource extends BasePushSource implements
           ));
         }
 
+        // in adaptive mode the partition size is a number of rows, whatever the offset column type
         final String validationError = tableContextUtil.getPartitionSizeValidationError(
             hikariConfigBean.getVendor(),
-            entry.getValue(),
+            table.getPartitioningMode() == PartitioningMode.ADAPTIVE ? Types.BIGINT : entry.getValue(),
             entry.getKey(),
             partitionSize
         );
@@ -34,7 +34,7 @@ import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeActionChooserValues;
 
 @StageDef(
-    version = 13,
+    version = 14,
     label = "JDBC Query Consumer",
     description = "Reads data from a JDBC source using a query.",
     icon = "rdbms.png",
@@ -220,6 +220,20 @@ public class JdbcDSource extends DSource {
   )
   public boolean disableValidation = false;
 
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Streaming Read",
+      description = "Streams the result set from PostgreSQL Max Batch Size rows at a time through a cursor instead" +
+          " of letting the driver load it in memory. Turns off auto-commit on the query connection, so changes" +
+          " made by the query, such as by a function it calls, are rolled back.",
+      defaultValue = "false",
+      displayPosition = 225,
+      group = "ADVANCED"
+  )
+  public boolean streamingRead = false;
+
   @ConfigDef(
       displayMode = ConfigDef.DisplayMode.ADVANCED,
       required = true,
@@ -249,7 +263,8 @@ public class JdbcDSource extends DSource {
         jdbcNsHeaderPrefix,
         getHikariConfigBean(),
         unknownTypeAction,
-        queryInterval
+        queryInterval,
+        streamingRead
       );
   }
 }
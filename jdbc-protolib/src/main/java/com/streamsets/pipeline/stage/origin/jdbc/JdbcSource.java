@@ -37,8 +37,10 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.MSOperationCode;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
@@ -96,12 +98,14 @@ public class JdbcSource extends BaseSource {
   private final String jdbcNsHeaderPrefix;
   private final boolean disableValidation;
   private final UnknownTypeAction unknownTypeAction;
+  private final boolean streamingRead;
 
   private ErrorRecordHandler errorRecordHandler;
   private long queryIntervalMillis = Long.MIN_VALUE;
   private HikariDataSource dataSource = null;
   private Connection connection = null;
   private ResultSet resultSet = null;
+  private ResultSetRowConverter rowConverter = null;
   private long lastQueryCompletedTime = 0L;
   private String preparedQuery;
   private int queryRowCount = 0;
@@ -132,6 +136,42 @@ public class JdbcSource extends BaseSource {
       HikariPoolConfigBean hikariConfigBean,
       UnknownTypeAction unknownTypeAction,
       long queryInterval
+  ) {
+    this(
+        isIncrementalMode,
+        query,
+        initialOffset,
+        offsetColumn,
+        disableValidation,
+        txnColumnName,
+        txnMaxSize,
+        jdbcRecordType,
+        commonSourceConfigBean,
+        createJDBCNsHeaders,
+        jdbcNsHeaderPrefix,
+        hikariConfigBean,
+        unknownTypeAction,
+        queryInterval,
+        false
+    );
+  }
+
+  public JdbcSource(
+      boolean isIncrementalMode,
+      String query,
+      String initialOffset,
+      String offsetColumn,
+      boolean disableValidation,
+      String txnColumnName,
+      int txnMaxSize,
+      JdbcRecordType jdbcRecordType,
+      CommonSourceConfigBean commonSourceConfigBean,
+      boolean createJDBCNsHeaders,
+      String jdbcNsHeaderPrefix,
+      HikariPoolConfigBean hikariConfigBean,
+      UnknownTypeAction unknownTypeAction,
+      long queryInterval,
+      boolean streamingRead
   ) {
     this.jdbcUtil = UtilsProvider.getJdbcUtil();
     this.isIncrementalMode = isIncrementalMode;
@@ -148,6 +188,7 @@ public class JdbcSource extends BaseSource {
     this.createJDBCNsHeaders = createJDBCNsHeaders;
     this.jdbcNsHeaderPrefix = jdbcNsHeaderPrefix;
     this.unknownTypeAction = unknownTypeAction;
+    this.streamingRead = streamingRead;
   }
 
   protected BasicConnectionString getBasicConnectionString() {
@@ -415,14 +456,7 @@ public class JdbcSource extends BaseSource {
             statement = getStatement(connection, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
           }
 
-          int fetchSize = batchSize;
-          // MySQL does not support cursors or fetch size except 0 and "streaming" (1 at a time).
-          if (hikariConfigBean.getConnectionString().toLowerCase().contains("mysql")) {
-            // Enable MySQL streaming mode.
-            fetchSize = Integer.MIN_VALUE;
-          }
-          LOG.debug("Using query fetch size: {}", fetchSize);
-          statement.setFetchSize(fetchSize);
+          setStreamingRead(connection, statement, batchSize);
 
           if (getContext().isPreview()) {
             statement.setMaxRows(batchSize);
@@ -564,6 +598,27 @@ public class JdbcSource extends BaseSource {
     return connection.createStatement(resultSetType, resultSetConcurrency);
   }
 
+  /**
+   * Sets up the connection and statement so the result set is streamed from the database in chunks while it is kept
+   * open across batches, instead of being loaded in memory as a whole by the driver.
+   */
+  @VisibleForTesting
+  void setStreamingRead(Connection connection, Statement statement, int batchSize) throws SQLException {
+    int fetchSize = batchSize;
+    DatabaseVendor vendor = hikariConfigBean.getVendor();
+    if (vendor == DatabaseVendor.MYSQL) {
+      // MySQL does not support cursors or fetch size except 0 and "streaming" (1 at a time).
+      fetchSize = Integer.MIN_VALUE;
+    } else if (streamingRead && vendor == DatabaseVendor.POSTGRESQL && txnColumnName.isEmpty()
+        && connection.getAutoCommit()) {
+      // PostgreSQL only fetches through a cursor outside of auto-commit, the connection is dedicated to this result
+      // set and the pool restores auto-commit once it is closed. Opted in, as the pool also rolls back the query.
+      connection.setAutoCommit(false);
+    }
+    LOG.debug("Using query fetch size: {}", fetchSize);
+    statement.setFetchSize(fetchSize);
+  }
+
   protected Connection getProduceConnection() throws SQLException {
     return dataSource.getConnection();
   }
@@ -604,14 +659,15 @@ public class JdbcSource extends BaseSource {
     ResultSetMetaData md = resultSet.getMetaData();
     int numColumns = md.getColumnCount();
 
-    LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(
+    rowConverter = jdbcUtil.getRowConverter(
+        rowConverter,
         resultSet,
         commonSourceConfigBean,
-        errorRecordHandler,
         unknownTypeAction,
         null,
         hikariConfigBean.getVendor()
     );
+    LinkedHashMap<String, Field> fields = rowConverter.toFields(resultSet, errorRecordHandler);
 
     if (fields.size() != numColumns) {
       errorRecordHandler.onError(JdbcErrors.JDBC_35, fields.size(), numColumns);
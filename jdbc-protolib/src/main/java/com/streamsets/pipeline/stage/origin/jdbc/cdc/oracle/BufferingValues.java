@@ -20,7 +20,8 @@ import com.streamsets.pipeline.api.Label;
 public enum  BufferingValues implements Label {
 
   IN_MEMORY("In Memory"),
-  ON_DISK("On Disk");
+  ON_DISK("On Disk"),
+  OFF_HEAP("Off Heap With Disk Spill");
 
   private final String label;
 
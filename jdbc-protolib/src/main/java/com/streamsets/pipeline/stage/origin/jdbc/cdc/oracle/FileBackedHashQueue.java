@@ -214,6 +214,12 @@ public class FileBackedHashQueue<E> implements HashQueue<E> {
     return;
   }
 
+  @Override
+  public void update(int position, E e) {
+    RecordSequence modified = (RecordSequence) e;
+    underlying.put(new RsIdSsn(modified.rsId, modified.ssn.toString()), e);
+  }
+
   private class FileBackedHashQueueIterator implements Iterator<E> {
 
     @SuppressWarnings("unchecked")
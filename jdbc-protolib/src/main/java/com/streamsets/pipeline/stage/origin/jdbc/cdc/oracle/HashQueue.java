@@ -21,4 +21,9 @@ public interface HashQueue<E> extends Queue<E> {
   E tail();
   void close();
   void completeInserts();
+
+  /**
+   * Stores again the element at the given position, counting from the head, after it was modified while iterating.
+   */
+  void update(int position, E e);
 }
@@ -168,6 +168,11 @@ public class InMemoryHashQueue<E> implements HashQueue<E> {
     // no op
   }
 
+  @Override
+  public void update(int position, E e) {
+    // no op, the elements are kept by reference
+  }
+
   @Override
   public int hashCode() {
     return underlying.hashCode();
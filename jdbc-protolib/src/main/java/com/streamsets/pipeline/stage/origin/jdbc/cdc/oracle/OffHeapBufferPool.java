@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Direct memory shared by the {@link OffHeapHashQueue} transaction buffers of a stage.
+ *
+ * Memory is handed out in fixed size segments until the budget is used up, then the transaction buffers write to
+ * their spill file in the buffer location. Released segments are kept for reuse instead of being allocated again.
+ */
+public class OffHeapBufferPool {
+
+  static final int SEGMENT_SIZE = 64 * 1024;
+
+  private final long budget;
+  private final File spillLocation;
+  private final Deque<ByteBuffer> freeSegments = new ArrayDeque<>();
+  private final AtomicLong memoryBytes = new AtomicLong();
+  private final AtomicLong spilledBytes = new AtomicLong();
+  private long allocated;
+
+  /**
+   * @param budget maximum number of bytes kept in direct memory.
+   * @param spillLocation folder holding the spill files.
+   */
+  public OffHeapBufferPool(long budget, File spillLocation) {
+    this.budget = budget;
+    this.spillLocation = spillLocation;
+  }
+
+  /**
+   * Returns an empty segment, or null if the memory budget is used up.
+   */
+  synchronized ByteBuffer acquire() {
+    ByteBuffer segment = freeSegments.poll();
+    if (segment == null) {
+      if (allocated + SEGMENT_SIZE > budget) {
+        return null;
+      }
+      segment = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+      allocated += SEGMENT_SIZE;
+    }
+    segment.clear();
+    memoryBytes.addAndGet(SEGMENT_SIZE);
+    return segment;
+  }
+
+  synchronized void release(ByteBuffer segment) {
+    memoryBytes.addAndGet(-SEGMENT_SIZE);
+    freeSegments.push(segment);
+  }
+
+  void spilled(long bytes) {
+    spilledBytes.addAndGet(bytes);
+  }
+
+  File getSpillLocation() {
+    return spillLocation;
+  }
+
+  /**
+   * Bytes of the segments in use by the transaction buffers.
+   */
+  public long getMemoryBytes() {
+    return memoryBytes.get();
+  }
+
+  /**
+   * Bytes written to the spill files that have not been deleted yet.
+   */
+  public long getSpilledBytes() {
+    return spilledBytes.get();
+  }
+
+  /**
+   * Drops the free segments, their memory is returned once they are garbage collected.
+   */
+  public synchronized void close() {
+    allocated -= (long) freeSegments.size() * SEGMENT_SIZE;
+    freeSegments.clear();
+  }
+}
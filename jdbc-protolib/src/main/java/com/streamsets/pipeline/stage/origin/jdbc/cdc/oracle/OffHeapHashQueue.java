@@ -0,0 +1,593 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Transaction buffer keeping the serialized records in append-only segments of direct memory.
+ *
+ * The segments come from an {@link OffHeapBufferPool} shared by all the transactions. Once the pool runs out of
+ * memory, the records that follow are appended to a spill file of the transaction instead. The index is made of
+ * primitive arrays: the position and length of every record plus an open addressing hash table for
+ * {@link #contains(Object)}. Only the last record is kept on heap, for {@link #tail()}.
+ *
+ * Segments are handed back to the pool as soon as the records they hold are removed, and all the segments and the
+ * spill file are released when the queue is closed on commit or rollback.
+ *
+ * Like the rest of the transaction buffers, instances are not thread safe.
+ */
+public class OffHeapHashQueue implements HashQueue<RecordSequence> {
+
+  private static final int SEGMENT_SIZE = OffHeapBufferPool.SEGMENT_SIZE;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final byte SSN_NULL = 0;
+  private static final byte SSN_DECIMAL = 1;
+  private static final byte SSN_STRING = 2;
+  private static final byte SSN_SERIALIZED = 3;
+
+  private final OffHeapBufferPool pool;
+
+  // segment i holds the bytes [i * SEGMENT_SIZE, (i + 1) * SEGMENT_SIZE), released ones are set to null
+  private final List<ByteBuffer> segments = new ArrayList<>();
+  private int releasedSegments;
+  // position where the spill file starts, -1 while everything is kept in memory
+  private long spillStart = -1;
+  private Path spillFile;
+  private FileChannel spill;
+  private long writePosition;
+
+  private long[] offsets = new long[INITIAL_CAPACITY];
+  private int[] lengths = new int[INITIAL_CAPACITY];
+  private int[] hashes = new int[INITIAL_CAPACITY];
+  private int[] table = new int[INITIAL_CAPACITY * 2];
+  private int occupiedSlots;
+  private int head;
+  private int count;
+  // records rewritten by update() are appended again, so the positions of the live records are no longer sorted
+  private boolean rewritten;
+  private RecordSequence tail;
+
+  private final ExposedByteArrayOutputStream writeBuffer = new ExposedByteArrayOutputStream();
+  private final DataOutputStream output = new DataOutputStream(writeBuffer);
+  private byte[] readBuffer = new byte[1024];
+
+  public OffHeapHashQueue(OffHeapBufferPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public RecordSequence tail() {
+    return tail;
+  }
+
+  @Override
+  public int size() {
+    return count - head;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return count == head;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof RecordSequence && find((RecordSequence) o) >= 0;
+  }
+
+  @Override
+  public boolean add(RecordSequence e) {
+    if (find(e) >= 0) {
+      return false;
+    }
+    if (count == offsets.length) {
+      int capacity = count * 2;
+      offsets = Arrays.copyOf(offsets, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    int length = append(e);
+    offsets[count] = writePosition - length;
+    lengths[count] = length;
+    hashes[count] = e.hashCode();
+    if ((occupiedSlots + 1) * 2 > table.length) {
+      rehash();
+    }
+    insertSlot(count);
+    count++;
+    tail = e;
+    return true;
+  }
+
+  @Override
+  public boolean offer(RecordSequence e) {
+    return add(e);
+  }
+
+  /**
+   * Stores again the record at the given position after it was modified, the old bytes are left unused.
+   */
+  @Override
+  public void update(int position, RecordSequence e) {
+    int index = head + position;
+    if (position < 0 || index >= count) {
+      throw new IndexOutOfBoundsException(String.valueOf(position));
+    }
+    int length = append(e);
+    offsets[index] = writePosition - length;
+    lengths[index] = length;
+    rewritten = true;
+    if (index == count - 1) {
+      tail = e;
+    }
+  }
+
+  @Override
+  public RecordSequence remove() {
+    RecordSequence element = element();
+    removeHead();
+    return element;
+  }
+
+  @Override
+  public RecordSequence poll() {
+    return isEmpty() ? null : remove();
+  }
+
+  @Override
+  public RecordSequence element() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return read(head);
+  }
+
+  @Override
+  public RecordSequence peek() {
+    return isEmpty() ? null : read(head);
+  }
+
+  @NotNull
+  @Override
+  public Iterator<RecordSequence> iterator() {
+    return new QueueIterator();
+  }
+
+  @Override
+  public void clear() {
+    releaseSegments(segments.size());
+    segments.clear();
+    releasedSegments = 0;
+    // the records that follow go to memory again, a new spill file is created if the pool runs out once more
+    releaseSpill();
+    writePosition = 0;
+    head = 0;
+    count = 0;
+    Arrays.fill(table, 0);
+    occupiedSlots = 0;
+    rewritten = false;
+    tail = null;
+  }
+
+  @Override
+  public void close() {
+    releaseSegments(segments.size());
+    segments.clear();
+    releaseSpill();
+    head = count;
+    tail = null;
+  }
+
+  @Override
+  public void completeInserts() {
+    // no op
+  }
+
+  @NotNull
+  @Override
+  public Object[] toArray() {
+    throw new UnsupportedOperationException();
+  }
+
+  @NotNull
+  @Override
+  public <T> T[] toArray(@NotNull T[] a) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(@NotNull Collection<? extends RecordSequence> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  private void removeHead() {
+    head++;
+    if (head == count) {
+      clear();
+    } else if (!rewritten) {
+      // segments entirely before the new head do not hold any live record
+      releaseSegments((int) (offsets[head] / SEGMENT_SIZE));
+    }
+  }
+
+  private void releaseSpill() {
+    if (spill != null) {
+      pool.spilled(-(writePosition - spillStart));
+      try {
+        spill.close();
+        Files.deleteIfExists(spillFile);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      } finally {
+        spill = null;
+        spillFile = null;
+        spillStart = -1;
+      }
+    }
+  }
+
+  private void releaseSegments(int upTo) {
+    for (int i = releasedSegments; i < upTo && i < segments.size(); i++) {
+      pool.release(segments.get(i));
+      segments.set(i, null);
+      releasedSegments = i + 1;
+    }
+  }
+
+  private int find(RecordSequence e) {
+    int hash = e.hashCode();
+    int mask = table.length - 1;
+    for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      int index = table[slot] - 1;
+      if (index >= head && hashes[index] == hash && e.equals(read(index))) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private void insertSlot(int index) {
+    int mask = table.length - 1;
+    int slot = mix(hashes[index]) & mask;
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = index + 1;
+    occupiedSlots++;
+  }
+
+  /**
+   * Rebuilds the hash table with the records still in the queue, growing it if needed.
+   */
+  private void rehash() {
+    int live = count - head + 1;
+    int capacity = INITIAL_CAPACITY * 2;
+    while (capacity < live * 4) {
+      capacity <<= 1;
+    }
+    table = new int[capacity];
+    occupiedSlots = 0;
+    for (int i = head; i < count; i++) {
+      insertSlot(i);
+    }
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Serializes the record at the end of the buffer and returns its length.
+   */
+  private int append(RecordSequence e) {
+    writeBuffer.reset();
+    try {
+      encode(e);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    int length = writeBuffer.size();
+    if (spill == null && !reserveMemory(length)) {
+      startSpill();
+    }
+    if (spill != null) {
+      writeSpill(writePosition - spillStart, writeBuffer.array(), length);
+      pool.spilled(length);
+    } else {
+      writeMemory(writePosition, writeBuffer.array(), length);
+    }
+    writePosition += length;
+    return length;
+  }
+
+  private RecordSequence read(int index) {
+    int length = lengths[index];
+    if (readBuffer.length < length) {
+      readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+    }
+    long offset = offsets[index];
+    if (spillStart < 0 || offset < spillStart) {
+      readMemory(offset, readBuffer, length);
+    } else {
+      readSpill(offset - spillStart, readBuffer, length);
+    }
+    try {
+      return decode(new DataInputStream(new ByteArrayInputStream(readBuffer, 0, length)));
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new IllegalStateException("Could not read buffered record: " + ex, ex);
+    }
+  }
+
+  /**
+   * Makes sure there are segments for the next {@code length} bytes, returns false if the pool is out of memory.
+   */
+  private boolean reserveMemory(int length) {
+    long end = writePosition + length;
+    int acquired = 0;
+    while ((long) segments.size() * SEGMENT_SIZE < end) {
+      ByteBuffer segment = pool.acquire();
+      if (segment == null) {
+        for (; acquired > 0; acquired--) {
+          pool.release(segments.remove(segments.size() - 1));
+        }
+        return false;
+      }
+      segments.add(segment);
+      acquired++;
+    }
+    return true;
+  }
+
+  private void startSpill() {
+    spillStart = writePosition;
+    try {
+      spillFile = Files.createTempFile(pool.getSpillLocation().toPath(), "txn-", ".spill");
+      spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void writeMemory(long position, byte[] bytes, int length) {
+    int done = 0;
+    while (done < length) {
+      ByteBuffer segment = segments.get((int) (position / SEGMENT_SIZE));
+      int segmentOffset = (int) (position % SEGMENT_SIZE);
+      int n = Math.min(length - done, SEGMENT_SIZE - segmentOffset);
+      segment.position(segmentOffset);
+      segment.put(bytes, done, n);
+      done += n;
+      position += n;
+    }
+  }
+
+  private void readMemory(long position, byte[] bytes, int length) {
+    int done = 0;
+    while (done < length) {
+      ByteBuffer segment = segments.get((int) (position / SEGMENT_SIZE));
+      int segmentOffset = (int) (position % SEGMENT_SIZE);
+      int n = Math.min(length - done, SEGMENT_SIZE - segmentOffset);
+      segment.position(segmentOffset);
+      segment.get(bytes, done, n);
+      done += n;
+      position += n;
+    }
+  }
+
+  private void writeSpill(long position, byte[] bytes, int length) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+    try {
+      while (buffer.hasRemaining()) {
+        position += spill.write(buffer, position);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void readSpill(long position, byte[] bytes, int length) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+    try {
+      while (buffer.hasRemaining()) {
+        int read = spill.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of spill file " + spillFile);
+        }
+        position += read;
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void encode(RecordSequence e) throws IOException {
+    if (e.headers == null) {
+      output.writeInt(-1);
+    } else {
+      output.writeInt(e.headers.size());
+      for (Map.Entry<String, String> header : e.headers.entrySet()) {
+        writeString(header.getKey());
+        writeString(header.getValue());
+      }
+    }
+    writeString(e.sqlString);
+    output.writeInt(e.seq);
+    output.writeInt(e.opCode);
+    writeString(e.rsId);
+    if (e.ssn == null) {
+      output.writeByte(SSN_NULL);
+    } else if (e.ssn instanceof BigDecimal) {
+      output.writeByte(SSN_DECIMAL);
+      writeString(e.ssn.toString());
+    } else if (e.ssn instanceof String) {
+      output.writeByte(SSN_STRING);
+      writeString((String) e.ssn);
+    } else {
+      output.writeByte(SSN_SERIALIZED);
+      ObjectOutputStream objectOutput = new ObjectOutputStream(output);
+      objectOutput.writeObject(e.ssn);
+      objectOutput.flush();
+    }
+    writeString(e.rowId);
+    output.writeBoolean(e.timestamp != null);
+    if (e.timestamp != null) {
+      output.writeLong(e.timestamp.toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(e.timestamp.getNano());
+    }
+    output.flush();
+  }
+
+  private RecordSequence decode(DataInputStream input) throws IOException, ClassNotFoundException {
+    Map<String, String> headers = null;
+    int headerCount = input.readInt();
+    if (headerCount >= 0) {
+      headers = new HashMap<>();
+      for (int i = 0; i < headerCount; i++) {
+        headers.put(readString(input), readString(input));
+      }
+    }
+    String sql = readString(input);
+    int seq = input.readInt();
+    int opCode = input.readInt();
+    String rsId = readString(input);
+    Object ssn;
+    switch (input.readByte()) {
+      case SSN_NULL:
+        ssn = null;
+        break;
+      case SSN_DECIMAL:
+        ssn = new BigDecimal(readString(input));
+        break;
+      case SSN_STRING:
+        ssn = readString(input);
+        break;
+      default:
+        ssn = new ObjectInputStream(input).readObject();
+    }
+    String rowId = readString(input);
+    LocalDateTime timestamp = null;
+    if (input.readBoolean()) {
+      timestamp = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+    }
+    return new RecordSequence(headers, sql, seq, opCode, rsId, ssn, rowId, timestamp);
+  }
+
+  private void writeString(String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+    byte[] array() {
+      return buf;
+    }
+  }
+
+  private class QueueIterator implements Iterator<RecordSequence> {
+
+    private int next = head;
+    private int last = -1;
+
+    @Override
+    public boolean hasNext() {
+      return next < count;
+    }
+
+    @Override
+    public RecordSequence next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return read(last);
+    }
+
+    /**
+     * Like the other transaction buffers, only the head of the queue can be removed.
+     */
+    @Override
+    public void remove() {
+      if (last < 0 || last != head) {
+        throw new IllegalStateException("Only the head of the queue can be removed");
+      }
+      removeHead();
+      last = -1;
+    }
+  }
+}
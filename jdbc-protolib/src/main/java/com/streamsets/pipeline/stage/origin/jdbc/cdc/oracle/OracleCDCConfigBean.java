@@ -111,6 +111,21 @@ public class OracleCDCConfigBean {
   @ValueChooserModel(BufferingChooserValues.class)
   public BufferingValues bufferLocation;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Off-Heap Buffer Size (MB)",
+      description = "Direct memory shared by the uncommitted transactions. Once it is used up, new changes are spilled" +
+          " to local disk",
+      displayPosition = 95,
+      group = "CDC",
+      defaultValue = "256",
+      min = 1,
+      dependsOn = "bufferLocation",
+      triggeredByValue = "OFF_HEAP"
+  )
+  public int offHeapBufferSize;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.BOOLEAN,
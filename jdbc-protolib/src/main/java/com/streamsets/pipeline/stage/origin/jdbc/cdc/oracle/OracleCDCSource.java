@@ -35,6 +35,7 @@ import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.jdbc.PrecisionAndScale;
 import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.DateTimeColumnHandler;
+import com.streamsets.pipeline.lib.jdbc.parser.sql.FastSQLParser;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.ParseUtil;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLListener;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLParser;
@@ -231,9 +232,12 @@ public class OracleCDCSource extends BaseSource {
   private boolean continuousMine;
 
   private Gauge<Map<String, Object>> delay;
+  private Gauge<Map<String, Object>> transactionBuffer;
+  private OffHeapBufferPool offHeapBufferPool;
 
   private static final String CONFIG_PROPERTY = "com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle.addrecordstoqueue";
   private static final boolean CONFIG_PROPERTY_DEFAULT_VALUE = false;
+  private static final long MB = 1024 * 1024;
   private boolean useNewAddRecordsToQueue;
 
   private boolean checkBatchSize = true;
@@ -298,6 +302,8 @@ public class OracleCDCSource extends BaseSource {
   private final ThreadLocal<SQLListener> sqlListener = ThreadLocal.withInitial(SQLListener::new);
   private final ThreadLocal<SQLParser> sqlParser =
       ThreadLocal.withInitial(() -> Parboiled.createParser(SQLParser.class));
+  private final ThreadLocal<FastSQLParser> fastSqlParser =
+      ThreadLocal.withInitial(() -> new FastSQLParser(configBean.useNewParser));
 
   private ExecutorService parsingExecutor;
 
@@ -592,6 +598,9 @@ public class OracleCDCSource extends BaseSource {
                 }
                 continue;
               }
+              if (transactionBuffer != null) {
+                updateTransactionBufferGauge();
+              }
               if (LOG.isDebugEnabled()) {
                 bufferedRecordsSize = bufferedRecords.size();
                 for (Map.Entry<OracleCDCSource.TransactionIdKey, HashQueue<RecordSequence>> r : bufferedRecords.entrySet()) {
@@ -864,6 +873,7 @@ public class OracleCDCSource extends BaseSource {
         for(RecordSequence rs : records) {
           if(count == lastOne) {
             rs.headers.put(SKIP, ONE);
+            records.update(count, rs);
             break;
           }
           count++;
@@ -1061,7 +1071,9 @@ public class OracleCDCSource extends BaseSource {
     boolean emptySQL = false;
     if (configBean.parseQuery) {
       Map<String, String> columns = new HashMap<>();
-      if (configBean.useNewParser) {
+      if (!StringUtils.isBlank(sql) && parseWithFastParser(sql, operationCode, table)) {
+        columns = fastSqlParser.get().getColumns();
+      } else if (configBean.useNewParser) {
         Set<String> columnsExpected = null;
         if (configBean.allowNulls && table.isNotEmpty()) {
           columnsExpected = tableSchemas.get(table).keySet();
@@ -1192,6 +1204,29 @@ public class OracleCDCSource extends BaseSource {
 
   }
 
+  /**
+   * Parses the redo SQL with the hand written parser, which handles the common LogMiner statements much faster than
+   * the ANTLR and PEG parsers. Returns false if the statement must be parsed with the configured parser instead.
+   */
+  private boolean parseWithFastParser(String sql, int operationCode, SchemaAndTable table) {
+    FastSQLParser parser = fastSqlParser.get();
+    parser.reset();
+    if (configBean.baseConfigBean.caseSensitive) {
+      parser.setCaseSensitive();
+    }
+    if (configBean.allowNulls) {
+      parser.allowNulls();
+    }
+    if (configBean.allowNulls && table.isNotEmpty()) {
+      parser.setColumns(tableSchemas.get(table).keySet());
+    }
+    if (parser.parse(sql, operationCode)) {
+      return true;
+    }
+    LOG.trace("Redo SQL not handled by the fast parser, using the configured parser: {}", sql);
+    return false;
+  }
+
   private boolean handleUnsupportedFieldTypes(Record r, String error, boolean emptySQL) {
     switch (configBean.unsupportedFieldOp) {
       case SEND_TO_PIPELINE:
@@ -1666,7 +1701,7 @@ public class OracleCDCSource extends BaseSource {
       return issues;
     }
 
-    if (useLocalBuffering && configBean.bufferLocation == BufferingValues.ON_DISK) {
+    if (useLocalBuffering && configBean.bufferLocation != BufferingValues.IN_MEMORY) {
       File tmpDir = new File(System.getProperty("java.io.tmpdir"));
       String relativePath =
           getContext().getSdcId() + "/" + getContext().getPipelineId() + "/" +
@@ -1684,6 +1719,9 @@ public class OracleCDCSource extends BaseSource {
         Throwables.propagate(ex);
       }
     }
+    if (useLocalBuffering && configBean.bufferLocation == BufferingValues.OFF_HEAP) {
+      offHeapBufferPool = new OffHeapBufferPool(configBean.offHeapBufferSize * MB, txnBufferLocation);
+    }
 
     if (configBean.bufferLocally) {
       if (configBean.parseQuery) {
@@ -1704,6 +1742,9 @@ public class OracleCDCSource extends BaseSource {
     }
     offsetVersion = useLocalBuffering ? OFFSET_VERSION_UNCOMMITTED : OFFSET_VERSION_STR;
     delay = getContext().createGauge("Read Lag (seconds)");
+    if (useLocalBuffering) {
+      transactionBuffer = getContext().createGauge("Transaction Buffer");
+    }
     return issues;
   }
 
@@ -1968,6 +2009,9 @@ public class OracleCDCSource extends BaseSource {
     } finally {
       bufferedRecordsLock.unlock();
     }
+    if (offHeapBufferPool != null) {
+      offHeapBufferPool.close();
+    }
     generationStarted = false;
 
     if (parsingExecutor != null) {
@@ -2064,6 +2108,18 @@ public class OracleCDCSource extends BaseSource {
     }
   }
 
+  /**
+   * Must be called with {@code bufferedRecordsLock} held.
+   */
+  private void updateTransactionBufferGauge() {
+    Map<String, Object> values = transactionBuffer.getValue();
+    values.put("Buffered Transactions", bufferedRecords.size());
+    if (offHeapBufferPool != null) {
+      values.put("Memory Bytes", offHeapBufferPool.getMemoryBytes());
+      values.put("Spilled Bytes", offHeapBufferPool.getSpilledBytes());
+    }
+  }
+
   /**
    * An element is "expired" if the transaction started before the current window being processed
    * and if no records have actually been sent to the pipeline. If a record has been sent, then a commit was seen,
@@ -2090,8 +2146,14 @@ public class OracleCDCSource extends BaseSource {
 
   private HashQueue<RecordSequence> createTransactionBuffer(String txnId) {
     try {
-      return configBean.bufferLocation == BufferingValues.IN_MEMORY ? new InMemoryHashQueue<>() :
-          new FileBackedHashQueue<>(new File(txnBufferLocation, txnId));
+      switch (configBean.bufferLocation) {
+        case IN_MEMORY:
+          return new InMemoryHashQueue<>();
+        case OFF_HEAP:
+          return new OffHeapHashQueue(offHeapBufferPool);
+        default:
+          return new FileBackedHashQueue<>(new File(txnBufferLocation, txnId));
+      }
     } catch (IOException ex) {
       LOG.error("Error while creating transaction buffer", ex);
       throw new RuntimeException(ex);
@@ -90,6 +90,7 @@ public class PostgresCDCWalReceiver {
   private Connection connection = null;
   private PGReplicationStream stream;
   private List<SchemaAndTable> schemasAndTables;
+  private Wal2JsonDecoder.ChangeFilter changeFilter;
 
   @VisibleForTesting
   PostgresCDCConfigBean configBean;
@@ -561,10 +562,14 @@ public class PostgresCDCWalReceiver {
     try {
       buffer = readNonBlocking();
       if(buffer != null) {
+        if (changeFilter == null) {
+          changeFilter = WalRecordFilteringUtils.createChangeFilter(configBean.postgresChangeTypes, schemasAndTables);
+        }
         ret = new PostgresWalRecord(
             buffer,
             getCurrentLSN(),
-            configBean.decoderValue
+            configBean.decoderValue,
+            changeFilter
         );
       }
     } catch (SQLException e) {
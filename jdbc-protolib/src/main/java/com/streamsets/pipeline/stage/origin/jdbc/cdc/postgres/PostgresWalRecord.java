@@ -15,13 +15,10 @@
  */
 package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.streamsets.pipeline.api.Field;
-import com.streamsets.pipeline.lib.util.JsonUtil;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import org.postgresql.replication.LogSequenceNumber;
@@ -29,6 +26,7 @@ import org.postgresql.replication.LogSequenceNumber;
 public class PostgresWalRecord {
 
   private final DecoderValues decoder;
+  private final Wal2JsonDecoder.ChangeFilter changeFilter;
   private ByteBuffer buffer;
   private Field field;
   private LogSequenceNumber lsn;
@@ -50,10 +48,23 @@ public class PostgresWalRecord {
   }
 
   public PostgresWalRecord(ByteBuffer buffer, LogSequenceNumber lsn, DecoderValues decoder) {
+    this(buffer, lsn, decoder, Wal2JsonDecoder.ALL_CHANGES);
+  }
+
+  /**
+   * @param changeFilter changes it rejects are dropped while decoding, before their columns are read.
+   */
+  public PostgresWalRecord(
+      ByteBuffer buffer,
+      LogSequenceNumber lsn,
+      DecoderValues decoder,
+      Wal2JsonDecoder.ChangeFilter changeFilter
+  ) {
     this.buffer = buffer;
     this.lsn = lsn;
     this.field = null; //converter throws exception best handled in getter
     this.decoder = decoder;
+    this.changeFilter = changeFilter;
   }
 
   public PostgresWalRecord(PostgresWalRecord record, Field changes) {
@@ -62,13 +73,11 @@ public class PostgresWalRecord {
     this.field = record.getField();
     this.setChanges(changes);
     this.decoder = record.getDecoder();
+    this.changeFilter = Wal2JsonDecoder.ALL_CHANGES;
   }
 
   private String bufferToString() {
-    int offset = buffer.arrayOffset();
-    byte[] source = buffer.array();
-    int length = source.length - offset;
-    return new String(source, offset, length);
+    return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
   }
 
   public String toString() {
@@ -83,13 +92,8 @@ public class PostgresWalRecord {
       switch(decoder) {
 
         case WAL2JSON:
-          JsonNode json;
           try {
-            ObjectMapper om = new ObjectMapper();
-            ObjectReader reader = om.reader();
-            json = reader.readTree(bufferToString());
-
-            field = JsonUtil.jsonToField(om.convertValue(json, Map.class));
+            field = Wal2JsonDecoder.decode(buffer, changeFilter);
           } catch (IOException e) {
             field = null;
           }
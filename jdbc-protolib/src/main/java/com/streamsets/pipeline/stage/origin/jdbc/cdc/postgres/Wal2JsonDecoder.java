@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming decoder for the messages of the wal2json output plugin.
+ *
+ * The replication buffer is parsed in place and the {@link Field} tree is built in a single pass, with the same field
+ * types as converting the JSON document with {@link com.streamsets.pipeline.lib.util.JsonUtil#jsonToField(Object)}.
+ * Changes rejected by the {@link ChangeFilter} are skipped by the parser as soon as their kind, schema and table are
+ * known, without creating fields for their columns.
+ */
+public final class Wal2JsonDecoder {
+
+  /**
+   * Decides which changes of a message are kept. Any of the arguments can be null if the change does not have it.
+   */
+  public interface ChangeFilter {
+    boolean accept(String kind, String schema, String table);
+  }
+
+  public static final ChangeFilter ALL_CHANGES = (kind, schema, table) -> true;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final String CHANGE = "change";
+  private static final String KIND = "kind";
+  private static final String SCHEMA = "schema";
+  private static final String TABLE = "table";
+
+  private Wal2JsonDecoder() {}
+
+  public static Field decode(ByteBuffer buffer, ChangeFilter filter) throws IOException {
+    try (JsonParser parser = createParser(buffer)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("wal2json message is not a JSON object");
+      }
+      Map<String, Field> message = new LinkedHashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (CHANGE.equals(name) && token == JsonToken.START_ARRAY) {
+          message.put(name, readChanges(parser, filter));
+        } else {
+          message.put(name, readValue(parser, token));
+        }
+      }
+      return Field.create(message);
+    }
+  }
+
+  private static JsonParser createParser(ByteBuffer buffer) throws IOException {
+    if (buffer.hasArray()) {
+      return JSON_FACTORY.createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return JSON_FACTORY.createParser(bytes);
+  }
+
+  private static Field readChanges(JsonParser parser, ChangeFilter filter) throws IOException {
+    List<Field> changes = new ArrayList<>();
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token == JsonToken.START_OBJECT) {
+        Field change = readChange(parser, filter);
+        if (change != null) {
+          changes.add(change);
+        }
+      } else {
+        changes.add(readValue(parser, token));
+      }
+    }
+    return Field.create(changes);
+  }
+
+  /**
+   * Reads a change object, returns null if it was rejected by the filter.
+   */
+  private static Field readChange(JsonParser parser, ChangeFilter filter) throws IOException {
+    Map<String, Field> change = new LinkedHashMap<>();
+    String kind = null;
+    String schema = null;
+    String table = null;
+    boolean checked = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (!checked && kind != null && schema != null && table != null) {
+        // wal2json writes kind, schema and table first, decide before reading the columns
+        checked = true;
+        if (!filter.accept(kind, schema, table)) {
+          skipObject(parser);
+          return null;
+        }
+      }
+      Field value = readValue(parser, token);
+      change.put(name, value);
+      if (token == JsonToken.VALUE_STRING) {
+        switch (name) {
+          case KIND:
+            kind = value.getValueAsString();
+            break;
+          case SCHEMA:
+            schema = value.getValueAsString();
+            break;
+          case TABLE:
+            table = value.getValueAsString();
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    if (!checked && !filter.accept(kind, schema, table)) {
+      return null;
+    }
+    return Field.create(change);
+  }
+
+  /**
+   * Skips the rest of the object whose value token was just read.
+   */
+  private static void skipObject(JsonParser parser) throws IOException {
+    parser.skipChildren();
+    while (parser.nextToken() != JsonToken.END_OBJECT) {
+      parser.nextToken();
+      parser.skipChildren();
+    }
+  }
+
+  private static Field readValue(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Field> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          map.put(name, readValue(parser, parser.nextToken()));
+        }
+        return Field.create(map);
+      case START_ARRAY:
+        List<Field> list = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+          list.add(readValue(parser, element));
+        }
+        return Field.create(list);
+      case VALUE_STRING:
+        return Field.create(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return Field.create(parser.getIntValue());
+          case LONG:
+            return Field.create(parser.getLongValue());
+          default:
+            return Field.create(new BigDecimal(parser.getBigIntegerValue()));
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Field.create(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return Field.create(true);
+      case VALUE_FALSE:
+        return Field.create(false);
+      case VALUE_NULL:
+        return Field.create(Field.Type.STRING, null);
+      default:
+        throw new IOException(Utils.format("Unexpected token '{}' in wal2json message", token));
+    }
+  }
+}
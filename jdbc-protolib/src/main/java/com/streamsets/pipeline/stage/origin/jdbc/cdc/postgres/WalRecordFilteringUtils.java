@@ -26,7 +26,9 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class WalRecordFilteringUtils {
 
@@ -42,6 +44,23 @@ public class WalRecordFilteringUtils {
     return postgresWalRecord;
   }
 
+  /**
+   * Returns a filter applying the table and operation filters to the changes while they are decoded, so that the
+   * changes filtered out are never materialized.
+   */
+  public static Wal2JsonDecoder.ChangeFilter createChangeFilter(
+      List<PostgresChangeTypeValues> configuredChangeTypes,
+      List<SchemaAndTable> schemasAndTables
+  ) {
+    Set<String> changeTypes = new HashSet<>();
+    for (PostgresChangeTypeValues configuredChangeType : configuredChangeTypes) {
+      changeTypes.add(configuredChangeType.getLabel());
+    }
+    Set<SchemaAndTable> tables = schemasAndTables == null ? new HashSet<>() : new HashSet<>(schemasAndTables);
+    return (kind, schema, table) -> changeTypes.contains(kind) && (tables.isEmpty() ||
+        (schema != null && table != null && tables.contains(new SchemaAndTable(schema, table))));
+  }
+
   static List<SchemaAndTable> getSchemasAndTables(PostgresCDCSource postgresCDCSource) {
     return postgresCDCSource.getWalReceiver().getSchemasAndTables();
   }
@@ -21,6 +21,7 @@ public enum PartitioningMode implements Label {
   DISABLED("Off"),
   BEST_EFFORT("On (Best Effort)"),
   REQUIRED("On (Required)"),
+  ADAPTIVE("On (Adaptive)"),
   ;
 
   private final String label;
@@ -161,7 +161,8 @@ public class TableConfigBeanImpl implements TableConfigBean {
       type = ConfigDef.Type.MODEL,
       label = "Multithreaded Partition Processing Mode",
       description = "Multithreaded processing of partitions mode. Required (validation error if not possible), Best" +
-          " effort (use if possible, but don't fail validation if not), or disabled (no partitioning).",
+          " effort (use if possible, but don't fail validation if not), Adaptive (partitions balanced by sampling" +
+          " the offset column values, use if possible) or disabled (no partitioning).",
       displayPosition = 90,
       defaultValue = PARTITIONING_MODE_DEFAULT_VALUE_STR,
       group = "TABLE"
@@ -175,12 +176,12 @@ public class TableConfigBeanImpl implements TableConfigBean {
       type = ConfigDef.Type.STRING,
       label = "Partition Size",
       description = "Controls the size of partitions.  This value represents the range of values that will be covered" +
-          " by a single partition.",
+          " by a single partition, or the approximate number of rows of a partition in adaptive mode.",
       displayPosition = 100,
       defaultValue = DEFAULT_PARTITION_SIZE,
       group = "TABLE",
       dependsOn = "partitioningMode",
-      triggeredByValue = {"BEST_EFFORT", "REQUIRED"}
+      triggeredByValue = {"BEST_EFFORT", "REQUIRED", "ADAPTIVE"}
   )
   public String partitionSize = DEFAULT_PARTITION_SIZE;
 
@@ -195,7 +196,7 @@ public class TableConfigBeanImpl implements TableConfigBean {
       defaultValue = "" + DEFAULT_MAX_NUM_ACTIVE_PARTITIONS,
       group = "TABLE",
       dependsOn = "partitioningMode",
-      triggeredByValue = {"BEST_EFFORT", "REQUIRED"},
+      triggeredByValue = {"BEST_EFFORT", "REQUIRED", "ADAPTIVE"},
       min = -1
   )
   public int maxNumActivePartitions = DEFAULT_MAX_NUM_ACTIVE_PARTITIONS;
@@ -180,11 +180,25 @@ public class TableJdbcConfigBean {
   )
   public int fetchSize;
 
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Streaming Read",
+      description = "Streams result sets from the database Fetch Size rows at a time through server side cursors" +
+          " instead of letting the driver load them in memory. Requires Auto Commit to be disabled on PostgreSQL.",
+      defaultValue = "false",
+      displayPosition = 225,
+      group = "JDBC"
+  )
+  public boolean streamingRead = false;
+
   public static final String TABLE_JDBC_CONFIG_BEAN_PREFIX = "tableJdbcConfigBean.";
   public static final String TABLE_CONFIG = TABLE_JDBC_CONFIG_BEAN_PREFIX + "tableConfigs";
   public static final String BATCHES_FROM_THE_RESULT_SET = "numberOfBatchesFromRs";
   public static final String NUMBER_OF_THREADS = "numberOfThreads";
   public static final String QUOTE_CHAR = "quoteChar";
+  public static final String STREAMING_READ = "streamingRead";
 
   public List<Stage.ConfigIssue> validateConfigs(PushSource.Context context, DatabaseVendor vendor, List<Stage.ConfigIssue> issues) {
     if (getTableConfigs().isEmpty()) {
@@ -77,6 +77,18 @@ public class TableJdbcSource extends AbstractTableJdbcSource {
   public void validateTableJdbcConfigBean(PushSource.Context context, DatabaseVendor vendor, List<ConfigIssue> issues) {
     issues = tableJdbcConfigBean.validateConfigs(context, vendor, issues);
 
+    // PostgreSQL drivers only fetch through a cursor outside of auto-commit
+    if (tableJdbcConfigBean.streamingRead && vendor == DatabaseVendor.POSTGRESQL && hikariConfigBean.isAutoCommit()) {
+      issues.add(
+          context.createConfigIssue(
+              com.streamsets.pipeline.stage.origin.jdbc.table.Groups.JDBC.name(),
+              TableJdbcConfigBean.TABLE_JDBC_CONFIG_BEAN_PREFIX + TableJdbcConfigBean.STREAMING_READ,
+              JdbcErrors.JDBC_417,
+              vendor
+          )
+      );
+    }
+
     //Max pool size should be equal to number of threads
     //The main thread will use one connection to list threads and close (return to hikari pool) the connection
     // and each individual data threads needs one connection
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.Dependency;
+import com.streamsets.pipeline.lib.el.RecordEL;
+
+public class BatchLookupConfig {
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Batch Lookup",
+      description = "Resolve the lookups of a whole batch with a few multi-key queries. The SQL Query must then be a" +
+          " template with a single '?' placeholder for the keys, for example: SELECT ... FROM <table> WHERE" +
+          " <key column> IN (?)",
+      defaultValue = "false",
+      displayPosition = 70,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0"
+  )
+  public boolean enabled = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Lookup Key",
+      description = "Expression evaluating to the key to look up for each record",
+      defaultValue = "${record:value('/id')}",
+      elDefs = {RecordEL.class},
+      evaluation = ConfigDef.Evaluation.EXPLICIT,
+      displayPosition = 71,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public String keyExpression = "${record:value('/id')}";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Key Column",
+      description = "Column of the query results holding the key, used to hand the returned rows back to the records",
+      displayPosition = 72,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public String keyColumn;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Keys per Query",
+      description = "Maximum number of keys bound to a single query",
+      defaultValue = "100",
+      min = 1,
+      max = 1000,
+      displayPosition = 73,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public int maxKeysPerQuery = 100;
+}
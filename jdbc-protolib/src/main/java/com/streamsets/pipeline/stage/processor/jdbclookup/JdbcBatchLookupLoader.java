@@ -0,0 +1,242 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.DataType;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
+import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
+import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves many lookup keys with a few queries, expanding the single '?' placeholder of the lookup query into a
+ * parameterized IN list and handing the returned rows back to their keys through the key column.
+ *
+ * Chunks of keys are padded to a power of two (capped to the maximum keys per query) by repeating their last key, so
+ * only a handful of distinct statements are ever prepared and driver side statement caches keep getting hits.
+ */
+public class JdbcBatchLookupLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchLookupLoader.class);
+
+  static final String KEYS_PLACEHOLDER = "?";
+
+  private final DataSource dataSource;
+  private final String query;
+  private final String keyColumn;
+  private final int maxKeysPerQuery;
+  private final Map<String, DataType> columnsToTypes;
+  private final int maxClobSize;
+  private final int maxBlobSize;
+  private final ErrorRecordHandler errorRecordHandler;
+  private final DatabaseVendor vendor;
+  private final UnknownTypeAction unknownTypeAction;
+  private final Meter selectMeter;
+  private final Timer selectTimer;
+  private final JdbcUtil jdbcUtil;
+
+  public JdbcBatchLookupLoader(
+      Stage.Context context,
+      DataSource dataSource,
+      String query,
+      String keyColumn,
+      int maxKeysPerQuery,
+      Map<String, DataType> columnsToTypes,
+      int maxClobSize,
+      int maxBlobSize,
+      ErrorRecordHandler errorRecordHandler,
+      DatabaseVendor vendor,
+      UnknownTypeAction unknownTypeAction
+  ) {
+    this.dataSource = dataSource;
+    this.query = query;
+    this.keyColumn = keyColumn;
+    this.maxKeysPerQuery = maxKeysPerQuery;
+    this.columnsToTypes = columnsToTypes;
+    this.maxClobSize = maxClobSize;
+    this.maxBlobSize = maxBlobSize;
+    this.errorRecordHandler = errorRecordHandler;
+    this.vendor = vendor;
+    this.unknownTypeAction = unknownTypeAction;
+    this.selectMeter = context.createMeter("Batch Select Queries");
+    this.selectTimer = context.createTimer("Batch Select Queries");
+    this.jdbcUtil = UtilsProvider.getJdbcUtil();
+  }
+
+  /**
+   * Returns the number of occurrences of the keys placeholder in the given query, it must be exactly one.
+   */
+  static int countPlaceholders(String query) {
+    int count = 0;
+    int index = query.indexOf(KEYS_PLACEHOLDER);
+    while (index >= 0) {
+      count++;
+      index = query.indexOf(KEYS_PLACEHOLDER, index + 1);
+    }
+    return count;
+  }
+
+  /**
+   * Normalizes a key value, coming either from a record or from the key column, into the string used to match them
+   * and to cache the lookup values.
+   */
+  static String keyToString(Object value) {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).stripTrailingZeros().toPlainString();
+    }
+    return String.valueOf(value);
+  }
+
+  static int statementSize(int keys, int maxKeysPerQuery) {
+    int size = Integer.highestOneBit(keys);
+    if (size < keys) {
+      size <<= 1;
+    }
+    return Math.min(size, maxKeysPerQuery);
+  }
+
+  static String expandQuery(String query, int keys) {
+    StringBuilder placeholders = new StringBuilder(keys * 3);
+    for (int i = 0; i < keys; i++) {
+      if (i > 0) {
+        placeholders.append(", ");
+      }
+      placeholders.append(KEYS_PLACEHOLDER);
+    }
+    return query.replace(KEYS_PLACEHOLDER, placeholders);
+  }
+
+  /**
+   * Looks up the given keys.
+   *
+   * @param keys key values to bind to the query, by their normalized string.
+   * @return the lookup values of every given key, empty when the query returned no rows for it.
+   */
+  public Map<String, Optional<List<Map<String, Field>>>> load(Map<String, Object> keys) throws StageException {
+    Map<String, List<Map<String, Field>>> rows = new HashMap<>();
+    if (!keys.isEmpty()) {
+      List<Object> values = new ArrayList<>(keys.values());
+      Map<Integer, PreparedStatement> statements = new HashMap<>();
+      try (Connection connection = dataSource.getConnection()) {
+        try {
+          for (int start = 0; start < values.size(); start += maxKeysPerQuery) {
+            List<Object> chunk = values.subList(start, Math.min(values.size(), start + maxKeysPerQuery));
+            int size = statementSize(chunk.size(), maxKeysPerQuery);
+            PreparedStatement statement = statements.get(size);
+            if (statement == null) {
+              statement = connection.prepareStatement(expandQuery(query, size));
+              statements.put(size, statement);
+            }
+            for (int i = 0; i < size; i++) {
+              statement.setObject(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+            }
+            readRows(statement, rows);
+          }
+        } finally {
+          statements.values().forEach(jdbcUtil::closeQuietly);
+        }
+      } catch (SQLException e) {
+        LOG.error(JdbcErrors.JDBC_02.getMessage(), query, e);
+        throw new OnRecordErrorException(JdbcErrors.JDBC_02, query, e.getMessage());
+      }
+    }
+
+    Map<String, Optional<List<Map<String, Field>>>> lookupValues = new HashMap<>();
+    for (String key : keys.keySet()) {
+      lookupValues.put(key, Optional.ofNullable(rows.get(key)));
+    }
+    return lookupValues;
+  }
+
+  private void readRows(
+      PreparedStatement statement,
+      Map<String, List<Map<String, Field>>> rows
+  ) throws SQLException, StageException {
+    Timer.Context t = selectTimer.time();
+    try (ResultSet resultSet = statement.executeQuery()) {
+      // Stop timer immediately so that we're calculating only query execution time and not the processing time
+      t.stop();
+      t = null;
+
+      int numColumns = resultSet.getMetaData().getColumnCount();
+      ResultSetRowConverter rowConverter = jdbcUtil.createRowConverter(
+          resultSet,
+          maxClobSize,
+          maxBlobSize,
+          columnsToTypes,
+          unknownTypeAction,
+          null,
+          false,
+          vendor
+      );
+      String keyLabel = null;
+      while (resultSet.next()) {
+        LinkedHashMap<String, Field> fields = rowConverter.toFields(resultSet, errorRecordHandler);
+
+        if (fields.size() != numColumns) {
+          throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
+        }
+
+        if (keyLabel == null) {
+          keyLabel = findKeyLabel(fields);
+        }
+        Field key = fields.get(keyLabel);
+        if (key != null && key.getValue() != null) {
+          rows.computeIfAbsent(keyToString(key.getValue()), k -> new ArrayList<>()).add(fields);
+        }
+      }
+    } finally {
+      // If the timer wasn't stopped due to exception yet, stop it now
+      if (t != null) {
+        t.stop();
+      }
+      selectMeter.mark();
+    }
+  }
+
+  private String findKeyLabel(Map<String, Field> fields) throws OnRecordErrorException {
+    // databases are free to change the case of unquoted column names
+    for (String label : fields.keySet()) {
+      if (label.equalsIgnoreCase(keyColumn)) {
+        return label;
+      }
+    }
+    throw new OnRecordErrorException(JdbcErrors.JDBC_416, keyColumn);
+  }
+}
@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.jdbc.DataType;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.ResultSetRowConverter;
 import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
 import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
@@ -35,7 +36,6 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -99,20 +99,22 @@ public class JdbcLookupLoader extends CacheLoader<String, Optional<List<Map<Stri
       t.stop();
       t = null;
 
-      // Process whole result set and load it to the memory
-      while(resultSet.next()) {
-        ResultSetMetaData md = resultSet.getMetaData();
-
-        LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(resultSet,
+      int numColumns = resultSet.getMetaData().getColumnCount();
+      ResultSetRowConverter rowConverter = jdbcUtil.createRowConverter(
+          resultSet,
           maxClobSize,
           maxBlobSize,
           columnsToTypes,
-          errorRecordHandler,
           unknownTypeAction,
+          null,
+          false,
           vendor
-        );
+      );
+
+      // Process whole result set and load it to the memory
+      while(resultSet.next()) {
+        LinkedHashMap<String, Field> fields = rowConverter.toFields(resultSet, errorRecordHandler);
 
-        int numColumns = md.getColumnCount();
         if (fields.size() != numColumns) {
           throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
         }
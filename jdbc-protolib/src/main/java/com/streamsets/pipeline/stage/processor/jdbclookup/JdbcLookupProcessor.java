@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.processor.jdbclookup;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Throwables;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
@@ -54,7 +55,9 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
@@ -80,9 +83,15 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
   private static final String COLUMN_MAPPINGS = "columnMappings";
+  private static final String QUERY = "query";
+  private static final String BATCH_LOOKUP_CONFIG = "batchLookupConfig.";
+  private static final String KEY_EXPRESSION = BATCH_LOOKUP_CONFIG + "keyExpression";
+  private static final String KEY_COLUMN = BATCH_LOOKUP_CONFIG + "keyColumn";
   private final CacheConfig cacheConfig;
+  private final BatchLookupConfig batchLookupConfig;
 
   private ELEval queryEval;
+  private ELEval keyEval;
 
   private final String query;
   private final boolean validateColumnMappings;
@@ -108,6 +117,16 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private int preprocessThreads = 0;
   private JdbcUtil jdbcUtil;
 
+  private JdbcBatchLookupLoader batchLoader;
+  // lookup key of every record of the current batch, NULL when the record has no key
+  private final Map<Record, String> batchKeys = new IdentityHashMap<>();
+  private final Map<String, Optional<List<Map<String, Field>>>> batchValues = new HashMap<>();
+  private OnRecordErrorException batchError;
+  private Timer batchLookupTimer;
+  private Map<String, Object> batchLookupGauge;
+  private long cacheHits;
+  private long cacheMisses;
+
   public JdbcLookupProcessor(
       String query,
       Boolean validateColumnMappings,
@@ -118,7 +137,8 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       int maxClobSize,
       int maxBlobSize,
       HikariPoolConfigBean hikariConfigBean,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      BatchLookupConfig batchLookupConfig
   ) {
     this.query = query;
     this.validateColumnMappings = validateColumnMappings;
@@ -130,6 +150,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     this.maxBlobSize = maxBlobSize;
     this.hikariConfigBean = hikariConfigBean;
     this.cacheConfig = cacheConfig;
+    this.batchLookupConfig = batchLookupConfig;
   }
 
   /** {@inheritDoc} */
@@ -145,7 +166,15 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
     Processor.Context context = getContext();
 
-    queryEval = getContext().createELEval("query");
+    queryEval = getContext().createELEval(QUERY);
+
+    if (batchLookupConfig.enabled) {
+      keyEval = getContext().createELEval(KEY_EXPRESSION);
+      int placeholders = JdbcBatchLookupLoader.countPlaceholders(query);
+      if (placeholders != 1) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), QUERY, JdbcErrors.JDBC_415, placeholders));
+      }
+    }
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
@@ -180,6 +209,15 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
               issues.add(context.createConfigIssue(Groups.JDBC.name(), COLUMN_MAPPINGS, JdbcErrors.JDBC_95, columnName));
             }
           }
+          if (batchLookupConfig.enabled &&
+              columnNamesFromDb.stream().noneMatch(c -> c.equalsIgnoreCase(batchLookupConfig.keyColumn))) {
+            issues.add(context.createConfigIssue(
+                Groups.JDBC.name(),
+                KEY_COLUMN,
+                JdbcErrors.JDBC_416,
+                batchLookupConfig.keyColumn
+            ));
+          }
         }
       } catch (SQLException e) {
         issues.add(context.createConfigIssue(
@@ -194,7 +232,23 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     if (issues.isEmpty()) {
       cache = buildCache();
       cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
-      if (cacheConfig.enabled) {
+      if (batchLookupConfig.enabled) {
+        batchLoader = new JdbcBatchLookupLoader(
+            getContext(),
+            dataSource,
+            query,
+            batchLookupConfig.keyColumn,
+            batchLookupConfig.maxKeysPerQuery,
+            columnsToTypes,
+            maxClobSize,
+            maxBlobSize,
+            errorRecordHandler,
+            hikariConfigBean.getVendor(),
+            unknownTypeAction
+        );
+        batchLookupTimer = getContext().createTimer("Batch Lookups");
+        batchLookupGauge = getContext().createGauge("Batch Lookup").getValue();
+      } else if (cacheConfig.enabled) {
         preprocessThreads = Math.min(hikariConfigBean.minIdle, Runtime.getRuntime().availableProcessors()-1);
         preprocessThreads = Math.max(preprocessThreads, 1);
       }
@@ -355,22 +409,111 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
-    //Cache warming
-    if (preprocessThreads > 0) {
+    if (batchLookupConfig.enabled) {
+      lookupBatch(batch);
+    } else if (preprocessThreads > 0) {
+      //Cache warming
       preprocess(batch);
     }
     //Normal processing per record
     super.process(batch, batchMaker);
   }
 
+  /**
+   * Evaluates the lookup key of every record of the batch and resolves all the keys missing from the cache at once.
+   * The values are kept for the batch regardless of the cache, which could be disabled or evict them right away.
+   */
+  private void lookupBatch(Batch batch) throws StageException {
+    batchKeys.clear();
+    batchValues.clear();
+    batchError = null;
+
+    Map<String, Object> misses = new LinkedHashMap<>();
+    Iterator<Record> it = batch.getRecords();
+    while (it.hasNext()) {
+      Record record = it.next();
+      Object keyValue;
+      try {
+        keyValue = evalLookupKey(record);
+      } catch (ELEvalException e) {
+        // reported when processing the record
+        continue;
+      }
+      String key = (keyValue == null) ? null : JdbcBatchLookupLoader.keyToString(keyValue);
+      batchKeys.put(record, key);
+      if (key == null || batchValues.containsKey(key) || misses.containsKey(key)) {
+        continue;
+      }
+      Optional<List<Map<String, Field>>> cached = cache.getIfPresent(key);
+      if (cached != null) {
+        batchValues.put(key, cached);
+        cacheHits++;
+      } else {
+        misses.put(key, keyValue);
+      }
+    }
+    cacheMisses += misses.size();
+
+    Timer.Context t = batchLookupTimer.time();
+    try {
+      for (Map.Entry<String, Optional<List<Map<String, Field>>>> entry : batchLoader.load(misses).entrySet()) {
+        if (entry.getValue().isPresent() || !cacheConfig.retryOnCacheMiss) {
+          cache.put(entry.getKey(), entry.getValue());
+        }
+        batchValues.put(entry.getKey(), entry.getValue());
+      }
+    } catch (OnRecordErrorException e) {
+      // every record of the batch that needed the failed lookup is sent to error
+      batchError = e;
+    } finally {
+      t.stop();
+    }
+
+    long lookups = cacheHits + cacheMisses;
+    batchLookupGauge.put("Cache Hits", cacheHits);
+    batchLookupGauge.put("Cache Misses", cacheMisses);
+    batchLookupGauge.put("Cache Hit Ratio", (lookups == 0) ? 0 : (double) cacheHits / lookups);
+    batchLookupGauge.put("Last Batch Keys Queried", misses.size());
+  }
+
+  private Object evalLookupKey(Record record) throws ELEvalException {
+    ELVars elVars = getContext().createELVars();
+    RecordEL.setRecordInContext(elVars, record);
+    return keyEval.eval(elVars, batchLookupConfig.keyExpression, Object.class);
+  }
+
+  private Optional<List<Map<String, Field>>> getBatchLookupValues(Record record) throws StageException {
+    if (!batchKeys.containsKey(record)) {
+      // evaluating again to report the failure
+      evalLookupKey(record);
+    }
+    String key = batchKeys.get(record);
+    if (key == null) {
+      return defaultValue;
+    }
+    Optional<List<Map<String, Field>>> values = batchValues.get(key);
+    if (values == null) {
+      // the lookup of the key failed
+      throw batchError;
+    }
+    return values.isPresent() ? values : defaultValue;
+  }
+
   /** {@inheritDoc} */
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
     try {
-      ELVars elVars = getContext().createELVars();
-      RecordEL.setRecordInContext(elVars, record);
-      String preparedQuery = queryEval.eval(elVars, query, String.class);
-      Optional<List<Map<String, Field>>> entry = cache.get(preparedQuery);
+      String preparedQuery;
+      Optional<List<Map<String, Field>>> entry;
+      if (batchLookupConfig.enabled) {
+        preparedQuery = query + " [" + batchKeys.get(record) + "]";
+        entry = getBatchLookupValues(record);
+      } else {
+        ELVars elVars = getContext().createELVars();
+        RecordEL.setRecordInContext(elVars, record);
+        preparedQuery = queryEval.eval(elVars, query, String.class);
+        entry = cache.get(preparedQuery);
+      }
 
       if (!entry.isPresent()) {
         // No results
@@ -423,8 +566,9 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       }
 
     } catch (ELEvalException e) {
-      LOG.error(JdbcErrors.JDBC_01.getMessage(), query, e);
-      throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, query);
+      String expression = batchLookupConfig.enabled ? batchLookupConfig.keyExpression : query;
+      LOG.error(JdbcErrors.JDBC_01.getMessage(), expression, e);
+      throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, expression);
     } catch (UncheckedExecutionException | ExecutionException e) {
       Throwables.propagateIfPossible(e.getCause(), StageException.class);
       throw new IllegalStateException(e); // The cache loader shouldn't throw anything that isn't a StageException.
@@ -435,6 +579,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
 
   private String prepareQuery(String query) {
     String preparedQuery = query.replaceAll("(\\$\\{)(.*?)(\\})", "0");
+    if (batchLookupConfig.enabled) {
+      // no key matches NULL, the validation query only needs the result columns
+      preparedQuery = preparedQuery.replace(JdbcBatchLookupLoader.KEYS_PLACEHOLDER, "NULL");
+    }
     return preparedQuery;
   }
 
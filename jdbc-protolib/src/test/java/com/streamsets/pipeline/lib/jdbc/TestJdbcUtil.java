@@ -15,9 +15,22 @@
  */
 package com.streamsets.pipeline.lib.jdbc;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.jdbc.connection.JdbcConnection;
 import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
 import com.streamsets.pipeline.stage.origin.jdbc.table.QuoteChar;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -26,6 +39,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -35,12 +49,20 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -205,6 +227,67 @@ public class TestJdbcUtil {
     }
   }
 
+  @Test
+  public void testRowConverter() throws Exception {
+    HikariPoolConfigBean config = createConfigBean();
+    try (HikariDataSource dataSource = jdbcUtil.createDataSourceForRead(config)) {
+      try (Connection connection = dataSource.getConnection()) {
+        try (Statement stmt = connection.createStatement()) {
+          ResultSet resultSet = stmt.executeQuery(
+              "SELECT CAST(1 AS BIGINT) AS L, CAST(2 AS INT) AS I, CAST(1.5 AS DOUBLE) AS D, " +
+                  "CAST(12.34 AS DECIMAL(10, 2)) AS N, 'a' AS S " +
+                  "UNION ALL SELECT NULL, NULL, NULL, NULL, NULL"
+          );
+          ResultSetRowConverter rowConverter = jdbcUtil.createRowConverter(
+              resultSet,
+              0,
+              0,
+              Collections.emptyMap(),
+              UnknownTypeAction.STOP_PIPELINE,
+              null,
+              false,
+              DatabaseVendor.UNKNOWN
+          );
+          assertTrue(rowConverter.isCreatedFor(resultSet));
+          ErrorRecordHandler errorRecordHandler = Mockito.mock(ErrorRecordHandler.class);
+
+          assertTrue(resultSet.next());
+          Map<String, Field> first = rowConverter.toFields(resultSet, errorRecordHandler);
+          assertEquals(Arrays.asList("L", "I", "D", "N", "S"), new ArrayList<>(first.keySet()));
+          assertEquals(Field.Type.LONG, first.get("L").getType());
+          assertEquals(1L, first.get("L").getValueAsLong());
+          assertEquals(Field.Type.INTEGER, first.get("I").getType());
+          assertEquals(2, first.get("I").getValueAsInteger());
+          assertEquals(Field.Type.DOUBLE, first.get("D").getType());
+          assertEquals(1.5, first.get("D").getValueAsDouble(), 0);
+          assertEquals(Field.Type.DECIMAL, first.get("N").getType());
+          assertEquals("2", first.get("N").getAttribute(HeaderAttributeConstants.ATTR_SCALE));
+          assertEquals("10", first.get("N").getAttribute(HeaderAttributeConstants.ATTR_PRECISION));
+          assertEquals("a", first.get("S").getValueAsString());
+
+          assertTrue(resultSet.next());
+          Map<String, Field> second = rowConverter.toFields(resultSet, errorRecordHandler);
+          for (Map.Entry<String, Field> entry : second.entrySet()) {
+            assertEquals(first.get(entry.getKey()).getType(), entry.getValue().getType());
+            assertNull(entry.getValue().getValue());
+          }
+          Mockito.verifyNoMoreInteractions(errorRecordHandler);
+
+          // the same converter is handed back for the same result set only
+          CommonSourceConfigBean commonSourceConfigBean = new CommonSourceConfigBean();
+          assertSame(rowConverter, jdbcUtil.getRowConverter(
+              rowConverter,
+              resultSet,
+              commonSourceConfigBean,
+              UnknownTypeAction.STOP_PIPELINE,
+              null,
+              DatabaseVendor.UNKNOWN
+          ));
+        }
+      }
+    }
+  }
+
   @Test
   public void testGetMinValues() throws Exception {
     HikariPoolConfigBean config = createConfigBean();
@@ -274,4 +357,58 @@ public class TestJdbcUtil {
     assertThat(dataTableMin, hasEntry("MY_TIME", String.valueOf(WHOLE_DAY_MILLIS - 1000L)));
   }
 
+  @Test
+  public void testWriteTablesConcurrently() throws Exception {
+    SchemaAndTable first = new SchemaAndTable(schema, "FIRST");
+    SchemaAndTable second = new SchemaAndTable(schema, "SECOND");
+    Multimap<SchemaAndTable, Record> partitions = ArrayListMultimap.create();
+    for (int i = 0; i < 3; i++) {
+      partitions.put(first, RecordCreator.create());
+      partitions.put(second, RecordCreator.create());
+    }
+    SchemaTableClassifier classifier = Mockito.mock(SchemaTableClassifier.class);
+    Mockito.when(classifier.classify(Mockito.any(Batch.class))).thenReturn(partitions);
+
+    List<Record> written = Collections.synchronizedList(new ArrayList<>());
+    OnRecordErrorException error = new OnRecordErrorException(partitions.get(second).get(1), JdbcErrors.JDBC_301, "x");
+    LoadingCache<SchemaAndTable, JdbcRecordWriter> recordWriters = CacheBuilder.newBuilder().build(
+        new CacheLoader<SchemaAndTable, JdbcRecordWriter>() {
+          @Override
+          public JdbcRecordWriter load(SchemaAndTable key) throws Exception {
+            JdbcRecordWriter writer = Mockito.mock(JdbcRecordWriter.class);
+            Mockito.when(writer.writeBatch(Mockito.any())).thenAnswer(invocation -> {
+              Iterator<Record> records = (Iterator<Record>) invocation.getArguments()[0];
+              records.forEachRemaining(written::add);
+              return key.equals(second) ? ImmutableList.of(error) : Collections.emptyList();
+            });
+            return writer;
+          }
+        }
+    );
+    ErrorRecordHandler errorRecordHandler = Mockito.mock(ErrorRecordHandler.class);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      jdbcUtil.write(Mockito.mock(Batch.class), classifier, recordWriters, errorRecordHandler, false, executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(6, written.size());
+    // records of a table are written in order
+    assertEquals(partitions.get(first), filter(written, partitions.get(first)));
+    assertEquals(partitions.get(second), filter(written, partitions.get(second)));
+    Mockito.verify(errorRecordHandler).onError(error);
+    Mockito.verifyNoMoreInteractions(errorRecordHandler);
+  }
+
+  private static List<Record> filter(List<Record> records, List<Record> expected) {
+    List<Record> result = new ArrayList<>();
+    for (Record record : records) {
+      if (expected.contains(record)) {
+        result.add(record);
+      }
+    }
+    return result;
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class TestPostgresBinaryCopyEncoder {
+
+  private static short[] encodeNumeric(String value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PostgresBinaryCopyEncoder.writeNumeric(new BigDecimal(value), new DataOutputStream(bytes));
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    int length = in.readInt();
+    short[] words = new short[length / 2];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readShort();
+    }
+    Assert.assertEquals(0, in.available());
+    return words;
+  }
+
+  @Test
+  public void testNumeric() throws Exception {
+    // ndigits, weight, sign, dscale, digits...
+    Assert.assertArrayEquals(new short[]{3, 1, 0, 3, 1, 2345, 6780}, encodeNumeric("12345.678"));
+    Assert.assertArrayEquals(new short[]{1, -1, 0x4000, 4, 12}, encodeNumeric("-0.0012"));
+    Assert.assertArrayEquals(new short[]{1, -2, 0, 7, 120}, encodeNumeric("0.0000012"));
+    Assert.assertArrayEquals(new short[]{1, 1, 0, 0, 10}, encodeNumeric("1E+5"));
+    Assert.assertArrayEquals(new short[]{0, 0, 0, 2}, encodeNumeric("0.00"));
+    Assert.assertArrayEquals(new short[]{0, 0, 0, 0}, encodeNumeric("0"));
+  }
+
+  @Test
+  public void testDateAndTimestamp() {
+    Assert.assertEquals(0, PostgresBinaryCopyEncoder.toPostgresDays(LocalDate.of(2000, 1, 1)));
+    Assert.assertEquals(-1, PostgresBinaryCopyEncoder.toPostgresDays(LocalDate.of(1999, 12, 31)));
+    Assert.assertEquals(366, PostgresBinaryCopyEncoder.toPostgresDays(LocalDate.of(2001, 1, 1)));
+    Assert.assertEquals(
+        1_000_001L,
+        PostgresBinaryCopyEncoder.toPostgresMicros(LocalDateTime.of(2000, 1, 1, 0, 0, 1, 1000))
+    );
+    Assert.assertEquals(
+        -946684800_000_000L,
+        PostgresBinaryCopyEncoder.toPostgresMicros(Instant.EPOCH)
+    );
+  }
+
+  @Test
+  public void testEncodersByType() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    PostgresBinaryCopyEncoder.encode(PostgresBinaryCopyEncoder.forType("int4"), Field.create(7L), out);
+    PostgresBinaryCopyEncoder.encode(PostgresBinaryCopyEncoder.forType("text"), Field.create("\u00e9"), out);
+    PostgresBinaryCopyEncoder.encode(PostgresBinaryCopyEncoder.forType("int8"), Field.create(Field.Type.LONG, null), out);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    Assert.assertEquals(4, in.readInt());
+    Assert.assertEquals(7, in.readInt());
+    Assert.assertEquals(2, in.readInt());
+    Assert.assertEquals((byte) 0xC3, in.readByte());
+    Assert.assertEquals((byte) 0xA9, in.readByte());
+    Assert.assertEquals(-1, in.readInt());
+    Assert.assertEquals(0, in.available());
+
+    Assert.assertNotNull(PostgresBinaryCopyEncoder.forType("TIMESTAMPTZ"));
+    Assert.assertNull(PostgresBinaryCopyEncoder.forType("_int4"));
+    Assert.assertNull(PostgresBinaryCopyEncoder.forType(null));
+  }
+}
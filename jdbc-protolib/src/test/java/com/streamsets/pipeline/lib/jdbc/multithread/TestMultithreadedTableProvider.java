@@ -18,13 +18,18 @@ package com.streamsets.pipeline.lib.jdbc.multithread;
 import com.google.common.collect.SortedSetMultimap;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
+import com.streamsets.pipeline.stage.origin.jdbc.table.PartitioningMode;
+import com.streamsets.pipeline.stage.origin.jdbc.table.QuoteChar;
 import com.streamsets.pipeline.stage.origin.jdbc.table.TableConfigBean;
 import com.vividsolutions.jts.util.Assert;
 import org.junit.Test;
 
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -996,4 +1001,84 @@ public class TestMultithreadedTableProvider extends BaseMultithreadedTableProvid
     assertEquals(p1, p.getLastOwnedPartition());
     assertEquals(p1, r);
   }
+
+  @Test
+  public void partitionsOverSampledStringBoundaries() throws StageException {
+    final String offsetCol = "name";
+    LinkedHashMap<String, Integer> offsetColumnToType = new LinkedHashMap<>();
+    offsetColumnToType.put(offsetCol, Types.VARCHAR);
+    TableContext table = new TableContext(
+        DatabaseVendor.UNKNOWN,
+        QuoteChar.NONE,
+        "db",
+        "table1",
+        offsetColumnToType,
+        new HashMap<>(),
+        Collections.singletonMap(offsetCol, "1000"),
+        Collections.singletonMap(offsetCol, "a"),
+        Collections.singletonMap(offsetCol, "z"),
+        false,
+        PartitioningMode.ADAPTIVE,
+        -1,
+        null,
+        Arrays.asList("f,1", "m;;;2", "t\\3")
+    );
+    assertTrue(table.isPartitionable());
+
+    TableRuntimeContext part1 = TableRuntimeContext.createInitialPartition(table);
+    assertEquals(Collections.singletonMap(offsetCol, "a"), part1.getPartitionOffsetStart());
+    assertEquals(Collections.singletonMap(offsetCol, "f,1"), part1.getPartitionOffsetEnd());
+
+    TableRuntimeContext part2 = TableRuntimeContext.createNextPartition(part1);
+    assertEquals(Collections.singletonMap(offsetCol, "f,1"), part2.getPartitionOffsetStart());
+    assertEquals(Collections.singletonMap(offsetCol, "m;;;2"), part2.getPartitionOffsetEnd());
+
+    TableRuntimeContext part3 = TableRuntimeContext.createNextPartition(part2);
+    TableRuntimeContext part4 = TableRuntimeContext.createNextPartition(part3);
+    assertEquals(Collections.singletonMap(offsetCol, "t\\3"), part4.getPartitionOffsetStart());
+    assertTrue(part4.getPartitionOffsetEnd().isEmpty());
+    assertTrue(part4.isOpenEnded());
+    assertEquals(null, TableRuntimeContext.createNextPartition(part4));
+
+    // boundaries round trip through the offset keys
+    final Map<String, String> storedOffsets = new HashMap<>();
+    for (TableRuntimeContext part : Arrays.asList(part2, part3, part4)) {
+      storedOffsets.put(part.getOffsetKey(), "");
+    }
+    SortedSetMultimap<TableContext, TableRuntimeContext> restored = TableRuntimeContext.buildPartitionsFromStoredV2Offsets(
+        Collections.singletonMap(table.getQualifiedName(), table),
+        storedOffsets,
+        new HashSet<>(),
+        new HashMap<>()
+    );
+    List<TableRuntimeContext> restoredPartitions = new LinkedList<>(restored.get(table));
+    assertThat(restoredPartitions, hasSize(3));
+    assertEquals(part2.getPartitionOffsetStart(), restoredPartitions.get(0).getPartitionOffsetStart());
+    assertEquals(part2.getPartitionOffsetEnd(), restoredPartitions.get(0).getPartitionOffsetEnd());
+    assertEquals(part3.getPartitionOffsetEnd(), restoredPartitions.get(1).getPartitionOffsetEnd());
+    assertTrue(restoredPartitions.get(2).isOpenEnded());
+  }
+
+  @Test
+  public void adaptiveTableWithoutBoundariesIsNotPartitionable() {
+    LinkedHashMap<String, Integer> offsetColumnToType = new LinkedHashMap<>();
+    offsetColumnToType.put("id", Types.INTEGER);
+    TableContext table = new TableContext(
+        DatabaseVendor.UNKNOWN,
+        QuoteChar.NONE,
+        "db",
+        "table1",
+        offsetColumnToType,
+        new HashMap<>(),
+        Collections.singletonMap("id", "1000"),
+        Collections.singletonMap("id", "0"),
+        Collections.singletonMap("id", "10"),
+        false,
+        PartitioningMode.ADAPTIVE,
+        -1,
+        null,
+        Collections.emptyList()
+    );
+    assertFalse(table.isPartitionable());
+  }
 }
@@ -17,6 +17,9 @@ package com.streamsets.pipeline.lib.jdbc.multithread.util;
 
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 
 public class OffsetQueryUtilTest {
@@ -32,4 +35,31 @@ public class OffsetQueryUtilTest {
     runTestOffsetEscaping("Escape __ String");
     runTestOffsetEscaping("::__:::___::::____");
   }
+
+  @Test
+  public void testSourceKeyOffsetsRepresentationEscaping() {
+    String[] values = {"100", "1557396489000<n>123", "a,b", "a;;;b", "back\\slash\\c", ",;\\", "\u0001a"};
+    for (String value : values) {
+      String representation = OffsetQueryUtil.getSourceKeyOffsetsRepresentation(Collections.singletonMap("col", value));
+      assertEquals(-1, representation.indexOf(','));
+      assertEquals(-1, representation.indexOf(';'));
+      assertEquals(
+          Collections.singletonMap("col", value),
+          OffsetQueryUtil.getOffsetsFromSourceKeyRepresentation(representation)
+      );
+    }
+    // offsets of non string columns keep their representation
+    assertEquals("col=100", OffsetQueryUtil.getSourceKeyOffsetsRepresentation(Collections.singletonMap("col", "100")));
+  }
+
+  @Test
+  public void testV2SourceKeyOffsetsRepresentation() {
+    // values without separators are stored as in version 2, which did not escape them
+    String[] v2Representations = {"col=100", "col=1557396489000<n>123", "col=back\\slash\\c", "col=a=b"};
+    for (String v2Representation : v2Representations) {
+      Map<String, String> offsets = OffsetQueryUtil.getOffsetsFromSourceKeyRepresentation(v2Representation);
+      assertEquals(v2Representation.substring(4), offsets.get("col"));
+      assertEquals(v2Representation, OffsetQueryUtil.getSourceKeyOffsetsRepresentation(offsets));
+    }
+  }
 }
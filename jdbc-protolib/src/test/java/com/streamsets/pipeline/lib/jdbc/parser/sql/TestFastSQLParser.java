@@ -0,0 +1,238 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.junit.Assert;
+import org.junit.Test;
+import org.parboiled.Parboiled;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class TestFastSQLParser {
+
+  private static final String UPDATE = " update \"SYS\".\"MANYCOLS\" set \"SALARY=\" = NULL, \"NAME\" = 'New Name' " +
+      "where \"ID\" = '1' and \"NAME\" = '=sdc' and" +
+      " \"HIREDATE\" = TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS') and " +
+      "\"SALARY=\" = '1332.322' and \"LASTLOGIN\" IS NULL and ROWID = 'AAAAxhdjhjsdhaks';";
+
+  // Redo statements as LogMiner generates them, all of them must be handled by the fast parser
+  private static final String[] REDO_STATEMENTS = {
+      "insert into \"SYS\".\"MANYCOLS\"(\"ID\",\"NAME\",\"HIREDATE\",\"SALARY\",\"LASTLOGIN\") " +
+          "values ('1','sdc', TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')," +
+          "'1332.332',TO_TIMESTAMP('2016-11-21 11:34:09.982753'))",
+      "insert into \"SYS\".\"MANYCOLS\"(\"ID\",\"NAME\",\"HIREDATE\",\"SALARY\",\"LASTLOGIN\") " +
+          "values ('10','it''s', TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS'),'10000.1',NULL);",
+      "insert into \"SYS\".\"WIN\" (\"ID\", \"DESC\", \"STATUS\", \"TOTAL\", \"DATE1\", \"DATE2\") " +
+          "values ('1', 'This is a \r\n test \r\n that tests windows \r\n line endings\r', 'COMPLETE', '45', " +
+          "TO_DATE('21-12-2017 14:13:04', 'DD-MM-YYYY HH24:MI:SS'), " +
+          "TO_DATE('10-12-2017 14:13:04', 'DD-MM-YYYY HH24:MI:SS'))",
+      UPDATE,
+      " update \"SYS\".\"MANYCOLS\" set \"SALARY\" = '1998.483' " +
+          "where \"ID\" = '1' and \"NAME\" IS NULL and" +
+          " \"HIREDATE\" = TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS') and " +
+          "\"SALARY\" = '1332.322' and \"LASTLOGIN\" = TO_TIMESTAMP('2016-11-21 11:34:09.982753')" +
+          " and rowid = 'Addajkdajkd'",
+      " update \"SYS\".\"MANYCOLS\" set \"SALARY=\" = '1998.483', \"NAME\" = NULL " +
+          "where \"ID\" = '1' and \"NAME\" = '=sdc' and" +
+          " \"HIREDATE\" = TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS') and " +
+          "\"SALARY=\" = '1332.322' and \"LASTLOGIN\" = TO_TIMESTAMP('2016-11-21 11:34:09.982753')" +
+          " and ROWID = 'poiuyttuoo'",
+      "delete from \"SYS\".\"MANYCOLS\" where \"ID\" = '10' and \"NAME\" = 'stream' and " +
+          "\"HIREDATE\" = TO_DATE('19-11-2016 11:35:16', 'DD-MM-YYYY HH24:MI:SS') and " +
+          "\"SALARY\" = '10000.1' and \"LASTLOGIN\" IS NULL and ROWID = 'AASDDxs'\n",
+      "delete from \"SYS\".\"MANYCOLS\" where \"ID\" = '10' and \"Name\" = 'a \r\n b' and " +
+          "\"RAW\" = HEXTORAW('0a0b') and rowid = 'AASDDxs'\n"
+  };
+
+  // Columns of the tables in the statements above, as returned by the table schemas
+  private static final Set<String> TABLE_COLUMNS = ImmutableSet.of(
+      "ID", "NAME", "Name", "HIREDATE", "SALARY", "SALARY=", "LASTLOGIN", "LASTDATE", "RAW",
+      "DESC", "STATUS", "TOTAL", "DATE1", "DATE2"
+  );
+
+  private static Map<String, String> parse(FastSQLParser parser, String sql, int code) {
+    Assert.assertTrue(sql, parser.parse(sql, code));
+    return new HashMap<>(parser.getColumns());
+  }
+
+  @Test
+  public void testInsert() {
+    String sql = "insert into \"SYS\".\"MANYCOLS\"(\"ID\",\"NAME\",\"HIREDATE\",\"SALARY\",\"LASTLOGIN\") " +
+        "values ('1','it''s', TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')," +
+        "'1332.332',NULL);";
+    Map<String, String> expected = new HashMap<>();
+    expected.put("ID", "1");
+    expected.put("NAME", "it's");
+    expected.put("HIREDATE", "TO_DATE('21-11-2016 11:34:09','DD-MM-YYYY HH24:MI:SS')");
+    expected.put("SALARY", "1332.332");
+    expected.put("LASTLOGIN", null);
+    Assert.assertEquals(expected, parse(new FastSQLParser(false), sql, OracleCDCOperationCode.INSERT_CODE));
+
+    // the PEG parser keeps the text of the function calls untouched
+    expected.put("HIREDATE", "TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')");
+    Assert.assertEquals(expected, parse(new FastSQLParser(true), sql, OracleCDCOperationCode.INSERT_CODE));
+  }
+
+  @Test
+  public void testUpdate() {
+    Map<String, String> expected = new HashMap<>();
+    expected.put("ID", "1");
+    expected.put("SALARY=", null);
+    expected.put("NAME", "New Name");
+    expected.put("HIREDATE", "TO_DATE('21-11-2016 11:34:09','DD-MM-YYYY HH24:MI:SS')");
+    expected.put("ROWID", "AAAAxhdjhjsdhaks");
+    Assert.assertEquals(expected, parse(new FastSQLParser(false), UPDATE, OracleCDCOperationCode.UPDATE_CODE));
+
+    expected.put("HIREDATE", "TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')");
+    expected.put("LASTLOGIN", null);
+    Assert.assertEquals(expected, parse(new FastSQLParser(true), UPDATE, OracleCDCOperationCode.UPDATE_CODE));
+  }
+
+  @Test
+  public void testUpdateWithNulls() {
+    FastSQLParser parser = new FastSQLParser(false);
+    parser.allowNulls();
+    parser.setColumns(ImmutableSet.of("ID", "NAME", "HIREDATE", "SALARY=", "LASTLOGIN", "LASTDATE"));
+    Map<String, String> columns = parse(parser, UPDATE, OracleCDCOperationCode.UPDATE_CODE);
+    Assert.assertTrue(columns.containsKey("LASTLOGIN"));
+    Assert.assertNull(columns.get("LASTLOGIN"));
+    Assert.assertFalse(columns.containsKey("LASTDATE"));
+
+    parser = new FastSQLParser(true);
+    parser.allowNulls();
+    parser.setColumns(ImmutableSet.of("ID", "NAME", "HIREDATE", "SALARY=", "LASTLOGIN", "LASTDATE"));
+    columns = parse(parser, UPDATE, OracleCDCOperationCode.UPDATE_CODE);
+    Assert.assertTrue(columns.containsKey("LASTDATE"));
+    Assert.assertNull(columns.get("LASTDATE"));
+  }
+
+  @Test
+  public void testDelete() {
+    String sql = "delete from \"SYS\".\"MANYCOLS\" where \"ID\" = '10' and \"Name\" = 'a \r\n b' and " +
+        "\"RAW\" = HEXTORAW('0a0b') and rowid = 'AASDDxs'\n";
+    Map<String, String> expected = new HashMap<>();
+    expected.put("ID", "10");
+    expected.put("NAME", "a \r\n b");
+    expected.put("RAW", "HEXTORAW('0a0b')");
+    expected.put("ROWID", "AASDDxs");
+    Assert.assertEquals(expected, parse(new FastSQLParser(false), sql, OracleCDCOperationCode.DELETE_CODE));
+
+    FastSQLParser parser = new FastSQLParser(false);
+    parser.setCaseSensitive();
+    Map<String, String> columns = parse(parser, sql, OracleCDCOperationCode.DELETE_CODE);
+    Assert.assertEquals("a \r\n b", columns.get("Name"));
+    Assert.assertEquals("AASDDxs", columns.get("rowid"));
+  }
+
+  @Test
+  public void testUnsupportedStatementsFallBack() {
+    FastSQLParser parser = new FastSQLParser(false);
+    String[] statements = {
+        // table alias
+        "update \"SYS\".\"T\" a set a.\"X\" = '1' where a.\"ID\" = '1'",
+        // OR conditions
+        "delete from \"SYS\".\"T\" where \"ID\" = '1' or \"ID\" = '2'",
+        // types LogMiner does not support
+        "update \"SYS\".\"T\" set \"X\" = Unsupported Type where \"ID\" = '1'",
+        // unquoted numbers
+        "delete from \"SYS\".\"T\" where \"ID\" = 1",
+        // escaped quotes in identifiers
+        "delete from \"SYS\".\"T\" where \"A\"\"B\" = '1'",
+        // trailing text
+        "delete from \"SYS\".\"T\" where \"ID\" = '1' returning x",
+        // unterminated literal
+        "insert into \"SYS\".\"T\" (\"ID\") values ('1",
+        // more values than columns
+        "insert into \"SYS\".\"T\" (\"ID\") values ('1', '2')",
+        ""
+    };
+    for (String sql : statements) {
+      Assert.assertFalse(sql, parser.parse(sql, codeFor(sql)));
+      Assert.assertTrue(parser.getColumns().isEmpty());
+    }
+    Assert.assertFalse(parser.parse("insert into \"SYS\".\"T\" (\"ID\") values ('1')", OracleCDCOperationCode.DDL_CODE));
+  }
+
+  @Test
+  public void testSameColumnsAsListener() throws Exception {
+    for (String sql : REDO_STATEMENTS) {
+      for (boolean caseSensitive : new boolean[]{false, true}) {
+        for (boolean allowNulls : new boolean[]{false, true}) {
+          for (Set<String> columns : Arrays.asList(null, TABLE_COLUMNS)) {
+            SQLListener listener = new SQLListener();
+            FastSQLParser parser = new FastSQLParser(false);
+            if (caseSensitive) {
+              listener.setCaseSensitive();
+              parser.setCaseSensitive();
+            }
+            if (allowNulls) {
+              listener.allowNulls();
+              parser.allowNulls();
+              listener.setColumns(columns);
+              parser.setColumns(columns);
+            }
+            int code = codeFor(sql);
+            new ParseTreeWalker().walk(listener, ParseUtil.getParserRuleContext(sql, code));
+            Assert.assertEquals(sql, listener.getColumns(), parse(parser, sql, code));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameColumnsAsPegParser() throws Exception {
+    SQLParser pegParser = Parboiled.createParser(SQLParser.class);
+    for (String sql : REDO_STATEMENTS) {
+      for (boolean caseSensitive : new boolean[]{false, true}) {
+        for (boolean allowNulls : new boolean[]{false, true}) {
+          for (Set<String> columns : Arrays.asList(null, TABLE_COLUMNS)) {
+            FastSQLParser parser = new FastSQLParser(true);
+            if (caseSensitive) {
+              parser.setCaseSensitive();
+            }
+            if (allowNulls) {
+              parser.allowNulls();
+              parser.setColumns(columns);
+            }
+            int code = codeFor(sql);
+            Assert.assertEquals(
+                sql,
+                SQLParserUtils.process(pegParser, sql, code, allowNulls, caseSensitive, allowNulls ? columns : null),
+                parse(parser, sql, code)
+            );
+          }
+        }
+      }
+    }
+  }
+
+  private static int codeFor(String sql) {
+    if (sql.startsWith("insert")) {
+      return OracleCDCOperationCode.INSERT_CODE;
+    } else if (sql.startsWith("delete")) {
+      return OracleCDCOperationCode.DELETE_CODE;
+    }
+    return OracleCDCOperationCode.UPDATE_CODE;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc;
+
+import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
+import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+public class TestJdbcSourceStreamingRead {
+  private static final int BATCH_SIZE = 1000;
+
+  private Connection connection;
+  private Statement statement;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.getAutoCommit()).thenReturn(true);
+    statement = Mockito.mock(Statement.class);
+  }
+
+  private JdbcSource createSource(DatabaseVendor vendor, String txnColumnName, boolean streamingRead) {
+    HikariPoolConfigBean hikariConfigBean = Mockito.mock(HikariPoolConfigBean.class);
+    Mockito.when(hikariConfigBean.getVendor()).thenReturn(vendor);
+    return new JdbcSource(
+        true,
+        "SELECT * FROM t WHERE id > ${OFFSET} ORDER BY id",
+        "0",
+        "id",
+        false,
+        txnColumnName,
+        10000,
+        JdbcRecordType.LIST_MAP,
+        null,
+        false,
+        "jdbc.",
+        hikariConfigBean,
+        UnknownTypeAction.STOP_PIPELINE,
+        10,
+        streamingRead
+    );
+  }
+
+  @Test
+  public void testMySqlStreamsRowByRow() throws Exception {
+    createSource(DatabaseVendor.MYSQL, "", false).setStreamingRead(connection, statement, BATCH_SIZE);
+
+    Mockito.verify(statement).setFetchSize(Integer.MIN_VALUE);
+    Mockito.verify(connection, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
+  }
+
+  @Test
+  public void testPostgresKeepsAutoCommitByDefault() throws Exception {
+    createSource(DatabaseVendor.POSTGRESQL, "", false).setStreamingRead(connection, statement, BATCH_SIZE);
+
+    Mockito.verify(statement).setFetchSize(BATCH_SIZE);
+    Mockito.verify(connection, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
+  }
+
+  @Test
+  public void testPostgresStreamingRead() throws Exception {
+    createSource(DatabaseVendor.POSTGRESQL, "", true).setStreamingRead(connection, statement, BATCH_SIZE);
+
+    Mockito.verify(statement).setFetchSize(BATCH_SIZE);
+    Mockito.verify(connection).setAutoCommit(false);
+  }
+
+  @Test
+  public void testPostgresStreamingReadWithTransactionIdColumn() throws Exception {
+    createSource(DatabaseVendor.POSTGRESQL, "txid", true).setStreamingRead(connection, statement, BATCH_SIZE);
+
+    Mockito.verify(statement).setFetchSize(BATCH_SIZE);
+    Mockito.verify(connection, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
+  }
+
+  @Test
+  public void testOtherVendorsUseBatchSize() throws Exception {
+    createSource(DatabaseVendor.ORACLE, "", true).setStreamingRead(connection, statement, BATCH_SIZE);
+
+    Mockito.verify(statement).setFetchSize(BATCH_SIZE);
+    Mockito.verify(connection, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
+  }
+}
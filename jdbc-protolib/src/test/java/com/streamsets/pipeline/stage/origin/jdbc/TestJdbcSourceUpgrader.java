@@ -77,4 +77,14 @@ public class TestJdbcSourceUpgrader {
         "connection."
     );
   }
+
+  @Test
+  public void testUpgradeV13toV14() throws StageException {
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "streamingRead", false);
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.oracle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class TestOffHeapHashQueue {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File spillFolder;
+  private OffHeapBufferPool pool;
+
+  @Before
+  public void setUp() throws Exception {
+    spillFolder = tempFolder.newFolder();
+    // room for two segments, larger transactions spill to disk
+    pool = new OffHeapBufferPool(2 * OffHeapBufferPool.SEGMENT_SIZE, spillFolder);
+  }
+
+  @After
+  public void tearDown() {
+    pool.close();
+  }
+
+  private static RecordSequence createRecord(int seq, String rowId) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("oracle.cdc.rowId", rowId);
+    headers.put("oracle.cdc.rollback", "0");
+    return new RecordSequence(
+        headers,
+        "insert into \"SYS\".\"TEST\"(\"ID\", \"NAME\") values ('" + seq + "', 'name of record " + seq + "')",
+        seq,
+        1,
+        "0x000" + seq,
+        new BigDecimal(seq),
+        rowId,
+        LocalDateTime.of(2021, 3, 4, 5, 6, 7, 8000)
+    );
+  }
+
+  @Test
+  public void testRecordsAreKeptInOrderAcrossMemoryAndSpill() {
+    OffHeapHashQueue queue = new OffHeapHashQueue(pool);
+    int total = 5000;
+    for (int i = 1; i <= total; i++) {
+      Assert.assertTrue(queue.add(createRecord(i, "AAA" + i)));
+    }
+    Assert.assertEquals(total, queue.size());
+    Assert.assertEquals(total, queue.tail().seq);
+    Assert.assertEquals(2 * OffHeapBufferPool.SEGMENT_SIZE, pool.getMemoryBytes());
+    Assert.assertTrue(pool.getSpilledBytes() > 0);
+    Assert.assertTrue(queue.contains(new RecordSequence(null, null, 0, 0, "0x0001", new BigDecimal(1), "AAA1", null)));
+    Assert.assertTrue(queue.contains(new RecordSequence(null, null, 0, 0, "0x0004999", new BigDecimal(4999), "AAA4999",
+        null)));
+
+    for (int i = 1; i <= total; i++) {
+      RecordSequence record = queue.remove();
+      Assert.assertEquals(createRecord(i, "AAA" + i).sqlString, record.sqlString);
+      Assert.assertEquals(i, record.seq);
+      Assert.assertEquals(new BigDecimal(i), record.ssn);
+      Assert.assertEquals("AAA" + i, record.headers.get("oracle.cdc.rowId"));
+      Assert.assertEquals(LocalDateTime.of(2021, 3, 4, 5, 6, 7, 8000), record.timestamp);
+    }
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertNull(queue.poll());
+    Assert.assertEquals(0, pool.getMemoryBytes());
+    Assert.assertEquals(0, pool.getSpilledBytes());
+    queue.close();
+    Assert.assertEquals(0, spillFolder.list().length);
+  }
+
+  @Test
+  public void testAppendAfterDrainingSpilledQueue() {
+    OffHeapHashQueue queue = new OffHeapHashQueue(pool);
+    for (int i = 1; i <= 5000; i++) {
+      queue.add(createRecord(i, "AAA" + i));
+    }
+    Assert.assertTrue(pool.getSpilledBytes() > 0);
+    while (!queue.isEmpty()) {
+      queue.remove();
+    }
+    Assert.assertEquals(0, pool.getSpilledBytes());
+    Assert.assertEquals(0, spillFolder.list().length);
+
+    // the queue is back in memory
+    Assert.assertTrue(queue.add(createRecord(5001, "AAA5001")));
+    Assert.assertTrue(queue.add(createRecord(5002, "AAA5002")));
+    Assert.assertEquals(0, pool.getSpilledBytes());
+    Assert.assertTrue(queue.contains(new RecordSequence(null, null, 0, 0, "0x0005001", new BigDecimal(5001), "AAA5001",
+        null)));
+    Assert.assertEquals(5001, queue.remove().seq);
+    Assert.assertEquals(5002, queue.remove().seq);
+
+    // and spills again once the pool runs out
+    for (int i = 1; i <= 5000; i++) {
+      queue.add(createRecord(i, "BBB" + i));
+    }
+    Assert.assertTrue(pool.getSpilledBytes() > 0);
+    for (int i = 1; i <= 5000; i++) {
+      Assert.assertEquals("BBB" + i, queue.remove().rowId);
+    }
+    Assert.assertEquals(0, pool.getSpilledBytes());
+    queue.close();
+    Assert.assertEquals(0, spillFolder.list().length);
+  }
+
+  @Test
+  public void testContainsMatchesRowId() {
+    OffHeapHashQueue queue = new OffHeapHashQueue(pool);
+    Assert.assertTrue(queue.add(createRecord(1, "AAA")));
+    Assert.assertFalse(queue.add(createRecord(1, "AAA")));
+    Assert.assertTrue(queue.add(createRecord(1, "BBB")));
+    Assert.assertEquals(2, queue.size());
+    Assert.assertFalse(queue.contains(new RecordSequence(null, null, 0, 0, "0x0001", new BigDecimal(1), "CCC", null)));
+    Assert.assertFalse(queue.contains(new RecordSequence(null, null, 0, 0, "0x0001", new BigDecimal(1), null, null)));
+    queue.close();
+  }
+
+  @Test
+  public void testRemovingHeadReleasesSegments() {
+    OffHeapHashQueue queue = new OffHeapHashQueue(pool);
+    for (int i = 1; i <= 500; i++) {
+      queue.add(createRecord(i, "AAA" + i));
+    }
+    Assert.assertEquals(2 * OffHeapBufferPool.SEGMENT_SIZE, pool.getMemoryBytes());
+
+    Iterator<RecordSequence> iterator = queue.iterator();
+    while (iterator.hasNext() && iterator.next().seq <= 400) {
+      iterator.remove();
+    }
+    Assert.assertEquals(100, queue.size());
+    Assert.assertEquals(401, queue.peek().seq);
+    Assert.assertEquals(OffHeapBufferPool.SEGMENT_SIZE, pool.getMemoryBytes());
+
+    queue.close();
+    Assert.assertEquals(0, pool.getMemoryBytes());
+  }
+
+  @Test
+  public void testUpdateKeepsChanges() {
+    OffHeapHashQueue queue = new OffHeapHashQueue(pool);
+    for (int i = 1; i <= 3; i++) {
+      queue.add(createRecord(i, "AAA" + i));
+    }
+    int count = 0;
+    for (RecordSequence record : queue) {
+      if (count == 1) {
+        record.headers.put("oracle.cdc.skip", "1");
+        queue.update(count, record);
+      }
+      count++;
+    }
+
+    Assert.assertNull(queue.remove().headers.get("oracle.cdc.skip"));
+    Assert.assertEquals("1", queue.remove().headers.get("oracle.cdc.skip"));
+    Assert.assertNull(queue.remove().headers.get("oracle.cdc.skip"));
+    queue.close();
+  }
+
+}
@@ -252,4 +252,16 @@ public class TestOracleCDCSourceUpgrader {
 
     UpgraderTestUtils.assertExists(configs,"oracleCDCConfigBean.putPseudocolumnsInHeader", false);
   }
+
+  @Test
+  public void upgradeV15TOV16() {
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(15).when(context).getFromVersion();
+    Mockito.doReturn(16).when(context).getToVersion();
+
+    List<Config> configs = new ArrayList<>();
+    configs = oracleCDCSourceUpgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs,"oracleCDCConfigBean.offHeapBufferSize", 256);
+  }
 }
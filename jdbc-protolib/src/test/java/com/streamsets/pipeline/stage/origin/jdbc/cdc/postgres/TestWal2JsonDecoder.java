@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.util.JsonUtil;
+import com.streamsets.pipeline.stage.origin.jdbc.cdc.SchemaAndTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TestWal2JsonDecoder {
+
+  private static final String MESSAGE = "{\"xid\":575,\"nextlsn\":\"0/1663AA8\"," +
+      "\"timestamp\":\"2018-07-13 06:59:23.273221-07\",\"change\":[" +
+      "{\"kind\":\"update\",\"schema\":\"public\",\"table\":\"hashes\",\"columnnames\":[\"id\",\"value\",\"big\"," +
+      "\"ratio\",\"flag\"],\"columntypes\":[\"integer\",\"character(33)\",\"bigint\",\"real\",\"boolean\"]," +
+      "\"columnvalues\":[1,\"a \\u00e9\",9007199254740993,0.5,true],\"oldkeys\":{\"keynames\":[\"id\"]," +
+      "\"keytypes\":[\"integer\"],\"keyvalues\":[1]}}," +
+      "{\"kind\":\"insert\",\"schema\":\"public\",\"table\":\"other\",\"columnnames\":[\"id\",\"value\"]," +
+      "\"columntypes\":[\"integer\",\"text\"],\"columnvalues\":[2,null]}," +
+      "{\"kind\":\"delete\",\"schema\":\"public\",\"table\":\"hashes\",\"oldkeys\":{\"keynames\":[\"id\"]," +
+      "\"keytypes\":[\"integer\"],\"keyvalues\":[3]}}]}";
+
+  /**
+   * Wraps the message the way the replication stream does, after a header that is not part of the message.
+   */
+  private static ByteBuffer buffer(String message) {
+    byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+    byte[] payload = new byte[bytes.length + 25];
+    System.arraycopy(bytes, 0, payload, 25, bytes.length);
+    return ByteBuffer.wrap(payload, 25, bytes.length);
+  }
+
+  @Test
+  public void testSameFieldsAsJsonUtil() throws Exception {
+    Field expected = JsonUtil.jsonToField(new ObjectMapper().readValue(MESSAGE, Map.class));
+    Field decoded = Wal2JsonDecoder.decode(buffer(MESSAGE), Wal2JsonDecoder.ALL_CHANGES);
+    Assert.assertEquals(expected, decoded);
+    Assert.assertEquals(3, decoded.getValueAsMap().get("change").getValueAsList().size());
+  }
+
+  @Test
+  public void testFilteredChangesAreDropped() throws Exception {
+    Wal2JsonDecoder.ChangeFilter filter = (kind, schema, table) -> !"update".equals(kind) && "public".equals(schema);
+    Field decoded = Wal2JsonDecoder.decode(buffer(MESSAGE), filter);
+
+    Map<String, Field> message = decoded.getValueAsMap();
+    Assert.assertEquals("0/1663AA8", message.get("nextlsn").getValueAsString());
+    List<Field> changes = message.get("change").getValueAsList();
+    Assert.assertEquals(2, changes.size());
+    Assert.assertEquals("insert", changes.get(0).getValueAsMap().get("kind").getValueAsString());
+    Assert.assertNull(changes.get(0).getValueAsMap().get("columnvalues").getValueAsList().get(1).getValue());
+    Assert.assertEquals("delete", changes.get(1).getValueAsMap().get("kind").getValueAsString());
+  }
+
+  @Test
+  public void testFilterAppliedWhenKindComesLast() throws Exception {
+    String message = "{\"xid\":1,\"change\":[{\"columnnames\":[\"id\"],\"columnvalues\":[1],\"table\":\"t\"," +
+        "\"schema\":\"s\",\"kind\":\"insert\"}]}";
+    Assert.assertTrue(Wal2JsonDecoder.decode(buffer(message), (kind, schema, table) -> !"insert".equals(kind))
+        .getValueAsMap().get("change").getValueAsList().isEmpty());
+    Assert.assertEquals(1, Wal2JsonDecoder.decode(buffer(message), Wal2JsonDecoder.ALL_CHANGES)
+        .getValueAsMap().get("change").getValueAsList().size());
+  }
+
+  @Test
+  public void testChangeFilterFromConfiguration() {
+    Wal2JsonDecoder.ChangeFilter filter = WalRecordFilteringUtils.createChangeFilter(
+        Arrays.asList(PostgresChangeTypeValues.INSERT, PostgresChangeTypeValues.DELETE),
+        Collections.singletonList(new SchemaAndTable("public", "hashes"))
+    );
+    Assert.assertTrue(filter.accept("insert", "public", "hashes"));
+    Assert.assertFalse(filter.accept("update", "public", "hashes"));
+    Assert.assertFalse(filter.accept("insert", "public", "other"));
+    Assert.assertFalse(filter.accept(null, null, null));
+  }
+
+}
@@ -56,6 +56,8 @@ public class TableJdbcSourceTestBuilder {
   private int numberOfBatchesFromResultset;
   private QuoteChar quoteChar;
   private int numSQLErrorRetries;
+  private boolean streamingRead;
+  private boolean autoCommit;
   private PostProcessBatchCallback postProcessBatchCallback;
 
 
@@ -209,6 +211,16 @@ public class TableJdbcSourceTestBuilder {
     return this;
   }
 
+  public TableJdbcSourceTestBuilder streamingRead(boolean streamingRead) {
+    this.streamingRead = streamingRead;
+    return this;
+  }
+
+  public TableJdbcSourceTestBuilder autoCommit(boolean autoCommit) {
+    this.autoCommit = autoCommit;
+    return this;
+  }
+
   public TableJdbcSource build() {
     JdbcHikariPoolConfigBean hikariPoolConfigBean = new JdbcHikariPoolConfigBean();
     hikariPoolConfigBean.connection = new JdbcConnection();
@@ -219,6 +231,7 @@ public class TableJdbcSourceTestBuilder {
     hikariPoolConfigBean.driverClassName = driverClassName;
     hikariPoolConfigBean.driverProperties = driverProperties;
     hikariPoolConfigBean.connectionTestQuery = connectionTestQuery;
+    hikariPoolConfigBean.autoCommit = autoCommit;
     if (maximumPoolSize == -1) {
       hikariPoolConfigBean.maximumPoolSize = numberOfThreads + 1;
     }
@@ -233,6 +246,7 @@ public class TableJdbcSourceTestBuilder {
     tableJdbcConfigBean.numberOfThreads = numberOfThreads;
     tableJdbcConfigBean.numberOfBatchesFromRs = numberOfBatchesFromResultset;
     tableJdbcConfigBean.quoteChar = quoteChar;
+    tableJdbcConfigBean.streamingRead = streamingRead;
 
     CommonSourceConfigBean commonSourceConfigBean =  new CommonSourceConfigBean(
         queriesPerSecond,
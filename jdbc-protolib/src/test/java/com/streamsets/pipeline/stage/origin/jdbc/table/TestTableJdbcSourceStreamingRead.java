@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestTableJdbcSourceStreamingRead {
+  private static final String JDBC_URL = "jdbc:postgresql://localhost:5432/db";
+
+  private final List<ErrorCode> errors = new ArrayList<>();
+  private PushSource.Context context;
+
+  @Before
+  public void setUp() {
+    context = Mockito.mock(PushSource.Context.class);
+    Mockito.when(context.createConfigIssue(
+        Mockito.anyString(),
+        Mockito.anyString(),
+        Mockito.any(ErrorCode.class),
+        Mockito.anyVararg()
+    )).thenAnswer(invocation -> {
+      errors.add((ErrorCode) invocation.getArguments()[2]);
+      return Mockito.mock(Stage.ConfigIssue.class);
+    });
+  }
+
+  private void validate(DatabaseVendor vendor, boolean streamingRead, boolean autoCommit) {
+    TableJdbcSource source = new TableJdbcSourceTestBuilder(JDBC_URL, true, "user", "password")
+        .tableConfigBeans(
+            ImmutableList.of(
+                new TableJdbcSourceTestBuilder.TableConfigBeanTestBuilder().tablePattern("testTable").build()
+            )
+        )
+        .streamingRead(streamingRead)
+        .autoCommit(autoCommit)
+        .build();
+    source.validateTableJdbcConfigBean(context, vendor, new ArrayList<>());
+  }
+
+  @Test
+  public void testStreamingReadRequiresAutoCommitOffOnPostgres() {
+    validate(DatabaseVendor.POSTGRESQL, true, true);
+    Assert.assertEquals(ImmutableList.of(JdbcErrors.JDBC_417), errors);
+  }
+
+  @Test
+  public void testStreamingReadWithoutAutoCommitOnPostgres() {
+    validate(DatabaseVendor.POSTGRESQL, true, false);
+    Assert.assertTrue(errors.isEmpty());
+  }
+
+  @Test
+  public void testAutoCommitWithoutStreamingRead() {
+    validate(DatabaseVendor.POSTGRESQL, false, true);
+    Assert.assertTrue(errors.isEmpty());
+  }
+
+  @Test
+  public void testStreamingReadWithAutoCommitOnOtherVendors() {
+    validate(DatabaseVendor.MYSQL, true, true);
+    Assert.assertTrue(errors.isEmpty());
+  }
+}
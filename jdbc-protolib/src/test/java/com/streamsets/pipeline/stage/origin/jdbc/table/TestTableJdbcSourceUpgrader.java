@@ -277,6 +277,16 @@ public class TestTableJdbcSourceUpgrader {
     );
   }
 
+  @Test
+  public void testUpgradeV10toV11() throws StageException {
+    Mockito.doReturn(10).when(context).getFromVersion();
+    Mockito.doReturn(11).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "tableJdbcConfigBean.streamingRead", false);
+  }
+
   private static void assertAllContain(String configKey, Object configValue, LinkedHashMap... tableConfigMaps) {
     for (LinkedHashMap<String, Object> tableConfigMap : tableConfigMaps) {
       assertThat(tableConfigMap, hasEntry(
@@ -782,4 +782,71 @@ public class TestJdbcLookup {
       processorRunner.runDestroy();
     }
   }
+
+  @Test
+  public void testBatchLookup() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("FIRST_NAME", "/first_name")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.batchLookupConfig.enabled = true;
+    processor.batchLookupConfig.keyExpression = "${record:value('/id')}";
+    processor.batchLookupConfig.keyColumn = "p_id";
+    processor.batchLookupConfig.maxKeysPerQuery = 2;
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID, FIRST_NAME FROM TEST.TEST_TABLE WHERE P_ID IN (?)")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", true)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> records = new ArrayList<>();
+    for (int id : new int[]{1, 4, 1, 99, 2}) {
+      Record record = RecordCreator.create();
+      LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+      fields.put("id", Field.create(id));
+      record.set(Field.create(fields));
+      records.add(record);
+    }
+
+    processorRunner.runInit();
+    try {
+      List<Record> outputRecords = processorRunner.runProcess(records).getRecords().get("lane");
+      Assert.assertEquals(5, outputRecords.size());
+      Assert.assertEquals("Adam", outputRecords.get(0).get("/first_name").getValueAsString());
+      Assert.assertEquals("Girish", outputRecords.get(1).get("/first_name").getValueAsString());
+      Assert.assertEquals("Adam", outputRecords.get(2).get("/first_name").getValueAsString());
+      Assert.assertNull(outputRecords.get(3).get("/first_name"));
+      Assert.assertEquals("Jon", outputRecords.get(4).get("/first_name").getValueAsString());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupRequiresSinglePlaceholder() throws Exception {
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.batchLookupConfig.enabled = true;
+    processor.batchLookupConfig.keyColumn = "P_ID";
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID FROM TEST.TEST_TABLE WHERE P_ID IN (?) OR P_ID IN (?)")
+        .addConfiguration("columnMappings", ImmutableList.of())
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", false)
+        .addOutputLane("lane")
+        .build();
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+  }
 }
@@ -97,4 +97,17 @@ public class TestJdbcLookupUpgrader {
 
     UpgraderTestUtils.assertExists(upgradedConfigs, "validateColumnMappings", false);
   }
+
+  @Test
+  public void testUpgradeV6toV7() throws StageException {
+    Mockito.doReturn(6).when(context).getFromVersion();
+    Mockito.doReturn(7).when(context).getToVersion();
+
+    List<Config> upgradedConfigs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookupConfig.enabled", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookupConfig.keyExpression", "");
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookupConfig.keyColumn", "");
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookupConfig.maxKeysPerQuery", 100);
+  }
 }
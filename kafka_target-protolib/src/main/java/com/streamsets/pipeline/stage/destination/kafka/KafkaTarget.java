@@ -27,6 +27,7 @@ import com.streamsets.pipeline.api.lineage.LineageSpecificAttribute;
 import com.streamsets.pipeline.kafka.api.PartitionStrategy;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.ReusableDataGenerator;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -57,6 +58,7 @@ public class KafkaTarget extends BaseTarget {
   private SdcKafkaProducer kafkaProducer;
   private ErrorRecordHandler errorRecordHandler;
   private Set<String> accessedTopic;
+  private ReusableDataGenerator recordGenerator;
 
   public KafkaTarget(KafkaTargetConfig conf, ToOriginResponseConfig responseConf) {
     this.conf = conf;
@@ -295,16 +297,25 @@ public class KafkaTarget extends BaseTarget {
   }
 
   private Object serializeRecord(Record record) throws StageException, IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-    DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-    generator.write(record);
-    generator.close();
-    return baos.toByteArray();
+    if (recordGenerator == null) {
+      recordGenerator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getReusableGenerator();
+    }
+    recordGenerator.serialize(record);
+    // messages are held by the producer until the batch is written, they can't share the generator buffer
+    return recordGenerator.toByteArray();
   }
 
   @Override
   public void destroy() {
     LOG.info("Wrote {} number of records to Kafka Broker", recordCounter);
+    if (recordGenerator != null) {
+      try {
+        recordGenerator.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing record generator: {}", ex.toString(), ex);
+      }
+      recordGenerator = null;
+    }
     conf.destroy(getContext());
   }
 
@@ -24,7 +24,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 
 @StageDef(
-    version = 10,
+    version = 11,
     label = "Kinesis Consumer",
     description = "Reads data from Kinesis",
     icon = "kinesis_multithreaded.png",
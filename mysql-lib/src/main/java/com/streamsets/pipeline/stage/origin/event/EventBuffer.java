@@ -36,8 +36,11 @@ public class EventBuffer {
   // signals that buffer should not accept events any more.
   private volatile boolean closed = false;
 
-  public EventBuffer(int batchSize) {
-    this.queue = new ArrayBlockingQueue<>(batchSize);
+  /**
+   * @param capacity maximum number of events the binlog client can read ahead of the pipeline, it blocks when full.
+   */
+  public EventBuffer(int capacity) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
   }
 
   /**
@@ -48,6 +48,7 @@ import com.streamsets.pipeline.stage.config.MySQLHikariPoolConfigBean;
     "commonSourceConfigBean.enableSchemaChanges",
     "commonSourceConfigBean.queriesPerSecond",
     "commonSourceConfigBean.txnWindow",
+    "streamingRead",
 })
 @ConfigGroups(value = EncryptionGroups.class)
 public class MySQLDSource extends JdbcDSource {
@@ -70,8 +70,23 @@ public class MysqlSchemaRepository {
     cache.invalidateAll();
   }
 
+  /**
+   * Evicts the cached schemas of the given table. The names come from DDL statements, which may spell them with a
+   * different case than the table map events the cache is keyed on (e.g. with lower_case_table_names), so they are
+   * matched ignoring case. At worst this also evicts a table whose name only differs in case, which is reloaded.
+   */
   public void evict(String database, String table) {
-    cache.invalidate(new DatabaseAndTable(database, table));
+    List<DatabaseAndTable> keys = new ArrayList<>();
+    for (DatabaseAndTable key : cache.asMap().keySet()) {
+      if (equalsIgnoreCase(key.getDatabase(), database) && equalsIgnoreCase(key.getTable(), table)) {
+        keys.add(key);
+      }
+    }
+    cache.invalidateAll(keys);
+  }
+
+  private static boolean equalsIgnoreCase(String a, String b) {
+    return a == null ? b == null : a.equalsIgnoreCase(b);
   }
 
   private Optional<? extends Table> loadTable(DatabaseAndTable databaseAndTable) {
@@ -95,6 +95,28 @@ public class RecordConverter {
     }
   }
 
+  /**
+   * Returns the number of records {@link #toRecords(EnrichedEvent)} creates for the event, without converting it.
+   */
+  public static int getRowCount(EnrichedEvent event) {
+    EventType eventType = event.getEvent().getHeader().getEventType();
+    switch (eventType) {
+      case PRE_GA_WRITE_ROWS:
+      case WRITE_ROWS:
+      case EXT_WRITE_ROWS:
+        return event.getEvent().<WriteRowsEventData>getData().getRows().size();
+      case PRE_GA_UPDATE_ROWS:
+      case UPDATE_ROWS:
+      case EXT_UPDATE_ROWS:
+        return event.getEvent().<UpdateRowsEventData>getData().getRows().size();
+      case PRE_GA_DELETE_ROWS:
+      case DELETE_ROWS:
+      case EXT_DELETE_ROWS:
+        return event.getEvent().<DeleteRowsEventData>getData().getRows().size();
+      default:
+        return 0;
+    }
+  }
 
   private List<Record> toRecords(Table table,
                                  EventHeader eventHeader,
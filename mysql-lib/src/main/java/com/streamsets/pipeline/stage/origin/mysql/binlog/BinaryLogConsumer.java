@@ -41,8 +41,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Event listener for {@link BinaryLogClient} enriching events with metadata, such as table and column names,
@@ -51,6 +55,27 @@ import java.util.Map;
 public class BinaryLogConsumer implements EventListener {
   private static final Logger LOG = LoggerFactory.getLogger(BinaryLogConsumer.class);
 
+  private static final String IDENTIFIER = "(?:`[^`]+`|[\\w$]+)(?:\\s*\\.\\s*(?:`[^`]+`|[\\w$]+))?";
+  private static final Pattern IDENTIFIER_PATTERN = Pattern.compile(IDENTIFIER);
+  private static final Pattern NAME_PART_PATTERN = Pattern.compile("`([^`]+)`|([\\w$]+)");
+  private static final Pattern ALTER_TABLE_PATTERN = Pattern.compile(
+      "^alter\\s+(?:online\\s+|offline\\s+)?(?:ignore\\s+)?table\\s+(" + IDENTIFIER + ")",
+      Pattern.CASE_INSENSITIVE
+  );
+  private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile(
+      "^create\\s+(?:temporary\\s+)?table\\s+(?:if\\s+not\\s+exists\\s+)?(" + IDENTIFIER + ")",
+      Pattern.CASE_INSENSITIVE
+  );
+  private static final Pattern DROP_TABLE_PATTERN = Pattern.compile(
+      "^drop\\s+(?:temporary\\s+)?table\\s+(?:if\\s+exists\\s+)?(" + IDENTIFIER + "(?:\\s*,\\s*" + IDENTIFIER + ")*)",
+      Pattern.CASE_INSENSITIVE
+  );
+  private static final Pattern RENAME_TABLE_PATTERN = Pattern.compile(
+      "^rename\\s+table\\s+(" + IDENTIFIER + "\\s+to\\s+" + IDENTIFIER +
+          "(?:\\s*,\\s*" + IDENTIFIER + "\\s+to\\s+" + IDENTIFIER + ")*)",
+      Pattern.CASE_INSENSITIVE
+  );
+
   private final MysqlSchemaRepository schemaRepository;
   private final Map<Long, DatabaseAndTable> tableMapping = new HashMap<>();
   private final EventBuffer eventBuffer;
@@ -109,7 +134,7 @@ public class BinaryLogConsumer implements EventListener {
         if (isCommit(query)) {
           finishTx();
         } else if (isSchemaChangeQuery(query)) {
-          schemaRepository.evictAll();
+          evictChangedTables(queryEventData.getDatabase(), query);
         }
         break;
       case XID:
@@ -213,10 +238,76 @@ public class BinaryLogConsumer implements EventListener {
     return "COMMIT".equals(sql);
   }
 
-  private static boolean isSchemaChangeQuery(String sql) {
+  private void evictChangedTables(String database, String sql) {
+    List<DatabaseAndTable> tables = getChangedTables(database, sql);
+    if (tables.isEmpty()) {
+      LOG.debug("Could not get the tables changed by '{}', evicting all cached schemas", sql);
+      schemaRepository.evictAll();
+    } else {
+      for (DatabaseAndTable table : tables) {
+        LOG.debug("Evicting cached schema of {}.{}", table.getDatabase(), table.getTable());
+        schemaRepository.evict(table.getDatabase(), table.getTable());
+      }
+    }
+  }
+
+  static boolean isSchemaChangeQuery(String sql) {
     String q = sql.toLowerCase().trim();
     // remove extra spaces
-    q = q.replaceAll(" {2,}", " ");
-    return (q.startsWith("alter table") || q.startsWith("alter ignore table") || q.startsWith("drop table"));
+    q = q.replaceAll("\\s+", " ");
+    return q.startsWith("alter table")
+        || q.startsWith("alter ignore table")
+        || q.startsWith("alter online table")
+        || q.startsWith("alter offline table")
+        || q.startsWith("drop table")
+        || q.startsWith("drop temporary table")
+        || q.startsWith("create table")
+        || q.startsWith("create temporary table")
+        || q.startsWith("rename table");
+  }
+
+  /**
+   * Returns the tables whose schema is changed by the given DDL statement, tables without database default to the
+   * database the statement was executed in. Returns an empty list when the tables can not be determined.
+   */
+  static List<DatabaseAndTable> getChangedTables(String database, String sql) {
+    String q = sql.trim();
+    List<DatabaseAndTable> tables = new ArrayList<>();
+    for (Pattern pattern : new Pattern[]{ALTER_TABLE_PATTERN, CREATE_TABLE_PATTERN, DROP_TABLE_PATTERN}) {
+      Matcher matcher = pattern.matcher(q);
+      if (matcher.find()) {
+        Matcher identifiers = IDENTIFIER_PATTERN.matcher(matcher.group(1));
+        while (identifiers.find()) {
+          tables.add(toDatabaseAndTable(database, identifiers.group()));
+        }
+        return tables.contains(null) ? new ArrayList<>() : tables;
+      }
+    }
+    Matcher matcher = RENAME_TABLE_PATTERN.matcher(q);
+    if (matcher.find()) {
+      Matcher identifiers = IDENTIFIER_PATTERN.matcher(matcher.group(1));
+      while (identifiers.find()) {
+        // skip the TO keywords between the old and new names
+        if (!identifiers.group().equalsIgnoreCase("to")) {
+          tables.add(toDatabaseAndTable(database, identifiers.group()));
+        }
+      }
+    }
+    return tables.contains(null) ? new ArrayList<>() : tables;
+  }
+
+  private static DatabaseAndTable toDatabaseAndTable(String database, String identifier) {
+    List<String> parts = new ArrayList<>(2);
+    Matcher matcher = NAME_PART_PATTERN.matcher(identifier);
+    while (matcher.find()) {
+      parts.add(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+    }
+    if (parts.size() == 2) {
+      return new DatabaseAndTable(parts.get(0), parts.get(1));
+    }
+    if (database == null || database.isEmpty()) {
+      return null;
+    }
+    return new DatabaseAndTable(database, parts.get(0));
   }
 }
@@ -30,6 +30,7 @@ import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseSource;
 import com.streamsets.pipeline.api.service.sshtunnel.SshTunnelService;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import com.streamsets.pipeline.lib.jdbc.BasicConnectionString;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
@@ -77,6 +78,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -89,6 +93,13 @@ public abstract class MysqlBinLogSource extends BaseSource {
   private static final String VAR_GTID_MODE = "gtid_mode";
   private static final String VAR_GTID_MODE_ON = "ON";
 
+  // number of batches the binlog client can read ahead of the pipeline
+  static final String PREFETCH_BATCHES = "com.streamsets.pipeline.stage.origin.mysql.binlog.prefetchBatches";
+  static final int PREFETCH_BATCHES_DEFAULT = 2;
+  // threads converting row events to records, 1 converts them on the pipeline thread
+  static final String DECODE_THREADS = "com.streamsets.pipeline.stage.origin.mysql.binlog.decodeThreads";
+  static final int DECODE_THREADS_DEFAULT = 1;
+
   private BinaryLogConsumer consumer;
   private BinaryLogClient client;
   private EventBuffer eventBuffer;
@@ -99,6 +110,7 @@ public abstract class MysqlBinLogSource extends BaseSource {
   private SshTunnelService.HostPort sshTunnel;
   private JdbcUtil jdbcUtil = new JdbcUtil();
   private boolean checkBatchSize = true;
+  private ExecutorService decodeExecutor;
 
   private MysqlBinLogSourceConfig config;
 
@@ -224,6 +236,13 @@ public abstract class MysqlBinLogSource extends BaseSource {
         eventFilter = includeFilter.and(ignoreFilter);
       }
     }
+
+    if (issues.isEmpty()) {
+      int decodeThreads = context.getConfiguration().get(DECODE_THREADS, DECODE_THREADS_DEFAULT);
+      if (decodeThreads > 1) {
+        decodeExecutor = new SafeScheduledExecutorService(decodeThreads, "MySQL Binlog Decoder");
+      }
+    }
     return issues;
   }
 
@@ -255,6 +274,11 @@ public abstract class MysqlBinLogSource extends BaseSource {
 
   @Override
   public void destroy() {
+    if (decodeExecutor != null) {
+      decodeExecutor.shutdownNow();
+      decodeExecutor = null;
+    }
+
     if (client != null && client.isConnected()) {
       try {
         client.disconnect();
@@ -280,7 +304,8 @@ public abstract class MysqlBinLogSource extends BaseSource {
     // connect client & advance it to specific offset
     if (client == null) {
       MysqlSchemaRepository schemaRepository = new MysqlSchemaRepository(dataSource);
-      eventBuffer = new EventBuffer(config.maxBatchSize);
+      int prefetchBatches = Math.max(1, getContext().getConfiguration().get(PREFETCH_BATCHES, PREFETCH_BATCHES_DEFAULT));
+      eventBuffer = new EventBuffer((int) Math.min(Integer.MAX_VALUE, (long) config.maxBatchSize * prefetchBatches));
       client = createBinaryLogClient(config);
       consumer = new BinaryLogConsumer(schemaRepository, eventBuffer, client);
 
@@ -304,6 +329,8 @@ public abstract class MysqlBinLogSource extends BaseSource {
     }
 
     long startTime = System.currentTimeMillis();
+    // row events being converted by the decode threads, in binlog order
+    List<Future<List<Record>>> decoding = new ArrayList<>();
 
     while (recordCounter < batchSize && (startTime + config.maxWaitTime) > System.currentTimeMillis()) {
       long timeLeft = config.maxWaitTime - (System.currentTimeMillis() - startTime);
@@ -321,6 +348,12 @@ public abstract class MysqlBinLogSource extends BaseSource {
 
         // check if event should be filtered out
         if (eventFilter.apply(event) == Filter.Result.PASS) {
+          if (decodeExecutor != null) {
+            // records are added once the whole batch is read, keeping the binlog order
+            decoding.add(decodeExecutor.submit(() -> recordConverter.toRecords(event)));
+            recordCounter += RecordConverter.getRowCount(event);
+            continue;
+          }
           List<Record> records = recordConverter.toRecords(event);
           // If we are in preview mode, make sure we don't send a huge number of messages.
           if (getContext().isPreview() && recordCounter + records.size() > batchSize) {
@@ -337,9 +370,38 @@ public abstract class MysqlBinLogSource extends BaseSource {
         }
       }
     }
+    addDecodedRecords(decoding, batchSize, batchMaker);
     return lastSourceOffset;
   }
 
+  private void addDecodedRecords(
+      List<Future<List<Record>>> decoding,
+      int batchSize,
+      BatchMaker batchMaker
+  ) throws StageException {
+    int recordCounter = 0;
+    for (Future<List<Record>> future : decoding) {
+      List<Record> records;
+      try {
+        records = future.get();
+      } catch (InterruptedException e) {
+        LOG.error(MySQLBinLogErrors.MYSQL_BIN_LOG_001.getMessage(), e.toString(), e);
+        Thread.currentThread().interrupt();
+        throw new StageException(MySQLBinLogErrors.MYSQL_BIN_LOG_001, e.toString(), e);
+      } catch (ExecutionException e) {
+        throw Throwables.propagate(e.getCause());
+      }
+      // If we are in preview mode, make sure we don't send a huge number of messages.
+      if (getContext().isPreview() && recordCounter + records.size() > batchSize) {
+        records = records.subList(0, batchSize - recordCounter);
+      }
+      for (Record record : records) {
+        batchMaker.addRecord(record);
+      }
+      recordCounter += records.size();
+    }
+  }
+
   private void connectClient(BinaryLogClient client, String lastSourceOffset) throws StageException {
     try {
       if (lastSourceOffset == null) {
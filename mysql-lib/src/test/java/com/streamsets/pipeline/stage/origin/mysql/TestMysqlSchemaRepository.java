@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import com.streamsets.pipeline.stage.origin.mysql.schema.DatabaseAndTable;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+public class TestMysqlSchemaRepository {
+  private DataSource dataSource;
+  private MysqlSchemaRepository schemaRepository;
+
+  @Before
+  public void setUp() throws Exception {
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+    dataSource = Mockito.mock(DataSource.class);
+    Mockito.when(dataSource.getConnection()).thenReturn(connection);
+    schemaRepository = new MysqlSchemaRepository(dataSource);
+  }
+
+  private void assertLoads(int loads) throws Exception {
+    Mockito.verify(dataSource, Mockito.times(loads)).getConnection();
+  }
+
+  @Test
+  public void testEvictIgnoresCase() throws Exception {
+    schemaRepository.getTable(new DatabaseAndTable("Sales", "Orders"));
+    schemaRepository.getTable(new DatabaseAndTable("Sales", "Orders"));
+    assertLoads(1);
+
+    // DDL spelled differently than the table map events
+    schemaRepository.evict("sales", "ORDERS");
+    schemaRepository.getTable(new DatabaseAndTable("Sales", "Orders"));
+    assertLoads(2);
+  }
+
+  @Test
+  public void testEvictOnlyMatchingTables() throws Exception {
+    schemaRepository.getTable(new DatabaseAndTable("sales", "orders"));
+    schemaRepository.getTable(new DatabaseAndTable("sales", "customers"));
+    schemaRepository.getTable(new DatabaseAndTable("archive", "orders"));
+    assertLoads(3);
+
+    schemaRepository.evict("sales", "orders");
+    schemaRepository.getTable(new DatabaseAndTable("sales", "customers"));
+    schemaRepository.getTable(new DatabaseAndTable("archive", "orders"));
+    assertLoads(3);
+    schemaRepository.getTable(new DatabaseAndTable("sales", "orders"));
+    assertLoads(4);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql.binlog;
+
+import com.streamsets.pipeline.stage.origin.mysql.schema.DatabaseAndTable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TestBinaryLogConsumer {
+
+  @Test
+  public void testIsSchemaChangeQuery() {
+    assertTrue(BinaryLogConsumer.isSchemaChangeQuery("ALTER TABLE t ADD COLUMN c INT"));
+    assertTrue(BinaryLogConsumer.isSchemaChangeQuery("alter  ignore\ntable t drop c"));
+    assertTrue(BinaryLogConsumer.isSchemaChangeQuery("DROP TABLE IF EXISTS t"));
+    assertTrue(BinaryLogConsumer.isSchemaChangeQuery("CREATE TABLE t (id INT)"));
+    assertTrue(BinaryLogConsumer.isSchemaChangeQuery("RENAME TABLE a TO b"));
+    assertFalse(BinaryLogConsumer.isSchemaChangeQuery("CREATE INDEX i ON t (c)"));
+    assertFalse(BinaryLogConsumer.isSchemaChangeQuery("COMMIT"));
+  }
+
+  @Test
+  public void testGetChangedTables() {
+    assertThat(
+        BinaryLogConsumer.getChangedTables("db", "ALTER TABLE t ADD COLUMN c INT"),
+        is(Collections.singletonList(new DatabaseAndTable("db", "t")))
+    );
+    assertThat(
+        BinaryLogConsumer.getChangedTables("db", "alter ignore table `other`.`my table` add c int"),
+        is(Collections.singletonList(new DatabaseAndTable("other", "my table")))
+    );
+    assertThat(
+        BinaryLogConsumer.getChangedTables("db", "DROP TABLE IF EXISTS a, other.b, `c`"),
+        is(Arrays.asList(
+            new DatabaseAndTable("db", "a"),
+            new DatabaseAndTable("other", "b"),
+            new DatabaseAndTable("db", "c")
+        ))
+    );
+    assertThat(
+        BinaryLogConsumer.getChangedTables("db", "RENAME TABLE a TO b, other.c TO other.d"),
+        is(Arrays.asList(
+            new DatabaseAndTable("db", "a"),
+            new DatabaseAndTable("db", "b"),
+            new DatabaseAndTable("other", "c"),
+            new DatabaseAndTable("other", "d")
+        ))
+    );
+  }
+
+  @Test
+  public void testGetChangedTablesWithoutDatabase() {
+    // unqualified tables without a current database can not be resolved
+    assertTrue(BinaryLogConsumer.getChangedTables(null, "ALTER TABLE t ADD COLUMN c INT").isEmpty());
+    assertThat(
+        BinaryLogConsumer.getChangedTables("", "CREATE TABLE db.t (id INT)"),
+        is(Collections.singletonList(new DatabaseAndTable("db", "t")))
+    );
+  }
+}
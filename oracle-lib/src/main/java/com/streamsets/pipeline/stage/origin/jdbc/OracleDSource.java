@@ -50,6 +50,7 @@ import com.streamsets.pipeline.stage.config.OracleHikariPoolConfigBean;
     "commonSourceConfigBean.txnWindow",
     "hikariConfigBean.connectionString",
     "hikariConfigBean.useCredentials",
+    "streamingRead",
 })
 @ConfigGroups(value = EncryptionGroups.class)
 public class OracleDSource extends JdbcDSource {
@@ -16,6 +16,7 @@
 
 package com.streamsets.pipeline.stage.destination;
 
+import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
 import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.GenerateResourceBundle;
@@ -29,7 +30,7 @@ import com.streamsets.pipeline.stage.config.PostgresHikariPoolConfigBean;
 import com.streamsets.pipeline.stage.destination.jdbc.JdbcDTarget;
 
 @GenerateResourceBundle
-@StageDef(version = 1,
+@StageDef(version = 2,
     label = "PostgreSQL Producer",
     description = "Writes data to PostgreSQL",
     upgraderDef = "upgrader/PostgresDTarget.yaml",
@@ -51,4 +52,22 @@ public class PostgresDTarget extends JdbcDTarget {
     return hikariConfigBean;
   }
 
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Use COPY for Inserts",
+      description = "Select to load batches of INSERT records with COPY in binary format. Batches that also contain " +
+          "other operations or columns without a binary format are written with statements.",
+      displayPosition = 65,
+      group = "JDBC"
+  )
+  public boolean useCopy;
+
+  @Override
+  protected boolean useBulkLoad() {
+    return useCopy;
+  }
+
 }
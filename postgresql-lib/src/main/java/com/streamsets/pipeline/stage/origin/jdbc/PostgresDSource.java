@@ -29,7 +29,7 @@ import com.streamsets.pipeline.lib.jdbc.EncryptionGroups;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.stage.config.PostgresHikariPoolConfigBean;
 
-@StageDef(version = 1,
+@StageDef(version = 2,
     label = "PostgreSQL Query Consumer",
     description = "Reads data from PostgreSQL using a query",
     icon = "com_streamsets_pipeline_stage_origin_jdbc_PostgresDSource.svg",
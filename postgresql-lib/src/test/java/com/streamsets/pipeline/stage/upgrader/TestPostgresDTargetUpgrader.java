@@ -19,7 +19,9 @@ package com.streamsets.pipeline.stage.upgrader;
 import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.upgrader.SelectorStageUpgrader;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.net.URL;
@@ -39,4 +41,16 @@ public class TestPostgresDTargetUpgrader {
     configs = new ArrayList<>();
     context = Mockito.mock(StageUpgrader.Context.class);
   }
+
+  @Test
+  public void testV1ToV2() {
+    Mockito.doReturn(1).when(context).getFromVersion();
+    Mockito.doReturn(2).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("useCopy", configs.get(0).getName());
+    Assert.assertEquals(false, configs.get(0).getValue());
+  }
 }
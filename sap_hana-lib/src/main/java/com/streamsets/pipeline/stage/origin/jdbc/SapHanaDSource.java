@@ -50,7 +50,8 @@ import com.streamsets.pipeline.stage.config.SapHanaHikariPoolConfigBean;
     "hikariConfigBean.driverClassName",
     "hikariConfigBean.connectionTestQuery",
     "txnIdColumnName",
-    "txnMaxSize"
+    "txnMaxSize",
+    "streamingRead"
 })
 @ConfigGroups(value = SapHanaGroups.class)
 public class SapHanaDSource extends JdbcDSource {
@@ -16,6 +16,7 @@
 
 package com.streamsets.pipeline.stage.destination.jdbc;
 
+import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
 import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.GenerateResourceBundle;
@@ -28,7 +29,7 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.stage.config.SQLServerHikariPoolConfigBean;
 
 @GenerateResourceBundle
-@StageDef(version = 1,
+@StageDef(version = 2,
     label = "SQL Server Producer",
     description = "Insert, update, and delete data to SQL Server destination",
     upgraderDef = "upgrader/SQLServerDTarget.yaml",
@@ -51,4 +52,22 @@ public class SQLServerDTarget extends JdbcDTarget {
     return hikariConfigBean;
   }
 
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Use Bulk Copy for Inserts",
+      description = "Select to load batches of INSERT records with the SQL Server bulk copy API. Batches that also " +
+          "contain other operations are written with statements.",
+      displayPosition = 65,
+      group = "JDBC"
+  )
+  public boolean useBulkCopy;
+
+  @Override
+  protected boolean useBulkLoad() {
+    return useBulkCopy;
+  }
+
 }
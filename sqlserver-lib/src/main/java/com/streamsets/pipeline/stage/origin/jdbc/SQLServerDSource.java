@@ -49,6 +49,7 @@ import com.streamsets.pipeline.stage.config.SQLServerHikariPoolConfigBean;
     "commonSourceConfigBean.enableSchemaChanges",
     "commonSourceConfigBean.queriesPerSecond",
     "commonSourceConfigBean.txnWindow",
+    "streamingRead",
 })
 public class SQLServerDSource extends JdbcDSource {
 
@@ -42,4 +42,15 @@ public class TestSQLServerDTargetUpgrader {
     context = Mockito.mock(StageUpgrader.Context.class);
   }
 
+  @Test
+  public void testV1ToV2() {
+    Mockito.doReturn(1).when(context).getFromVersion();
+    Mockito.doReturn(2).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("useBulkCopy", configs.get(0).getName());
+    Assert.assertEquals(false, configs.get(0).getValue());
+  }
 }
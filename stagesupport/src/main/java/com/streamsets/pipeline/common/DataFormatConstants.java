@@ -26,6 +26,9 @@ public class DataFormatConstants {
   public static final String FILE_PATTERN_IN_ARCHIVE = "*";
   public static final int DEFAULT_STRING_BUILDER_POOL_SIZE = 50;
   public static final String MAX_RUNNERS_CONFIG_KEY = "pipeline.max.runners.count";
+  public static final String DECOMPRESSION_READ_AHEAD_BUFFERS_CONFIG_KEY = "parser.decompression.readahead.buffers";
+  public static final int DEFAULT_DECOMPRESSION_READ_AHEAD_BUFFERS = 4;
+  public static final int DECOMPRESSION_READ_AHEAD_BUFFER_SIZE = 64 * 1024;
 
   private DataFormatConstants() {}
 }
@@ -29,6 +29,7 @@ public enum Errors implements ErrorCode {
   CONVERT_09("Failed to generate header attrs"),
   CONVERT_10("Failed to get Directory Path : {}"),
   CONVERT_11("Failed to get avro file stream : {}"),
+  CONVERT_12("Interrupted while converting : {}"),
 
   ;
 
@@ -39,6 +39,20 @@ public class JobConfig {
   @ValueChooserModel(JobTypeChooserValues.class)
   public JobType jobType;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Stream Conversion",
+      description = "Converts the file while the destination reads it, row group by row group, instead of writing" +
+          " a temporary Parquet file first. The size of the new file is unknown and reported as -1. Destinations that" +
+          " need the size upfront, like Amazon S3, stage the file to local disk before uploading it",
+      displayPosition = 15,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "JOB"
+  )
+  public boolean streamConversion = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.STRING,
@@ -48,6 +62,8 @@ public class JobConfig {
       displayPosition = 20,
       displayMode = ConfigDef.DisplayMode.ADVANCED,
       group = "JOB",
+      dependsOn = "streamConversion",
+      triggeredByValue = "false",
       elDefs = {RecordEL.class},
       evaluation = ConfigDef.Evaluation.EXPLICIT
   )
@@ -78,6 +94,20 @@ public class JobConfig {
   )
   public String fileNameSuffix;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Conversion Threads",
+      description = "Number of files of a batch converted in parallel. Each conversion holds a row group in memory",
+      displayPosition = 25,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "JOB",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int conversionThreads = 1;
+
   //Whole File
   @ConfigDef(
       required = true,
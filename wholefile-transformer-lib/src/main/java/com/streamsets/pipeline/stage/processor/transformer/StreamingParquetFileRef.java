@@ -0,0 +1,215 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.transformer;
+
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.hashing.HashingUtil;
+import com.streamsets.pipeline.lib.io.fileref.AbstractFileRef;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * File Ref of a Parquet file that is converted while it is read, without staging it on local disk.
+ *
+ * Opening the stream starts the conversion on a separate thread. The Parquet writer hands every finished row group to
+ * a pipe the reader consumes, so memory is bounded by one row group plus the pipe buffer. A failed conversion fails the
+ * read instead of ending the file early.
+ */
+public class StreamingParquetFileRef extends AbstractFileRef {
+  private final String fileName;
+  private final Source source;
+  private final Conversion conversion;
+  private final ExecutorService executorService;
+
+  /**
+   * Opens the source Avro file, called on the thread that opens the Parquet stream.
+   */
+  @FunctionalInterface
+  public interface Source {
+    InputStream open() throws IOException;
+  }
+
+  /**
+   * Converts the Avro file to Parquet, called on the conversion thread.
+   */
+  @FunctionalInterface
+  public interface Conversion {
+    void convert(InputStream avro, OutputStream parquet) throws IOException;
+  }
+
+  public StreamingParquetFileRef(
+      String fileName,
+      Source source,
+      Conversion conversion,
+      ExecutorService executorService,
+      int bufferSize,
+      boolean createMetrics,
+      long totalSizeInBytes,
+      double rateLimit,
+      boolean verifyChecksum,
+      String checksum,
+      HashingUtil.HashType checksumAlgorithm
+  ) {
+    super(
+        ImmutableSet.<Class<? extends AutoCloseable>>of(InputStream.class),
+        bufferSize,
+        createMetrics,
+        totalSizeInBytes,
+        rateLimit,
+        verifyChecksum,
+        checksum,
+        checksumAlgorithm
+    );
+    this.fileName = fileName;
+    this.source = source;
+    this.conversion = conversion;
+    this.executorService = executorService;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends AutoCloseable> T createInputStream(Class<T> streamClassType) throws IOException {
+    PipedInputStream pipeIn = new PipedInputStream(getBufferSize());
+    PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+    InputStream avro = source.open();
+    Future<?> future;
+    try {
+      future = executorService.submit(() -> {
+        try (InputStream in = avro; OutputStream out = pipeOut) {
+          conversion.convert(in, out);
+        }
+        return null;
+      });
+    } catch (RuntimeException e) {
+      avro.close();
+      throw e;
+    }
+    return (T) new ConversionInputStream(pipeIn, future);
+  }
+
+  @Override
+  public String toString() {
+    return "Whole File Transformer: Parquet, " + fileName;
+  }
+
+  /**
+   * Reads the pipe and surfaces the failure of the conversion once the pipe is drained.
+   */
+  private static class ConversionInputStream extends FilterInputStream {
+    private final Future<?> future;
+
+    ConversionInputStream(PipedInputStream in, Future<?> future) {
+      super(in);
+      this.future = future;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read == -1) {
+        checkConversion();
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read == -1) {
+        checkConversion();
+      }
+      return read;
+    }
+
+    private void checkConversion() throws IOException {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the conversion to finish");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+      } catch (CancellationException e) {
+        throw new IOException("Conversion was cancelled", e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Closing the read end fails the writes of an unfinished conversion, the interrupt unblocks a waiting writer
+      super.close();
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Builder for building {@link StreamingParquetFileRef}
+   */
+  public static final class Builder extends AbstractFileRef.Builder<StreamingParquetFileRef, Builder> {
+    private String fileName;
+    private Source source;
+    private Conversion conversion;
+    private ExecutorService executorService;
+
+    public Builder fileName(String fileName) {
+      this.fileName = fileName;
+      return this;
+    }
+
+    public Builder source(Source source) {
+      this.source = source;
+      return this;
+    }
+
+    public Builder conversion(Conversion conversion) {
+      this.conversion = conversion;
+      return this;
+    }
+
+    public Builder executorService(ExecutorService executorService) {
+      this.executorService = executorService;
+      return this;
+    }
+
+    @Override
+    public StreamingParquetFileRef build() {
+      return new StreamingParquetFileRef(
+          fileName,
+          source,
+          conversion,
+          executorService,
+          bufferSize,
+          createMetrics,
+          totalSizeInBytes,
+          rateLimit,
+          verifyChecksum,
+          checksum,
+          checksumAlgorithm
+      );
+    }
+  }
+}
@@ -24,7 +24,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Whole File Transformer",
     description = "Transforms whole file data to a different data format",
     execution = {ExecutionMode.STANDALONE,},
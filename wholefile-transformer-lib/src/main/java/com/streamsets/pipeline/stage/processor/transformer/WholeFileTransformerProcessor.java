@@ -16,6 +16,10 @@
 package com.streamsets.pipeline.stage.processor.transformer;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.FileRef;
 import com.streamsets.pipeline.api.Processor;
@@ -28,6 +32,8 @@ import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.lib.converter.AvroParquetConstants;
 import com.streamsets.pipeline.lib.el.RecordEL;
+import com.streamsets.pipeline.lib.generator.columnar.OutputStreamFileSystem;
+import com.streamsets.pipeline.lib.io.fileref.AbstractFileRef;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
 import com.streamsets.pipeline.lib.util.AvroToParquetConverterUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -46,12 +52,19 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(WholeFileTransformerProcessor.class);
@@ -61,11 +74,12 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
   private ErrorRecordHandler errorRecordHandler;
   private Processor.Context context;
 
-  private ParquetWriter parquetWriter;
   private ELEval compressionElEval;
   private ELEval rateLimitElEval;
   private ELEval tempDirElEval;
   private ELVars variables;
+  private ExecutorService conversionExecutor;
+  private ExecutorService streamingExecutor;
 
 
   public WholeFileTransformerProcessor(JobConfig jobConfig) {
@@ -76,7 +90,7 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
 
-    if (Strings.isNullOrEmpty(jobConfig.tempDir)) {
+    if (!jobConfig.streamConversion && Strings.isNullOrEmpty(jobConfig.tempDir)) {
       issues.add(getContext().createConfigIssue(
           Groups.JOB.name(),
           JobConfig.TEMPDIR,
@@ -93,12 +107,69 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
 
     variables = context.createELVars();
 
+    conversionExecutor = Executors.newFixedThreadPool(
+        Math.max(1, jobConfig.conversionThreads),
+        new ThreadFactoryBuilder().setNameFormat("Whole File Transformer Conversion Thread-%d").setDaemon(true).build()
+    );
+    streamingExecutor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("Whole File Transformer Streaming Thread-%d").setDaemon(true).build()
+    );
+
     return issues;
   }
 
+  @Override
+  public void destroy() {
+    if (conversionExecutor != null) {
+      conversionExecutor.shutdownNow();
+    }
+    if (streamingExecutor != null) {
+      streamingExecutor.shutdownNow();
+    }
+    super.destroy();
+  }
+
+  /**
+   * Conversions are prepared in record order on the pipeline thread, run in parallel on the conversion threads and
+   * their records are added to the batch in record order.
+   */
+  @Override
+  public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
+    Iterator<Record> it = batch.getRecords();
+    if (!it.hasNext()) {
+      emptyBatch(batchMaker);
+      return;
+    }
+
+    List<Record> records = new ArrayList<>();
+    List<Future<Field>> conversions = new ArrayList<>();
+    try {
+      while (it.hasNext()) {
+        Record record = it.next();
+        records.add(record);
+        conversions.add(startConversion(record));
+      }
+      for (int i = 0; i < records.size(); i++) {
+        finishConversion(records.get(i), conversions.get(i), batchMaker);
+      }
+    } finally {
+      // Only left running when the batch fails
+      for (Future<Field> conversion : conversions) {
+        conversion.cancel(true);
+      }
+    }
+  }
+
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
-    Path tempParquetFile = null;
+    finishConversion(record, startConversion(record), batchMaker);
+  }
+
+  /**
+   * Validate the record and submit its conversion, the returned future holds the new whole file root field
+   * @param record the {@link com.streamsets.pipeline.api.Record} whole file record
+   */
+  private Future<Field> startConversion(Record record) throws StageException {
     try {
       validateRecord(record);
 
@@ -108,43 +179,188 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
       }
 
       String sourceFileName = sourceFileMetaData.get(FILENAME).getValueAsString();
-      tempParquetFile = getAndValidateTempFilePath(record, sourceFileName);
-
-      InputStream is = getAvroInputStream(record);
-
-      DataFileStream<GenericRecord> fileReader = getFileReader(is, sourceFileName);
+      RecordEL.setRecordInContext(variables, record);
+      double rateLimit = FileRefUtil.evaluateAndGetRateLimit(rateLimitElEval, variables, jobConfig.rateLimit);
+      FileRef sourceFileRef = record.get(FileRefUtil.FILE_REF_FIELD_PATH).getValueAsFileRef();
 
-      writeParquet(sourceFileName, fileReader, tempParquetFile);
+      if (jobConfig.streamConversion) {
+        if (Strings.isNullOrEmpty(sourceFileName)) {
+          throw new TransformerStageCheckedException(Errors.CONVERT_03, FILENAME);
+        }
+        String fileName = jobConfig.uniquePrefix + sourceFileName + jobConfig.fileNameSuffix;
+        Configuration jobConfiguration = createJobConfiguration(OutputStreamFileSystem.createConfiguration());
+        InputStream is = getAvroInputStream(sourceFileRef);
+        return conversionExecutor.submit(
+            () -> prepareStreamingConversion(is, sourceFileRef, sourceFileName, fileName, jobConfiguration, rateLimit)
+        );
+      }
 
-      Map<String, Object> metadata = generateHeaderAttrs(tempParquetFile);
+      Path tempParquetFile = getAndValidateTempFilePath(record, sourceFileName);
+      Configuration jobConfiguration = createJobConfiguration(new Configuration());
+      InputStream is = getAvroInputStream(sourceFileRef);
+      return conversionExecutor.submit(
+          () -> convertToTempFile(is, sourceFileName, tempParquetFile, jobConfiguration, rateLimit)
+      );
+    } catch (TransformerStageCheckedException ex) {
+      return Futures.immediateFailedFuture(ex);
+    }
+  }
 
-      // build parquet OutputStream
-      FileRef newFileRef = new WholeFileTransformerFileRef.Builder().filePath(tempParquetFile.toString()).bufferSize(
-          jobConfig.wholeFileMaxObjectLen).rateLimit(FileRefUtil.evaluateAndGetRateLimit(rateLimitElEval,
-          variables,
-          jobConfig.rateLimit
-      )).createMetrics(true).build();
+  /**
+   * Wait for the conversion and add the record with the new file ref to the batch
+   * @param record the {@link com.streamsets.pipeline.api.Record} whole file record
+   * @param conversion the conversion of the record
+   */
+  private void finishConversion(
+      Record record,
+      Future<Field> conversion,
+      SingleLaneBatchMaker batchMaker
+  ) throws StageException {
+    try {
+      Field wholeFileRecordRootField = getConversionResult(conversion);
 
       // move the file info field to source file info field
       Field fileInfo = record.get(FileRefUtil.FILE_INFO_FIELD_PATH);
 
-      record.set(FileRefUtil.getWholeFileRecordRootField(newFileRef, metadata));
+      record.set(wholeFileRecordRootField);
       record.set(FileRefUtil.WHOLE_FILE_SOURCE_FILE_INFO_PATH, fileInfo);
 
       batchMaker.addRecord(record);
     } catch (TransformerStageCheckedException ex) {
-      if (tempParquetFile != null) {
-        try {
-          handleOldTempFiles(tempParquetFile);
-        } catch (IOException ex1) {
-          LOG.error("failed to delete temporary parquet file : {}", tempParquetFile.toString(), ex1);
-        }
-      }
       LOG.error(ex.getMessage(), ex.getParams(), ex);
       errorRecordHandler.onError(new OnRecordErrorException(record, ex.getErrorCode(), ex.getParams()));
     }
   }
 
+  private static Field getConversionResult(Future<Field> conversion) throws StageException {
+    try {
+      return conversion.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TransformerStageCheckedException(Errors.CONVERT_12, ex.toString(), ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      Throwables.propagateIfPossible(cause, StageException.class);
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Convert the Avro file to the temporary parquet file, the file is deleted if the conversion fails
+   * @param is the {@link java.io.InputStream} input stream of the source Avro file
+   * @param sourceFileName the source Avro file name
+   * @param tempParquetFile the {@link java.nio.file.Path} temporary parquet file path
+   * @param jobConfiguration the {@link org.apache.hadoop.conf.Configuration} of the parquet writer
+   * @param rateLimit the rate limit of the new file ref
+   */
+  private Field convertToTempFile(
+      InputStream is,
+      String sourceFileName,
+      Path tempParquetFile,
+      Configuration jobConfiguration,
+      double rateLimit
+  ) throws StageException {
+    try {
+      try (InputStream avroInputStream = is) {
+        DataFileStream<GenericRecord> fileReader = getFileReader(avroInputStream, sourceFileName);
+        writeParquet(
+            sourceFileName,
+            fileReader,
+            new org.apache.hadoop.fs.Path(tempParquetFile.toString()),
+            jobConfiguration
+        );
+      } catch (IOException ex) {
+        throw new TransformerStageCheckedException(Errors.CONVERT_11, sourceFileName, ex);
+      }
+
+      Map<String, Object> metadata = generateHeaderAttrs(tempParquetFile);
+
+      // build parquet OutputStream
+      FileRef newFileRef = new WholeFileTransformerFileRef.Builder().filePath(tempParquetFile.toString()).bufferSize(
+          jobConfig.wholeFileMaxObjectLen).rateLimit(rateLimit).createMetrics(true).build();
+
+      return FileRefUtil.getWholeFileRecordRootField(newFileRef, metadata);
+    } catch (TransformerStageCheckedException ex) {
+      try {
+        handleOldTempFiles(tempParquetFile);
+      } catch (IOException ex1) {
+        LOG.error("failed to delete temporary parquet file : {}", tempParquetFile.toString(), ex1);
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Validate the header of the Avro file and return the file ref that converts it while it is read
+   * @param is the {@link java.io.InputStream} input stream of the source Avro file
+   * @param sourceFileRef the {@link com.streamsets.pipeline.api.FileRef} of the source Avro file
+   * @param sourceFileName the source Avro file name
+   * @param fileName the parquet file name
+   * @param jobConfiguration the {@link org.apache.hadoop.conf.Configuration} of the parquet writer
+   * @param rateLimit the rate limit of the new file ref
+   */
+  private Field prepareStreamingConversion(
+      InputStream is,
+      FileRef sourceFileRef,
+      String sourceFileName,
+      String fileName,
+      Configuration jobConfiguration,
+      double rateLimit
+  ) throws StageException {
+    try (InputStream avroInputStream = is) {
+      getFileReader(avroInputStream, sourceFileName);
+    } catch (IOException ex) {
+      throw new TransformerStageCheckedException(Errors.CONVERT_11, sourceFileName, ex);
+    }
+
+    FileRef newFileRef = new StreamingParquetFileRef.Builder()
+        .fileName(fileName)
+        .source(() -> openAvroInputStream(sourceFileRef))
+        .conversion((avroInputStream, parquetOutputStream) -> streamParquet(
+            sourceFileName,
+            avroInputStream,
+            parquetOutputStream,
+            jobConfiguration
+        ))
+        .executorService(streamingExecutor)
+        .bufferSize(jobConfig.wholeFileMaxObjectLen)
+        .rateLimit(rateLimit)
+        .createMetrics(true)
+        .totalSizeInBytes(AbstractFileRef.UNKNOWN_SIZE)
+        .build();
+
+    // The size is only known once the file has been read
+    Map<String, Object> metadata = new HashMap<>();
+    metadata.put(HeaderAttributeConstants.FILE_NAME, fileName);
+    metadata.put(HeaderAttributeConstants.SIZE, AbstractFileRef.UNKNOWN_SIZE);
+
+    return FileRefUtil.getWholeFileRecordRootField(newFileRef, metadata);
+  }
+
+  /**
+   * Convert the Avro stream to parquet written to the given stream, row group by row group
+   * @param sourceFileName the source Avro file name
+   * @param avroInputStream the {@link java.io.InputStream} input stream of the source Avro file
+   * @param parquetOutputStream the {@link java.io.OutputStream} the parquet file is written to
+   * @param jobConfiguration the {@link org.apache.hadoop.conf.Configuration} of the parquet writer
+   */
+  private void streamParquet(
+      String sourceFileName,
+      InputStream avroInputStream,
+      OutputStream parquetOutputStream,
+      Configuration jobConfiguration
+  ) throws IOException {
+    org.apache.hadoop.fs.Path path = OutputStreamFileSystem.register(parquetOutputStream);
+    try {
+      DataFileStream<GenericRecord> fileReader = new DataFileStream<>(avroInputStream, new GenericDatumReader<>());
+      writeParquet(sourceFileName, fileReader, path, new Configuration(jobConfiguration));
+    } catch (StageException ex) {
+      throw new IOException(ex.getMessage(), ex);
+    } finally {
+      OutputStreamFileSystem.unregister(path);
+    }
+  }
+
   /**
    * Generate the Header attributes
    * @param file the {@link java.nio.file.Path} temporary parquet file path
@@ -236,30 +452,30 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
 
   /**
    * Return the Avro file input stream
-   * @param record the {@link com.streamsets.pipeline.api.Record} whole file record
+   * @param fileRef the {@link com.streamsets.pipeline.api.FileRef} of the source Avro file
    */
-  private InputStream getAvroInputStream(Record record) throws StageException {
+  private InputStream getAvroInputStream(FileRef fileRef) throws StageException {
     try {
-      FileRef fileRef = record.get(FileRefUtil.FILE_REF_FIELD_PATH).getValueAsFileRef();
-
-      // get avro reader
-      final boolean includeChecksumInTheEvents = false;
-
-      InputStream is = FileRefUtil.getReadableStream(
-          getContext(),
-          fileRef,
-          InputStream.class,
-          includeChecksumInTheEvents,
-          null,
-          null
-      );
-
-      return is;
+      return openAvroInputStream(fileRef);
     } catch (IOException ex) {
       throw new TransformerStageCheckedException(Errors.CONVERT_07, ex.toString(), ex);
     }
   }
 
+  private InputStream openAvroInputStream(FileRef fileRef) throws IOException {
+    // get avro reader
+    final boolean includeChecksumInTheEvents = false;
+
+    return FileRefUtil.getReadableStream(
+        getContext(),
+        fileRef,
+        InputStream.class,
+        includeChecksumInTheEvents,
+        null,
+        null
+    );
+  }
+
   /**
    * Return the Avro file reader
    * @param is the {@link java.io.InputStream} input stream of the source Avro file
@@ -275,35 +491,46 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  /**
+   * Return the configuration of the parquet writer
+   * @param jobConfiguration the {@link org.apache.hadoop.conf.Configuration} the parquet settings are added to
+   */
+  private Configuration createJobConfiguration(Configuration jobConfiguration) throws StageException {
+    String compressionCodecName = compressionElEval.eval(variables, jobConfig.avroParquetConfig.compressionCodec, String.class);
+    jobConfiguration.set(AvroParquetConstants.COMPRESSION_CODEC_NAME, compressionCodecName);
+    jobConfiguration.setInt(AvroParquetConstants.ROW_GROUP_SIZE, jobConfig.avroParquetConfig.rowGroupSize);
+    jobConfiguration.setInt(AvroParquetConstants.PAGE_SIZE, jobConfig.avroParquetConfig.pageSize);
+    jobConfiguration.setInt(AvroParquetConstants.DICTIONARY_PAGE_SIZE, jobConfig.avroParquetConfig.dictionaryPageSize);
+    jobConfiguration.setInt(AvroParquetConstants.MAX_PADDING_SIZE, jobConfig.avroParquetConfig.maxPaddingSize);
+    return jobConfiguration;
+  }
+
   /**
    * Convert Avro record to Parquet
    * @param sourceFileName the source Avro file name
    * @param fileReader the {@link org.apache.avro.file.DataFileStream} Avro file reader
-   * @param tempParquetFile the {@link java.nio.file.Path} temporary parquet file path
+   * @param parquetFile the {@link org.apache.hadoop.fs.Path} parquet file path
+   * @param jobConfiguration the {@link org.apache.hadoop.conf.Configuration} of the parquet writer
    */
-  private void writeParquet(String sourceFileName, DataFileStream<GenericRecord> fileReader, Path tempParquetFile) throws StageException {
+  private void writeParquet(
+      String sourceFileName,
+      DataFileStream<GenericRecord> fileReader,
+      org.apache.hadoop.fs.Path parquetFile,
+      Configuration jobConfiguration
+  ) throws StageException {
     long recordCount = 0;
     GenericRecord avroRecord;
     Schema schema = fileReader.getSchema();
 
     LOG.debug("Start reading input file : {}", sourceFileName);
     try {
-      // initialize parquet writer
-      Configuration jobConfiguration = new Configuration();
-      String compressionCodecName = compressionElEval.eval(variables, jobConfig.avroParquetConfig.compressionCodec, String.class);
-      jobConfiguration.set(AvroParquetConstants.COMPRESSION_CODEC_NAME, compressionCodecName);
-      jobConfiguration.setInt(AvroParquetConstants.ROW_GROUP_SIZE, jobConfig.avroParquetConfig.rowGroupSize);
-      jobConfiguration.setInt(AvroParquetConstants.PAGE_SIZE, jobConfig.avroParquetConfig.pageSize);
-      jobConfiguration.setInt(AvroParquetConstants.DICTIONARY_PAGE_SIZE, jobConfig.avroParquetConfig.dictionaryPageSize);
-      jobConfiguration.setInt(AvroParquetConstants.MAX_PADDING_SIZE, jobConfig.avroParquetConfig.maxPaddingSize);
-
       // Parquet writer
       ParquetWriter.Builder builder = AvroToParquetConverterUtil.initializeWriter(
-          new org.apache.hadoop.fs.Path(tempParquetFile.toString()),
+          parquetFile,
           schema,
           jobConfiguration
       );
-      parquetWriter = builder.build();
+      ParquetWriter parquetWriter = builder.build();
 
       while (fileReader.hasNext()) {
         avroRecord = fileReader.next();
@@ -320,7 +547,7 @@ public class WholeFileTransformerProcessor extends SingleLaneRecordProcessor {
           ex
       );
     }
-    LOG.debug("Finished writing {} records to {}", recordCount, tempParquetFile.getFileName());
+    LOG.debug("Finished writing {} records to {}", recordCount, parquetFile.getName());
   }
 
   private static <T> T resolveEL(ELEval elEval, ELVars elVars, String configValue, Class<T> returnType) throws
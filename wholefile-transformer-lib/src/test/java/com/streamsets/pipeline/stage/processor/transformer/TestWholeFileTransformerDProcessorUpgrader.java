@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.transformer;
+
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.upgrader.YamlStageUpgrader;
+import com.streamsets.pipeline.upgrader.YamlStageUpgraderLoader;
+import com.streamsets.testing.pipeline.stage.TestUpgraderContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestWholeFileTransformerDProcessorUpgrader {
+
+  private static final String YAML_UPGRADER_PATH = "upgrader/WholeFileTransformerDProcessor.yaml";
+  private YamlStageUpgrader yamlUpgrader;
+
+  @Before
+  public void setUp() {
+    URL yamlResource = ClassLoader.getSystemClassLoader().getResource(YAML_UPGRADER_PATH);
+    YamlStageUpgraderLoader loader = new YamlStageUpgraderLoader("stage", yamlResource);
+    yamlUpgrader = loader.get();
+  }
+
+  @Test
+  public void testV1ToV2Upgrade() {
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config("jobConfig.tempDir", "/tmp/out/.parquet"));
+
+    configs = yamlUpgrader.upgrade(configs, new TestUpgraderContext("lib", "stage", "instance", 1, 2));
+
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals(false, find(configs, "jobConfig.streamConversion").getValue());
+    Assert.assertEquals(1, find(configs, "jobConfig.conversionThreads").getValue());
+  }
+
+  private static Config find(List<Config> configs, String name) {
+    return configs.stream().filter(config -> config.getName().equals(name)).findFirst().orElse(null);
+  }
+}
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.processor.transformer;
 
 import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.FileRef;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
@@ -28,18 +29,27 @@ import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.StageRunner;
 
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.hadoop.ParquetReader;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class TestWholeFileTransformerProcessor {
   static File notValidAvroFile;
@@ -279,6 +289,134 @@ public class TestWholeFileTransformerProcessor {
     }
   }
 
+  @Test
+  public void testStreamConversion() throws Exception {
+    Processor wholeFileTransofrmer  = new TestWholeFileTransformerProcessorBuilder()
+        .tempDir("")
+        .streamConversion(true)
+        .build();
+
+    ProcessorRunner runner = new ProcessorRunner.Builder(WholeFileTransformerDProcessor.class, wholeFileTransofrmer)
+        .addOutputLane("a")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+
+    Record record = createRecord(validAvroFile);
+    File parquetFile = new File(rootPath, "streamed-" + UUID.randomUUID().toString() + ".parquet");
+
+    try {
+      runner.runInit();
+      StageRunner.Output output = runner.runProcess(Arrays.asList(record));
+      List<Record> outputRecords = output.getRecords().get("a");
+      Assert.assertEquals(1, outputRecords.size());
+      Assert.assertEquals(-1, outputRecords.get(0).get(FileRefUtil.FILE_INFO_FIELD_PATH + "/size").getValueAsLong());
+      Assert.assertTrue(outputRecords.get(0).get(FileRefUtil.WHOLE_FILE_SOURCE_FILE_INFO_PATH) != null);
+
+      FileRef fileRef = outputRecords.get(0).get(FileRefUtil.FILE_REF_FIELD_PATH).getValueAsFileRef();
+      try (InputStream is = fileRef.createInputStream(runner.getContext(), InputStream.class)) {
+        Files.copy(is, parquetFile.toPath());
+      }
+
+      Assert.assertEquals(countAvroRecords(validAvroFile), countParquetRecords(parquetFile));
+    } finally {
+      runner.runDestroy();
+      Files.deleteIfExists(parquetFile.toPath());
+    }
+  }
+
+  @Test
+  public void testStreamConversionWrongInputFile() throws Exception {
+    Processor wholeFileTransofrmer  = new TestWholeFileTransformerProcessorBuilder()
+        .streamConversion(true)
+        .build();
+
+    ProcessorRunner runner = new ProcessorRunner.Builder(WholeFileTransformerDProcessor.class, wholeFileTransofrmer)
+        .addOutputLane("a")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+
+    Record record = createRecord(notValidAvroFile);
+
+    try {
+      runner.runInit();
+      StageRunner.Output output = runner.runProcess(Arrays.asList(record));
+      Assert.assertEquals(0, output.getRecords().get("a").size());
+
+      List<Record> errorRecords = runner.getErrorRecords();
+      Assert.assertEquals(1, errorRecords.size());
+      Assert.assertEquals(Errors.CONVERT_11.getCode(), errorRecords.get(0).getHeader().getErrorCode());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testParallelConversion() throws Exception {
+    Processor wholeFileTransofrmer  = new TestWholeFileTransformerProcessorBuilder()
+        .tempDir(rootPath + "/.parquet")
+        .conversionThreads(4)
+        .build();
+
+    ProcessorRunner runner = new ProcessorRunner.Builder(WholeFileTransformerDProcessor.class, wholeFileTransofrmer)
+        .addOutputLane("a")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Record record = createRecord(i == 3 ? notValidAvroFile : validAvroFile);
+      record.set(FileRefUtil.FILE_INFO_FIELD_PATH + "/filename", Field.create("file-" + i));
+      records.add(record);
+    }
+
+    try {
+      runner.runInit();
+      StageRunner.Output output = runner.runProcess(records);
+      List<Record> outputRecords = output.getRecords().get("a");
+      Assert.assertEquals(5, outputRecords.size());
+      int[] expectedFiles = {0, 1, 2, 4, 5};
+      for (int i = 0; i < expectedFiles.length; i++) {
+        Assert.assertEquals(
+            "file-" + expectedFiles[i],
+            outputRecords.get(i).get(FileRefUtil.WHOLE_FILE_SOURCE_FILE_INFO_PATH + "/filename").getValueAsString()
+        );
+        Path parquetFile = Paths.get(
+            outputRecords.get(i).get(FileRefUtil.FILE_INFO_FIELD_PATH + "/file").getValueAsString()
+        );
+        Assert.assertEquals(countAvroRecords(validAvroFile), countParquetRecords(parquetFile.toFile()));
+      }
+
+      List<Record> errorRecords = runner.getErrorRecords();
+      Assert.assertEquals(1, errorRecords.size());
+      Assert.assertEquals(Errors.CONVERT_11.getCode(), errorRecords.get(0).getHeader().getErrorCode());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private static long countAvroRecords(File file) throws Exception {
+    long count = 0;
+    try (DataFileStream<GenericRecord> reader =
+        new DataFileStream<>(new FileInputStream(file), new GenericDatumReader<>())) {
+      while (reader.hasNext()) {
+        reader.next();
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static long countParquetRecords(File file) throws Exception {
+    long count = 0;
+    try (ParquetReader<GenericRecord> reader =
+        AvroParquetReader.<GenericRecord>builder(new org.apache.hadoop.fs.Path(file.getAbsolutePath())).build()) {
+      while (reader.read() != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   private static Map<String, Object> getLocalFileMetadata(String filePath) throws Exception {
     String attributesToRead =
         Paths.get(filePath).getFileSystem().supportedFileAttributeViews().contains("posix")? "posix:*" : "*";
@@ -29,6 +29,8 @@ public class TestWholeFileTransformerProcessorBuilder {
 
     jobConfig.wholeFileMaxObjectLen = 8 * 1024;
     jobConfig.rateLimit = "-1";
+    jobConfig.streamConversion = false;
+    jobConfig.conversionThreads = 1;
   }
 
   public TestWholeFileTransformerProcessorBuilder jobType(JobType jobType){
@@ -41,6 +43,16 @@ public class TestWholeFileTransformerProcessorBuilder {
     return this;
   }
 
+  public TestWholeFileTransformerProcessorBuilder streamConversion(boolean streamConversion) {
+    jobConfig.streamConversion = streamConversion;
+    return this;
+  }
+
+  public TestWholeFileTransformerProcessorBuilder conversionThreads(int conversionThreads) {
+    jobConfig.conversionThreads = conversionThreads;
+    return this;
+  }
+
   public TestWholeFileTransformerProcessorBuilder uniquePrefix(String uniquePrefix) {
     jobConfig.uniquePrefix = uniquePrefix;
     return this;